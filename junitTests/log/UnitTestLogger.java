@@ -0,0 +1,443 @@
+package log;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of asynchronous logging, caller attribution, log rotation, log levels and the binary log format through Logger and LogReader
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class UnitTestLogger {
+
+	private static final int THREADS = 4;
+	private static final int MESSAGES_PER_THREAD = 500;
+	private static final int FORMAT_MESSAGES = 100;
+
+	private static Logger logger;
+
+	@BeforeAll
+	static void beforeAll() {
+		logger = Logger.initialise();
+	}
+
+	@AfterEach
+	void afterEach() {
+		Logger.closeLogger();
+	}
+
+	@Test
+	void test_asyncBlockWritesEveryMessage() throws Exception {
+		Logger.initialiseAsync(4, LogOverflowPolicy.BLOCK);
+		assertTrue(logger.isAsync());
+		long droppedBefore = logger.getDroppedMessages();
+		String marker = "test_asyncBlockWritesEveryMessage";
+		logFromThreads(marker);
+		Logger.closeLogger();
+		assertFalse(logger.isAsync());
+		assertEquals(THREADS * MESSAGES_PER_THREAD, countLines(marker));
+		assertEquals(droppedBefore, logger.getDroppedMessages());
+	}
+
+	@Test
+	void test_asyncDropCountsEveryMessage() throws Exception {
+		Logger.initialiseAsync(1, LogOverflowPolicy.DROP);
+		long droppedBefore = logger.getDroppedMessages();
+		String marker = "test_asyncDropCountsEveryMessage";
+		logFromThreads(marker);
+		Logger.closeLogger();
+		// every message is either written or counted as dropped
+		assertEquals(THREADS * MESSAGES_PER_THREAD, countLines(marker) + logger.getDroppedMessages() - droppedBefore);
+	}
+
+	@Test
+	void test_loggingContinuesAfterClose() throws Exception {
+		Logger.initialiseAsync();
+		Logger.logThis("test_loggingContinuesAfterClose", "async");
+		Logger.closeLogger();
+		Logger.logThis("test_loggingContinuesAfterClose", "sync");
+		// written synchronously, so already in the file
+		assertEquals(2, countLines("test_loggingContinuesAfterClose"));
+	}
+
+	@Test
+	void test_callerAttribution() throws Exception {
+		String marker = "test_callerAttribution";
+		for (int i = 0; i < 2; i++) {
+			Logger.logThis(marker, "on");
+		}
+		Logger.setCallerAttribution(false);
+		try {
+			Logger.logThis(marker, "off");
+		} finally {
+			Logger.setCallerAttribution(true);
+		}
+		List<String> lines = findLines(marker);
+		assertEquals(3, lines.size());
+		// the same call site, described from the cache the second time
+		assertTrue(lines.get(0).startsWith("log.UnitTestLogger.test_callerAttribution(UnitTestLogger.java:"));
+		assertEquals(lines.get(0).split(",")[0], lines.get(1).split(",")[0]);
+		assertTrue(lines.get(2).startsWith(","));
+	}
+
+	@Test
+	void test_callerAttributionOverloads() throws Exception {
+		String marker = "test_callerAttributionOverloads";
+		logFromOverload("");
+		logFromOverload(0);
+		List<String> lines = findLines(marker);
+		assertEquals(2, lines.size());
+		// both overloads log from the same bytecode index, on different lines
+		assertNotEquals(lines.get(0).split(",")[0], lines.get(1).split(",")[0]);
+	}
+
+	private static void logFromOverload(String overload) {
+		Logger.logThis("test_callerAttributionOverloads", "String");
+	}
+
+	private static void logFromOverload(int overload) {
+		Logger.logThis("test_callerAttributionOverloads", "int");
+	}
+
+	@Test
+	void test_rollBySizeAndRetain() throws Exception {
+		Path directory = Files.createTempDirectory("UnitTestLogger");
+		String logfilePath = logger.getLogfilePath();
+		String logfilePrefix = logger.getLogfilePrefix();
+		try {
+			logger.setLogfilePath(directory.toString());
+			logger.setLogfilePrefix("RollBySize");
+			logger.setRotationPolicy(LogRotationPolicy.bySize(2_000, 0));
+			for (int i = 0; i < 200; i++) {
+				Logger.logThis("test_rollBySizeAndRetain", "sync", "message: " + i);
+			}
+			// closing waits for rolled files to be compressed
+			Logger.closeLogger();
+			assertTrue(listFiles(directory, ".csv.gz").size() >= 5);
+			// the file started by setLogfilePath, and the one being written
+			assertEquals(2, listFiles(directory, ".csv").size());
+			assertEquals(200, countLines(directory, "test_rollBySizeAndRetain"));
+
+			logger.setRotationPolicy(LogRotationPolicy.bySize(2_000, 3));
+			Logger.initialiseAsync(16, LogOverflowPolicy.BLOCK);
+			for (int i = 0; i < 200; i++) {
+				Logger.logThis("test_rollBySizeAndRetain", "async", "message: " + i);
+			}
+			Logger.closeLogger();
+			List<Path> rolled = listFiles(directory, ".csv.gz");
+			assertEquals(3, rolled.size());
+			for (Path file : rolled) {
+				assertEquals("LoggedFrom,DateTimeStamp,Level,LogType,Messages", readLines(file).get(0));
+				assertTrue(Files.size(file) < 2_000);
+			}
+		} finally {
+			logger.setRotationPolicy(LogRotationPolicy.NONE);
+			logger.setLogfile(new File(logfilePath, logfilePrefix).getPath());
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test
+	void test_rollByTime() throws Exception {
+		Path directory = Files.createTempDirectory("UnitTestLogger");
+		String logfilePath = logger.getLogfilePath();
+		String logfilePrefix = logger.getLogfilePrefix();
+		try {
+			logger.setLogfilePath(directory.toString());
+			logger.setRotationPolicy(LogRotationPolicy.byTime(Duration.ofSeconds(1), 0));
+			Logger.logThis("test_rollByTime", "before");
+			assertEquals(0, listFiles(directory, ".csv.gz").size());
+			Thread.sleep(1_500);
+			Logger.logThis("test_rollByTime", "after");
+			Logger.closeLogger();
+			assertEquals(1, listFiles(directory, ".csv.gz").size());
+			assertEquals(2, countLines(directory, "test_rollByTime"));
+			assertEquals(logfilePrefix, logger.getLogfilePrefix());
+		} finally {
+			logger.setRotationPolicy(LogRotationPolicy.NONE);
+			logger.setLogfile(new File(logfilePath, logfilePrefix).getPath());
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test
+	void test_retainNewestRolled() throws Exception {
+		Path directory = Files.createTempDirectory("UnitTestLogger");
+		try {
+			String older = "ShopSystem-2021-06-01-[12h.00m.00s.0000ms]";
+			String newer = "ShopSystem-2021-06-01-[12h.00m.00s.0001ms]";
+			// a name that collided with an existing file sorts before it by name alone, as does -10 before -2
+			for (String name : Arrays.asList(older + "-1", newer, newer + "-2", newer + "-10", older)) {
+				Files.createFile(directory.resolve(name + ".csv.gz"));
+			}
+			Files.createFile(directory.resolve("ShopSystem-notes.csv.gz"));
+			Logger.deleteOldestRolled(directory, "ShopSystem", 2);
+			List<String> retained = listFiles(directory, "").stream().map(file -> file.getFileName().toString()).collect(Collectors.toList());
+			assertEquals(Arrays.asList(newer + "-10.csv.gz", newer + "-2.csv.gz", "ShopSystem-notes.csv.gz"), retained);
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test
+	void test_levels() throws Exception {
+		String marker = "test_levels";
+		AtomicInteger suppliersCalled = new AtomicInteger();
+		try {
+			Logger.setLevel(LogLevel.WARN);
+			assertFalse(Logger.isEnabled(LogLevel.INFO));
+			Logger.logThis(marker, "info");
+			Logger.logThis(LogLevel.DEBUG, () -> marker + suppliersCalled.incrementAndGet());
+			Logger.logThis(LogLevel.WARN, marker, "warn");
+			Logger.logThis(new IllegalStateException(marker));
+			assertEquals(0, suppliersCalled.get());
+
+			Logger.setLevel(LogLevel.TRACE);
+			Logger.logThis(LogLevel.TRACE, () -> marker + ",supplied " + suppliersCalled.incrementAndGet());
+			assertEquals(1, suppliersCalled.get());
+		} finally {
+			Logger.setLevel(LogLevel.INFO);
+		}
+		List<String> lines = findLines(marker);
+		assertEquals(3, lines.size());
+		assertEquals("WARN", lines.get(0).split(",")[2]);
+		// the Exception overload logs at ERROR, with the exception's message as its first field
+		assertEquals("ERROR", lines.get(1).split(",")[2]);
+		assertEquals("Exception", lines.get(1).split(",")[3]);
+		assertEquals("TRACE", lines.get(2).split(",")[2]);
+		assertTrue(lines.get(2).endsWith(",supplied 1"));
+	}
+
+	@Test
+	void test_binaryFormat() throws Exception {
+		Path directory = Files.createTempDirectory("UnitTestLogger");
+		String logfilePath = logger.getLogfilePath();
+		String logfilePrefix = logger.getLogfilePrefix();
+		String marker = "test_binaryFormat";
+		LogFormat[] formats = { LogFormat.CSV, LogFormat.BINARY };
+		Path[] logfiles = new Path[formats.length];
+		Instant[] middles = new Instant[formats.length];
+		try {
+			logger.setLogfilePath(directory.toString());
+			// the same messages from the same call sites in each format
+			for (int f = 0; f < formats.length; f++) {
+				logger.setLogFormat(formats[f]);
+				logfiles[f] = logger.getLogfile().toPath();
+				middles[f] = logFormatMessages(marker);
+				Logger.closeLogger();
+			}
+			Path csv = logfiles[0];
+			Path binary = logfiles[1];
+			Instant middle = middles[1];
+			assertTrue(binary.toString().endsWith(".bin"));
+			assertTrue(Files.size(binary) * 4 < Files.size(csv));
+
+			List<LogRecord> records = new ArrayList<LogRecord>();
+			try (LogReader reader = new LogReader(binary)) {
+				assertEquals(FORMAT_MESSAGES * 2 + 2, reader.forEach(null, null, null, null, records::add));
+				assertNull(reader.next());
+			}
+			assertTrue(records.get(0).getCaller().startsWith("log.UnitTestLogger.logFormatMessages(UnitTestLogger.java:"));
+			assertEquals(Arrays.asList(marker, "sync", "message: 0", "total: 0"), records.get(0).getMessages());
+			assertEquals(LogLevel.INFO, records.get(0).getLevel());
+			assertEquals(LogLevel.ERROR, records.get(FORMAT_MESSAGES).getLevel());
+			assertEquals(LogMessageType.EXCEPTION, records.get(FORMAT_MESSAGES).getType());
+			assertEquals(marker, records.get(FORMAT_MESSAGES).getMessages().get(0));
+			try (LogReader reader = new LogReader(binary)) {
+				assertEquals(2, reader.forEach(null, null, null, LogMessageType.EXCEPTION, record -> {
+				}));
+			}
+			try (LogReader reader = new LogReader(binary)) {
+				assertEquals(FORMAT_MESSAGES + 1, reader.forEach(null, middle, null, null, record -> assertFalse(record.getTime().isAfter(middle))));
+			}
+			try (LogReader reader = new LogReader(binary)) {
+				assertEquals(1, reader.forEach(middle, null, LogLevel.WARN, null, record -> {
+				}));
+			}
+
+			// exported, the binary log matches the CSV log but for the times logged
+			Path exported = directory.resolve("exported.csv");
+			try (LogReader reader = new LogReader(binary)) {
+				assertEquals(FORMAT_MESSAGES * 2 + 2, reader.exportCsv(exported, null, null, null, null));
+			}
+			List<String> csvLines = readLines(csv);
+			List<String> exportedLines = readLines(exported);
+			assertEquals(csvLines.size(), exportedLines.size());
+			for (int i = 0; i < csvLines.size(); i++) {
+				assertEquals(withoutTimestamp(csvLines.get(i)), withoutTimestamp(exportedLines.get(i)));
+			}
+
+			// rolled binary logs are gzipped, and a truncated log cannot be read to the end
+			Path compressed = directory.resolve("compressed.bin.gz");
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+				Files.copy(binary, out);
+			}
+			try (LogReader reader = new LogReader(compressed)) {
+				assertEquals(FORMAT_MESSAGES * 2 + 2, reader.forEach(null, null, null, null, record -> {
+				}));
+			}
+			Path truncated = directory.resolve("truncated.bin");
+			byte[] bytes = Files.readAllBytes(binary);
+			Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+			try (LogReader reader = new LogReader(truncated)) {
+				assertThrows(EOFException.class, () -> reader.forEach(null, null, null, null, record -> {
+				}));
+			}
+		} finally {
+			logger.setLogFormat(LogFormat.CSV);
+			logger.setLogfile(new File(logfilePath, logfilePrefix).getPath());
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test
+	void test_invalidParameters() {
+		assertThrows(IllegalArgumentException.class, () -> Logger.initialiseAsync(0, LogOverflowPolicy.BLOCK));
+		assertThrows(IllegalArgumentException.class, () -> Logger.initialiseAsync((1 << 30) + 1, LogOverflowPolicy.BLOCK));
+		assertThrows(IllegalArgumentException.class, () -> Logger.initialiseAsync(16, null));
+		assertThrows(IllegalArgumentException.class, () -> logger.setRotationPolicy(null));
+		assertThrows(IllegalArgumentException.class, () -> logger.setLogfilePath(" "));
+		assertThrows(IllegalArgumentException.class, () -> logger.setLogfilePrefix("logs/ShopSystem"));
+		assertThrows(IllegalArgumentException.class, () -> new LogRotationPolicy(-1, null, 0));
+		assertThrows(IllegalArgumentException.class, () -> new LogRotationPolicy(0, Duration.ZERO, 0));
+		assertThrows(IllegalArgumentException.class, () -> LogRotationPolicy.bySize(0, 3));
+		assertThrows(IllegalArgumentException.class, () -> Logger.setLevel(null));
+		assertThrows(IllegalArgumentException.class, () -> Logger.logThis((LogLevel) null, "message"));
+		assertThrows(IllegalArgumentException.class, () -> Logger.logThis(LogLevel.INFO, (Supplier<String>) null));
+		assertThrows(IllegalArgumentException.class, () -> logger.setLogFormat(null));
+		assertThrows(IllegalArgumentException.class, () -> new LogReader(null));
+		// a CSV log file
+		assertThrows(IllegalArgumentException.class, () -> new LogReader(logger.getLogfile().toPath()));
+		assertFalse(logger.isAsync());
+	}
+
+	/**
+	 * Start every thread at once, each logging messages containing marker, and wait for them all to finish
+	 */
+	private static void logFromThreads(String marker) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			threads[t] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException interruptedEx) {
+					return;
+				}
+				for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+					Logger.logThis(marker, "thread: " + thread, "message: " + i);
+				}
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+	}
+
+	/**
+	 * Log {@value #FORMAT_MESSAGES} messages then an exception synchronously, then the same asynchronously, pausing either side of the returned
+	 * instant between them
+	 */
+	private static Instant logFormatMessages(String marker) throws InterruptedException {
+		for (int i = 0; i < FORMAT_MESSAGES; i++) {
+			Logger.logThis(marker, "sync", "message: " + i, "total: " + i * 7);
+		}
+		Logger.logThis(new IllegalStateException(marker));
+		Thread.sleep(5);
+		Instant middle = Instant.now();
+		Thread.sleep(5);
+		Logger.initialiseAsync();
+		for (int i = 0; i < FORMAT_MESSAGES; i++) {
+			Logger.logThis(marker, "async", "message: " + i, "total: " + i * 7);
+		}
+		Logger.logThis(new IllegalStateException(marker));
+		return middle;
+	}
+
+	/**
+	 * @return a CSV log line with its DateTimeStamp column emptied
+	 */
+	private static String withoutTimestamp(String line) {
+		String[] columns = line.split(",", -1);
+		if (columns.length > 1) {
+			columns[1] = "";
+		}
+		return String.join(",", columns);
+	}
+
+	private static long countLines(String marker) throws IOException {
+		return findLines(marker).size();
+	}
+
+	/**
+	 * @return the lines containing marker in every log file in directory, compressed or not
+	 */
+	private static long countLines(Path directory, String marker) throws IOException {
+		long count = 0;
+		for (Path file : listFiles(directory, "")) {
+			count += readLines(file).stream().filter(line -> line.contains("," + marker + ",")).count();
+		}
+		return count;
+	}
+
+	private static List<Path> listFiles(Path directory, String suffix) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.toString().endsWith(suffix)).sorted().collect(Collectors.toList());
+		}
+	}
+
+	private static List<String> readLines(Path file) throws IOException {
+		if (!file.toString().endsWith(".gz")) {
+			return Files.readAllLines(file, StandardCharsets.ISO_8859_1);
+		}
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.ISO_8859_1))) {
+			return reader.lines().collect(Collectors.toList());
+		}
+	}
+
+	private static void deleteDirectory(Path directory) throws IOException {
+		for (Path file : listFiles(directory, "")) {
+			Files.delete(file);
+		}
+		Files.delete(directory);
+	}
+
+	private static List<String> findLines(String marker) throws IOException {
+		try (Stream<String> lines = Files.lines(logger.getLogfile().toPath(), StandardCharsets.ISO_8859_1)) {
+			return lines.filter(line -> line.contains("," + marker + ",")).collect(Collectors.toList());
+		}
+	}
+}
@@ -12,6 +12,14 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -67,6 +75,7 @@ class UnitTestDatabaseAccessObject {
 	 */
 	@BeforeAll
 	static void beforeAll() {
+		Logger.initialise();
 		// clear all tables
 		try {
 			dropTables();
@@ -118,6 +127,9 @@ class UnitTestDatabaseAccessObject {
 	@AfterEach
 	void afterEach() {
 		System.out.println("@AfterEach beginning");
+		if (dao != null) {
+			dao.close();
+		}
 		try {
 			dropTables();
 			System.out.println("@AfterEach complete!");
@@ -127,6 +139,20 @@ class UnitTestDatabaseAccessObject {
 		}
 	}
 
+	/**
+	 * The DAO puts the database into WAL mode, which persists in the file, so return test.db to the rollback journal it is committed with
+	 */
+	@AfterAll
+	static void afterAll() {
+		try (Connection connection = getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("PRAGMA journal_mode=DELETE;");
+			System.out.println("@AfterAll complete!");
+		} catch (SQLException e) {
+			System.err.println("@AfterAll failed!");
+			System.err.println(e.getMessage());
+		}
+	}
+
 	///////////////////////
 	// Unit Tests		//
 	/////////////////////
@@ -184,6 +210,475 @@ class UnitTestDatabaseAccessObject {
 
 	}
 
+	/**
+	 * Test {@code DatabaseAccessObject}s {@code getEmployeesPage()} method pages forward and backward by (surname, personID), and returns null
+	 * rather than an empty page when the read fails
+	 */
+	@Test
+	void test_getEmployeesPage() {
+		ArrayList<Employee> first = dao.getEmployeesPage(null, 2, DatabaseAccessObject.PageDirection.FORWARD);
+		assertEquals(2, first.size());
+		assertEquals(employee1, first.get(0));
+		assertEquals(employee5NoEndDate, first.get(1));
+
+		ArrayList<Employee> second = dao.getEmployeesPage(first.get(1), 2, DatabaseAccessObject.PageDirection.FORWARD);
+		assertEquals(2, second.size());
+		assertEquals(employee4, second.get(0));
+		assertEquals(employee3, second.get(1));
+
+		ArrayList<Employee> last = dao.getEmployeesPage(second.get(1), 2, DatabaseAccessObject.PageDirection.FORWARD);
+		assertEquals(1, last.size());
+		assertEquals(employee2, last.get(0));
+		assertTrue(dao.getEmployeesPage(last.get(0), 2, DatabaseAccessObject.PageDirection.FORWARD).isEmpty());
+
+		assertEquals(first, dao.getEmployeesPage(second.get(0), 2, DatabaseAccessObject.PageDirection.BACKWARD));
+		assertThrows(IllegalArgumentException.class, () -> dao.getEmployeesPage(employee6, 2, DatabaseAccessObject.PageDirection.FORWARD));
+		assertThrows(IllegalArgumentException.class, () -> dao.getEmployeesPage(null, 0, DatabaseAccessObject.PageDirection.FORWARD));
+
+		// a failed read is told apart from the end of the table
+		dao.close();
+		assertNull(dao.getEmployeesPage(null, 2, DatabaseAccessObject.PageDirection.FORWARD));
+	}
+
+	/**
+	 * Test {@code DatabaseAccessObject} reads an empty employee table as empty rather than failing, and reads past the last page as an empty page
+	 */
+	@Test
+	void test_emptyTable() throws SQLException {
+		ArrayList<Employee> all = dao.getEmployeesPage(null, TEST_ROWS, DatabaseAccessObject.PageDirection.FORWARD);
+		assertTrue(dao.getEmployeesPage(all.get(TEST_ROWS - 1), 2, DatabaseAccessObject.PageDirection.FORWARD).isEmpty());
+
+		try (Connection connection = getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("DELETE FROM employee;");
+			statement.execute("DELETE FROM person;");
+		}
+		dao.invalidateEmployeeCache();
+		assertTrue(dao.getEmployees().isEmpty());
+		// the cache is only marked complete when the full read succeeds
+		assertTrue(dao.getEmployeeCacheStatistics().isComplete());
+		try (Stream<Employee> employees = dao.streamEmployees()) {
+			assertEquals(0, employees.count());
+		}
+		assertEquals(0, dao.getPoolStatistics().getActive());
+		assertTrue(dao.getEmployeesPage(null, 2, DatabaseAccessObject.PageDirection.FORWARD).isEmpty());
+	}
+
+	/**
+	 * Test {@code DatabaseAccessObject}s {@code streamEmployees()} method returns the same employees as {@code getEmployees()}, and returns its
+	 * connection to the pool once the last row is read or when closed, whichever comes first
+	 */
+	@Test
+	void test_streamEmployees() throws SQLException {
+		ArrayList<Employee> streamed = new ArrayList<Employee>();
+		try (Stream<Employee> employees = dao.streamEmployees(2)) {
+			Iterator<Employee> rows = employees.iterator();
+			streamed.add(rows.next());
+			assertEquals(1, dao.getPoolStatistics().getActive());
+			rows.forEachRemaining(streamed::add);
+			assertEquals(0, dao.getPoolStatistics().getActive());
+			assertFalse(rows.hasNext());
+		}
+		assertEquals(0, dao.getPoolStatistics().getActive());
+		assertEquals(dao.getEmployees(), streamed);
+
+		try (Stream<Employee> employees = dao.streamEmployees()) {
+			assertEquals(employee2, employees.skip(1).findFirst().get());
+		}
+		assertEquals(0, dao.getPoolStatistics().getActive());
+	}
+
+	/**
+	 * Test {@code DatabaseAccessObject}s {@code getEmployees()} method sets each employee's primary keys
+	 */
+	@Test
+	void test_getEmployeesCarriesIDs() {
+		ArrayList<Employee> employees = dao.getEmployees();
+		for (int i = 0; i < employees.size(); i++) {
+			assertTrue(employees.get(i).isSaved());
+			assertEquals(i + 1, employees.get(i).getPersonID());
+			assertEquals(i + 1, employees.get(i).getEmployeeID());
+		}
+	}
+
+	/**
+	 * Test {@code DatabaseAccessObject}s {@code editEmployee(int, Employee)} method edits only the addressed employee
+	 */
+	@Test
+	void test_editEmployeeByID() {
+		Employee target = dao.getEmployees().get(2);
+		assertTrue(dao.editEmployee(target.getEmployeeID(), employee7));
+		assertFalse(dao.editEmployee(999, employee8));
+
+		ArrayList<Employee> employees = dao.getEmployees();
+		assertEquals(TEST_ROWS, employees.size());
+		assertEquals(employee7, employees.get(2));
+		assertEquals(target.getEmployeeID(), employees.get(2).getEmployeeID());
+		assertFalse(employees.contains(employee3));
+		assertTrue(employees.contains(employee4));
+	}
+
+	/**
+	 * Test {@code DatabaseAccessObject}s {@code deleteEmployee(int)} method deletes only the addressed employee
+	 */
+	@Test
+	void test_deleteEmployeeByID() {
+		Employee target = dao.getEmployees().get(1);
+		assertTrue(dao.deleteEmployee(target.getEmployeeID()));
+		assertFalse(dao.deleteEmployee(target.getEmployeeID()));
+
+		ArrayList<Employee> employees = dao.getEmployees();
+		assertEquals(TEST_ROWS - 1, employees.size());
+		assertFalse(employees.contains(employee2));
+		assertTrue(employees.contains(employee1));
+		assertTrue(employees.contains(employee3));
+	}
+
+	/**
+	 * Test {@code DatabaseAccessObject}s {@code addEmployee()} method uses a single connection and returns the new personID
+	 */
+	@Test
+	void test_addEmployeeSingleConnection() {
+		long borrowsBefore = dao.getPoolStatistics().getBorrows();
+		int personID = dao.addEmployee(employee6);
+		assertEquals(borrowsBefore + 1, dao.getPoolStatistics().getBorrows());
+		assertEquals(TEST_ROWS + 1, personID);
+		assertEquals(TEST_ROWS + 1, employee6.getPersonID());
+		assertEquals(TEST_ROWS + 1, employee6.getEmployeeID());
+		assertTrue(dao.getEmployees().contains(employee6));
+	}
+
+	/**
+	 * Test {@code DatabaseAccessObject}s {@code addEmployees()} bulk method, including a row that fails and one batch boundary
+	 */
+	@Test
+	void test_addEmployees() {
+		ArrayList<Employee> toAdd = new ArrayList<Employee>();
+		toAdd.add(employee6);
+		toAdd.add(null);
+		toAdd.add(employee7);
+		for (int i = 0; i < 600; i++) {
+			toAdd.add(employee8.clone());
+		}
+
+		DatabaseAccessObject.BulkInsertResult result = dao.addEmployees(toAdd);
+		assertEquals(602, result.getInsertedCount());
+		assertEquals(1, result.getFailures().size());
+		assertEquals(1, result.getFailures().get(0).getIndex());
+		assertEquals(Integer.valueOf(2), result.getInsertedIndices().get(1));
+		assertEquals(602, result.getPersonIDs().stream().distinct().count());
+		assertEquals(602, result.getEmployeeIDs().stream().distinct().count());
+
+		// the keys set on each inserted employee are those of its rows in the database
+		dao.invalidateEmployeeCache();
+		HashMap<Integer, Employee> byEmployeeID = new HashMap<Integer, Employee>();
+		for (Employee employee : dao.getEmployees()) {
+			byEmployeeID.put(employee.getEmployeeID(), employee);
+		}
+		assertEquals(TEST_ROWS + 602, byEmployeeID.size());
+		for (int i = 0; i < result.getInsertedCount(); i++) {
+			Employee inserted = toAdd.get(result.getInsertedIndices().get(i));
+			assertTrue(inserted.isSaved());
+			assertEquals(result.getEmployeeIDs().get(i).intValue(), inserted.getEmployeeID());
+			Employee stored = byEmployeeID.get(inserted.getEmployeeID());
+			assertEquals(inserted, stored);
+			assertEquals(inserted.getPersonID(), stored.getPersonID());
+		}
+		assertTrue(byEmployeeID.containsValue(employee6));
+		assertTrue(byEmployeeID.containsValue(employee7));
+		assertTrue(byEmployeeID.containsValue(employee8));
+
+		// inserted employees are cached, so can be read by key without the database
+		dao.invalidateEmployeeCache();
+		int employeeID = dao.addEmployees(Collections.singletonList(employee6.clone())).getEmployeeIDs().get(0);
+		long missesBefore = dao.getEmployeeCacheStatistics().getMisses();
+		assertEquals(employee6, dao.getEmployee(employeeID));
+		assertEquals(missesBefore, dao.getEmployeeCacheStatistics().getMisses());
+	}
+
+	/**
+	 * Test {@code DatabaseAccessObject} puts the database into WAL mode, and can switch pragma profile at runtime
+	 */
+	@Test
+	void test_pragmaProfile() throws SQLException {
+		assertSame(PragmaProfile.INTERACTIVE, dao.getPragmaProfile());
+		try (Connection connection = getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery("PRAGMA journal_mode;")) {
+			assertEquals("wal", rs.getString(1).toLowerCase());
+		}
+
+		dao.setPragmaProfile(PragmaProfile.BULK_LOAD);
+		assertSame(PragmaProfile.BULK_LOAD, dao.getPragmaProfile());
+		ArrayList<Employee> toAdd = new ArrayList<Employee>();
+		toAdd.add(employee6);
+		toAdd.add(employee7);
+		assertEquals(2, dao.addEmployees(toAdd).getInsertedCount());
+		dao.setPragmaProfile(PragmaProfile.INTERACTIVE);
+		assertEquals(TEST_ROWS + 2, dao.getEmployees().size());
+		assertThrows(IllegalArgumentException.class, () -> dao.setPragmaProfile(null));
+	}
+
+	/**
+	 * Test {@code DatabaseAccessObject}s connection pool reuses connections rather than opening one per operation
+	 */
+	@Test
+	void test_connectionPoolReuse() {
+		ConnectionPool.PoolStatistics before = dao.getPoolStatistics();
+		for (int i = 0; i < 10; i++) {
+			dao.getEmployeesPage(null, 10, DatabaseAccessObject.PageDirection.FORWARD);
+		}
+		dao.addEmployee(employee6);
+		ConnectionPool.PoolStatistics after = dao.getPoolStatistics();
+
+		assertEquals(before.getCreated(), after.getCreated());
+		assertTrue(after.getBorrows() - before.getBorrows() >= 11);
+		assertEquals(after.getBorrows() - before.getBorrows(), after.getReuses() - before.getReuses());
+		assertEquals(0, after.getActive());
+		assertTrue(after.getIdle() >= 1 && after.getIdle() <= after.getMaxSize());
+	}
+
+	/**
+	 * Test repeated {@code DatabaseAccessObject} operations hit the per-connection statement cache instead of re-preparing their SQL
+	 */
+	@Test
+	void test_statementCacheHits() {
+		dao.getEmployeesPage(null, 10, DatabaseAccessObject.PageDirection.FORWARD);
+		ConnectionPool.PoolStatistics before = dao.getPoolStatistics();
+		for (int i = 0; i < 5; i++) {
+			dao.getEmployeesPage(null, 10, DatabaseAccessObject.PageDirection.FORWARD);
+		}
+		ConnectionPool.PoolStatistics after = dao.getPoolStatistics();
+		assertEquals(5, after.getStatementCacheHits() - before.getStatementCacheHits());
+		assertEquals(before.getStatementCacheMisses(), after.getStatementCacheMisses());
+		assertEquals(5, dao.getEmployees().size());
+	}
+
+	/**
+	 * Test full table and single employee reads are served from the employee cache, and that writes keep the cache consistent with the database
+	 */
+	@Test
+	void test_employeeCache() {
+		ArrayList<Employee> first = dao.getEmployees();
+		ConnectionPool.PoolStatistics poolBefore = dao.getPoolStatistics();
+		ArrayList<Employee> second = dao.getEmployees();
+		Employee single = dao.getEmployee(first.get(0).getEmployeeID());
+		assertEquals(poolBefore.getBorrows(), dao.getPoolStatistics().getBorrows());
+		assertEquals(first, second);
+		assertEquals(first.get(0), single);
+		assertTrue(dao.getEmployeeCacheStatistics().isComplete());
+		assertEquals(2, dao.getEmployeeCacheStatistics().getHits());
+
+		// cached employees are copies
+		second.get(0).setForename("Changed");
+		assertEquals(first.get(0), dao.getEmployee(first.get(0).getEmployeeID()));
+
+		// writes by primary key are applied to the cache
+		dao.addEmployee(employee6);
+		assertTrue(dao.getEmployees().contains(employee6));
+		Employee edited = first.get(1).clone();
+		edited.setForename("Edited");
+		assertTrue(dao.editEmployee(edited.getEmployeeID(), edited));
+		assertEquals("Edited", dao.getEmployee(edited.getEmployeeID()).getForename());
+		assertTrue(dao.deleteEmployee(first.get(2).getEmployeeID()));
+		assertFalse(dao.getEmployees().contains(first.get(2)));
+		assertEquals(poolBefore.getBorrows() + 3, dao.getPoolStatistics().getBorrows());
+
+		// the cache agrees with the database
+		ArrayList<Employee> cached = dao.getEmployees();
+		dao.invalidateEmployeeCache();
+		assertFalse(dao.getEmployeeCacheStatistics().isComplete());
+		assertEquals(cached, dao.getEmployees());
+		assertNull(dao.getEmployee(Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Test a full table read does not replace the employee cache if the cache was written to after the read began
+	 */
+	@Test
+	void test_employeeCacheDropsStaleFullRead() {
+		ArrayList<Employee> fullRead = dao.getEmployees();
+		EmployeeCache cache = new EmployeeCache(EmployeeCache.DEFAULT_MAX_ENTRIES);
+
+		// a delete lands between the read's query and its putAll
+		long readGeneration = cache.generation();
+		cache.remove(fullRead.get(0).getEmployeeID());
+		assertFalse(cache.putAll(fullRead, readGeneration));
+		assertFalse(cache.getStatistics().isComplete());
+		assertEquals(0, cache.getStatistics().getSize());
+
+		// as does an edit, or a write the cache cannot apply precisely
+		readGeneration = cache.generation();
+		cache.update(fullRead.get(1).getEmployeeID(), employee7);
+		assertFalse(cache.putAll(fullRead, readGeneration));
+		readGeneration = cache.generation();
+		cache.markIncomplete();
+		assertFalse(cache.putAll(fullRead, readGeneration));
+
+		// a read with no write in the meantime is cached
+		readGeneration = cache.generation();
+		assertTrue(cache.putAll(fullRead, readGeneration));
+		assertTrue(cache.getStatistics().isComplete());
+		assertEquals(fullRead, cache.getAll());
+	}
+
+	/**
+	 * Test {@code AsyncDatabaseAccessObject} runs concurrent operations to completion, and rejects operations once closed
+	 */
+	@Test
+	void test_asyncDatabaseAccessObject() {
+		AsyncDatabaseAccessObject asyncDao = new AsyncDatabaseAccessObject(dao);
+		ArrayList<CompletableFuture<Integer>> adds = new ArrayList<CompletableFuture<Integer>>();
+		for (int i = 0; i < 20; i++) {
+			adds.add(asyncDao.addEmployee(employee6.clone()));
+		}
+		CompletableFuture.allOf(adds.toArray(new CompletableFuture<?>[0])).join();
+		assertEquals(20, adds.stream().map(CompletableFuture::join).filter(personID -> personID > 0).distinct().count());
+
+		ArrayList<Employee> employees = asyncDao.getEmployees().join();
+		assertEquals(TEST_ROWS + 20, employees.size());
+		Employee edited = employees.get(0).clone();
+		edited.setForename("Edited");
+		assertTrue(asyncDao.editEmployee(edited.getEmployeeID(), edited).join());
+		assertEquals("Edited", asyncDao.getEmployee(edited.getEmployeeID()).join().getForename());
+		assertTrue(asyncDao.deleteEmployee(edited.getEmployeeID()).join());
+		assertEquals(TEST_ROWS + 19, asyncDao.getEmployeesPage(null, 100, DatabaseAccessObject.PageDirection.FORWARD).join().size());
+
+		asyncDao.close();
+		assertThrows(RejectedExecutionException.class, () -> asyncDao.getEmployees());
+		assertEquals(0, dao.getPoolStatistics().getActive());
+	}
+
+	/**
+	 * Test {@code AsyncDatabaseAccessObject} runs operations in every {@code ExecutorMode}, falling back to platform threads where virtual threads are
+	 * unsupported
+	 */
+	@Test
+	void test_asyncDatabaseAccessObjectExecutorModes() {
+		assertEquals(ExecutorMode.VIRTUAL, ExecutorMode.parse(" Virtual "));
+		assertThrows(IllegalArgumentException.class, () -> ExecutorMode.parse("green"));
+		assertTrue(ExecutorMode.PLATFORM.isSupported());
+		assertThrows(IllegalArgumentException.class, () -> new AsyncDatabaseAccessObject(dao, (ExecutorMode) null));
+		for (ExecutorMode mode : ExecutorMode.values()) {
+			try (AsyncDatabaseAccessObject asyncDao = new AsyncDatabaseAccessObject(dao, mode)) {
+				assertEquals(TEST_ROWS, asyncDao.getEmployeesPage(null, 100, DatabaseAccessObject.PageDirection.FORWARD).join().size());
+			}
+		}
+	}
+
+	/**
+	 * Test shifts are saved in batches, replaced by date, loaded by date range for many employees in one query, and deleted with their employee
+	 */
+	@Test
+	void test_shifts() {
+		ArrayList<Employee> employees = dao.getEmployees();
+		LocalDate monthStart = LocalDate.of(2021, 3, 1);
+		for (Employee e : employees) {
+			for (int day = 0; day < 31; day++) {
+				e.addSingleShift(monthStart.plusDays(day), 1 + (day + e.getEmployeeID()) % 8);
+			}
+		}
+		assertEquals(TEST_ROWS * 31, dao.saveShifts(employees));
+
+		// replace one shift, and add one outside the month
+		Employee first = employees.get(0);
+		Hashtable<LocalDate, Integer> changes = new Hashtable<LocalDate, Integer>();
+		changes.put(monthStart, 12);
+		changes.put(monthStart.minusDays(1), 3);
+		assertEquals(2, dao.saveShifts(first.getEmployeeID(), changes));
+
+		// a month of rota for every employee in a single round trip
+		ConnectionPool.PoolStatistics before = dao.getPoolStatistics();
+		HashMap<Integer, ShiftCalendar> rota = dao.getShifts(null, monthStart, monthStart.plusDays(30));
+		assertEquals(before.getBorrows() + 1, dao.getPoolStatistics().getBorrows());
+		assertEquals(TEST_ROWS, rota.size());
+		for (Employee e : employees) {
+			assertEquals(31, rota.get(e.getEmployeeID()).size());
+		}
+		assertEquals(12, rota.get(first.getEmployeeID()).get(monthStart));
+		assertEquals(employees.get(1).getShifts().get(monthStart.plusDays(9)), rota.get(employees.get(1).getEmployeeID()).get(monthStart.plusDays(9)));
+
+		// a subset of employees and dates
+		ArrayList<Employee> loaded = new ArrayList<Employee>();
+		loaded.add(employees.get(0).clone());
+		loaded.add(employees.get(2).clone());
+		dao.loadShifts(loaded, monthStart.minusDays(1), monthStart.plusDays(6));
+		assertEquals(8, loaded.get(0).getShifts().size());
+		assertEquals(3, loaded.get(0).getShiftLengthOn(monthStart.minusDays(1)));
+		assertEquals(7, loaded.get(1).getShifts().size());
+		assertTrue(dao.getShifts(first.getEmployeeID(), LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 31)).isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> dao.getShifts(null, monthStart, monthStart.minusDays(1)));
+		assertThrows(IllegalArgumentException.class, () -> dao.saveShifts(Collections.singletonList(employee6)));
+
+		// shifts are deleted with their employee
+		assertTrue(dao.deleteEmployee(first.getEmployeeID()));
+		assertTrue(dao.getShifts(first.getEmployeeID(), monthStart.minusDays(1), monthStart.plusDays(30)).isEmpty());
+	}
+
+	/**
+	 * Test shifts are saved from maps that cannot hold null, and a null calendar is rejected from maps that can
+	 */
+	@Test
+	void test_saveShiftsNullHostileMap() {
+		Employee employee = dao.getEmployees().get(0);
+		LocalDate day = LocalDate.of(2021, 5, 1);
+		ShiftCalendar shifts = new ShiftCalendar();
+		shifts.put(day, 6);
+		ConcurrentHashMap<Integer, ShiftCalendar> shiftsByEmployeeID = new ConcurrentHashMap<Integer, ShiftCalendar>();
+		shiftsByEmployeeID.put(employee.getEmployeeID(), shifts);
+		assertEquals(1, dao.saveShifts(shiftsByEmployeeID));
+		assertEquals(6, dao.getShifts(employee.getEmployeeID(), day, day).get(day));
+
+		HashMap<Integer, ShiftCalendar> withNull = new HashMap<Integer, ShiftCalendar>();
+		withNull.put(employee.getEmployeeID(), null);
+		assertThrows(IllegalArgumentException.class, () -> dao.saveShifts(withNull));
+	}
+
+	/**
+	 * Test a {@code ConnectionPool} is bounded, and that a returned connection handle cannot be used again
+	 */
+	@Test
+	void test_connectionPoolBounded() throws SQLException {
+		try (ConnectionPool pool = new ConnectionPool(TEST_DB_REL_JUNIT + TEST_DB, 1)) {
+			pool.setBorrowTimeoutMillis(50);
+			Connection first = pool.borrow();
+			assertThrows(SQLException.class, () -> pool.borrow());
+			first.close();
+			assertTrue(first.isClosed());
+			assertThrows(SQLException.class, () -> first.createStatement());
+			try (Connection second = pool.borrow()) {
+				assertFalse(second.isClosed());
+			}
+			assertEquals(1, pool.getStatistics().getCreated());
+			assertEquals(1, pool.getStatistics().getReuses());
+		}
+	}
+
+	/**
+	 * Test a cached statement closed while its ResultSet is still open can be prepared and executed again
+	 */
+	@Test
+	void test_statementClosedBeforeResultSet() throws SQLException {
+		final String QUERY = "SELECT personID FROM person ORDER BY personID;";
+		try (ConnectionPool pool = new ConnectionPool(TEST_DB_REL_JUNIT + TEST_DB, 1); Connection connection = pool.borrow()) {
+			for (int i = 0; i < 3; i++) {
+				PreparedStatement statement = connection.prepareStatement(QUERY);
+				ResultSet rs = statement.executeQuery();
+				assertTrue(rs.next());
+				statement.close();
+				rs.close();
+			}
+			try (PreparedStatement statement = connection.prepareStatement(QUERY); ResultSet rs = statement.executeQuery()) {
+				int rows = 0;
+				while (rs.next()) {
+					rows++;
+				}
+				assertEquals(TEST_ROWS, rows);
+			}
+			assertEquals(1, pool.getStatistics().getStatementCacheMisses());
+			assertEquals(3, pool.getStatistics().getStatementCacheHits());
+		}
+	}
+
 	///////////////////////
 	// Test Harness		//
 	/////////////////////
@@ -211,15 +706,26 @@ class UnitTestDatabaseAccessObject {
 				"	PRIMARY KEY (employeeID)," +
 				"	FOREIGN KEY (personID) REFERENCES person(personID)" +
 				");";
+		final String CREATE_TABLE_SHIFTS = "CREATE TABLE shifts (" +
+				"	shiftID INTEGER," +
+				"	date TEXT," +
+				"	hours REAL," +
+				"	employeeID INTEGER," +
+				"	PRIMARY KEY (shiftID)," +
+				"	FOREIGN KEY (employeeID) REFERENCES employee(employeeID)" +
+				");";
 
 		// try with resources
 		try (Connection connection = getConnection();
 				PreparedStatement createPersonTable = connection.prepareStatement(CREATE_TABLE_PERSON);
-				PreparedStatement createEmployeeTable = connection.prepareStatement(CREATE_TABLE_EMPLOYEE)) {
+				PreparedStatement createEmployeeTable = connection.prepareStatement(CREATE_TABLE_EMPLOYEE);
+				PreparedStatement createShiftsTable = connection.prepareStatement(CREATE_TABLE_SHIFTS)) {
 			// create table person
 			createPersonTable.executeUpdate();
 			// create table employee
 			createEmployeeTable.executeUpdate();
+			// create table shifts
+			createShiftsTable.executeUpdate();
 		} catch (SQLException createTestTablesException) {
 			System.err.println(createTestTablesException.getMessage());
 		}
@@ -298,9 +804,10 @@ class UnitTestDatabaseAccessObject {
 		// configure SQL objects
 		Connection con = getConnection();
 		Statement s = con.createStatement();
-		// drop person and employee tables from database
+		// drop person, employee and shifts tables from database
 		s.execute("DROP TABLE person;");
 		s.execute("DROP TABLE employee;");
+		s.execute("DROP TABLE shifts;");
 		// close SQL objects
 		closeQuietly(null, s, con);
 	}
@@ -0,0 +1,81 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of EmployeeRowMapper and its fixed width date parser
+ * 
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class UnitTestEmployeeRowMapper {
+
+	private static final String SQL_ROW = "SELECT 'aforename' AS forename, 'asurname' AS surname, 'a@test.test' AS email, '123' AS phoneNumber, "
+			+ "801 AS hourlyRateInPence, 37.5 AS hoursPerWeek, '2010-06-25' AS startDate, '' AS endDate, 3 AS personID, 4 AS employeeID";
+
+	/**
+	 * The sqlite driver closes a ResultSet with no rows, so the mapper must not touch it until a row is mapped
+	 */
+	@Test
+	void test_map_emptyResultSet() throws SQLException {
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(SQL_ROW + " WHERE 0;")) {
+			EmployeeRowMapper mapper = new EmployeeRowMapper(new HumanResourcesModel(), resultSet);
+			assertFalse(resultSet.next());
+			assertNotNull(mapper);
+		}
+	}
+
+	@Test
+	void test_map_row() throws SQLException {
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(SQL_ROW + ";")) {
+			EmployeeRowMapper mapper = new EmployeeRowMapper(new HumanResourcesModel(), resultSet);
+			assertTrue(resultSet.next());
+			HumanResourcesModel.Employee employee = mapper.map();
+			assertEquals("Asurname", employee.getSurname());
+			assertEquals(LocalDate.of(2010, 6, 25), employee.getStartDateAsLocalDate());
+			assertNull(employee.getEndDateAsLocalDate());
+			assertEquals(3, employee.getPersonID());
+			assertEquals(4, employee.getEmployeeID());
+		}
+	}
+
+	@Test
+	void test_parseDate_valid() {
+		assertEquals(LocalDate.of(2010, 6, 25), EmployeeRowMapper.parseDate("2010-06-25"));
+		assertEquals(LocalDate.of(2000, 2, 29), EmployeeRowMapper.parseDate("2000-02-29"));
+		assertEquals(LocalDate.of(1999, 12, 31), EmployeeRowMapper.parseDate("1999-12-31"));
+	}
+
+	@Test
+	void test_parseDate_nullOrBlank() {
+		assertNull(EmployeeRowMapper.parseDate(null));
+		assertNull(EmployeeRowMapper.parseDate(""));
+		assertNull(EmployeeRowMapper.parseDate("  "));
+	}
+
+	@Test
+	void test_parseDate_invalid() {
+		assertThrows(DateTimeException.class, () -> EmployeeRowMapper.parseDate("2010-6-25"));
+		assertThrows(DateTimeException.class, () -> EmployeeRowMapper.parseDate("2010/06/25"));
+		assertThrows(DateTimeException.class, () -> EmployeeRowMapper.parseDate("20a0-06-25"));
+		assertThrows(DateTimeException.class, () -> EmployeeRowMapper.parseDate("2010-13-01"));
+		assertThrows(DateTimeException.class, () -> EmployeeRowMapper.parseDate("2001-02-29"));
+	}
+}
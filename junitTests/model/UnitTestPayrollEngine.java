@@ -0,0 +1,107 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import log.Logger;
+import model.HumanResourcesModel.Employee;
+import model.PayrollEngine.GrossPay;
+
+/**
+ * Unit tests of PayrollEngine
+ * 
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class UnitTestPayrollEngine {
+
+	private static final int EMPLOYEES = 1_000;
+	private HumanResourcesModel model = new HumanResourcesModel();
+	private ArrayList<Employee> employees;
+	private HashMap<Integer, ShiftCalendar> shifts;
+	private LocalDate from;
+	private LocalDate to;
+
+	@BeforeAll
+	static void beforeAll() {
+		Logger.initialise();
+	}
+
+	@BeforeEach
+	void setUp() {
+		from = LocalDate.of(2021, 4, 1);
+		to = LocalDate.of(2021, 4, 30);
+		employees = new ArrayList<Employee>();
+		shifts = new HashMap<Integer, ShiftCalendar>();
+		for (int i = 1; i <= EMPLOYEES; i++) {
+			Employee employee = model.new Employee("forename", "surname", "payroll@test.test", "123", 800 + i, 37.5, LocalDate.of(2020, 1, 1), null);
+			employee.setDatabaseIDs(i, i);
+			employees.add(employee);
+			ShiftCalendar calendar = new ShiftCalendar();
+			// a shift of (i % 8) + 1 hours every day from the day before the pay period to the day after it
+			for (LocalDate day = from.minusDays(1); !day.isAfter(to.plusDays(1)); day = day.plusDays(1)) {
+				calendar.put(day, (i % 8) + 1);
+			}
+			shifts.put(i, calendar);
+		}
+	}
+
+	@Test
+	void test_calculate() {
+		ArrayList<GrossPay> payroll = new PayrollEngine(ForkJoinPool.commonPool(), 16).calculate(employees, shifts, from, to);
+		assertEquals(EMPLOYEES, payroll.size());
+		for (int i = 1; i <= EMPLOYEES; i++) {
+			GrossPay pay = payroll.get(i - 1);
+			assertEquals(i, pay.getEmployeeID());
+			assertEquals(30L * ((i % 8) + 1), pay.getHours());
+			assertEquals(800 + i, pay.getHourlyRateInPence());
+			assertEquals(30L * ((i % 8) + 1) * (800 + i), pay.getGrossPayInPence());
+		}
+	}
+
+	@Test
+	void test_runToSink() {
+		shifts.remove(1);
+		ConcurrentHashMap<Integer, Long> sink = new ConcurrentHashMap<Integer, Long>();
+		new PayrollEngine().run(employees, shifts, from, from, pay -> sink.put(pay.getEmployeeID(), pay.getGrossPayInPence()));
+		assertEquals(EMPLOYEES, sink.size());
+		assertEquals(0L, sink.get(1));
+		assertEquals(3L * 802, sink.get(2));
+	}
+
+	@Test
+	void test_runFailsWhenDatabaseUnreadable() throws SQLException {
+		DatabaseAccessObject dao = new DatabaseAccessObject("./junitTests/model/test.db");
+		dao.close();
+		ConcurrentHashMap<Integer, Long> sink = new ConcurrentHashMap<Integer, Long>();
+		assertThrows(IllegalStateException.class,
+				() -> new PayrollEngine().run(dao, from, to, pay -> sink.put(pay.getEmployeeID(), pay.getGrossPayInPence())));
+		// nobody is paid, rather than everyone being paid nothing
+		assertTrue(sink.isEmpty());
+	}
+
+	@Test
+	void test_invalid() {
+		PayrollEngine engine = new PayrollEngine();
+		assertThrows(IllegalArgumentException.class, () -> new PayrollEngine(null, 1));
+		assertThrows(IllegalArgumentException.class, () -> new PayrollEngine(ForkJoinPool.commonPool(), 0));
+		assertThrows(IllegalArgumentException.class, () -> engine.calculate(employees, shifts, to, from));
+		assertThrows(IllegalArgumentException.class, () -> engine.calculate(null, shifts, from, to));
+		assertThrows(IllegalArgumentException.class, () -> engine.run(employees, shifts, from, to, null));
+		employees.add(null);
+		assertThrows(IllegalArgumentException.class, () -> engine.calculate(employees, shifts, from, to));
+	}
+}
@@ -0,0 +1,180 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import log.Logger;
+import model.ModelEnums.CategoryLiquidFuel;
+import model.ModelEnums.StorageTemp;
+import model.StockItemModel.StockLiquidFuel;
+
+/**
+ * Unit tests of PumpTelemetryIngest and its PumpEventQueue
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class UnitTestPumpTelemetryIngest {
+
+	private static final int PUMPS = 8;
+	private static final int EVENTS_PER_PUMP = 20_000;
+
+	private StockItemModel model = new StockItemModel();
+
+	@BeforeAll
+	static void beforeAll() {
+		Logger.initialise();
+	}
+
+	@Test
+	void test_queueBoundedAndOrdered() {
+		PumpEventQueue queue = new PumpEventQueue(5);
+		assertEquals(8, queue.capacity());
+		for (int i = 0; i < 8; i++) {
+			assertTrue(queue.offer(i % 2, 1_000L + i, i + 1));
+		}
+		// full, so the event is rejected rather than waited on
+		assertFalse(queue.offer(0, 2_000L, 1));
+		long[] totals = new long[2];
+		assertEquals(3, queue.drain((tank, epochMillis, millilitres) -> totals[tank] += millilitres, 3));
+		assertTrue(queue.offer(1, 3_000L, 100));
+		int[] order = { 3 };
+		assertEquals(6, queue.drain((tank, epochMillis, millilitres) -> {
+			assertEquals(order[0] < 8 ? 1_000L + order[0] : 3_000L, epochMillis);
+			order[0]++;
+			totals[tank] += millilitres;
+		}, 100));
+		assertEquals(0, queue.drain((tank, epochMillis, millilitres) -> fail("queue should be empty"), 100));
+		assertEquals(1 + 3 + 5 + 7, totals[0]);
+		assertEquals(2 + 4 + 6 + 8 + 100, totals[1]);
+		assertEquals(2, new PumpEventQueue(1).capacity());
+		assertThrows(IllegalArgumentException.class, () -> new PumpEventQueue(0));
+	}
+
+	@Test
+	void test_ingestAppliesEvents() {
+		StockLiquidFuel diesel = model.new StockLiquidFuel("Diesel", false, 145, StorageTemp.NON_SPECIFIC, CategoryLiquidFuel.DIESEL, 10_000);
+		LocalDateTime time = LocalDateTime.of(2021, 6, 1, 12, 0);
+		PumpTelemetryIngest ingest = new PumpTelemetryIngest(16, 4);
+		int tank = ingest.addTank(diesel);
+		long epochMillis = SellHistory.toEpochMillis(time);
+		for (int i = 0; i < 10; i++) {
+			// a full queue drops rather than blocks, so retry until accepted
+			while (!ingest.offer(tank, epochMillis + i, 100)) {
+				Thread.yield();
+			}
+		}
+		ingest.close();
+		assertEquals(10, ingest.getApplied());
+		assertEquals(9_000, ingest.getTankLevel(tank));
+		assertEquals(10, diesel.getSellHistory().size());
+		assertEquals(1_000, diesel.getSellHistory().totalQuantity(time, time.plusSeconds(1)));
+		// closed, so further events are dropped
+		assertFalse(ingest.offer(tank, 1));
+		assertTrue(ingest.getDropped() >= 1);
+	}
+
+	@Test
+	void test_ingestConcurrentPumps() throws InterruptedException {
+		int tanks = 3;
+		PumpTelemetryIngest ingest = new PumpTelemetryIngest();
+		for (int t = 0; t < tanks; t++) {
+			ingest.addTank(model.new StockLiquidFuel("Tank " + t, false, 145, StorageTemp.NON_SPECIFIC, CategoryLiquidFuel.UNLEADED, 100_000_000));
+		}
+		long[] acceptedByTank = new long[tanks];
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] pumps = new Thread[PUMPS];
+		for (int p = 0; p < PUMPS; p++) {
+			int tank = p % tanks;
+			pumps[p] = new Thread(() -> {
+				long accepted = 0;
+				try {
+					start.await();
+				} catch (InterruptedException interruptedEx) {
+					return;
+				}
+				for (int i = 0; i < EVENTS_PER_PUMP; i++) {
+					if (ingest.offer(tank, 5)) {
+						accepted += 5;
+					}
+				}
+				synchronized (acceptedByTank) {
+					acceptedByTank[tank] += accepted;
+				}
+			});
+			pumps[p].start();
+		}
+		start.countDown();
+		for (Thread pump : pumps) {
+			pump.join();
+		}
+		ingest.close();
+		assertEquals(PUMPS * EVENTS_PER_PUMP, ingest.getAccepted() + ingest.getDropped());
+		assertEquals(ingest.getAccepted(), ingest.getApplied());
+		for (int t = 0; t < tanks; t++) {
+			assertEquals(100_000_000 - acceptedByTank[t], ingest.getTankLevel(t));
+			assertEquals(acceptedByTank[t], ingest.getTank(t).getSellHistory().getTotalQuantity());
+		}
+	}
+
+	@Test
+	void test_tankAddedWhileIngesting() throws InterruptedException {
+		StockLiquidFuel diesel = model.new StockLiquidFuel("Diesel", false, 145, StorageTemp.NON_SPECIFIC, CategoryLiquidFuel.DIESEL, 100);
+		StockLiquidFuel petrol = model.new StockLiquidFuel("Petrol", false, 145, StorageTemp.NON_SPECIFIC, CategoryLiquidFuel.UNLEADED, 100);
+		PumpTelemetryIngest ingest = new PumpTelemetryIngest(16, 4);
+		try {
+			int dieselTank = ingest.addTank(diesel);
+			int petrolTank;
+			// holding the sell history's lock stops the ingest thread part way through a batch that began before petrol was added
+			synchronized (diesel.getSellHistory()) {
+				assertTrue(ingest.offer(dieselTank, 10));
+				Thread ingestThread = findThread("pump-telemetry-");
+				while (ingestThread.getState() != Thread.State.BLOCKED) {
+					Thread.sleep(1);
+				}
+				petrolTank = ingest.addTank(petrol);
+				assertTrue(ingest.offer(petrolTank, 20));
+			}
+			assertTrue(ingest.offer(dieselTank, 30));
+			ingest.close();
+			assertEquals(3, ingest.getApplied());
+			assertEquals(60, ingest.getTankLevel(dieselTank));
+			assertEquals(80, ingest.getTankLevel(petrolTank));
+			assertEquals(20, petrol.getSellHistory().getTotalQuantity());
+		} finally {
+			ingest.close();
+		}
+	}
+
+	private static Thread findThread(String namePrefix) {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith(namePrefix) && thread.isAlive()) {
+				return thread;
+			}
+		}
+		throw new IllegalStateException("No thread named " + namePrefix + "*");
+	}
+
+	@Test
+	void test_invalidParameters() {
+		PumpTelemetryIngest ingest = new PumpTelemetryIngest(8, 1);
+		try {
+			assertThrows(IllegalArgumentException.class, () -> ingest.addTank(null));
+			assertThrows(IllegalArgumentException.class, () -> ingest.offer(0, 10));
+			int tank = ingest.addTank(model.new StockLiquidFuel("Diesel", false, 145, StorageTemp.NON_SPECIFIC, CategoryLiquidFuel.DIESEL, 10));
+			assertThrows(IllegalArgumentException.class, () -> ingest.offer(tank, 0));
+			assertThrows(IllegalArgumentException.class, () -> ingest.getTankLevel(tank + 1));
+		} finally {
+			ingest.close();
+		}
+		assertThrows(IllegalArgumentException.class, () -> new PumpTelemetryIngest(8, 0));
+	}
+}
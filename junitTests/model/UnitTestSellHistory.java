@@ -0,0 +1,172 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of SellHistory
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class UnitTestSellHistory {
+
+	private SellHistory history;
+	private LocalDateTime start;
+
+	@BeforeEach
+	void setUp() {
+		history = new SellHistory();
+		start = LocalDateTime.of(2021, 1, 1, 9, 0);
+	}
+
+	@Test
+	void test_recordAndRangeQueries() {
+		assertTrue(history.isEmpty());
+		// two sales in the same instant are both kept
+		history.record(start, 2);
+		history.record(start, 3);
+		history.record(start.plusHours(1), 5);
+		history.record(start.plusDays(1), 7);
+		assertEquals(4, history.size());
+		assertEquals(17, history.getTotalQuantity());
+		assertEquals(5, history.totalQuantity(start, start.plusHours(1)));
+		assertEquals(10, history.totalQuantity(start, start.plusHours(1).plusNanos(1_000_000)));
+		assertEquals(3, history.countSales(start, start.plusDays(1)));
+		assertEquals(0, history.totalQuantity(start.minusDays(1), start));
+		assertEquals(17, history.totalQuantity(start.minusYears(1), start.plusYears(1)));
+		assertEquals(start.plusDays(1), SellHistory.toLocalDateTime(SellHistory.toEpochMillis(start.plusDays(1))));
+	}
+
+	@Test
+	void test_recordInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> history.record(start, 0));
+		assertThrows(IllegalArgumentException.class, () -> history.record((LocalDateTime) null, 1));
+		assertThrows(IllegalArgumentException.class, () -> history.totalQuantity(start.plusDays(1), start));
+		assertThrows(IllegalArgumentException.class, () -> history.aggregate(start, Duration.ZERO, 1));
+		assertThrows(IllegalArgumentException.class, () -> history.compactBefore(start, null));
+		assertThrows(IllegalArgumentException.class, () -> new SellHistory(null));
+		assertTrue(history.isEmpty());
+	}
+
+	@Test
+	void test_lateSalesAcrossBlocks() {
+		// enough sales to fill several blocks, recorded in a shuffled order, checked against a brute force total
+		int sales = SellHistory.BLOCK_SIZE * 5 + 17;
+		ArrayList<Integer> minutes = new ArrayList<Integer>();
+		for (int i = 0; i < sales; i++) {
+			minutes.add(i);
+		}
+		Collections.shuffle(minutes, new Random(42));
+		for (int minute : minutes) {
+			history.record(start.plusMinutes(minute), 1 + minute % 3);
+		}
+		assertEquals(sales, history.size());
+		long[] previous = { Long.MIN_VALUE };
+		history.forEach((epochMillis, quantity) -> {
+			assertTrue(epochMillis >= previous[0]);
+			previous[0] = epochMillis;
+		});
+		for (int from = 0; from < sales; from += 997) {
+			for (int to = from; to < sales + 10; to += 1499) {
+				long expected = 0;
+				for (int minute = from; minute < Math.min(to, sales); minute++) {
+					expected += 1 + minute % 3;
+				}
+				assertEquals(expected, history.totalQuantity(start.plusMinutes(from), start.plusMinutes(to)));
+			}
+		}
+	}
+
+	@Test
+	void test_aggregate() {
+		for (int hour = 0; hour < 48; hour++) {
+			history.record(start.plusHours(hour), 1);
+			history.record(start.plusHours(hour).plusMinutes(30), 2);
+		}
+		long[] daily = history.aggregate(start, Duration.ofDays(1), 3);
+		assertArrayEquals(new long[] { 72, 72, 0 }, daily);
+		long[] hourly = history.aggregate(start.plusHours(47), Duration.ofHours(1), 2);
+		assertArrayEquals(new long[] { 3, 0 }, hourly);
+		assertEquals(0, history.aggregate(start, Duration.ofHours(1), 0).length);
+	}
+
+	@Test
+	void test_compactBefore() {
+		for (int minute = 0; minute < 3 * 24 * 60; minute++) {
+			history.record(start.plusMinutes(minute), 1);
+		}
+		long total = history.getTotalQuantity();
+		long firstDay = history.totalQuantity(start, start.plusDays(1));
+		LocalDateTime cutoff = start.plusDays(2);
+		// hourly buckets over the first two days, at full resolution after the cutoff
+		int removed = history.compactBefore(cutoff, Duration.ofHours(1));
+		assertEquals(2 * 24 * 60 - 2 * 24, removed);
+		assertEquals(2 * 24 + 24 * 60, history.size());
+		assertEquals(total, history.getTotalQuantity());
+		assertEquals(firstDay, history.totalQuantity(start, start.plusDays(1)));
+		assertEquals(60, history.totalQuantity(start, start.plusHours(1)));
+		assertEquals(1, history.totalQuantity(cutoff, cutoff.plusMinutes(1)));
+		// compacting again is a no-op, and recording after compaction still works
+		assertEquals(0, history.compactBefore(cutoff, Duration.ofHours(1)));
+		history.record(start, 4);
+		assertEquals(64, history.totalQuantity(start, start.plusHours(1)));
+	}
+
+	@Test
+	void test_sameInstantAcrossBlockBoundary() {
+		// the first block ends with two sales at 2000ms, and the third sale at 2000ms starts the second block
+		for (int i = 0; i < SellHistory.BLOCK_SIZE - 2; i++) {
+			history.record(1_000L, 1);
+		}
+		history.record(2_000L, 1);
+		history.record(2_000L, 1);
+		history.record(2_000L, 1);
+		history.record(3_000L, 1);
+		assertEquals(3, history.totalQuantity(2_000L, 2_001L));
+		assertEquals(4, history.totalQuantity(2_000L, Long.MAX_VALUE));
+		assertEquals(SellHistory.BLOCK_SIZE - 2 + 3, history.totalQuantity(Long.MIN_VALUE, 2_001L));
+		int[] count = { 0 };
+		history.forEach(2_000L, 2_001L, (epochMillis, quantity) -> count[0]++);
+		assertEquals(3, count[0]);
+		LocalDateTime twoSeconds = SellHistory.toLocalDateTime(2_000L);
+		assertEquals(3, history.countSales(twoSeconds, twoSeconds.plusNanos(1_000_000)));
+	}
+
+	@Test
+	void test_compactBeforeOverflow() {
+		// the first two sales merge to exactly Integer.MAX_VALUE, so the third is kept as a second entry in the same bucket
+		history.record(start, 1);
+		history.record(start.plusMinutes(1), Integer.MAX_VALUE - 1);
+		history.record(start.plusMinutes(2), Integer.MAX_VALUE);
+		assertEquals(1, history.compactBefore(start.plusDays(1), Duration.ofHours(1)));
+		assertEquals(2, history.size());
+		assertEquals(2L * Integer.MAX_VALUE, history.totalQuantity(start, start.plusHours(1)));
+		assertEquals(2L * Integer.MAX_VALUE, history.getTotalQuantity());
+		history.forEach((epochMillis, quantity) -> assertEquals(SellHistory.toEpochMillis(start), epochMillis));
+	}
+
+	@Test
+	void test_hashtableConversion() {
+		Hashtable<LocalDateTime, Integer> sales = new Hashtable<LocalDateTime, Integer>();
+		sales.put(start, 3);
+		sales.put(start.plusDays(1), 4);
+		SellHistory converted = new SellHistory(sales);
+		assertEquals(2, converted.size());
+		assertEquals(sales, converted.toHashtable());
+		converted.record(start, 1);
+		assertEquals(4, converted.toHashtable().get(start));
+	}
+}
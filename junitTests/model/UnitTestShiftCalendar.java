@@ -0,0 +1,109 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.Hashtable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of ShiftCalendar
+ * 
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class UnitTestShiftCalendar {
+
+	private ShiftCalendar calendar;
+	private LocalDate start;
+
+	@BeforeEach
+	void setUp() {
+		calendar = new ShiftCalendar();
+		start = LocalDate.of(2021, 1, 1);
+	}
+
+	@Test
+	void test_putGetRemove() {
+		assertTrue(calendar.isEmpty());
+		assertEquals(0, calendar.get(start));
+		calendar.put(start, 8);
+		calendar.put(start, 6);
+		calendar.put(start.plusYears(3), 24);
+		// before the epoch, and before the first allocated chunk
+		calendar.put(LocalDate.of(1960, 6, 1), 1);
+		assertEquals(3, calendar.size());
+		assertEquals(6, calendar.get(start));
+		assertEquals(24, calendar.get(start.plusYears(3)));
+		assertEquals(1, calendar.get(LocalDate.of(1960, 6, 1)));
+		assertEquals(0, calendar.get(start.plusDays(1)));
+		assertEquals(0, calendar.get(LocalDate.of(1900, 1, 1)));
+
+		assertEquals(6, calendar.remove(start));
+		assertEquals(0, calendar.remove(start));
+		assertEquals(2, calendar.size());
+		calendar.clear();
+		assertTrue(calendar.isEmpty());
+		assertEquals(0, calendar.get(start.plusYears(3)));
+	}
+
+	@Test
+	void test_putInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> calendar.put(start, 0));
+		assertThrows(IllegalArgumentException.class, () -> calendar.put(start, 25));
+		assertThrows(IllegalArgumentException.class, () -> calendar.put((LocalDate) null, 8));
+		assertThrows(IllegalArgumentException.class, () -> calendar.putAll((Hashtable<LocalDate, Integer>) null));
+		assertTrue(calendar.isEmpty());
+	}
+
+	@Test
+	void test_rangeSums() {
+		int[] hours = new int[1000];
+		for (int day = 0; day < hours.length; day++) {
+			if (day % 7 < 5) {
+				hours[day] = 1 + day % 10;
+				calendar.put(start.plusDays(day), hours[day]);
+			}
+		}
+		int[][] ranges = { { 0, 999 }, { 0, 0 }, { 3, 4 }, { 100, 400 }, { 127, 128 }, { 250, 260 }, { 998, 999 } };
+		for (int[] range : ranges) {
+			long expectedHours = 0;
+			int expectedShifts = 0;
+			for (int day = range[0]; day <= range[1]; day++) {
+				expectedHours += hours[day];
+				expectedShifts += (hours[day] != 0) ? 1 : 0;
+			}
+			assertEquals(expectedHours, calendar.sumHours(start.plusDays(range[0]), start.plusDays(range[1])));
+			assertEquals(expectedShifts, calendar.countShifts(start.plusDays(range[0]), start.plusDays(range[1])));
+		}
+		// ranges beyond the calendar's shifts
+		assertEquals(0, calendar.sumHours(start.minusYears(5), start.minusDays(1)));
+		assertEquals(0, calendar.sumHours(start.plusYears(5), start.plusYears(6)));
+		assertEquals(calendar.sumHours(start, start.plusDays(999)), calendar.sumHours(start.minusYears(50), start.plusYears(50)));
+		assertThrows(IllegalArgumentException.class, () -> calendar.sumHours(start, start.minusDays(1)));
+	}
+
+	@Test
+	void test_copyEqualsConversion() {
+		Hashtable<LocalDate, Integer> shifts = new Hashtable<LocalDate, Integer>();
+		shifts.put(start, 7);
+		shifts.put(start.plusDays(200), 4);
+		shifts.put(start.minusDays(200), 9);
+		calendar.putAll(shifts);
+		assertEquals(shifts, calendar.toHashtable());
+		assertArrayEquals(new long[] { start.minusDays(200).toEpochDay(), start.toEpochDay(), start.plusDays(200).toEpochDay() }, calendar.epochDays());
+
+		ShiftCalendar copy = calendar.copy();
+		assertEquals(calendar, copy);
+		assertEquals(calendar.hashCode(), copy.hashCode());
+		assertEquals(calendar, new ShiftCalendar(shifts));
+		copy.put(start, 8);
+		assertNotEquals(calendar, copy);
+		assertEquals(7, calendar.get(start));
+	}
+}
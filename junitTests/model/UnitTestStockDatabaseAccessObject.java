@@ -0,0 +1,194 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import log.Logger;
+import model.ModelEnums.CategoryFloorItem;
+import model.ModelEnums.CategoryLiquidFuel;
+import model.ModelEnums.CategorySolidFuel;
+import model.ModelEnums.StorageTemp;
+import model.StockItemModel.AbstractStockItem;
+import model.StockItemModel.StockFloorItem;
+import model.StockItemModel.StockLiquidFuel;
+import model.StockItemModel.StockSolidFuel;
+
+/**
+ * Unit tests of StockDatabaseAccessObject, each against a new scratch database
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class UnitTestStockDatabaseAccessObject {
+
+	private static StockItemModel model = new StockItemModel();
+	private Path scratchDatabase;
+	private StockDatabaseAccessObject stockDao;
+	private StockFloorItem bread;
+	private StockLiquidFuel diesel;
+	private StockSolidFuel coal;
+
+	@BeforeAll
+	static void beforeAll() {
+		Logger.initialise();
+	}
+
+	@BeforeEach
+	void beforeEach() throws Exception {
+		scratchDatabase = Files.createTempFile("UnitTestStockDatabaseAccessObject", ".db");
+		stockDao = new StockDatabaseAccessObject(scratchDatabase.toString());
+		bread = model.new StockFloorItem("Bread", false, 120, StorageTemp.ROOM_TEMPERATURE, CategoryFloorItem.BAKERY);
+		diesel = model.new StockLiquidFuel("Diesel", false, 145, StorageTemp.NON_SPECIFIC, CategoryLiquidFuel.DIESEL, 40_000_000);
+		coal = model.new StockSolidFuel("Coal 25kg", false, 1_499, StorageTemp.NON_SPECIFIC, CategorySolidFuel.COAL, 25_000);
+		coal.addUnitsInStock(30);
+	}
+
+	@AfterEach
+	void afterEach() throws Exception {
+		stockDao.close();
+		Files.deleteIfExists(scratchDatabase);
+		Files.deleteIfExists(Paths.get(scratchDatabase + "-wal"));
+		Files.deleteIfExists(Paths.get(scratchDatabase + "-shm"));
+	}
+
+	@Test
+	void test_importAndLoad() {
+		assertTrue(stockDao.getStock().isEmpty());
+		assertEquals(3, stockDao.importStock(Arrays.asList(bread, diesel, coal)));
+		HashMap<String, AbstractStockItem> loaded = byUniqueID(stockDao.getStock());
+		assertEquals(3, loaded.size());
+
+		StockFloorItem loadedBread = (StockFloorItem) loaded.get(bread.getUniqueID());
+		assertEquals(bread, loadedBread);
+		assertEquals(CategoryFloorItem.BAKERY, loadedBread.getCategory());
+		StockLiquidFuel loadedDiesel = (StockLiquidFuel) loaded.get(diesel.getUniqueID());
+		assertEquals(diesel, loadedDiesel);
+		assertEquals(40_000_000, loadedDiesel.getVolumeInMillilitres());
+		StockSolidFuel loadedCoal = (StockSolidFuel) loaded.get(coal.getUniqueID());
+		assertEquals(coal, loadedCoal);
+		assertEquals(30, loadedCoal.getUnitsInStock());
+		assertEquals(25_000, loadedCoal.getWeightInGrams());
+
+		// importing again overwrites by uniqueID rather than duplicating
+		bread.setPriceInPence(135);
+		assertEquals(1, stockDao.importStock(Arrays.asList(bread)));
+		assertEquals(3, stockDao.getStock().size());
+		assertEquals(135, stockDao.getStockItem(bread.getUniqueID()).getPriceInPence());
+		assertNull(stockDao.getStockItem("999999999999999"));
+
+		// items loaded from the database keep their uniqueID, and it is never generated again
+		StockFloorItem newItem = model.new StockFloorItem("Milk", false, 99, StorageTemp.FRIDGE, CategoryFloorItem.OTHER);
+		assertFalse(loaded.containsKey(newItem.getUniqueID()));
+	}
+
+	@Test
+	void test_saveStockLevelsAndDelete() {
+		stockDao.importStock(Arrays.asList(bread, diesel, coal));
+		coal.removeUnitsInStock(12);
+		diesel.setVolumeInMillilitres(39_000_000);
+		// the floor item has no stock level so is skipped
+		assertEquals(2, stockDao.saveStockLevels(Arrays.asList(bread, diesel, coal)));
+		assertEquals(18, ((StockSolidFuel) stockDao.getStockItem(coal.getUniqueID())).getUnitsInStock());
+		assertEquals(39_000_000, ((StockLiquidFuel) stockDao.getStockItem(diesel.getUniqueID())).getVolumeInMillilitres());
+
+		assertTrue(stockDao.deleteStockItem(coal.getUniqueID()));
+		assertFalse(stockDao.deleteStockItem(coal.getUniqueID()));
+		assertEquals(2, stockDao.getStock().size());
+		// a stock level of an item not in the database updates nothing
+		assertEquals(0, stockDao.saveStockLevels(Arrays.asList(coal)));
+	}
+
+	/**
+	 * Test levels are changed relative to the database, so tills selling the same item at once keep both sales, and that a rejected change changes
+	 * no levels
+	 */
+	@Test
+	void test_adjustStockLevels() {
+		stockDao.importStock(Arrays.asList(bread, diesel, coal));
+		// two tills sell from the same loaded level of 30
+		Map<String, Integer> tillOne = Map.of(coal.getUniqueID(), -5, diesel.getUniqueID(), -40_000);
+		Map<String, Integer> tillTwo = new ConcurrentHashMap<String, Integer>(Map.of(coal.getUniqueID(), -7));
+		assertEquals(2, stockDao.adjustStockLevels(tillOne));
+		assertEquals(1, stockDao.adjustStockLevels(tillTwo));
+		assertEquals(18, ((StockSolidFuel) stockDao.getStockItem(coal.getUniqueID())).getUnitsInStock());
+		assertEquals(39_960_000, ((StockLiquidFuel) stockDao.getStockItem(diesel.getUniqueID())).getVolumeInMillilitres());
+		// a delivery
+		assertEquals(1, stockDao.adjustStockLevels(Map.of(coal.getUniqueID(), 12)));
+		assertEquals(30, ((StockSolidFuel) stockDao.getStockItem(coal.getUniqueID())).getUnitsInStock());
+
+		// overselling, a floor item, or an item not in the database changes no levels
+		assertEquals(0, stockDao.adjustStockLevels(Map.of(diesel.getUniqueID(), -1, coal.getUniqueID(), -31)));
+		assertEquals(0, stockDao.adjustStockLevels(Map.of(diesel.getUniqueID(), -1, bread.getUniqueID(), -1)));
+		assertEquals(0, stockDao.adjustStockLevels(Map.of(diesel.getUniqueID(), -1, "999999999999999", -1)));
+		assertEquals(0, stockDao.adjustStockLevels(Map.of(diesel.getUniqueID(), Integer.MAX_VALUE)));
+		assertEquals(30, ((StockSolidFuel) stockDao.getStockItem(coal.getUniqueID())).getUnitsInStock());
+		assertEquals(39_960_000, ((StockLiquidFuel) stockDao.getStockItem(diesel.getUniqueID())).getVolumeInMillilitres());
+
+		HashMap<String, Integer> withNull = new HashMap<String, Integer>();
+		withNull.put(coal.getUniqueID(), null);
+		assertThrows(IllegalArgumentException.class, () -> stockDao.adjustStockLevels(withNull));
+		assertThrows(IllegalArgumentException.class, () -> stockDao.adjustStockLevels(null));
+	}
+
+	@Test
+	void test_bulkImport() {
+		ArrayList<AbstractStockItem> catalogue = new ArrayList<AbstractStockItem>();
+		for (int i = 0; i < 2_345; i++) {
+			catalogue.add(model.new StockFloorItem("Item " + i, i % 10 == 0, 1 + i, StorageTemp.NON_SPECIFIC, CategoryFloorItem.SUNDRY));
+		}
+		assertEquals(catalogue.size(), stockDao.importStock(catalogue));
+		assertEquals(catalogue.size(), stockDao.getStock().size());
+	}
+
+	@Test
+	void test_invalidParameters() {
+		assertThrows(IllegalArgumentException.class, () -> stockDao.importStock(null));
+		assertThrows(IllegalArgumentException.class, () -> stockDao.importStock(Arrays.asList(bread, null)));
+		assertThrows(IllegalArgumentException.class, () -> stockDao.saveStockLevels(null));
+		assertThrows(IllegalArgumentException.class, () -> stockDao.saveStockLevels(Arrays.asList(coal, null)));
+		assertThrows(IllegalArgumentException.class, () -> stockDao.setPragmaProfile(null));
+		assertTrue(stockDao.getStock().isEmpty());
+	}
+
+	/**
+	 * Test collections whose {@code contains(null)} throws are accepted
+	 */
+	@Test
+	void test_nullHostileCollections() {
+		assertEquals(2, stockDao.importStock(List.of(bread, diesel)));
+		assertEquals(1, stockDao.saveStockLevels(Set.of(diesel)));
+		TreeSet<AbstractStockItem> sorted = new TreeSet<AbstractStockItem>(Comparator.comparing(AbstractStockItem::getUniqueID));
+		sorted.add(coal);
+		assertEquals(1, stockDao.importStock(sorted));
+		assertEquals(1, stockDao.saveStockLevels(sorted));
+		assertEquals(3, stockDao.getStock().size());
+	}
+
+	private static HashMap<String, AbstractStockItem> byUniqueID(ArrayList<AbstractStockItem> stock) {
+		HashMap<String, AbstractStockItem> byUniqueID = new HashMap<String, AbstractStockItem>();
+		for (AbstractStockItem item : stock) {
+			byUniqueID.put(item.getUniqueID(), item);
+		}
+		return byUniqueID;
+	}
+}
@@ -0,0 +1,167 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import log.Logger;
+import model.ModelEnums.CategoryFloorItem;
+import model.ModelEnums.StorageTemp;
+import model.StockItemModel.StockFloorItem;
+
+/**
+ * Unit tests of StockIDAllocator
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class UnitTestStockIDAllocator {
+
+	private static final int THREADS = 16;
+	private static final int IDS_PER_THREAD = 10_000;
+
+	@BeforeAll
+	static void beforeAll() {
+		Logger.initialise();
+	}
+
+	@Test
+	void test_sequentialAllocation() {
+		StockIDAllocator allocator = new StockIDAllocator();
+		assertEquals(0, allocator.getBlocksReserved());
+		assertEquals(1, allocator.nextID());
+		assertEquals(2, allocator.nextID());
+		assertEquals("000000000000003", allocator.nextUniqueID());
+		assertEquals(1, allocator.getBlocksReserved());
+	}
+
+	@Test
+	void test_concurrentAllocationIsUnique() throws InterruptedException {
+		AtomicInteger reserved = new AtomicInteger();
+		long[] highWaterMark = { 0 };
+		// a small block and chunk so threads often exhaust both
+		StockIDAllocator allocator = new StockIDAllocator(blockSize -> {
+			reserved.incrementAndGet();
+			synchronized (highWaterMark) {
+				highWaterMark[0] += blockSize;
+				return highWaterMark[0] - blockSize + 1;
+			}
+		}, 100, 7);
+		Set<Long> ids = ConcurrentHashMap.newKeySet();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			threads[t] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException interruptedEx) {
+					return;
+				}
+				for (int i = 0; i < IDS_PER_THREAD; i++) {
+					assertTrue(ids.add(allocator.nextID()));
+				}
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+		assertEquals(reserved.get(), allocator.getBlocksReserved());
+		// every ID lies in a reserved block
+		assertTrue(ids.stream().allMatch(id -> id >= 1 && id <= highWaterMark[0]));
+	}
+
+	@Test
+	void test_invalidParameters() {
+		assertThrows(IllegalArgumentException.class, () -> new StockIDAllocator(null, 10, 1));
+		assertThrows(IllegalArgumentException.class, () -> new StockIDAllocator(blockSize -> 1, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new StockIDAllocator(blockSize -> 1, 10, 11));
+		assertThrows(IllegalArgumentException.class, () -> StockItemModel.setIDAllocator(null));
+		// IDs past 15 digits, or a reserver that fails, cannot be allocated
+		assertThrows(IllegalStateException.class, () -> new StockIDAllocator(blockSize -> StockIDAllocator.MAX_ID, 10, 1).nextID());
+		assertThrows(IllegalStateException.class, () -> new StockIDAllocator(blockSize -> {
+			throw new IllegalStateException("database unavailable");
+		}, 10, 1).nextID());
+	}
+
+	@Test
+	void test_persistedAcrossRestarts() throws Exception {
+		Path scratchDatabase = Files.createTempFile("UnitTestStockIDAllocator", ".db");
+		StockIDAllocator defaultAllocator = StockItemModel.getIDAllocator();
+		StockItemModel model = new StockItemModel();
+		try {
+			long lastBeforeRestart;
+			try (StockDatabaseAccessObject stockDao = new StockDatabaseAccessObject(scratchDatabase.toString())) {
+				// a catalogue saved before the sequence existed
+				StockFloorItem legacy = model.new StockFloorItem("500000000000000", "Legacy", false, 100, StorageTemp.NON_SPECIFIC,
+						CategoryFloorItem.OTHER);
+				stockDao.importStock(Arrays.asList(legacy));
+
+				StockFloorItem first = model.new StockFloorItem("First", false, 100, StorageTemp.NON_SPECIFIC, CategoryFloorItem.OTHER);
+				assertEquals("500000000000001", first.getUniqueID());
+				lastBeforeRestart = Long.parseLong(
+						model.new StockFloorItem("Second", false, 100, StorageTemp.NON_SPECIFIC, CategoryFloorItem.OTHER).getUniqueID());
+			}
+			try (StockDatabaseAccessObject stockDao = new StockDatabaseAccessObject(scratchDatabase.toString())) {
+				StockFloorItem afterRestart = model.new StockFloorItem("Third", false, 100, StorageTemp.NON_SPECIFIC, CategoryFloorItem.OTHER);
+				// the rest of the first block is skipped, never reissued
+				assertEquals(lastBeforeRestart - 1 + StockIDAllocator.DEFAULT_BLOCK_SIZE, Long.parseLong(afterRestart.getUniqueID()));
+				assertTrue(Long.parseLong(afterRestart.getUniqueID()) > lastBeforeRestart);
+				// imported alongside the legacy item rather than over it
+				stockDao.importStock(Arrays.asList(afterRestart));
+				assertEquals(2, stockDao.getStock().size());
+			}
+		} finally {
+			StockItemModel.setIDAllocator(defaultAllocator);
+			Files.deleteIfExists(scratchDatabase);
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-wal"));
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-shm"));
+		}
+	}
+
+	@Test
+	void test_installedOnOpen() throws Exception {
+		Path scratchDatabase = Files.createTempFile("UnitTestStockIDAllocator", ".db");
+		StockIDAllocator defaultAllocator = StockItemModel.getIDAllocator();
+		StockItemModel model = new StockItemModel();
+		try {
+			String idBeforeRestart;
+			try (StockDatabaseAccessObject stockDao = new StockDatabaseAccessObject(scratchDatabase.toString())) {
+				assertNotSame(defaultAllocator, StockItemModel.getIDAllocator());
+				StockFloorItem beforeRestart = model.new StockFloorItem("Before", false, 100, StorageTemp.NON_SPECIFIC, CategoryFloorItem.OTHER);
+				idBeforeRestart = beforeRestart.getUniqueID();
+				stockDao.importStock(Arrays.asList(beforeRestart));
+			}
+			assertSame(defaultAllocator, StockItemModel.getIDAllocator());
+
+			// a restarted JVM starts with a fresh in-memory allocator
+			StockItemModel.setIDAllocator(new StockIDAllocator());
+			try (StockDatabaseAccessObject stockDao = new StockDatabaseAccessObject(scratchDatabase.toString())) {
+				StockFloorItem afterRestart = model.new StockFloorItem("After", false, 100, StorageTemp.NON_SPECIFIC, CategoryFloorItem.OTHER);
+				assertNotEquals(idBeforeRestart, afterRestart.getUniqueID());
+				stockDao.importStock(Arrays.asList(afterRestart));
+				assertEquals(2, stockDao.getStock().size());
+			}
+		} finally {
+			StockItemModel.setIDAllocator(defaultAllocator);
+			Files.deleteIfExists(scratchDatabase);
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-wal"));
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-shm"));
+		}
+	}
+}
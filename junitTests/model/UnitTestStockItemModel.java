@@ -0,0 +1,91 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.ModelEnums.CategorySolidFuel;
+import model.ModelEnums.StorageTemp;
+import model.StockItemModel.StockSolidFuel;
+
+/**
+ * Unit tests of StockItemModel
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class UnitTestStockItemModel {
+
+	private static final int TILLS = 16;
+
+	private StockItemModel model = new StockItemModel();
+	private StockSolidFuel coal;
+
+	@BeforeEach
+	void setUp() {
+		coal = model.new StockSolidFuel("Coal 25kg", false, 1_499, StorageTemp.NON_SPECIFIC, CategorySolidFuel.COAL, 25_000);
+	}
+
+	@Test
+	void test_solidFuelUnitsInStock() {
+		assertEquals(0, coal.getUnitsInStock());
+		coal.addUnitsInStock(5);
+		coal.removeUnitsInStock(2);
+		assertEquals(3, coal.getUnitsInStock());
+		assertFalse(coal.tryRemoveUnitsInStock(4));
+		assertEquals(3, coal.getUnitsInStock());
+		assertTrue(coal.tryRemoveUnitsInStock(3));
+		assertEquals(0, coal.getUnitsInStock());
+		assertThrows(IllegalArgumentException.class, () -> coal.removeUnitsInStock(1));
+		assertEquals(0, coal.getUnitsInStock());
+	}
+
+	@Test
+	void test_solidFuelUnitsInStockInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> coal.addUnitsInStock(0));
+		assertThrows(IllegalArgumentException.class, () -> coal.removeUnitsInStock(-1));
+		assertThrows(IllegalArgumentException.class, () -> coal.tryRemoveUnitsInStock(0));
+		assertThrows(IllegalArgumentException.class, () -> coal.setUnitsInStock(-1));
+		coal.setUnitsInStock(Integer.MAX_VALUE - 1);
+		assertThrows(IllegalArgumentException.class, () -> coal.addUnitsInStock(2));
+		assertEquals(Integer.MAX_VALUE - 1, coal.getUnitsInStock());
+	}
+
+	@Test
+	void test_solidFuelConcurrentSales() throws InterruptedException {
+		int stock = 10_000;
+		coal.addUnitsInStock(stock);
+		AtomicInteger sold = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] tills = new Thread[TILLS];
+		for (int t = 0; t < TILLS; t++) {
+			tills[t] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException interruptedEx) {
+					return;
+				}
+				// every till tries to sell the whole stock, so most sales must fail
+				for (int i = 0; i < stock; i++) {
+					if (coal.tryRemoveUnitsInStock(1)) {
+						sold.incrementAndGet();
+					}
+				}
+			});
+			tills[t].start();
+		}
+		start.countDown();
+		for (Thread till : tills) {
+			till.join();
+		}
+		assertEquals(stock, sold.get());
+		assertEquals(0, coal.getUnitsInStock());
+	}
+}
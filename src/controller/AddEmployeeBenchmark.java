@@ -0,0 +1,184 @@
+package controller;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import log.Logger;
+import model.ConnectionPool;
+import model.DatabaseAccessObject;
+import model.HumanResourcesModel;
+import model.PragmaProfile;
+import model.PragmaProfile.JournalMode;
+import model.PragmaProfile.Synchronous;
+import model.PragmaProfile.TempStore;
+
+/**
+ * Compares the latency of adding one employee, on a scratch copy of the shop database:
+ * <ul>
+ * <li>two connections: the person row is inserted and committed on one pooled connection, then the employee row on a second, as
+ * {@code addEmployee()} used to</li>
+ * <li>one transaction: both rows are inserted on one pooled connection and committed together, as {@code addEmployee()} does now</li>
+ * <li>{@link DatabaseAccessObject#addEmployee}: the one transaction path end to end, including logging and the employee cache</li>
+ * </ul>
+ * Each is measured under the {@link PragmaProfile#INTERACTIVE} profile, and under a rollback journal with {@code synchronous=FULL} as the database
+ * was configured before pragma profiles, where every commit waits for the disk. Each is warmed up before it is measured, and percentiles are taken
+ * over every measured add. Run from the project root.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class AddEmployeeBenchmark {
+
+	private static final String SHOP_DB = "./src/model/shop.db";
+	private static final int WARMUP_ADDS = 200;
+	private static final int MEASURED_ADDS = 1_000;
+	private static final PragmaProfile ROLLBACK_FULL = new PragmaProfile("rollback-full", JournalMode.DELETE, Synchronous.FULL, -2_000, 0,
+			TempStore.DEFAULT, 5_000);
+
+	// the SQL addEmployee() runs
+	private static final String SQL_ADD_PERSON = "INSERT INTO person (forename,surname,email,phoneNumber) VALUES (?,?,?,?);";
+	private static final String SQL_ADD_EMPLOYEE = "INSERT INTO employee (personID,hourlyRateInPence,hoursPerWeek,startDate,endDate) VALUES (?,?,?,?,?);";
+	private static final String SQL_LAST_INSERT_ROWID = "SELECT last_insert_rowid();";
+
+	/**
+	 * One way of adding an employee
+	 */
+	private interface AddPath {
+		void add() throws SQLException;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Logger.initialise();
+		HumanResourcesModel model = new HumanResourcesModel();
+		System.out.printf("%d adds per path, %d cores%n", MEASURED_ADDS, Runtime.getRuntime().availableProcessors());
+		try {
+			for (PragmaProfile profile : new PragmaProfile[] { PragmaProfile.INTERACTIVE, ROLLBACK_FULL }) {
+				// a fresh copy per profile, and the pool and DAO are opened in turn, as the journal mode cannot leave WAL while another connection
+				// holds the database open
+				Path scratchDatabase = Files.createTempFile("ShopSystemBenchmark", ".db");
+				Files.copy(Paths.get(SHOP_DB), scratchDatabase, StandardCopyOption.REPLACE_EXISTING);
+				try {
+					try (ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + scratchDatabase, ConnectionPool.DEFAULT_MAX_SIZE)) {
+						pool.setPragmaProfile(profile);
+						measure(profile, "two connections", () -> addOnTwoConnections(pool));
+						measure(profile, "one transaction", () -> addInOneTransaction(pool));
+					}
+					try (DatabaseAccessObject dao = new DatabaseAccessObject(scratchDatabase.toString())) {
+						dao.setPragmaProfile(profile);
+						measure(profile, "DAO addEmployee", () -> {
+							if (dao.addEmployee(model.new Employee("Bench", "Mark", "bench@shop.test", "+44123", 1050, 37.5, LocalDate.of(2020, 1, 6),
+									null)) < 0) {
+								throw new SQLException("addEmployee failed");
+							}
+						});
+					}
+				} finally {
+					Files.deleteIfExists(scratchDatabase);
+					Files.deleteIfExists(Paths.get(scratchDatabase + "-wal"));
+					Files.deleteIfExists(Paths.get(scratchDatabase + "-shm"));
+					Files.deleteIfExists(Paths.get(scratchDatabase + "-journal"));
+				}
+			}
+		} finally {
+			Logger.closeLogger();
+		}
+	}
+
+	private static void measure(PragmaProfile profile, String name, AddPath path) throws SQLException {
+		for (int i = 0; i < WARMUP_ADDS; i++) {
+			path.add();
+		}
+		long[] latencies = new long[MEASURED_ADDS];
+		for (int i = 0; i < MEASURED_ADDS; i++) {
+			long start = System.nanoTime();
+			path.add();
+			latencies[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(latencies);
+		System.out.printf("%-14s %-16s p50 %7.1fus  p99 %7.1fus  mean %7.1fus%n", profile.getName(), name, percentile(latencies, 0.50) / 1e3,
+				percentile(latencies, 0.99) / 1e3, Arrays.stream(latencies).average().orElse(0) / 1e3);
+	}
+
+	/**
+	 * The old path: each row inserted and committed on its own borrowed connection
+	 */
+	private static void addOnTwoConnections(ConnectionPool pool) throws SQLException {
+		int personID;
+		try (Connection connection = pool.borrow();
+				PreparedStatement addPerson = connection.prepareStatement(SQL_ADD_PERSON);
+				PreparedStatement lastRowId = connection.prepareStatement(SQL_LAST_INSERT_ROWID)) {
+			bindPerson(addPerson);
+			addPerson.executeUpdate();
+			try (ResultSet rs = lastRowId.executeQuery()) {
+				personID = rs.getInt(1);
+			}
+		}
+		try (Connection connection = pool.borrow(); PreparedStatement addEmployee = connection.prepareStatement(SQL_ADD_EMPLOYEE)) {
+			bindEmployee(addEmployee, personID);
+			addEmployee.executeUpdate();
+		}
+	}
+
+	/**
+	 * The new path: both rows inserted on one borrowed connection and committed together
+	 */
+	private static void addInOneTransaction(ConnectionPool pool) throws SQLException {
+		try (Connection connection = pool.borrow()) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement addPerson = connection.prepareStatement(SQL_ADD_PERSON);
+					PreparedStatement addEmployee = connection.prepareStatement(SQL_ADD_EMPLOYEE);
+					PreparedStatement lastRowId = connection.prepareStatement(SQL_LAST_INSERT_ROWID)) {
+				bindPerson(addPerson);
+				addPerson.executeUpdate();
+				int personID;
+				try (ResultSet rs = lastRowId.executeQuery()) {
+					personID = rs.getInt(1);
+				}
+				bindEmployee(addEmployee, personID);
+				addEmployee.executeUpdate();
+				connection.commit();
+			} catch (SQLException addEx) {
+				connection.rollback();
+				throw addEx;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+		}
+	}
+
+	private static void bindPerson(PreparedStatement statement) throws SQLException {
+		statement.setString(1, "Bench");
+		statement.setString(2, "Mark");
+		statement.setString(3, "bench@shop.test");
+		statement.setString(4, "+44123");
+	}
+
+	private static void bindEmployee(PreparedStatement statement, int personID) throws SQLException {
+		statement.setInt(1, personID);
+		statement.setInt(2, 1050);
+		statement.setDouble(3, 37.5);
+		statement.setString(4, "2020-01-06");
+		statement.setString(5, "");
+	}
+
+	/**
+	 * @param sortedValues values sorted in ascending order
+	 * @param fraction     the percentile as a fraction, eg 0.99
+	 * @return the value at the percentile
+	 */
+	private static long percentile(long[] sortedValues, double fraction) {
+		int index = (int) Math.ceil(fraction * sortedValues.length) - 1;
+		return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+	}
+}
@@ -0,0 +1,118 @@
+package controller;
+
+import java.lang.StackWalker.StackFrame;
+import java.util.ArrayList;
+import java.util.function.LongSupplier;
+
+import log.LogOverflowPolicy;
+import log.Logger;
+
+/**
+ * Compares the per-call cost of attributing a log message to the code that logged it, from call stacks {@value #SHALLOW_STACK} and
+ * {@value #DEEP_STACK} frames deep (JavaFX event handlers run around {@value #DEEP_STACK} deep):
+ * <ul>
+ * <li>capturing and filtering the full stack trace, as {@code Logger} used to</li>
+ * <li>walking to the first frame outside the logger with a {@link StackWalker}, describing it every time</li>
+ * <li>{@link Logger#logThis(String...)} as a whole, logging asynchronously, with its cached caller attribution on and off</li>
+ * </ul>
+ * Each is warmed up before it is measured, and the best of the measured rounds is reported. Run from the project root.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class CallerAttributionBenchmark {
+
+	private static final int SHALLOW_STACK = 10;
+	private static final int DEEP_STACK = 60;
+	private static final int CALLS_PER_ROUND = 50_000;
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int MEASURED_ROUNDS = 5;
+	private static final int LOGGER_FRAMES = 4;
+	private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+	private static volatile Object sink;
+
+	public static void main(String[] args) throws InterruptedException {
+		Logger.initialise();
+		System.out.printf("%d calls per round, %d cores%n", CALLS_PER_ROUND, Runtime.getRuntime().availableProcessors());
+		for (int depth : new int[] { SHALLOW_STACK, DEEP_STACK }) {
+			measure("full stack trace", depth, () -> {
+				for (int i = 0; i < CALLS_PER_ROUND; i++) {
+					sink = fullStackTrace();
+				}
+				return 0;
+			});
+			measure("StackWalker, uncached", depth, () -> {
+				for (int i = 0; i < CALLS_PER_ROUND; i++) {
+					// skip as many frames as lie between a logging call and Logger's stack walk
+					sink = STACK_WALKER.walk(frames -> frames
+							.skip(LOGGER_FRAMES)
+							.findFirst()
+							.map(frame -> frame.toStackTraceElement().toString())
+							.orElse(""));
+				}
+				return 0;
+			});
+			for (boolean attribution : new boolean[] { true, false }) {
+				measure("logThis, attribution " + (attribution ? "on" : "off"), depth, () -> {
+					Logger.setCallerAttribution(attribution);
+					Logger.initialiseAsync(CALLS_PER_ROUND * 2, LogOverflowPolicy.BLOCK);
+					long start = System.nanoTime();
+					for (int i = 0; i < CALLS_PER_ROUND; i++) {
+						Logger.logThis("CallerAttributionBenchmark", "message");
+					}
+					long elapsed = System.nanoTime() - start;
+					// the writer's flush is not part of the per-call cost
+					Logger.closeLogger();
+					return elapsed;
+				});
+			}
+			Logger.setCallerAttribution(true);
+		}
+		Logger.closeLogger();
+	}
+
+	/**
+	 * The caller attribution {@code Logger} used to do on every call
+	 */
+	private static String fullStackTrace() {
+		ArrayList<StackTraceElement> stack = new ArrayList<StackTraceElement>();
+		for (StackTraceElement e : Thread.currentThread().getStackTrace()) {
+			if (!e.toString().startsWith("java") && !e.toString().startsWith("log") && !e.toString().startsWith("Log")) {
+				stack.add(e);
+			}
+		}
+		return stack.toString().replace(',', '-');
+	}
+
+	/**
+	 * @param round runs a round of {@value #CALLS_PER_ROUND} calls, returning the nanoseconds to count, or 0 to count the whole round
+	 */
+	private static void measure(String name, int depth, LongSupplier round) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			atDepth(depth, round);
+		}
+		long bestNanos = Long.MAX_VALUE;
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			bestNanos = Math.min(bestNanos, atDepth(depth, round));
+		}
+		System.out.printf("stack %2d  %-26s %8.0fns/call%n", depth, name, (double) bestNanos / CALLS_PER_ROUND);
+	}
+
+	/**
+	 * Run a round from a call stack about depth frames deep
+	 *
+	 * @return the nanoseconds the round took
+	 */
+	private static long atDepth(int depth, LongSupplier round) {
+		if (depth > 1) {
+			return atDepth(depth - 1, round);
+		}
+		long start = System.nanoTime();
+		long counted = round.getAsLong();
+		return (counted > 0) ? counted : System.nanoTime() - start;
+	}
+}
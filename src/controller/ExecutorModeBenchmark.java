@@ -0,0 +1,133 @@
+package controller;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import log.Logger;
+import model.DatabaseAccessObject;
+import model.DatabaseAccessObject.PageDirection;
+import model.ExecutorMode;
+
+/**
+ * Compares the throughput and latency of each {@link ExecutorMode} under a burst of concurrent simulated till requests.<br>
+ * <br>
+ * Each request waits {@value #SIMULATED_TILL_IO_MILLIS}ms, standing in for the round trip to a till or card terminal, then reads a page of
+ * employees from a scratch copy of the shop database. All requests are submitted at once, and each request's latency is measured from submission to
+ * completion.<br>
+ * <br>
+ * Run from the project root, optionally passing the number of concurrent requests. An {@link ExecutorMode} that is unsupported by the running JVM
+ * is reported as such and measured as the executor it falls back to.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class ExecutorModeBenchmark {
+
+	private static final String SHOP_DB = "./src/model/shop.db";
+	private static final int DEFAULT_CONCURRENT_REQUESTS = 1_000;
+	private static final int PLATFORM_THREADS = 4;
+	private static final long SIMULATED_TILL_IO_MILLIS = 5;
+	private static final int REQUEST_PAGE_SIZE = 10;
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 5;
+
+	public static void main(String[] args) throws Exception {
+		int concurrentRequests = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_CONCURRENT_REQUESTS;
+		Logger.initialise();
+		Path scratchDatabase = Files.createTempFile("ShopSystemBenchmark", ".db");
+		Files.copy(Paths.get(SHOP_DB), scratchDatabase, StandardCopyOption.REPLACE_EXISTING);
+		try (DatabaseAccessObject dao = new DatabaseAccessObject(scratchDatabase.toString())) {
+			System.out.printf("%d concurrent requests, %dms simulated till I/O each, %d platform threads, Java %s%n", concurrentRequests,
+					SIMULATED_TILL_IO_MILLIS, PLATFORM_THREADS, Runtime.version());
+			for (ExecutorMode mode : ExecutorMode.values()) {
+				for (int i = 0; i < WARMUP_ROUNDS; i++) {
+					runRound(dao, mode, concurrentRequests);
+				}
+				long[] latencies = new long[0];
+				long elapsedNanos = 0;
+				for (int i = 0; i < MEASURED_ROUNDS; i++) {
+					long start = System.nanoTime();
+					long[] roundLatencies = runRound(dao, mode, concurrentRequests);
+					elapsedNanos += System.nanoTime() - start;
+					latencies = concat(latencies, roundLatencies);
+				}
+				report(mode, latencies, elapsedNanos);
+			}
+		} finally {
+			Files.deleteIfExists(scratchDatabase);
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-wal"));
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-shm"));
+			Logger.closeLogger();
+		}
+	}
+
+	/**
+	 * Submit every request at once to a new executor of the given mode, and wait for them all to complete
+	 *
+	 * @return the latency of each request in nanoseconds
+	 */
+	private static long[] runRound(DatabaseAccessObject dao, ExecutorMode mode, int concurrentRequests) throws InterruptedException {
+		long[] latencies = new long[concurrentRequests];
+		CountDownLatch done = new CountDownLatch(concurrentRequests);
+		ExecutorService executor = mode.newExecutor("benchmark-", PLATFORM_THREADS);
+		try {
+			for (int i = 0; i < concurrentRequests; i++) {
+				int request = i;
+				long submitted = System.nanoTime();
+				executor.execute(() -> {
+					try {
+						Thread.sleep(SIMULATED_TILL_IO_MILLIS);
+						dao.getEmployeesPage(null, REQUEST_PAGE_SIZE, PageDirection.FORWARD);
+					} catch (InterruptedException interruptedEx) {
+						Thread.currentThread().interrupt();
+					} finally {
+						latencies[request] = System.nanoTime() - submitted;
+						done.countDown();
+					}
+				});
+			}
+			done.await();
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		return latencies;
+	}
+
+	private static void report(ExecutorMode mode, long[] latencies, long elapsedNanos) {
+		Arrays.sort(latencies);
+		double throughput = latencies.length / (elapsedNanos / 1e9);
+		System.out.printf("%-8s%s throughput %8.0f req/s  latency p50 %7.1fms  p99 %7.1fms  max %7.1fms%n",
+				mode,
+				(mode.isSupported()) ? "" : " (unsupported; fell back to PLATFORM)",
+				throughput,
+				percentile(latencies, 0.50) / 1e6,
+				percentile(latencies, 0.99) / 1e6,
+				latencies[latencies.length - 1] / 1e6);
+	}
+
+	/**
+	 * @param sortedValues values sorted in ascending order
+	 * @param fraction     the percentile as a fraction, eg 0.99
+	 * @return the value at the percentile
+	 */
+	private static long percentile(long[] sortedValues, double fraction) {
+		int index = (int) Math.ceil(fraction * sortedValues.length) - 1;
+		return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+	}
+
+	private static long[] concat(long[] first, long[] second) {
+		long[] both = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, both, first.length, second.length);
+		return both;
+	}
+}
@@ -0,0 +1,150 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import log.LogFormat;
+import log.LogMessageType;
+import log.LogOverflowPolicy;
+import log.LogReader;
+import log.Logger;
+
+/**
+ * Compares the CSV and binary log formats on {@value #MESSAGES} messages like those the shop system logs, with an exception every
+ * {@value #EXCEPTION_EVERY}. For each format it reports:
+ * <ul>
+ * <li>the size of the log file, and the bytes per message</li>
+ * <li>how long the asynchronous writer takes per message, from the first message logged until every message is written</li>
+ * <li>how long finding the exceptions takes: splitting every line of the CSV file, or a {@link LogReader} filtering the binary file</li>
+ * </ul>
+ * and how long exporting the binary file to CSV takes. Each is warmed up before it is measured, and the best of the measured rounds is reported. Log
+ * files are written to a temporary directory, which is deleted afterwards.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class LogFormatBenchmark {
+
+	private static final int MESSAGES = 50_000;
+	private static final int EXCEPTION_EVERY = 100;
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 5;
+
+	/**
+	 * A timed task, returning a count checked to be the same every round
+	 */
+	private interface Task {
+		long run(int round) throws IOException;
+	}
+
+	public static void main(String[] args) throws IOException {
+		Path directory = Files.createTempDirectory("LogFormatBenchmark");
+		Logger logger = Logger.initialise();
+		String logfilePath = logger.getLogfilePath();
+		String logfilePrefix = logger.getLogfilePrefix();
+		System.out.printf("%d messages, %d cores%n", MESSAGES, Runtime.getRuntime().availableProcessors());
+		try {
+			logger.setLogfilePath(directory.toString());
+			Path[] logfiles = new Path[WARMUP_ROUNDS + MEASURED_ROUNDS];
+			for (LogFormat format : LogFormat.values()) {
+				logger.setLogFormat(format);
+				measure(format + " write", "message", MESSAGES, round -> {
+					logger.setLogfilePrefix(format + "-" + round);
+					logfiles[round] = logger.getLogfile().toPath();
+					return logMessages();
+				});
+				Path logfile = logfiles[logfiles.length - 1];
+				System.out.printf("%-14s %9d bytes  %7.1f bytes/message%n", format + " size", Files.size(logfile), (double) Files.size(logfile) / MESSAGES);
+				if (format == LogFormat.CSV) {
+					measure("CSV find", "message", MESSAGES, round -> countCsvExceptions(logfile));
+				} else {
+					measure("BINARY find", "message", MESSAGES, round -> {
+						try (LogReader reader = new LogReader(logfile)) {
+							return reader.forEach(null, null, null, LogMessageType.EXCEPTION, record -> {
+							});
+						}
+					});
+					Path exported = directory.resolve("exported.csv");
+					measure("BINARY export", "message", MESSAGES, round -> {
+						try (LogReader reader = new LogReader(logfile)) {
+							return reader.exportCsv(exported, null, null, null, null);
+						}
+					});
+				}
+			}
+		} finally {
+			logger.setLogFormat(LogFormat.CSV);
+			logger.setLogfile(Path.of(logfilePath, logfilePrefix).toString());
+			Logger.closeLogger();
+			try (Stream<Path> files = Files.list(directory)) {
+				for (Path file : (Iterable<Path>) files::iterator) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		}
+	}
+
+	private static void measure(String name, String unit, int units, Task task) throws IOException {
+		long expected = -1;
+		long bestNanos = Long.MAX_VALUE;
+		for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+			long start = System.nanoTime();
+			long result = task.run(round);
+			long nanos = System.nanoTime() - start;
+			if (round >= WARMUP_ROUNDS) {
+				bestNanos = Math.min(bestNanos, nanos);
+			}
+			if (expected >= 0 && result != expected) {
+				throw new IllegalStateException(name + " gave " + result + " in round " + round + " but " + expected + " before");
+			}
+			expected = result;
+		}
+		System.out.printf("%-14s %9.1fns/%s  (result %d)%n", name, (double) bestNanos / units, unit, expected);
+	}
+
+	/**
+	 * Log messages like those saving employees and stock logs, asynchronously, and wait for them all to be written
+	 *
+	 * @return the number of messages logged
+	 */
+	private static long logMessages() {
+		Logger.initialiseAsync(MESSAGES * 2, LogOverflowPolicy.BLOCK);
+		for (int i = 0; i < MESSAGES; i++) {
+			if (i % EXCEPTION_EVERY == 0) {
+				Logger.logThis(new IllegalStateException("Stock item " + i + " could not be saved"));
+			} else if (i % 2 == 0) {
+				Logger.logThis("Employee pushed to database", "personID: " + i, "hourlyRate: " + (1_000 + i % 500));
+			} else {
+				Logger.logThis("StockItem sold", "itemID: " + i % 700, "units: " + (1 + i % 5), "till: " + i % 8);
+			}
+		}
+		Logger.closeLogger();
+		return MESSAGES;
+	}
+
+	/**
+	 * @return the number of exceptions in a CSV log file, splitting each line into its columns as a reader of the file would
+	 */
+	private static long countCsvExceptions(Path logfile) throws IOException {
+		long exceptions = 0;
+		// the Logger writes CSV files in the platform's default charset
+		try (BufferedReader reader = Files.newBufferedReader(logfile, Charset.defaultCharset())) {
+			reader.readLine();
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				String[] columns = line.split(",");
+				if (columns.length > 3 && columns[3].equals(LogMessageType.EXCEPTION.toString())) {
+					exceptions++;
+				}
+			}
+		}
+		return exceptions;
+	}
+}
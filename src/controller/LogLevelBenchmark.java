@@ -0,0 +1,69 @@
+package controller;
+
+import java.time.LocalDate;
+
+import log.LogLevel;
+import log.LogOverflowPolicy;
+import log.Logger;
+import model.HumanResourcesModel;
+import model.HumanResourcesModel.Employee;
+
+/**
+ * Compares the per-call cost of logging the details of an {@link Employee}, as {@code DatabaseAccessObject} does when saving one, at
+ * {@link LogLevel#DEBUG}:
+ * <ul>
+ * <li>disabled, with the message built eagerly as a String, as every message used to be</li>
+ * <li>disabled, with the message built by a {@code Supplier<String>}</li>
+ * <li>enabled, with the message built by a {@code Supplier<String>}, logging asynchronously</li>
+ * </ul>
+ * Each is warmed up before it is measured, and the best of the measured rounds is reported. Run from the project root.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class LogLevelBenchmark {
+
+	private static final int CALLS_PER_ROUND = 100_000;
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int MEASURED_ROUNDS = 5;
+
+	public static void main(String[] args) {
+		Logger.initialise();
+		Employee employee = new HumanResourcesModel().new Employee("Benchmark", "Employee", "benchmark@shop.test", "+44123", 1050, 37.5,
+				LocalDate.of(2020, 1, 6), null);
+		System.out.printf("%d calls per round, %d cores%n", CALLS_PER_ROUND, Runtime.getRuntime().availableProcessors());
+		Logger.setLevel(LogLevel.INFO);
+		measure("DEBUG off, eager String", () -> Logger.logThis(LogLevel.DEBUG, "Employee pushed to database: " + employee.toString()));
+		measure("DEBUG off, Supplier", () -> Logger.logThis(LogLevel.DEBUG, () -> "Employee pushed to database: " + employee.toString()));
+		Logger.setLevel(LogLevel.DEBUG);
+		Logger.initialiseAsync(CALLS_PER_ROUND * 2, LogOverflowPolicy.BLOCK);
+		measure("DEBUG on, Supplier", () -> Logger.logThis(LogLevel.DEBUG, () -> "Employee pushed to database: " + employee.toString()));
+		Logger.setLevel(LogLevel.INFO);
+		Logger.closeLogger();
+	}
+
+	private static void measure(String name, Runnable logCall) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			runRound(logCall);
+		}
+		long bestNanos = Long.MAX_VALUE;
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			bestNanos = Math.min(bestNanos, runRound(logCall));
+		}
+		System.out.printf("%-26s %9.1fns/call%n", name, (double) bestNanos / CALLS_PER_ROUND);
+	}
+
+	/**
+	 * @return the nanoseconds the round took
+	 */
+	private static long runRound(Runnable logCall) {
+		long start = System.nanoTime();
+		for (int i = 0; i < CALLS_PER_ROUND; i++) {
+			logCall.run();
+		}
+		return System.nanoTime() - start;
+	}
+}
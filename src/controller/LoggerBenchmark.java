@@ -0,0 +1,121 @@
+package controller;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import log.LogOverflowPolicy;
+import log.LogRotationPolicy;
+import log.Logger;
+
+/**
+ * Compares synchronous logging against asynchronous logging under each {@link LogOverflowPolicy}, with {@value #THREADS} threads each logging
+ * {@value #MESSAGES_PER_THREAD} messages shaped like those the database access objects log. Each mode reports the rate messages were logged at, how
+ * long closing the log took to write what was still buffered, the messages dropped, and percentiles of how long one call to
+ * {@link Logger#logThis(String...)} took (sampled every {@value #LATENCY_SAMPLE_EVERY} calls). Both synchronous and asynchronous logging are then
+ * measured again rolling the log file every {@value #ROLL_BYTES} bytes, including the time to finish compressing rolled files when closing. Run
+ * from the project root.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class LoggerBenchmark {
+
+	private static final int THREADS = 8;
+	private static final int MESSAGES_PER_THREAD = 20_000;
+	private static final int LATENCY_SAMPLE_EVERY = 16;
+	private static final long ROLL_BYTES = 4_000_000;
+	private static final int ROLLED_FILES_KEPT = 3;
+
+	public static void main(String[] args) throws InterruptedException, IOException {
+		Logger logger = Logger.initialise();
+		System.out.printf("%d threads x %d messages, buffer capacity %d, %d cores, logging to %s%n", THREADS, MESSAGES_PER_THREAD,
+				Logger.DEFAULT_BUFFER_CAPACITY, Runtime.getRuntime().availableProcessors(), logger.getLogfile());
+		// warm up both paths
+		runRound();
+		Logger.initialiseAsync();
+		runRound();
+		Logger.closeLogger();
+
+		measure("synchronous", null);
+		for (LogOverflowPolicy policy : LogOverflowPolicy.values()) {
+			measure("async " + policy, policy);
+		}
+
+		// roll every ROLL_BYTES, compressing rolled files in the background, keeping only the latest few
+		logger.setLogfilePrefix("LoggerBenchmark");
+		logger.setRotationPolicy(LogRotationPolicy.bySize(ROLL_BYTES, ROLLED_FILES_KEPT));
+		measure("sync, rolling", null);
+		measure("async, rolling", LogOverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * @param policy the overflow policy to log asynchronously with, or null to log synchronously
+	 */
+	private static void measure(String name, LogOverflowPolicy policy) throws InterruptedException {
+		Logger logger = (policy != null) ? Logger.initialiseAsync(Logger.DEFAULT_BUFFER_CAPACITY, policy) : Logger.initialise();
+		long droppedBefore = logger.getDroppedMessages();
+		long start = System.nanoTime();
+		long[] latencies = runRound();
+		long logged = System.nanoTime();
+		Logger.closeLogger();
+		long closed = System.nanoTime();
+		System.out.printf("%-14s %9.0f messages/s  close %5dms  dropped %6d  logThis p50 %6dns  p99 %8dns  p99.9 %9dns%n", name,
+				(double) THREADS * MESSAGES_PER_THREAD / (logged - start) * 1e9, (closed - logged) / 1_000_000,
+				logger.getDroppedMessages() - droppedBefore, percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999));
+	}
+
+	/**
+	 * Start every thread at once, and wait for them all to finish logging
+	 *
+	 * @return the sampled latencies of every thread, sorted
+	 */
+	private static long[] runRound() throws InterruptedException {
+		long[][] latencies = new long[THREADS][];
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			threads[t] = new Thread(() -> {
+				long[] samples = new long[MESSAGES_PER_THREAD / LATENCY_SAMPLE_EVERY + 1];
+				int sampled = 0;
+				try {
+					start.await();
+				} catch (InterruptedException interruptedEx) {
+					return;
+				}
+				for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+					boolean sample = i % LATENCY_SAMPLE_EVERY == 0;
+					long callStart = sample ? System.nanoTime() : 0;
+					Logger.logThis("LoggerBenchmark", "thread: " + thread, "message: " + i);
+					if (sample) {
+						samples[sampled++] = System.nanoTime() - callStart;
+					}
+				}
+				latencies[thread] = Arrays.copyOf(samples, sampled);
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+	}
+
+	/**
+	 * @param sortedValues values sorted in ascending order
+	 * @param fraction     the percentile as a fraction, eg 0.99
+	 * @return the value at the percentile
+	 */
+	private static long percentile(long[] sortedValues, double fraction) {
+		if (sortedValues.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(fraction * sortedValues.length) - 1;
+		return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+	}
+}
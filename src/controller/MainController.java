@@ -11,11 +11,19 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
 import log.Logger;
 import log.LogInterface;
+import model.AsyncDatabaseAccessObject;
 import model.DatabaseAccessObject;
+import model.ExecutorMode;
+import model.DatabaseAccessObject.PageDirection;
 import model.HumanResourcesModel.Employee;
 
 /**
@@ -43,6 +51,18 @@ public class MainController {
 	 * All access to database through this object
 	 */
 	private static DatabaseAccessObject dao;
+	/**
+	 * Database access from JavaFX event handlers goes through this object, so the JavaFX Application Thread is never blocked
+	 */
+	private static AsyncDatabaseAccessObject asyncDao;
+	/**
+	 * Runs the results of asynchronous database operations on the JavaFX Application Thread
+	 */
+	private static final Executor FX_THREAD = Platform::runLater;
+	/**
+	 * Command line argument selecting the {@link ExecutorMode} database work runs on, eg {@code --executor=virtual}
+	 */
+	private static final String ARG_EXECUTOR_MODE = "--executor=";
 	/**
 	 * All access to JavaFX GUI through this object
 	 */
@@ -54,8 +74,11 @@ public class MainController {
 
 	public static void main(String[] args) {
 		try {
-			Logger.initialise();
+			Logger.initialiseAsync();
 			dao = new DatabaseAccessObject("./src/model/shop.db");
+			ExecutorMode executorMode = parseExecutorMode(args);
+			asyncDao = new AsyncDatabaseAccessObject(dao, executorMode);
+			Logger.logThis("Database executor mode: " + executorMode + ((executorMode.isSupported()) ? "" : " (unsupported by this JVM; using PLATFORM)"));
 			view = new View();
 			Logger.logThis("MainController initialised - starting View");
 			Application.launch(View.class);
@@ -63,11 +86,34 @@ public class MainController {
 			System.err.println(controllerInitException.getMessage());
 			Logger.logThis(controllerInitException);
 		} finally {
+			if (asyncDao != null) {
+				asyncDao.close();
+			}
+			if (dao != null) {
+				dao.close();
+			}
 			Logger.closeLogger();
 		}
 
 	}
 
+	/**
+	 * Find the {@link ExecutorMode} selected by a {@code --executor=<mode>} command line argument
+	 * 
+	 * @param args the command line arguments
+	 * @return the selected ExecutorMode, or {@link ExecutorMode#PLATFORM} if none was selected
+	 * @throws IllegalArgumentException if the selected mode is not an ExecutorMode
+	 */
+	private static ExecutorMode parseExecutorMode(String[] args) throws IllegalArgumentException {
+		ExecutorMode mode = ExecutorMode.PLATFORM;
+		for (String arg : args) {
+			if (arg.startsWith(ARG_EXECUTOR_MODE)) {
+				mode = ExecutorMode.parse(arg.substring(ARG_EXECUTOR_MODE.length()));
+			}
+		}
+		return mode;
+	}
+
 	//**************************************************************\
 	//																*
 	//		Database Operations										*
@@ -84,39 +130,92 @@ public class MainController {
 	}
 
 	/**
-	 * Adds an employee to the database
+	 * Asynchronously queries the database for the page of employees following {@code lastEmployee}, ordered by surname
+	 * 
+	 * @param lastEmployee the last employee of the previous page, or null for the first page
+	 * @param pageSize     the maximum number of employees to return
+	 * @param onPage       receives an {@code ArrayList<Employee>} containing at most {@code pageSize} employees, on the JavaFX Application Thread. If
+	 *                     the database operation fails it receives null
+	 */
+	public static void getEmployeesPageFromDatabase(Employee lastEmployee, int pageSize, Consumer<ArrayList<Employee>> onPage) {
+		asyncDao.getEmployeesPage(lastEmployee, pageSize, PageDirection.FORWARD)
+				.exceptionally(getPageEx -> {
+					Logger.logThis("MainController: employee page could not be read", getPageEx.toString());
+					return null;
+				})
+				.thenAcceptAsync(onPage, FX_THREAD);
+	}
+
+	/**
+	 * Asynchronously adds an employee to the database, then closes the Add Employee window and refreshes the employee table. If the employee could not
+	 * be added an error alert is displayed and the window is left open with its fields intact, so the user can try again.
 	 * 
 	 * @param employee
 	 */
 	public static void addEmployeeToDatabase(Employee employee) {
-		dao.addEmployee(employee);
-		view.getViewHumanResources().refreshEmployeeTableView();
-		view.getViewHumanResources().getEmployeeDetailAdd().getController().clearFields();
-		view.getViewHumanResources().getEmployeeDetailAdd().getStage().close();
+		asyncDao.addEmployee(employee).handleAsync((personID, addEx) -> {
+			if (addEx != null || personID < 0) {
+				alertDatabaseOperationFailed("The employee could not be added to the database.", addEx);
+			} else {
+				view.getViewHumanResources().refreshEmployeeTableView();
+				view.getViewHumanResources().getEmployeeDetailAdd().getController().clearFields();
+				view.getViewHumanResources().getEmployeeDetailAdd().getStage().close();
+			}
+			return null;
+		}, FX_THREAD);
 	}
 
 	/**
-	 * Queries a database an originalEmployee, then updates that with the the editedEmployees data
+	 * Asynchronously updates the database entry of originalEmployee with the the editedEmployees data, then closes the Edit Employee window and
+	 * refreshes the employee table. If the employee could not be updated an error alert is displayed and the window is left open with its fields
+	 * intact.
 	 * 
 	 * @param originalEmployee
 	 * @param editedEmployee
 	 */
 	public static void editEmployeeInDatabase(Employee originalEmployee, Employee editedEmployee) {
-		dao.editEmployee(originalEmployee, editedEmployee);
-		view.getViewHumanResources().getEmployeeDetailEdit().getController().clearFields();
-		view.getViewHumanResources().getEmployeeDetailEdit().getStage().close();
-		view.getViewHumanResources().refreshEmployeeTableView();
+		asyncDao.editEmployee(originalEmployee.getEmployeeID(), editedEmployee).handleAsync((edited, editEx) -> {
+			if (editEx != null || !edited) {
+				alertDatabaseOperationFailed("The employee could not be updated in the database.", editEx);
+			} else {
+				view.getViewHumanResources().getEmployeeDetailEdit().getController().clearFields();
+				view.getViewHumanResources().getEmployeeDetailEdit().getStage().close();
+				view.getViewHumanResources().refreshEmployeeTableView();
+			}
+			return null;
+		}, FX_THREAD);
 	}
 
 	/**
-	 * Searches the database for an employeeToDelete, and removes that entry (from both person and employee tables)
-	 * 
-	 * @param employeeToDelete
+	 * Asynchronously removes the selected employee from the database (from both person and employee tables), then closes the confirmation window
+	 * and refreshes the employee table. If the employee could not be removed an error alert is displayed and the confirmation window is left open.
 	 */
 	public static void deleteEmployeeInDatabase() {
-		dao.deleteEmployee(getSelectedEmployee());
-		view.getViewHumanResources().getEmployeeDeleteConfirm().getStage().close();
-		view.getViewHumanResources().refreshEmployeeTableView();
+		asyncDao.deleteEmployee(getSelectedEmployee().getEmployeeID()).handleAsync((deleted, deleteEx) -> {
+			if (deleteEx != null || !deleted) {
+				alertDatabaseOperationFailed("The employee could not be removed from the database.", deleteEx);
+			} else {
+				view.getViewHumanResources().getEmployeeDeleteConfirm().getStage().close();
+				view.getViewHumanResources().refreshEmployeeTableView();
+			}
+			return null;
+		}, FX_THREAD);
+	}
+
+	/**
+	 * Display an error alert for a failed database operation, logging the exception it failed with if there was one. The DAO has already logged
+	 * any database error it caught itself.
+	 * 
+	 * @param alertText
+	 * @param operationEx the exception the operation completed with, or null if it completed with a failure result
+	 */
+	private static void alertDatabaseOperationFailed(String alertText, Throwable operationEx) {
+		if (operationEx != null) {
+			Logger.logThis("MainController: database operation failed", alertText, operationEx.toString());
+		}
+		Alert alert = new Alert(AlertType.ERROR);
+		alert.setContentText(alertText + " Please try again.");
+		alert.show();
 	}
 
 	//**************************************************************\
@@ -0,0 +1,110 @@
+package controller;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import log.Logger;
+import model.DatabaseAccessObject;
+import model.HumanResourcesModel;
+import model.HumanResourcesModel.Employee;
+import model.PayrollEngine;
+import model.PragmaProfile;
+import model.ShiftCalendar;
+
+/**
+ * Times a {@link PayrollEngine} run over {@value #EMPLOYEES} employees with a year of shifts each, on a single thread and on the common
+ * ForkJoinPool.<br>
+ * <br>
+ * Employees and shifts are written to a scratch copy of the shop database, then loaded once; the load time is reported separately from the
+ * calculation. Each pool is warmed up before it is measured, and the best of the measured runs is reported. Run from the project root.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class PayrollBenchmark {
+
+	private static final String SHOP_DB = "./src/model/shop.db";
+	private static final int EMPLOYEES = 10_000;
+	private static final int WARMUP_RUNS = 10;
+	private static final int MEASURED_RUNS = 20;
+	private static final LocalDate YEAR_START = LocalDate.of(2021, 1, 1);
+	private static final LocalDate YEAR_END = LocalDate.of(2021, 12, 31);
+
+	public static void main(String[] args) throws Exception {
+		Logger.initialise();
+		Path scratchDatabase = Files.createTempFile("ShopSystemPayroll", ".db");
+		Files.copy(Paths.get(SHOP_DB), scratchDatabase, StandardCopyOption.REPLACE_EXISTING);
+		ForkJoinPool singleThread = new ForkJoinPool(1);
+		try (DatabaseAccessObject dao = new DatabaseAccessObject(scratchDatabase.toString())) {
+			populate(dao);
+
+			long start = System.nanoTime();
+			ArrayList<Employee> employees = dao.getEmployees();
+			HashMap<Integer, ShiftCalendar> shifts = dao.getShifts(null, YEAR_START, YEAR_END);
+			if (shifts == null) {
+				throw new IllegalStateException("shifts could not be read from the benchmark database");
+			}
+			System.out.printf("%d employees x 1 year of shifts loaded in %.0fms, %d cores%n", employees.size(), (System.nanoTime() - start) / 1e6,
+					Runtime.getRuntime().availableProcessors());
+
+			measure("1 thread", new PayrollEngine(singleThread, PayrollEngine.DEFAULT_SLICE_SIZE), employees, shifts);
+			measure("fork/join", new PayrollEngine(), employees, shifts);
+		} finally {
+			singleThread.shutdown();
+			Files.deleteIfExists(scratchDatabase);
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-wal"));
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-shm"));
+			Logger.closeLogger();
+		}
+	}
+
+	/**
+	 * Add {@value #EMPLOYEES} employees to the database, then give every employee five shifts a week for a year
+	 */
+	private static void populate(DatabaseAccessObject dao) {
+		HumanResourcesModel model = new HumanResourcesModel();
+		ArrayList<Employee> employees = new ArrayList<Employee>(EMPLOYEES);
+		for (int i = 0; i < EMPLOYEES; i++) {
+			employees.add(model.new Employee("forename", "surname", "payroll@benchmark.test", "123", 800 + i % 2000, 37.5, YEAR_START, null));
+		}
+		dao.setPragmaProfile(PragmaProfile.BULK_LOAD);
+		dao.addEmployees(employees);
+		// read back, as bulk inserted employees do not carry their primary keys
+		ArrayList<Employee> saved = dao.getEmployees();
+		for (int i = 0; i < saved.size(); i++) {
+			for (LocalDate day = YEAR_START; !day.isAfter(YEAR_END); day = day.plusDays(1)) {
+				if ((day.getDayOfWeek().getValue() + i) % 7 < 5) {
+					saved.get(i).addSingleShift(day, 4 + (i + day.getDayOfYear()) % 6);
+				}
+			}
+		}
+		dao.saveShifts(saved);
+		dao.setPragmaProfile(PragmaProfile.INTERACTIVE);
+		dao.invalidateEmployeeCache();
+	}
+
+	private static void measure(String name, PayrollEngine engine, ArrayList<Employee> employees, HashMap<Integer, ShiftCalendar> shifts) {
+		long best = Long.MAX_VALUE;
+		LongAdder total = new LongAdder();
+		for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+			total.reset();
+			long start = System.nanoTime();
+			engine.run(employees, shifts, YEAR_START, YEAR_END, pay -> total.add(pay.getGrossPayInPence()));
+			long elapsed = System.nanoTime() - start;
+			if (run >= WARMUP_RUNS) {
+				best = Math.min(best, elapsed);
+			}
+		}
+		System.out.printf("%-10s best %7.2fms  total gross pay %d pence%n", name, best / 1e6, total.sum());
+	}
+}
@@ -0,0 +1,164 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import log.Logger;
+import model.ModelEnums.CategoryLiquidFuel;
+import model.ModelEnums.StorageTemp;
+import model.PumpTelemetryIngest;
+import model.StockItemModel;
+import model.StockItemModel.StockLiquidFuel;
+
+/**
+ * A local stand-in for the forecourt pump feed, driving a {@link PumpTelemetryIngest} with {@value #PUMPS} pumps across {@value #TANKS} tanks:
+ * <ul>
+ * <li>paced: each pump reports {@value #PACED_EVENTS_PER_PUMP_PER_SECOND} events a second for {@value #PACED_SECONDS} seconds</li>
+ * <li>flood: each pump reports events as fast as it can for {@value #FLOOD_SECONDS} seconds</li>
+ * </ul>
+ * Each phase reports the event rate offered and applied, the events dropped, and percentiles of how long a pump spent offering one event (sampled
+ * every {@value #LATENCY_SAMPLE_EVERY} events). Finally the volume taken from the tanks is checked against the volume accepted. Run from the project
+ * root.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class PumpTelemetryBenchmark {
+
+	private static final int PUMPS = 16;
+	private static final int TANKS = 4;
+	private static final int PACED_EVENTS_PER_PUMP_PER_SECOND = 5_000;
+	private static final int PACED_SECONDS = 5;
+	private static final int FLOOD_SECONDS = 3;
+	private static final int LATENCY_SAMPLE_EVERY = 64;
+	private static final int TANK_MILLILITRES = Integer.MAX_VALUE;
+
+	public static void main(String[] args) throws InterruptedException {
+		Logger.initialise();
+		StockItemModel model = new StockItemModel();
+		CategoryLiquidFuel[] categories = CategoryLiquidFuel.values();
+		AtomicLong acceptedMillilitres = new AtomicLong();
+		try (PumpTelemetryIngest ingest = new PumpTelemetryIngest()) {
+			for (int t = 0; t < TANKS; t++) {
+				ingest.addTank(model.new StockLiquidFuel("Tank " + t, false, 145, StorageTemp.NON_SPECIFIC, categories[t % categories.length],
+						TANK_MILLILITRES));
+			}
+			System.out.printf("%d pumps, %d tanks, queue capacity %d, %d cores%n", PUMPS, TANKS, ingest.getCapacity(),
+					Runtime.getRuntime().availableProcessors());
+			runPhase("paced", ingest, PACED_SECONDS, PACED_EVENTS_PER_PUMP_PER_SECOND, acceptedMillilitres);
+			runPhase("flood", ingest, FLOOD_SECONDS, 0, acceptedMillilitres);
+
+			// let the ingest thread catch up, then check nothing accepted was lost
+			while (ingest.getApplied() < ingest.getAccepted()) {
+				Thread.sleep(10);
+			}
+			long taken = 0;
+			long recorded = 0;
+			for (int t = 0; t < TANKS; t++) {
+				taken += (long) TANK_MILLILITRES - ingest.getTankLevel(t);
+				recorded += ingest.getTank(t).getSellHistory().getTotalQuantity();
+			}
+			System.out.printf("accepted %dml, taken from tanks %dml, recorded in sell histories %dml%n", acceptedMillilitres.get(), taken, recorded);
+		} finally {
+			Logger.closeLogger();
+		}
+	}
+
+	/**
+	 * Run every pump for a number of seconds
+	 *
+	 * @param eventsPerPumpPerSecond the rate each pump reports at, or 0 to report as fast as possible
+	 */
+	private static void runPhase(String name, PumpTelemetryIngest ingest, int seconds, int eventsPerPumpPerSecond, AtomicLong acceptedMillilitres)
+			throws InterruptedException {
+		long acceptedBefore = ingest.getAccepted();
+		long droppedBefore = ingest.getDropped();
+		long appliedBefore = ingest.getApplied();
+		long[][] latencies = new long[PUMPS][];
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] pumps = new Thread[PUMPS];
+		long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+		for (int p = 0; p < PUMPS; p++) {
+			int pump = p;
+			pumps[p] = new Thread(() -> {
+				long[] samples = new long[1 << 16];
+				int sampled = 0;
+				long events = 0;
+				long accepted = 0;
+				try {
+					start.await();
+				} catch (InterruptedException interruptedEx) {
+					return;
+				}
+				long begin = System.nanoTime();
+				long now = begin;
+				while (now - begin < durationNanos) {
+					if (eventsPerPumpPerSecond > 0) {
+						// pace against the clock, sleeping while ahead of schedule
+						long due = (now - begin) * eventsPerPumpPerSecond / 1_000_000_000L;
+						if (events >= due) {
+							sleepMillis(1);
+							now = System.nanoTime();
+							continue;
+						}
+					}
+					int millilitres = 20 + (int) (events % 30);
+					boolean sample = events % LATENCY_SAMPLE_EVERY == 0 && sampled < samples.length;
+					long offerStart = sample ? System.nanoTime() : 0;
+					if (ingest.offer(pump % TANKS, millilitres)) {
+						accepted += millilitres;
+					}
+					if (sample) {
+						samples[sampled++] = System.nanoTime() - offerStart;
+					}
+					events++;
+					if ((events & 255) == 0 || eventsPerPumpPerSecond > 0) {
+						now = System.nanoTime();
+					}
+				}
+				acceptedMillilitres.addAndGet(accepted);
+				latencies[pump] = Arrays.copyOf(samples, sampled);
+			});
+			pumps[p].start();
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread pump : pumps) {
+			pump.join();
+		}
+		double elapsedSeconds = (System.nanoTime() - begin) / 1e9;
+		long accepted = ingest.getAccepted() - acceptedBefore;
+		long dropped = ingest.getDropped() - droppedBefore;
+		long applied = ingest.getApplied() - appliedBefore;
+		long[] allLatencies = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+		System.out.printf("%-6s offered %8.0f events/s  applied %8.0f events/s  dropped %d  offer p50 %dns  p99 %dns  p99.9 %dns%n", name,
+				(accepted + dropped) / elapsedSeconds, applied / elapsedSeconds, dropped, percentile(allLatencies, 0.50),
+				percentile(allLatencies, 0.99), percentile(allLatencies, 0.999));
+	}
+
+	/**
+	 * @param sortedValues values sorted in ascending order
+	 * @param fraction     the percentile as a fraction, eg 0.99
+	 * @return the value at the percentile
+	 */
+	private static long percentile(long[] sortedValues, double fraction) {
+		if (sortedValues.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(fraction * sortedValues.length) - 1;
+		return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+	}
+
+	private static void sleepMillis(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException interruptedEx) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
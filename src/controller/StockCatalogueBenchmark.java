@@ -0,0 +1,94 @@
+package controller;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+import log.Logger;
+import model.ModelEnums.CategoryFloorItem;
+import model.ModelEnums.CategoryLiquidFuel;
+import model.ModelEnums.CategorySolidFuel;
+import model.ModelEnums.StorageTemp;
+import model.PragmaProfile;
+import model.StockDatabaseAccessObject;
+import model.StockItemModel;
+import model.StockItemModel.AbstractStockItem;
+import model.StockItemModel.StockSolidFuel;
+
+/**
+ * Times a batched import of a {@value #CATALOGUE_SIZE} item stock catalogue, then a bulk load of the whole catalogue as at startup, on a scratch
+ * database. The first load is reported on its own, as at startup the JVM is cold; further loads are warmed up before they are measured, and the best
+ * of the measured loads is reported. Run from the project root, optionally passing the catalogue size.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class StockCatalogueBenchmark {
+
+	private static final int CATALOGUE_SIZE = 50_000;
+	private static final int WARMUP_LOADS = 5;
+	private static final int MEASURED_LOADS = 10;
+
+	public static void main(String[] args) throws Exception {
+		int catalogueSize = (args.length > 0) ? Integer.parseInt(args[0]) : CATALOGUE_SIZE;
+		Logger.initialise();
+		Path scratchDatabase = Files.createTempFile("ShopSystemStock", ".db");
+		try (StockDatabaseAccessObject stockDao = new StockDatabaseAccessObject(scratchDatabase.toString())) {
+			ArrayList<AbstractStockItem> catalogue = catalogue(catalogueSize);
+
+			stockDao.setPragmaProfile(PragmaProfile.BULK_LOAD);
+			long start = System.nanoTime();
+			int imported = stockDao.importStock(catalogue);
+			System.out.printf("%d stock items imported in %.0fms%n", imported, (System.nanoTime() - start) / 1e6);
+
+			stockDao.setPragmaProfile(PragmaProfile.READ_MOSTLY);
+			start = System.nanoTime();
+			stockDao.getStock();
+			System.out.printf("first load, cold JVM: %.0fms%n", (System.nanoTime() - start) / 1e6);
+			for (int i = 0; i < WARMUP_LOADS; i++) {
+				stockDao.getStock();
+			}
+			long bestNanos = Long.MAX_VALUE;
+			int loaded = 0;
+			for (int i = 0; i < MEASURED_LOADS; i++) {
+				start = System.nanoTime();
+				loaded = stockDao.getStock().size();
+				bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+			}
+			System.out.printf("%d stock items loaded in %.0fms (best of %d after warm up)%n", loaded, bestNanos / 1e6, MEASURED_LOADS);
+		} finally {
+			Files.deleteIfExists(scratchDatabase);
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-wal"));
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-shm"));
+			Logger.closeLogger();
+		}
+	}
+
+	/**
+	 * @return a catalogue of mostly floor items, with some liquid and solid fuels
+	 */
+	private static ArrayList<AbstractStockItem> catalogue(int catalogueSize) {
+		StockItemModel model = new StockItemModel();
+		ArrayList<AbstractStockItem> catalogue = new ArrayList<AbstractStockItem>(catalogueSize);
+		CategoryFloorItem[] floorCategories = CategoryFloorItem.values();
+		for (int i = 0; i < catalogueSize; i++) {
+			if (i % 100 == 0) {
+				catalogue.add(model.new StockLiquidFuel("Fuel " + i, false, 140 + i % 20, StorageTemp.NON_SPECIFIC, CategoryLiquidFuel.UNLEADED,
+						10_000_000));
+			} else if (i % 100 == 1) {
+				StockSolidFuel solidFuel = model.new StockSolidFuel("Solid fuel " + i, false, 999, StorageTemp.NON_SPECIFIC, CategorySolidFuel.COAL,
+						25_000);
+				solidFuel.addUnitsInStock(1 + i % 50);
+				catalogue.add(solidFuel);
+			} else {
+				catalogue.add(model.new StockFloorItem("Item " + i, i % 7 == 0, 1 + i % 5_000, StorageTemp.ROOM_TEMPERATURE,
+						floorCategories[i % floorCategories.length]));
+			}
+		}
+		return catalogue;
+	}
+}
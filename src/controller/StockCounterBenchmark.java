@@ -0,0 +1,130 @@
+package controller;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.ModelEnums.CategorySolidFuel;
+import model.ModelEnums.StorageTemp;
+import model.StockItemModel;
+import model.StockItemModel.StockSolidFuel;
+
+/**
+ * Compares stock counters under contention. Tills on several threads at once each try to sell {@value #SALES_PER_TILL} single bags of one solid fuel
+ * stocked with half as many bags as all the tills try to sell, so half of all sales must fail. Each counter is reported with its throughput, and how
+ * many bags it sold beyond the stock it held:
+ * <ul>
+ * <li>a plain {@code int} with a read-check-write, as {@code StockSolidFuel} used to</li>
+ * <li>a {@code synchronized} read-check-write</li>
+ * <li>{@link StockSolidFuel#tryRemoveUnitsInStock(int)}, a compare-and-set loop</li>
+ * </ul>
+ * Each is warmed up before it is measured, and the best of the measured rounds is reported. Run from the project root.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class StockCounterBenchmark {
+
+	private static final int[] TILLS = { 1, 4, 16, 64 };
+	private static final int SALES_PER_TILL = 200_000;
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 5;
+
+	/**
+	 * A stock level that bags can be sold from
+	 */
+	private interface Counter {
+		boolean trySell(int units);
+	}
+
+	private interface CounterFactory {
+		Counter newCounter();
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		StockItemModel model = new StockItemModel();
+		System.out.printf("%d sales per till, %d cores%n", SALES_PER_TILL, Runtime.getRuntime().availableProcessors());
+		for (int tills : TILLS) {
+			int stock = tills * SALES_PER_TILL / 2;
+			measure("plain int", tills, stock, () -> new Counter() {
+				private int unitsInStock = stock;
+
+				@Override
+				public boolean trySell(int units) {
+					if (unitsInStock - units >= 0) {
+						unitsInStock -= units;
+						return true;
+					}
+					return false;
+				}
+			});
+			measure("synchronized", tills, stock, () -> new Counter() {
+				private int unitsInStock = stock;
+
+				@Override
+				public synchronized boolean trySell(int units) {
+					if (unitsInStock - units >= 0) {
+						unitsInStock -= units;
+						return true;
+					}
+					return false;
+				}
+			});
+			measure("compare-and-set", tills, stock, () -> {
+				StockSolidFuel coal = model.new StockSolidFuel("Coal", false, 999, StorageTemp.NON_SPECIFIC, CategorySolidFuel.COAL, 25_000);
+				coal.addUnitsInStock(stock);
+				return coal::tryRemoveUnitsInStock;
+			});
+		}
+	}
+
+	private static void measure(String name, int tills, int stock, CounterFactory factory) throws InterruptedException {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			runRound(tills, factory.newCounter());
+		}
+		long bestNanos = Long.MAX_VALUE;
+		long oversold = 0;
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			long start = System.nanoTime();
+			long sold = runRound(tills, factory.newCounter());
+			bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+			oversold = Math.max(oversold, sold - stock);
+		}
+		System.out.printf("%2d tills  %-16s %7.1fM sales/s  oversold %d%n", tills, name, (double) tills * SALES_PER_TILL / bestNanos * 1e3, oversold);
+	}
+
+	/**
+	 * Start every till at once, and wait for them all to finish
+	 *
+	 * @return the number of bags sold
+	 */
+	private static long runRound(int tills, Counter counter) throws InterruptedException {
+		AtomicLong sold = new AtomicLong();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[tills];
+		for (int t = 0; t < tills; t++) {
+			threads[t] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException interruptedEx) {
+					return;
+				}
+				long tillSold = 0;
+				for (int i = 0; i < SALES_PER_TILL; i++) {
+					if (counter.trySell(1)) {
+						tillSold++;
+					}
+				}
+				sold.addAndGet(tillSold);
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return sold.get();
+	}
+}
@@ -0,0 +1,120 @@
+package controller;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import log.Logger;
+import model.StockDatabaseAccessObject;
+import model.StockIDAllocator;
+
+/**
+ * Compares ways of allocating stock IDs under {@value #CREATORS} concurrent creators, each allocating {@value #IDS_PER_CREATOR} IDs:
+ * <ul>
+ * <li>a plain {@code static int} incremented with {@code ++}, as {@code StockItemModel} used to, counting the duplicate IDs it hands out</li>
+ * <li>a single shared {@code AtomicLong}</li>
+ * <li>a {@link StockIDAllocator} reserving blocks in memory</li>
+ * <li>a {@link StockIDAllocator} reserving blocks in a scratch database</li>
+ * </ul>
+ * Each is warmed up before it is measured, and the best of the measured rounds is reported. Run from the project root.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class StockIDAllocatorBenchmark {
+
+	private static final int CREATORS = 16;
+	private static final int IDS_PER_CREATOR = 250_000;
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 5;
+
+	private static int plainSeed;
+
+	public static void main(String[] args) throws Exception {
+		Logger.initialise();
+		Path scratchDatabase = Files.createTempFile("ShopSystemStockIDs", ".db");
+		try (StockDatabaseAccessObject stockDao = new StockDatabaseAccessObject(scratchDatabase.toString())) {
+			System.out.printf("%d creators x %d IDs, %d cores%n", CREATORS, IDS_PER_CREATOR, Runtime.getRuntime().availableProcessors());
+			measure("static int ++", () -> ++plainSeed);
+			AtomicLong shared = new AtomicLong();
+			measure("shared AtomicLong", shared::incrementAndGet);
+			StockIDAllocator inMemory = new StockIDAllocator();
+			measure("allocator, in memory", inMemory::nextID);
+			StockIDAllocator persisted = stockDao.newIDAllocator();
+			measure("allocator, sqlite3", persisted::nextID);
+			System.out.printf("sqlite3 allocator reserved %d blocks%n", persisted.getBlocksReserved());
+		} finally {
+			Files.deleteIfExists(scratchDatabase);
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-wal"));
+			Files.deleteIfExists(Paths.get(scratchDatabase + "-shm"));
+			Logger.closeLogger();
+		}
+	}
+
+	private static void measure(String name, LongSupplier allocator) throws InterruptedException {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			runRound(allocator);
+		}
+		long bestNanos = Long.MAX_VALUE;
+		int duplicates = 0;
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			long start = System.nanoTime();
+			long[][] ids = runRound(allocator);
+			bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+			duplicates = Math.max(duplicates, countDuplicates(ids));
+		}
+		System.out.printf("%-22s %8.1fM IDs/s  duplicates %d%n", name, (double) CREATORS * IDS_PER_CREATOR / bestNanos * 1e3, duplicates);
+	}
+
+	/**
+	 * Start every creator at once, and wait for them all to finish
+	 *
+	 * @return the IDs allocated by each creator
+	 */
+	private static long[][] runRound(LongSupplier allocator) throws InterruptedException {
+		long[][] ids = new long[CREATORS][IDS_PER_CREATOR];
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] creators = new Thread[CREATORS];
+		for (int c = 0; c < CREATORS; c++) {
+			long[] creatorIDs = ids[c];
+			creators[c] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException interruptedEx) {
+					return;
+				}
+				for (int i = 0; i < IDS_PER_CREATOR; i++) {
+					creatorIDs[i] = allocator.getAsLong();
+				}
+			});
+			creators[c].start();
+		}
+		start.countDown();
+		for (Thread creator : creators) {
+			creator.join();
+		}
+		return ids;
+	}
+
+	private static int countDuplicates(long[][] ids) {
+		long[] all = new long[CREATORS * IDS_PER_CREATOR];
+		for (int c = 0; c < CREATORS; c++) {
+			System.arraycopy(ids[c], 0, all, c * IDS_PER_CREATOR, IDS_PER_CREATOR);
+		}
+		Arrays.sort(all);
+		int duplicates = 0;
+		for (int i = 1; i < all.length; i++) {
+			if (all[i] == all[i - 1]) {
+				duplicates++;
+			}
+		}
+		return duplicates;
+	}
+}
@@ -0,0 +1,197 @@
+package log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.HashMap;
+
+/**
+ * Encodes log records into the binary log format, keeping the dictionaries of one log file. A new encoder is used for each file.<br>
+ * <br>
+ * A binary log file starts with a header: the bytes {@code SSLOG}, a version byte, then the writer's time zone ID as a string. The rest of the file
+ * is a sequence of entries, each starting with a tag byte:
+ * <ul>
+ * <li>{@value #ENTRY_CALLER}: defines the next caller ID (counting from 0) as the string that follows</li>
+ * <li>{@value #ENTRY_TEMPLATE}: defines the next message template ID (counting from 0) as the string that follows</li>
+ * <li>{@value #ENTRY_RECORD}: a log record, made of
+ * <ul>
+ * <li>the microseconds since the previous record (or since the epoch, for the first), zigzag encoded</li>
+ * <li>a level byte and a type byte, each the constant's ordinal</li>
+ * <li>the caller: its ID plus one, or 0 followed by the caller as a string</li>
+ * <li>the number of messages, then each message: its template's ID plus one followed by the template's arguments as strings, or 0 followed by the
+ * message as a string</li>
+ * </ul>
+ * </li>
+ * </ul>
+ * A message's template is the message with each run of digits replaced by {@link #ARGUMENT}, and those runs of digits are its arguments, so
+ * {@code "personID: 42"} is written as a reference to the template {@code "personID: \0"} and the argument {@code "42"}. Integers are unsigned
+ * LEB128 varints, and strings are a varint length followed by that many bytes of UTF-8. Definitions are written just before the first record that
+ * uses them, and each dictionary holds at most {@value #MAX_DICTIONARY_SIZE} entries; beyond that, new callers and messages are written in full.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+final class LogBinaryEncoder {
+
+	static final byte[] MAGIC = "SSLOG".getBytes(StandardCharsets.US_ASCII);
+	static final int VERSION = 1;
+	static final int ENTRY_CALLER = 1;
+	static final int ENTRY_TEMPLATE = 2;
+	static final int ENTRY_RECORD = 3;
+	/**
+	 * Stands in for an argument in a message template. A message already containing it is written in full.
+	 */
+	static final char ARGUMENT = '\0';
+	static final int MAX_DICTIONARY_SIZE = 65_536;
+
+	private final HashMap<String, Integer> callers = new HashMap<String, Integer>();
+	private final HashMap<String, Integer> templates = new HashMap<String, Integer>();
+	private long previousMicros;
+	/**
+	 * A record's definitions and the record itself are built here, then written to the file in one call
+	 */
+	private final ByteArrayOutputStream definitions = new ByteArrayOutputStream(256);
+	private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+	private final StringBuilder template = new StringBuilder();
+	private final String[] arguments = new String[64];
+
+	/**
+	 * Write the file header
+	 *
+	 * @param out
+	 * @param zone the time zone records are shown in when exported
+	 * @return the number of bytes written
+	 * @throws IOException
+	 */
+	int writeHeader(OutputStream out, ZoneId zone) throws IOException {
+		record.reset();
+		record.write(MAGIC);
+		record.write(VERSION);
+		writeString(record, zone.getId());
+		int size = record.size();
+		record.writeTo(out);
+		return size;
+	}
+
+	/**
+	 * Write a record, preceded by definitions of any caller or templates it is the first to use
+	 *
+	 * @param out
+	 * @param logRecord
+	 * @return the number of bytes written
+	 * @throws IOException
+	 */
+	int write(OutputStream out, LogRecord logRecord) throws IOException {
+		definitions.reset();
+		record.reset();
+		record.write(ENTRY_RECORD);
+		long micros = logRecord.getEpochMicros();
+		long delta = micros - previousMicros;
+		writeVarint(record, (delta << 1) ^ (delta >> 63));
+		previousMicros = micros;
+		record.write(logRecord.getLevel().ordinal());
+		record.write(logRecord.getType().ordinal());
+
+		String caller = logRecord.getCaller();
+		Integer callerID = intern(callers, caller, ENTRY_CALLER);
+		if (callerID != null) {
+			writeVarint(record, callerID + 1L);
+		} else {
+			writeVarint(record, 0);
+			writeString(record, caller);
+		}
+
+		String[] messages = logRecord.messages();
+		writeVarint(record, messages.length);
+		for (String message : messages) {
+			if (message == null) {
+				message = "null";
+			}
+			int argumentCount = (message.indexOf(ARGUMENT) < 0) ? extractTemplate(message) : -1;
+			Integer templateID = (argumentCount >= 0) ? intern(templates, template.toString(), ENTRY_TEMPLATE) : null;
+			if (templateID == null) {
+				writeVarint(record, 0);
+				writeString(record, message);
+				continue;
+			}
+			writeVarint(record, templateID + 1L);
+			for (int a = 0; a < argumentCount; a++) {
+				writeString(record, arguments[a]);
+			}
+		}
+
+		int size = definitions.size() + record.size();
+		definitions.writeTo(out);
+		record.writeTo(out);
+		return size;
+	}
+
+	/**
+	 * Find the ID of a dictionary entry, defining it if it is new and the dictionary has room
+	 *
+	 * @param dictionary
+	 * @param value
+	 * @param entryType  the tag of the entry defining a new value
+	 * @return the ID, or null if the dictionary is full
+	 */
+	private Integer intern(HashMap<String, Integer> dictionary, String value, int entryType) {
+		Integer id = dictionary.get(value);
+		if (id == null && dictionary.size() < MAX_DICTIONARY_SIZE) {
+			id = dictionary.size();
+			dictionary.put(value, id);
+			definitions.write(entryType);
+			writeString(definitions, value);
+		}
+		return id;
+	}
+
+	/**
+	 * Split a message into {@link #template} and {@link #arguments}
+	 *
+	 * @param message
+	 * @return the number of arguments, or -1 if the message has too many to template
+	 */
+	private int extractTemplate(String message) {
+		template.setLength(0);
+		int count = 0;
+		int length = message.length();
+		int i = 0;
+		while (i < length) {
+			char c = message.charAt(i);
+			if (c < '0' || c > '9') {
+				template.append(c);
+				i++;
+				continue;
+			}
+			int start = i;
+			while (i < length && message.charAt(i) >= '0' && message.charAt(i) <= '9') {
+				i++;
+			}
+			if (count == arguments.length) {
+				return -1;
+			}
+			arguments[count++] = message.substring(start, i);
+			template.append(ARGUMENT);
+		}
+		return count;
+	}
+
+	private static void writeVarint(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarint(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+}
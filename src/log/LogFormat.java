@@ -0,0 +1,34 @@
+package log;
+
+/**
+ * How a {@link Logger} encodes the messages in its log files
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public enum LogFormat {
+	/**
+	 * One line of text per message, with the columns {@code LoggedFrom,DateTimeStamp,Level,LogType,Messages}
+	 */
+	CSV(".csv"),
+	/**
+	 * A compact binary encoding, read with a {@link LogReader}. See {@link LogBinaryEncoder} for the layout.
+	 */
+	BINARY(".bin");
+
+	private final String extension;
+
+	private LogFormat(String extension) {
+		this.extension = extension;
+	}
+
+	/**
+	 * @return the file name extension of log files in this format, eg {@code .csv}
+	 */
+	public String getExtension() {
+		return extension;
+	}
+}
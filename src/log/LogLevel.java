@@ -0,0 +1,34 @@
+package log;
+
+/**
+ * The severity of a log message, from least to most severe. A {@link Logger} only records messages at or above its threshold, set with
+ * {@link Logger#setLevel(LogLevel)}.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public enum LogLevel {
+	/**
+	 * Step by step detail, eg every row read
+	 */
+	TRACE,
+	/**
+	 * Detail useful when diagnosing a problem, eg the full state of a changed record
+	 */
+	DEBUG,
+	/**
+	 * Normal operation, eg a record saved or a pool closed
+	 */
+	INFO,
+	/**
+	 * Something unexpected the program recovered from
+	 */
+	WARN,
+	/**
+	 * An operation failed
+	 */
+	ERROR;
+}
@@ -0,0 +1,25 @@
+package log;
+
+/**
+ * The kind of a log message, recorded in the log's LogType column
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public enum LogMessageType {
+	GENERAL("General"),
+	EXCEPTION("Exception");
+
+	private String logType;
+
+	private LogMessageType(String logType) {
+		this.logType = logType;
+	}
+
+	public String toString() {
+		return this.logType;
+	}
+}
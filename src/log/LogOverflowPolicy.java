@@ -0,0 +1,26 @@
+package log;
+
+/**
+ * What an asynchronous {@link Logger} does with a message logged while its buffer is full
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public enum LogOverflowPolicy {
+	/**
+	 * The logging thread waits for room, so no message is lost
+	 */
+	BLOCK,
+	/**
+	 * The message is dropped and counted, so the logging thread never waits
+	 */
+	DROP,
+	/**
+	 * One in every {@link Logger#SAMPLE_EVERY} overflowing messages waits for room, and the rest are dropped and counted, so a flood of messages still
+	 * leaves a trace in the log without every logging thread waiting
+	 */
+	SAMPLE;
+}
@@ -0,0 +1,327 @@
+package log;
+
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a log file written by a {@link Logger} in {@link LogFormat#BINARY}, or a rolled copy of one compressed with gzip. Records can be read one at
+ * a time, filtered by time, level and type, or exported to the CSV format the Logger writes in {@link LogFormat#CSV}.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class LogReader implements AutoCloseable {
+
+	private static final int READ_BUFFER_BYTES = 65_536;
+	private static final LogLevel[] LEVELS = LogLevel.values();
+	private static final LogMessageType[] TYPES = LogMessageType.values();
+
+	private final InputStream in;
+	/**
+	 * Bytes read from the file but not yet decoded are {@code buffer[position]} to {@code buffer[limit - 1]}
+	 */
+	private final byte[] buffer = new byte[READ_BUFFER_BYTES];
+	private int position;
+	private int limit;
+	private final ZoneId zone;
+	private final ArrayList<String> callers = new ArrayList<String>();
+	private final ArrayList<String> templates = new ArrayList<String>();
+	private final ArrayList<Integer> templateArgumentCounts = new ArrayList<Integer>();
+	private long previousMicros;
+	private byte[] stringBuffer = new byte[256];
+
+	/**
+	 * Open a binary log file, or a gzip-compressed one if its name ends in {@code .gz}
+	 *
+	 * @param logfile
+	 * @throws IllegalArgumentException if logfile is null or is not a binary log file
+	 * @throws IOException              if logfile cannot be read
+	 */
+	public LogReader(Path logfile) throws IllegalArgumentException, IOException {
+		if (logfile == null) {
+			throw new IllegalArgumentException("LogReader logfile cannot be null");
+		}
+		InputStream file = Files.newInputStream(logfile);
+		try {
+			this.in = logfile.toString().endsWith(".gz") ? new GZIPInputStream(file, READ_BUFFER_BYTES) : file;
+			byte[] magic = new byte[LogBinaryEncoder.MAGIC.length];
+			for (int i = 0; i < magic.length; i++) {
+				magic[i] = (byte) read();
+			}
+			if (!Arrays.equals(magic, LogBinaryEncoder.MAGIC)) {
+				throw new IllegalArgumentException("LogReader " + logfile + " is not a binary log file");
+			}
+			int version = read();
+			if (version != LogBinaryEncoder.VERSION) {
+				throw new IllegalArgumentException("LogReader cannot read binary log version " + version + " of " + logfile);
+			}
+			this.zone = ZoneId.of(readString());
+		} catch (IllegalArgumentException | IOException openEx) {
+			file.close();
+			throw openEx;
+		}
+	}
+
+	/**
+	 * @return the time zone of the Logger that wrote the file, which exported timestamps are shown in
+	 */
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	/**
+	 * Read the next record
+	 *
+	 * @return the record, or null at the end of the file
+	 * @throws IOException if the file cannot be read, or ends part way through a record
+	 */
+	public LogRecord next() throws IOException {
+		return next(Long.MIN_VALUE, Long.MAX_VALUE, null, null);
+	}
+
+	/**
+	 * Read the next record matching every filter. The time, level and type come first in each record, so the rest of a record that does not match is
+	 * skipped without being decoded.
+	 *
+	 * @return the record, or null at the end of the file
+	 * @throws IOException if the file cannot be read, or ends part way through a record
+	 */
+	private LogRecord next(long fromMicros, long toMicros, LogLevel minimumLevel, LogMessageType type) throws IOException {
+		while (true) {
+			int entryType = read();
+			switch (entryType) {
+			case -1:
+				return null;
+			case LogBinaryEncoder.ENTRY_CALLER:
+				callers.add(readString());
+				break;
+			case LogBinaryEncoder.ENTRY_TEMPLATE:
+				String template = readString();
+				int argumentCount = 0;
+				for (int i = 0; i < template.length(); i++) {
+					if (template.charAt(i) == LogBinaryEncoder.ARGUMENT) {
+						argumentCount++;
+					}
+				}
+				templates.add(template);
+				templateArgumentCounts.add(argumentCount);
+				break;
+			case LogBinaryEncoder.ENTRY_RECORD:
+				long zigzag = readVarint();
+				long micros = previousMicros + ((zigzag >>> 1) ^ -(zigzag & 1));
+				previousMicros = micros;
+				LogLevel level = LEVELS[readByte()];
+				LogMessageType recordType = TYPES[readByte()];
+				if (micros >= fromMicros && micros < toMicros && (minimumLevel == null || level.compareTo(minimumLevel) >= 0)
+						&& (type == null || recordType == type)) {
+					return readRecord(micros, level, recordType);
+				}
+				skipRecord();
+				break;
+			default:
+				throw new IOException("LogReader found an unknown entry type " + entryType);
+			}
+		}
+	}
+
+	/**
+	 * Pass each record matching every given filter to action, in the order they were written
+	 *
+	 * @param from         the earliest time included, or null for no earliest time
+	 * @param to           the time up to but not including which records are included, or null for no latest time
+	 * @param minimumLevel the least severe level included, or null for every level
+	 * @param type         the type included, or null for every type
+	 * @param action
+	 * @return the number of records passed to action
+	 * @throws IOException if the file cannot be read, or ends part way through a record
+	 */
+	public long forEach(Instant from, Instant to, LogLevel minimumLevel, LogMessageType type, Consumer<LogRecord> action) throws IOException {
+		long fromMicros = (from != null) ? LogRecord.toEpochMicros(from) : Long.MIN_VALUE;
+		long toMicros = (to != null) ? LogRecord.toEpochMicros(to) : Long.MAX_VALUE;
+		long matched = 0;
+		for (LogRecord record = next(fromMicros, toMicros, minimumLevel, type); record != null; record = next(fromMicros, toMicros, minimumLevel,
+				type)) {
+			action.accept(record);
+			matched++;
+		}
+		return matched;
+	}
+
+	/**
+	 * Export the records matching every given filter to a new CSV file, exactly as the Logger would have written them in {@link LogFormat#CSV}
+	 *
+	 * @param csvFile the file to write, which is replaced if it exists
+	 * @return the number of records exported
+	 * @throws IOException if either file cannot be read or written
+	 * @see #forEach(Instant, Instant, LogLevel, LogMessageType, Consumer)
+	 */
+	public long exportCsv(Path csvFile, Instant from, Instant to, LogLevel minimumLevel, LogMessageType type) throws IOException {
+		// the Logger writes CSV files in the platform's default charset
+		try (BufferedWriter csv = Files.newBufferedWriter(csvFile, Charset.defaultCharset())) {
+			csv.write(Logger.logHeaders);
+			csv.newLine();
+			IOException[] writeEx = new IOException[1];
+			long exported = forEach(from, to, minimumLevel, type, record -> {
+				if (writeEx[0] == null) {
+					try {
+						Logger.writeLine(csv, record, zone);
+					} catch (IOException exportEx) {
+						writeEx[0] = exportEx;
+					}
+				}
+			});
+			if (writeEx[0] != null) {
+				throw writeEx[0];
+			}
+			return exported;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Read the caller and messages of a record whose time, level and type have been read
+	 */
+	private LogRecord readRecord(long micros, LogLevel level, LogMessageType type) throws IOException {
+		long callerID = readVarint();
+		String caller = (callerID == 0) ? readString() : callers.get((int) callerID - 1);
+		String[] messages = new String[(int) readVarint()];
+		StringBuilder message = new StringBuilder();
+		for (int i = 0; i < messages.length; i++) {
+			long templateID = readVarint();
+			if (templateID == 0) {
+				messages[i] = readString();
+				continue;
+			}
+			String template = templates.get((int) templateID - 1);
+			int argumentCount = templateArgumentCounts.get((int) templateID - 1);
+			if (argumentCount == 0) {
+				messages[i] = template;
+				continue;
+			}
+			message.setLength(0);
+			for (int c = 0; c < template.length(); c++) {
+				char character = template.charAt(c);
+				if (character == LogBinaryEncoder.ARGUMENT) {
+					message.append(readString());
+				} else {
+					message.append(character);
+				}
+			}
+			messages[i] = message.toString();
+		}
+		return new LogRecord(caller, micros, level, type, messages);
+	}
+
+	/**
+	 * Skip the caller and messages of a record whose time, level and type have been read
+	 */
+	private void skipRecord() throws IOException {
+		if (readVarint() == 0) {
+			skipString();
+		}
+		long messageCount = readVarint();
+		for (long i = 0; i < messageCount; i++) {
+			long templateID = readVarint();
+			int argumentCount = (templateID == 0) ? 1 : templateArgumentCounts.get((int) templateID - 1);
+			for (int a = 0; a < argumentCount; a++) {
+				skipString();
+			}
+		}
+	}
+
+	/**
+	 * @return the next byte, or -1 at the end of the file
+	 */
+	private int read() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position++] & 0xFF;
+	}
+
+	/**
+	 * Refill the buffer, which must have been fully decoded
+	 *
+	 * @return false at the end of the file
+	 */
+	private boolean fill() throws IOException {
+		int read = in.read(buffer, 0, buffer.length);
+		position = 0;
+		limit = Math.max(read, 0);
+		return read > 0;
+	}
+
+	private int readByte() throws IOException {
+		int value = read();
+		if (value < 0) {
+			throw new EOFException("LogReader reached the end of the file part way through a record");
+		}
+		return value;
+	}
+
+	private long readVarint() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("LogReader found a malformed varint");
+	}
+
+	private String readString() throws IOException {
+		int length = (int) readVarint();
+		if (length <= limit - position) {
+			String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+			position += length;
+			return value;
+		}
+		// the string runs past the end of the buffer
+		if (stringBuffer.length < length) {
+			stringBuffer = new byte[Math.max(length, stringBuffer.length * 2)];
+		}
+		for (int copied = 0; copied < length;) {
+			if (position == limit && !fill()) {
+				throw new EOFException("LogReader reached the end of the file part way through a record");
+			}
+			int count = Math.min(length - copied, limit - position);
+			System.arraycopy(buffer, position, stringBuffer, copied, count);
+			position += count;
+			copied += count;
+		}
+		return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+	}
+
+	private void skipString() throws IOException {
+		long remaining = readVarint();
+		while (remaining > 0) {
+			if (position == limit && !fill()) {
+				throw new EOFException("LogReader reached the end of the file part way through a record");
+			}
+			int count = (int) Math.min(remaining, limit - position);
+			position += count;
+			remaining -= count;
+		}
+	}
+}
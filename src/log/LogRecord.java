@@ -0,0 +1,91 @@
+package log;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One logged message: the code that logged it, when, its level and type, and the messages logged
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public final class LogRecord {
+
+	private final String caller;
+	private final long epochMicros;
+	private final LogLevel level;
+	private final LogMessageType type;
+	private final String[] messages;
+
+	/**
+	 * @param caller      the code that logged the message, or an empty String if not recorded
+	 * @param epochMicros when the message was logged, as UTC epoch microseconds
+	 * @param level
+	 * @param type
+	 * @param messages    not copied, so must not be changed afterwards
+	 */
+	LogRecord(String caller, long epochMicros, LogLevel level, LogMessageType type, String[] messages) {
+		this.caller = caller;
+		this.epochMicros = epochMicros;
+		this.level = level;
+		this.type = type;
+		this.messages = messages;
+	}
+
+	/**
+	 * @return the code that logged the message, eg {@code controller.MainController.main(MainController.java:77)}, or an empty String if not
+	 *         recorded
+	 */
+	public String getCaller() {
+		return caller;
+	}
+
+	/**
+	 * @return when the message was logged, as UTC epoch microseconds
+	 */
+	public long getEpochMicros() {
+		return epochMicros;
+	}
+
+	/**
+	 * @return when the message was logged
+	 */
+	public Instant getTime() {
+		return Instant.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000L), Math.floorMod(epochMicros, 1_000_000L) * 1_000L);
+	}
+
+	public LogLevel getLevel() {
+		return level;
+	}
+
+	public LogMessageType getType() {
+		return type;
+	}
+
+	/**
+	 * @return the messages logged, unmodifiable
+	 */
+	public List<String> getMessages() {
+		return Collections.unmodifiableList(Arrays.asList(messages));
+	}
+
+	/**
+	 * @return the messages logged, without copying
+	 */
+	String[] messages() {
+		return messages;
+	}
+
+	/**
+	 * @param instant
+	 * @return the instant as UTC epoch microseconds
+	 */
+	static long toEpochMicros(Instant instant) {
+		return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000L);
+	}
+}
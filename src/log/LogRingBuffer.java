@@ -0,0 +1,105 @@
+package log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free queue of log messages for many producers and a single consumer.<br>
+ * <br>
+ * Each slot carries a sequence number. A producer claims the tail with a compare-and-set, stores its message, then publishes the slot by advancing
+ * its sequence; the consumer takes a message only once its slot is published, and frees the slot by advancing the sequence a lap. A full buffer
+ * rejects the message rather than waiting.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class LogRingBuffer {
+
+	private final int capacity;
+	private final int mask;
+	private final AtomicLongArray sequences;
+	private final LogRecord[] messages;
+	private final AtomicLong tail = new AtomicLong();
+	/**
+	 * Only read and written by the single consumer
+	 */
+	private long head;
+
+	/**
+	 * @param capacity the most messages held at once, rounded up to a power of 2 of at least 2
+	 * @throws IllegalArgumentException if capacity is less than 1 or greater than 2^30
+	 */
+	LogRingBuffer(int capacity) throws IllegalArgumentException {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("LogRingBuffer capacity must be between 1 and " + (1 << 30) + " but was " + capacity);
+		}
+		// with a single slot, a published slot would look free to the next producer
+		int rounded = 2;
+		while (rounded < capacity) {
+			rounded <<= 1;
+		}
+		this.capacity = rounded;
+		this.mask = this.capacity - 1;
+		this.sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			sequences.set(i, i);
+		}
+		this.messages = new LogRecord[this.capacity];
+	}
+
+	/**
+	 * Add a message to the buffer, without blocking. Safe to call from any number of threads at once.
+	 *
+	 * @return true if the message was added, false if the buffer was full
+	 */
+	boolean offer(LogRecord message) {
+		long position = tail.get();
+		int slot;
+		while (true) {
+			slot = (int) (position & mask);
+			long difference = sequences.get(slot) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					break;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				// the slot still holds a message from the previous lap
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+		messages[slot] = message;
+		sequences.lazySet(slot, position + 1);
+		return true;
+	}
+
+	/**
+	 * Move published messages into batch, in the order their slots were claimed, until batch is full or no message is published. Must only be called
+	 * by the single consumer.
+	 *
+	 * @return the number of messages moved
+	 */
+	int drainTo(LogRecord[] batch) {
+		int drained = 0;
+		while (drained < batch.length) {
+			int slot = (int) (head & mask);
+			if (sequences.get(slot) != head + 1) {
+				break;
+			}
+			batch[drained++] = messages[slot];
+			messages[slot] = null;
+			sequences.lazySet(slot, head + capacity);
+			head++;
+		}
+		return drained;
+	}
+
+	int capacity() {
+		return capacity;
+	}
+}
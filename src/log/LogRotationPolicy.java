@@ -0,0 +1,97 @@
+package log;
+
+import java.time.Duration;
+
+/**
+ * When a {@link Logger} rolls over to a new log file, and how many rolled files it keeps. A log file is rolled once it has grown to
+ * {@code maxBytes}, or once it has been open for {@code interval}, whichever comes first; the check is made as each message is written. Rolled files
+ * are gzip-compressed in the background, and the oldest are deleted once there are more than {@code maxRolledFiles}.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class LogRotationPolicy {
+
+	/**
+	 * Never roll the log file
+	 */
+	public static final LogRotationPolicy NONE = new LogRotationPolicy(0, null, 0);
+
+	private final long maxBytes;
+	private final Duration interval;
+	private final int maxRolledFiles;
+
+	/**
+	 * @param maxBytes       roll the log file once it is about this many bytes, or 0 for no size limit
+	 * @param interval       roll the log file once it has been open this long, or null for no time limit
+	 * @param maxRolledFiles the most rolled files kept, or 0 to keep them all
+	 * @throws IllegalArgumentException if maxBytes or maxRolledFiles is negative, or interval is zero or negative
+	 */
+	public LogRotationPolicy(long maxBytes, Duration interval, int maxRolledFiles) throws IllegalArgumentException {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("LogRotationPolicy maxBytes cannot be negative but was " + maxBytes);
+		}
+		if (interval != null && (interval.isZero() || interval.isNegative())) {
+			throw new IllegalArgumentException("LogRotationPolicy interval must be positive but was " + interval);
+		}
+		if (maxRolledFiles < 0) {
+			throw new IllegalArgumentException("LogRotationPolicy maxRolledFiles cannot be negative but was " + maxRolledFiles);
+		}
+		this.maxBytes = maxBytes;
+		this.interval = interval;
+		this.maxRolledFiles = maxRolledFiles;
+	}
+
+	/**
+	 * Roll by size only
+	 *
+	 * @see #LogRotationPolicy(long, Duration, int)
+	 */
+	public static LogRotationPolicy bySize(long maxBytes, int maxRolledFiles) throws IllegalArgumentException {
+		if (maxBytes == 0) {
+			throw new IllegalArgumentException("LogRotationPolicy maxBytes must be 1 or greater to roll by size");
+		}
+		return new LogRotationPolicy(maxBytes, null, maxRolledFiles);
+	}
+
+	/**
+	 * Roll by time only
+	 *
+	 * @see #LogRotationPolicy(long, Duration, int)
+	 */
+	public static LogRotationPolicy byTime(Duration interval, int maxRolledFiles) throws IllegalArgumentException {
+		if (interval == null) {
+			throw new IllegalArgumentException("LogRotationPolicy interval cannot be null to roll by time");
+		}
+		return new LogRotationPolicy(0, interval, maxRolledFiles);
+	}
+
+	/**
+	 * @return the size in bytes a log file is rolled at, or 0 for no size limit
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return how long a log file is open before it is rolled, or null for no time limit
+	 */
+	public Duration getInterval() {
+		return interval;
+	}
+
+	/**
+	 * @return the most rolled files kept, or 0 if they are all kept
+	 */
+	public int getMaxRolledFiles() {
+		return maxRolledFiles;
+	}
+
+	@Override
+	public String toString() {
+		return "LogRotationPolicy [maxBytes=" + maxBytes + ", interval=" + interval + ", maxRolledFiles=" + maxRolledFiles + "]";
+	}
+}
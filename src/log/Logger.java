@@ -1,22 +1,58 @@
 package log;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.StackWalker.StackFrame;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * A simple logging system. <br>
  * 
  * This class is a singleton, only one instance at a time can be created. All parts of the program must then
- * get this instance to log any actions
+ * get this instance to log any actions<br>
+ * <br>
+ * By default each message is written to the log file by the thread that logged it. Once {@link #initialiseAsync(int, LogOverflowPolicy)} is
+ * called, logging a message only adds it to a bounded lock-free buffer, and a single background writer thread keeps the log file open and writes
+ * messages in batches. What happens to a message logged while the buffer is full is set by a {@link LogOverflowPolicy}. {@link #closeLogger()}
+ * writes every buffered message before returning, and logging carries on synchronously afterwards.<br>
+ * <br>
+ * With a {@link LogRotationPolicy} set, the log rolls over to a new file by size and/or time. Rolled files are gzip-compressed on a background
+ * thread, so the thread writing messages never waits on compression.<br>
+ * <br>
+ * Every message has a {@link LogLevel}, and only messages at or above the threshold set by {@link #setLevel(LogLevel)} are recorded. A message
+ * below the threshold returns before any work is done, so detail that is costly to build should be logged with a {@code Supplier<String>}, which
+ * is only called if the message will be recorded.<br>
+ * <br>
+ * Log files are CSV by default. In {@link LogFormat#BINARY} they are written in a compact binary format instead, which a {@link LogReader} reads,
+ * filters and exports back to CSV.
  * 
  * @author Peter Marley
  * @StudentNumber 13404067
@@ -28,26 +64,33 @@ public class Logger implements AutoCloseable {
 
 	private static Logger instance;
 
-	private enum LogMessageType {
-		GENERAL("General"),
-		EXCEPTION("Exception");
-
-		private String logType;
-
-		private LogMessageType(String logType) {
-			this.logType = logType;
-		}
-
-		public String toString() {
-			return this.logType;
-		}
-	}
-
 	// file writing objects
 	private File logfile;
 	private FileWriter fileWriter;
 	private BufferedWriter bufferedWriter;
 	private LocalDateTime stamp;
+	private LogFormat logFormat = LogFormat.CSV;
+	/**
+	 * The time zone timestamps are shown in, fixed when each log file is started
+	 */
+	private ZoneId logfileZone = ZoneId.systemDefault();
+	/**
+	 * Encodes records into the current log file if it is binary, otherwise null
+	 */
+	private LogBinaryEncoder binaryEncoder;
+	private String logfileDirectory;
+	private String logfileNamePrefix;
+	/**
+	 * Size of the log file. For a CSV file this is approximate, counting each character written as a byte
+	 */
+	private long logfileBytes;
+	private long logfileStartedMillis;
+	private long rollAtMillis = Long.MAX_VALUE;
+	private LogRotationPolicy rotationPolicy = LogRotationPolicy.NONE;
+	/**
+	 * Compresses rolled log files. Started when the first file is rolled
+	 */
+	private ExecutorService compressor;
 
 	// configurations
 	private static final String logFileLocation = "./src/log/logs/";
@@ -55,9 +98,55 @@ public class Logger implements AutoCloseable {
 	private static final DateTimeFormatter formatter = new DateTimeFormatterBuilder()
 			.appendPattern("yyyy-MM-dd-'['HH'h'.mm'm'.ss's'.SSSS'ms]'")
 			.toFormatter();
-	private static final String logHeaders = "LoggedFrom,DateTimeStamp,LogType,Messages";
+	static final String logHeaders = "LoggedFrom,DateTimeStamp,Level,LogType,Messages";
 	private static final String MSG_LOG_NOT_CONFIGURED = "Log instance is null! Log not initialised!";
 
+	// asynchronous logging configurations
+	public static final int DEFAULT_BUFFER_CAPACITY = 8_192;
+	/**
+	 * Under {@link LogOverflowPolicy#SAMPLE}, one in this many messages logged while the buffer is full waits for room
+	 */
+	public static final int SAMPLE_EVERY = 100;
+	private static final int WRITER_BATCH_SIZE = 256;
+	private static final int WRITER_BUFFER_CHARS = 65_536;
+	private static final int WRITER_BUFFER_BYTES = 65_536;
+	/**
+	 * How long the writer thread waits before polling an empty buffer again
+	 */
+	private static final long WRITER_IDLE_PARK_NANOS = 1_000_000;
+	/**
+	 * How long a logging thread waits before retrying a full buffer
+	 */
+	private static final long FULL_BUFFER_PARK_NANOS = 50_000;
+
+	// rotation configurations
+	private static final String ROLLED_SUFFIX = ".gz";
+	private static final int COMPRESS_BUFFER_BYTES = 65_536;
+	private static final long COMPRESSOR_CLOSE_TIMEOUT_SECONDS = 30;
+
+	/**
+	 * The background writer while logging asynchronously, otherwise null
+	 */
+	private volatile AsyncWriter asyncWriter;
+	/**
+	 * Guards starting and stopping the background writer
+	 */
+	private final Object asyncLock = new Object();
+	private final LongAdder droppedMessages = new LongAdder();
+
+	// caller attribution
+	private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+	private static final Function<Stream<StackFrame>, String> FIND_CALLER = frames -> frames
+			.filter(frame -> frame.getDeclaringClass() != Logger.class)
+			.findFirst()
+			.map(Logger::describeCallSite)
+			.orElse("");
+	private static final ConcurrentHashMap<CallSite, String> CALL_SITES = new ConcurrentHashMap<CallSite, String>();
+	private static volatile boolean callerAttribution = true;
+
+	// levels
+	private static volatile LogLevel threshold = LogLevel.INFO;
+
 	//**************************************************************\
 	//																*
 	//		Configure Log											*
@@ -71,6 +160,37 @@ public class Logger implements AutoCloseable {
 		return instance;
 	}
 
+	/**
+	 * Initialise the log if needed, and log asynchronously with the default buffer capacity, waiting for room when the buffer is full
+	 *
+	 * @see #initialiseAsync(int, LogOverflowPolicy)
+	 */
+	public static Logger initialiseAsync() {
+		return initialiseAsync(DEFAULT_BUFFER_CAPACITY, LogOverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * Initialise the log if needed, and log asynchronously through a background writer thread. If the log is already asynchronous, its buffered
+	 * messages are written and it is restarted with the new configuration.
+	 *
+	 * @param capacity the most messages buffered at once, rounded up to a power of 2
+	 * @param policy   what to do with a message logged while the buffer is full
+	 * @return the Logger instance
+	 * @throws IllegalArgumentException if capacity is less than 1 or greater than 2^30, or policy is null
+	 */
+	public static Logger initialiseAsync(int capacity, LogOverflowPolicy policy) throws IllegalArgumentException {
+		if (policy == null) {
+			throw new IllegalArgumentException("Logger overflow policy cannot be null");
+		}
+		LogRingBuffer buffer = new LogRingBuffer(capacity);
+		Logger logger = initialise();
+		synchronized (logger.asyncLock) {
+			logger.stopAsync();
+			logger.asyncWriter = logger.new AsyncWriter(buffer, policy);
+		}
+		return logger;
+	}
+
 	/**
 	 * Constructs an instance of a logger
 	 * 
@@ -79,7 +199,6 @@ public class Logger implements AutoCloseable {
 	private Logger(String logfilepath) {
 		try {
 			this.setLogfile(logfilepath);
-			this.writeHeaders();
 		} catch (IllegalArgumentException | IOException logInstantiationEx) {
 			logInstantiationEx.printStackTrace();
 		}
@@ -111,48 +230,361 @@ public class Logger implements AutoCloseable {
 	}
 
 	/**
-	 * Set name and relative filepath of the log file
+	 * Get an OutputStream appending to a binary log file
 	 * 
-	 * @param logfilepath
+	 * @param bufferBytes the size of the stream's buffer, or 0 for the default size
+	 * @return
+	 * @throws IOException
+	 */
+	private OutputStream getOutputStream(int bufferBytes) throws IOException {
+		FileOutputStream file = new FileOutputStream(logfile, true);
+		return (bufferBytes > 0) ? new BufferedOutputStream(file, bufferBytes) : new BufferedOutputStream(file);
+	}
+
+	/**
+	 * Set name and relative filepath of the log file, and start logging to a new file there
+	 * 
+	 * @param logfilepath relative filepath to log file ending in the prefix to the log file, eg {@code ./src/log/logs/ShopSystem}
 	 * @throws IllegalArgumentException
 	 * @throws IOException
 	 */
-	public void setLogfile(String logfilepath) throws IllegalArgumentException, IOException {
+	public synchronized void setLogfile(String logfilepath) throws IllegalArgumentException, IOException {
 		if (logfilepath == null || logfilepath.isBlank()) {
 			throw new IllegalArgumentException("logfilepath cannot be null or blank");
 		}
 		File previousLogfile = logfile;
 		stamp = LocalDateTime.now();
-		logfile = new File(logfilepath + "-" + stamp.format(formatter) + ".csv");
+		String extension = logFormat.getExtension();
+		File newLogfile = new File(logfilepath + "-" + stamp.format(formatter) + extension);
+		// a log rolled within the same tenth of a millisecond would otherwise append to the file it rolled from
+		for (int i = 1; newLogfile.equals(previousLogfile) || newLogfile.exists() || new File(newLogfile + ROLLED_SUFFIX).exists(); i++) {
+			newLogfile = new File(logfilepath + "-" + stamp.format(formatter) + "-" + i + extension);
+		}
+		logfile = newLogfile;
 		try (BufferedWriter bw = getBufferedWriter()) {
 		} catch (IOException newLogfileInvalidEx) {
 			System.out.printf("logfilepath invalid%n" +
 					"\"" + logfilepath + "\"%n" +
-					"Reset back to " + previousLogfile.toString() + "%n" +
+					"Reset back to " + previousLogfile + "%n" +
 					newLogfileInvalidEx.getMessage());
 			logfile = previousLogfile;
+			return;
+		}
+		File base = new File(logfilepath);
+		logfileDirectory = (base.getParent() != null) ? base.getParent() : ".";
+		logfileNamePrefix = base.getName();
+		logfileStartedMillis = System.currentTimeMillis();
+		rollAtMillis = (rotationPolicy.getInterval() != null) ? logfileStartedMillis + rotationPolicy.getInterval().toMillis() : Long.MAX_VALUE;
+		logfileZone = ZoneId.systemDefault();
+		if (logFormat == LogFormat.BINARY) {
+			binaryEncoder = new LogBinaryEncoder();
+			try (OutputStream out = getOutputStream(0)) {
+				logfileBytes = binaryEncoder.writeHeader(out, logfileZone);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		} else {
+			binaryEncoder = null;
+			writeHeaders();
+			logfileBytes = logHeaders.length() + System.lineSeparator().length();
 		}
 		System.out.println(logfile);
 	}
 
-	public void setLogfilePath() {
-		//TODO
+	/**
+	 * Set the directory log files are written to, creating it if needed, and start logging to a new file there
+	 * 
+	 * @param logfilePath the directory, eg {@code ./src/log/logs/}
+	 * @throws IllegalArgumentException if logfilePath is null or blank
+	 * @throws IOException              if the directory cannot be created
+	 */
+	public synchronized void setLogfilePath(String logfilePath) throws IllegalArgumentException, IOException {
+		if (logfilePath == null || logfilePath.isBlank()) {
+			throw new IllegalArgumentException("logfilePath cannot be null or blank");
+		}
+		Files.createDirectories(Paths.get(logfilePath));
+		setLogfile(new File(logfilePath, logfileNamePrefix).getPath());
+	}
+
+	/**
+	 * Set the prefix of log file names, and start logging to a new file with it
+	 * 
+	 * @param logfilePrefix the prefix, eg {@code ShopSystem}
+	 * @throws IllegalArgumentException if logfilePrefix is null, blank or contains a path separator
+	 * @throws IOException
+	 */
+	public synchronized void setLogfilePrefix(String logfilePrefix) throws IllegalArgumentException, IOException {
+		if (logfilePrefix == null || logfilePrefix.isBlank() || logfilePrefix.contains("/") || logfilePrefix.contains(File.separator)) {
+			throw new IllegalArgumentException("logfilePrefix cannot be null, blank or contain a path separator but was " + logfilePrefix);
+		}
+		setLogfile(new File(logfileDirectory, logfilePrefix).getPath());
 	}
 
-	public void setLogfilePrefix() {
-		//TODO
+	/**
+	 * @return the directory log files are written to
+	 */
+	public synchronized String getLogfilePath() {
+		return logfileDirectory;
 	}
 
 	/**
-	 * Implementation of AutoCloseable interface .close() method to allow log use with try-with-resources block
+	 * @return the prefix of log file names
+	 */
+	public synchronized String getLogfilePrefix() {
+		return logfileNamePrefix;
+	}
+
+	/**
+	 * Set when the log rolls over to a new file, and how many rolled files are kept. Takes effect from the current log file.
+	 * 
+	 * @param rotationPolicy
+	 * @throws IllegalArgumentException if rotationPolicy is null
+	 */
+	public synchronized void setRotationPolicy(LogRotationPolicy rotationPolicy) throws IllegalArgumentException {
+		if (rotationPolicy == null) {
+			throw new IllegalArgumentException("rotationPolicy cannot be null");
+		}
+		this.rotationPolicy = rotationPolicy;
+		rollAtMillis = (rotationPolicy.getInterval() != null) ? logfileStartedMillis + rotationPolicy.getInterval().toMillis() : Long.MAX_VALUE;
+	}
+
+	/**
+	 * @return the current rotation policy
+	 */
+	public synchronized LogRotationPolicy getRotationPolicy() {
+		return rotationPolicy;
+	}
+
+	/**
+	 * Set the format log files are written in, and start logging to a new file in it if the format has changed
+	 * 
+	 * @param logFormat
+	 * @throws IllegalArgumentException if logFormat is null
+	 * @throws IOException
+	 */
+	public synchronized void setLogFormat(LogFormat logFormat) throws IllegalArgumentException, IOException {
+		if (logFormat == null) {
+			throw new IllegalArgumentException("logFormat cannot be null");
+		}
+		if (this.logFormat != logFormat) {
+			this.logFormat = logFormat;
+			setLogfile(new File(logfileDirectory, logfileNamePrefix).getPath());
+		}
+	}
+
+	/**
+	 * @return the format log files are written in
+	 */
+	public synchronized LogFormat getLogFormat() {
+		return logFormat;
+	}
+
+	/**
+	 * Count a line just written to the log file. Must hold the Logger's lock.
+	 * 
+	 * @param lineLength the characters written, including the line separator, or the bytes written to a binary log file
+	 * @return true if the rotation policy says the log file is due to be rolled
+	 */
+	private boolean countLine(int lineLength) {
+		logfileBytes += lineLength;
+		long maxBytes = rotationPolicy.getMaxBytes();
+		return (maxBytes > 0 && logfileBytes >= maxBytes) || System.currentTimeMillis() >= rollAtMillis;
+	}
+
+	/**
+	 * Start a new log file, and compress the one rolled from in the background. Must hold the Logger's lock, and the log file must not be open for
+	 * writing.
+	 */
+	private void roll() {
+		File rolled = logfile;
+		try {
+			setLogfile(new File(logfileDirectory, logfileNamePrefix).getPath());
+		} catch (IllegalArgumentException | IOException rollEx) {
+			rollEx.printStackTrace();
+		}
+		if (logfile == rolled) {
+			return;
+		}
+		if (compressor == null) {
+			compressor = Executors.newSingleThreadExecutor(task -> {
+				Thread thread = new Thread(task, "shop-system-log-compressor");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		Path directory = Paths.get(logfileDirectory);
+		String prefix = logfileNamePrefix;
+		int maxRolledFiles = rotationPolicy.getMaxRolledFiles();
+		compressor.execute(() -> {
+			compress(rolled.toPath());
+			if (maxRolledFiles > 0) {
+				deleteOldestRolled(directory, prefix, maxRolledFiles);
+			}
+		});
+	}
+
+	/**
+	 * Gzip a rolled log file alongside itself, then delete it
+	 * 
+	 * @param rolled
+	 */
+	private static void compress(Path rolled) {
+		Path compressed = Paths.get(rolled + ROLLED_SUFFIX);
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), COMPRESS_BUFFER_BYTES)) {
+			Files.copy(rolled, out);
+		} catch (IOException compressEx) {
+			compressEx.printStackTrace();
+			return;
+		}
+		try {
+			Files.delete(rolled);
+		} catch (IOException deleteEx) {
+			deleteEx.printStackTrace();
+		}
+	}
+
+	/**
+	 * Delete the oldest compressed log files with a prefix, leaving maxRolledFiles. Files are ordered by the timestamp in their name, then by the
+	 * suffix added to a name that collided with an existing file.
+	 * 
+	 * @param directory
+	 * @param prefix
+	 * @param maxRolledFiles
+	 */
+	static void deleteOldestRolled(Path directory, String prefix, int maxRolledFiles) {
+		try (Stream<Path> files = Files.list(directory)) {
+			RolledFile[] rolled = files.map(file -> RolledFile.parse(file, prefix))
+					.filter(file -> file != null)
+					.sorted()
+					.toArray(RolledFile[]::new);
+			for (int i = 0; i < rolled.length - maxRolledFiles; i++) {
+				Files.deleteIfExists(rolled[i].path);
+			}
+		} catch (IOException deleteEx) {
+			deleteEx.printStackTrace();
+		}
+	}
+
+	/**
+	 * A compressed log file, ordered by when it was started. Named {@code <prefix>-<timestamp>[-<collision>]<extension>.gz}, see
+	 * {@link Logger#setLogfile(String)}.
+	 */
+	private static final class RolledFile implements Comparable<RolledFile> {
+
+		private final Path path;
+		private final LocalDateTime stamp;
+		private final int collision;
+
+		private RolledFile(Path path, LocalDateTime stamp, int collision) {
+			this.path = path;
+			this.stamp = stamp;
+			this.collision = collision;
+		}
+
+		/**
+		 * @return the RolledFile, or null if file is not a compressed log file with the prefix
+		 */
+		private static RolledFile parse(Path file, String prefix) {
+			String name = file.getFileName().toString();
+			if (!name.startsWith(prefix + "-")) {
+				return null;
+			}
+			for (LogFormat format : LogFormat.values()) {
+				String suffix = format.getExtension() + ROLLED_SUFFIX;
+				if (name.endsWith(suffix)) {
+					String stampAndCollision = name.substring(prefix.length() + 1, name.length() - suffix.length());
+					int stampEnd = stampAndCollision.indexOf(']') + 1;
+					try {
+						LocalDateTime stamp = LocalDateTime.parse(stampAndCollision.substring(0, stampEnd), formatter);
+						String collision = stampAndCollision.substring(stampEnd);
+						if (collision.isEmpty()) {
+							return new RolledFile(file, stamp, 0);
+						}
+						if (collision.startsWith("-")) {
+							return new RolledFile(file, stamp, Integer.parseInt(collision.substring(1)));
+						}
+					} catch (DateTimeParseException | NumberFormatException notRolledEx) {
+					}
+					return null;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public int compareTo(RolledFile other) {
+			int byStamp = stamp.compareTo(other.stamp);
+			return (byStamp != 0) ? byStamp : Integer.compare(collision, other.collision);
+		}
+	}
+
+	/**
+	 * @return the file currently logged to
+	 */
+	public File getLogfile() {
+		return logfile;
+	}
+
+	/**
+	 * @return true if messages are being written by the background writer thread
+	 */
+	public boolean isAsync() {
+		return asyncWriter != null;
+	}
+
+	/**
+	 * @return the number of messages dropped because the buffer was full, since the log was initialised
+	 */
+	public long getDroppedMessages() {
+		AsyncWriter writer = asyncWriter;
+		return droppedMessages.sum() + ((writer != null) ? writer.dropped.sum() : 0);
+	}
+
+	/**
+	 * Implementation of AutoCloseable interface .close() method to allow log use with try-with-resources block. If logging asynchronously, every
+	 * buffered message is written before returning, and logging carries on synchronously afterwards.
 	 */
 	@Override
 	public void close() {
+		synchronized (asyncLock) {
+			stopAsync();
+		}
 		try {
 			if (bufferedWriter != null)
 				bufferedWriter.close();
 		} catch (IOException e) {
 		}
+		ExecutorService rolledCompressor;
+		synchronized (this) {
+			rolledCompressor = compressor;
+			compressor = null;
+		}
+		if (rolledCompressor != null) {
+			rolledCompressor.shutdown();
+			try {
+				rolledCompressor.awaitTermination(COMPRESSOR_CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			} catch (InterruptedException closeEx) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Stop the background writer, if there is one, once it has written every buffered message. Must hold asyncLock.
+	 */
+	private void stopAsync() {
+		AsyncWriter writer = asyncWriter;
+		if (writer == null) {
+			return;
+		}
+		writer.stop();
+		asyncWriter = null;
+		long dropped = writer.dropped.sum();
+		if (dropped > 0) {
+			droppedMessages.add(dropped);
+			writeNow(newRecord(new String[] { "Logger dropped messages logged while its buffer was full", "dropped: " + dropped,
+					"policy: " + writer.policy }, LogLevel.WARN, LogMessageType.GENERAL));
+		}
 	}
 
 	public static void closeLogger() {
@@ -165,68 +597,335 @@ public class Logger implements AutoCloseable {
 	//																*
 	//**************************************************************/
 
-	private String[] constructLogMessage(String[] messages, LogMessageType type) {
-
-		//"LoggedFrom,DateTimeStamp,LogType,Messages";
-		String[] logMessage = new String[logHeaders.split(",").length + messages.length - 1];
-		logMessage[0] = getRelevantStackInfo();
-		logMessage[1] = LocalDateTime.now().format(formatter);
-		logMessage[2] = type.toString();
-		for (int i = 0; i < messages.length; i++) {
-			logMessage[i + 3] = messages[i];
-		}
-		return logMessage;
+	/**
+	 * Record the caller and time of a message. The time is formatted when the record is written, so off the logging thread when logging
+	 * asynchronously.
+	 * 
+	 * @param messages
+	 * @param level
+	 * @param type
+	 * @return
+	 */
+	private static LogRecord newRecord(String[] messages, LogLevel level, LogMessageType type) {
+		return new LogRecord(getRelevantStackInfo(), LogRecord.toEpochMicros(Instant.now()), level, type, messages.clone());
 	}
 
 	/**
-	 * Log a message made of several strings
+	 * Log a message made of several strings. The caller and time are always taken on the logging thread. The message is then handed to the background
+	 * writer if logging asynchronously, otherwise written immediately.
 	 * 
 	 * @param message
+	 * @param level
 	 * @param LogMessageType
 	 */
-	private void log(String[] message, LogMessageType type) {
-		String[] logMessage = constructLogMessage(message, type);
+	private void log(String[] message, LogLevel level, LogMessageType type) {
+		LogRecord record = newRecord(message, level, type);
+		AsyncWriter writer = asyncWriter;
+		if (writer == null || !writer.accept(record)) {
+			writeNow(record);
+		}
+	}
 
+	/**
+	 * Write a log record to the log file on this thread. Synchronized so messages logged from several threads are never interleaved in the log file.
+	 * 
+	 * @param record
+	 */
+	private synchronized void writeNow(LogRecord record) {
 		// TODO remove getInstance() conditional below?? useless perhaps?
-		if (initialise() != null && logMessage != null) {
-			try (BufferedWriter bw = getBufferedWriter()) {
-				for (int i = 0; i < logMessage.length; i++) {
-					bw.write((logMessage[i] != null) ? logMessage[i] : "null");
-					if (i != logMessage.length - 1) {
-						bw.write(",");
-					}
+		if (initialise() != null && record != null) {
+			int lineLength = 0;
+			if (binaryEncoder != null) {
+				try (OutputStream out = getOutputStream(0)) {
+					lineLength = binaryEncoder.write(out, record);
+				} catch (IOException e) {
+					e.printStackTrace();
 				}
-				bw.newLine();
-			} catch (IOException e) {
-				e.printStackTrace();
+			} else {
+				try (BufferedWriter bw = getBufferedWriter()) {
+					lineLength = writeLine(bw, record, logfileZone);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			if (countLine(lineLength)) {
+				roll();
 			}
 		} else {
 			System.err.println("Log is not configured! Printing to console instead");
 			System.err.println("\tLog Message:");
-			System.err.println("\t\tCalling Class:" + logMessage[0]);
-			System.err.println("\t\tDateTimeStamp:" + logMessage[1]);
-			for (int i = 2; i < logMessage.length; i++) {
-				System.err.println("\t\t\tMessage " + (i - 1) + " " + logMessage[i]);
+			System.err.println("\t\tCalling Class:" + record.getCaller());
+			System.err.println("\t\tDateTimeStamp:" + record.getTime());
+			String[] messages = record.messages();
+			for (int i = 0; i < messages.length; i++) {
+				System.err.println("\t\t\tMessage " + (i + 1) + " " + messages[i]);
 			}
 		}
 	}
 
 	/**
-	 * Gets the fully qualified name class and line of code that called the log
+	 * Write a log record as one CSV line
 	 * 
-	 * @return
+	 * @param bw
+	 * @param record
+	 * @param zone   the time zone the timestamp is shown in
+	 * @return the number of characters written, including the line separator
+	 * @throws IOException
 	 */
-	private String getRelevantStackInfo() {
-		ArrayList<StackTraceElement> stack = new ArrayList<StackTraceElement>();
-		//TODO figure out what part of stack trace to return thats actually useful
-		for (StackTraceElement e : Thread.currentThread().getStackTrace()) {
-			if (!e.toString().startsWith("java") && !e.toString().startsWith("log") && !e.toString().startsWith("Log")) {
-				stack.add(e);
+	static int writeLine(BufferedWriter bw, LogRecord record, ZoneId zone) throws IOException {
+		//"LoggedFrom,DateTimeStamp,Level,LogType,Messages";
+		String stamp = LocalDateTime.ofInstant(record.getTime(), zone).format(formatter);
+		String level = record.getLevel().toString();
+		String type = record.getType().toString();
+		String caller = record.getCaller();
+		bw.write(caller);
+		bw.write(",");
+		bw.write(stamp);
+		bw.write(",");
+		bw.write(level);
+		bw.write(",");
+		bw.write(type);
+		int length = caller.length() + stamp.length() + level.length() + type.length() + 3 + System.lineSeparator().length();
+		for (String message : record.messages()) {
+			String field = (message != null) ? message : "null";
+			bw.write(",");
+			bw.write(field);
+			length += field.length() + 1;
+		}
+		bw.newLine();
+		return length;
+	}
+
+	/**
+	 * Gets the fully qualified name class, method and line of code that called the log, eg
+	 * {@code controller.MainController.main(MainController.java:77)}. Only the frames down to the first outside Logger are walked, and each call
+	 * site's description is built once then cached.
+	 * 
+	 * @return the caller, or an empty String if caller attribution is off
+	 */
+	private static String getRelevantStackInfo() {
+		if (!callerAttribution) {
+			return "";
+		}
+		return STACK_WALKER.walk(FIND_CALLER);
+	}
+
+	/**
+	 * @param frame
+	 * @return the cached description of the frame's call site
+	 */
+	private static String describeCallSite(StackFrame frame) {
+		CallSite callSite = new CallSite(frame.getDeclaringClass(), frame.getMethodName(), frame.getDescriptor(), frame.getByteCodeIndex());
+		String description = CALL_SITES.get(callSite);
+		if (description == null) {
+			description = frame.toStackTraceElement().toString().replace(',', '-');
+			CALL_SITES.putIfAbsent(callSite, description);
+		}
+		return description;
+	}
+
+	/**
+	 * A point in the code that logs, identified by its method and the bytecode index of the call within it. The method's descriptor tells overloads
+	 * apart, which can log from the same bytecode index on different lines.
+	 */
+	private static final class CallSite {
+
+		private final Class<?> declaringClass;
+		private final String methodName;
+		private final String descriptor;
+		private final int byteCodeIndex;
+
+		private CallSite(Class<?> declaringClass, String methodName, String descriptor, int byteCodeIndex) {
+			this.declaringClass = declaringClass;
+			this.methodName = methodName;
+			this.descriptor = descriptor;
+			this.byteCodeIndex = byteCodeIndex;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof CallSite)) {
+				return false;
+			}
+			CallSite callSite = (CallSite) other;
+			return declaringClass == callSite.declaringClass && byteCodeIndex == callSite.byteCodeIndex && methodName.equals(callSite.methodName)
+					&& descriptor.equals(callSite.descriptor);
+		}
+
+		@Override
+		public int hashCode() {
+			return ((declaringClass.hashCode() * 31 + methodName.hashCode()) * 31 + descriptor.hashCode()) * 31 + byteCodeIndex;
+		}
+	}
+
+	/**
+	 * Turn caller attribution on or off. Attribution costs a partial stack walk per message; with it off, the LoggedFrom column is left empty.
+	 * 
+	 * @param enabled
+	 */
+	public static void setCallerAttribution(boolean enabled) {
+		callerAttribution = enabled;
+	}
+
+	/**
+	 * @return true if each message records the code that logged it
+	 */
+	public static boolean isCallerAttribution() {
+		return callerAttribution;
+	}
+
+	/**
+	 * The background writer thread of an asynchronous log, with the buffer it drains. Logging threads hand it messages with
+	 * {@link #accept(LogRecord)}; it keeps the log file open, writes messages in batches, and flushes the file after each batch.
+	 */
+	private final class AsyncWriter implements Runnable {
+
+		private final LogRingBuffer buffer;
+		private final LogOverflowPolicy policy;
+		private final Thread thread;
+		private volatile boolean open = true;
+		private volatile boolean finishing;
+		/**
+		 * Logging threads currently inside {@link #accept(LogRecord)}, so stopping can wait for them
+		 */
+		private final LongAdder inFlight = new LongAdder();
+		private final LongAdder dropped = new LongAdder();
+		private final AtomicLong overflowed = new AtomicLong();
+
+		// only used by the writer thread, while holding the Logger's lock
+		private final LogRecord[] batch = new LogRecord[WRITER_BATCH_SIZE];
+		private File openLogfile;
+		/**
+		 * The open log file, as a BufferedWriter if it is CSV or an OutputStream if it is binary
+		 */
+		private BufferedWriter out;
+		private OutputStream binaryOut;
+
+		private AsyncWriter(LogRingBuffer buffer, LogOverflowPolicy policy) {
+			this.buffer = buffer;
+			this.policy = policy;
+			this.thread = new Thread(this, "shop-system-logger");
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+
+		/**
+		 * Buffer a log message for writing, applying the overflow policy if the buffer is full
+		 *
+		 * @param record
+		 * @return true if the message was buffered or dropped, false if this writer is stopping and the message must be written by the caller
+		 */
+		private boolean accept(LogRecord record) {
+			inFlight.increment();
+			try {
+				if (!open) {
+					return false;
+				}
+				if (buffer.offer(record)) {
+					return true;
+				}
+				if (policy == LogOverflowPolicy.DROP || (policy == LogOverflowPolicy.SAMPLE && overflowed.getAndIncrement() % SAMPLE_EVERY != 0)) {
+					dropped.increment();
+					return true;
+				}
+				while (!buffer.offer(record)) {
+					LockSupport.parkNanos(FULL_BUFFER_PARK_NANOS);
+				}
+				return true;
+			} finally {
+				inFlight.decrement();
 			}
 		}
-		//return Thread.currentThread().get
-		return stack.toString().replace(',', '-');
-		//return (stack.length >= 3) ? stack[0].toString() + " - " + stack[1].toString() + " - " + stack[2].toString() : stack[0].toString();
+
+		/**
+		 * Stop accepting messages, wait for the writer thread to write every buffered message, and close the log file
+		 */
+		private void stop() {
+			open = false;
+			// a logging thread that saw this writer open may still be adding its message
+			while (inFlight.sum() != 0) {
+				Thread.yield();
+			}
+			finishing = true;
+			try {
+				thread.join();
+			} catch (InterruptedException stopEx) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * The writer thread: write batches until stopped and the buffer is empty
+		 */
+		@Override
+		public void run() {
+			while (true) {
+				boolean finished = finishing;
+				int drained = buffer.drainTo(batch);
+				if (drained > 0) {
+					writeBatch(drained);
+				} else if (finished) {
+					break;
+				} else {
+					LockSupport.parkNanos(WRITER_IDLE_PARK_NANOS);
+				}
+			}
+			synchronized (Logger.this) {
+				closeLogfile();
+			}
+		}
+
+		/**
+		 * Write the first drained messages of the batch, reopening the log file if it has changed, then flush it
+		 */
+		private void writeBatch(int drained) {
+			synchronized (Logger.this) {
+				try {
+					for (int i = 0; i < drained; i++) {
+						if ((out == null && binaryOut == null) || openLogfile != logfile) {
+							closeLogfile();
+							openLogfile = logfile;
+							if (binaryEncoder != null) {
+								binaryOut = getOutputStream(WRITER_BUFFER_BYTES);
+							} else {
+								out = new BufferedWriter(new FileWriter(openLogfile, true), WRITER_BUFFER_CHARS);
+							}
+						}
+						int written = (binaryOut != null) ? binaryEncoder.write(binaryOut, batch[i]) : writeLine(out, batch[i], logfileZone);
+						if (countLine(written)) {
+							// the rolled file is compressed straight away, so it must be closed first
+							closeLogfile();
+							roll();
+						}
+					}
+					if (out != null) {
+						out.flush();
+					}
+					if (binaryOut != null) {
+						binaryOut.flush();
+					}
+				} catch (IOException writeEx) {
+					writeEx.printStackTrace();
+					closeLogfile();
+				}
+			}
+			Arrays.fill(batch, 0, drained, null);
+		}
+
+		private void closeLogfile() {
+			try {
+				if (out != null) {
+					out.close();
+				}
+				if (binaryOut != null) {
+					binaryOut.close();
+				}
+			} catch (IOException closeEx) {
+				closeEx.printStackTrace();
+			}
+			out = null;
+			binaryOut = null;
+		}
 	}
 
 	//**************************************************************\
@@ -242,56 +941,149 @@ public class Logger implements AutoCloseable {
 	//	 */
 	//	public static void logThis(String[] message) {
 	//		getInstance();
-	//		instance.log(message, LogMessageType.GENERAL);
+	//		instance.log(message, LogLevel.INFO, LogMessageType.GENERAL);
 	//	}
 
 	/**
-	 * Logs a series of messages passed in as a String vararg
+	 * Set the least severe level of message recorded. Can be changed at any time, from any thread.
+	 * 
+	 * @param level
+	 * @throws IllegalArgumentException if level is null
+	 */
+	public static void setLevel(LogLevel level) throws IllegalArgumentException {
+		if (level == null) {
+			throw new IllegalArgumentException("Logger level cannot be null");
+		}
+		threshold = level;
+	}
+
+	/**
+	 * @return the least severe level of message recorded
+	 */
+	public static LogLevel getLevel() {
+		return threshold;
+	}
+
+	/**
+	 * @param level
+	 * @return true if messages at level are recorded
+	 */
+	public static boolean isEnabled(LogLevel level) {
+		return level.compareTo(threshold) >= 0;
+	}
+
+	/**
+	 * Logs a series of messages passed in as a String vararg, if level is enabled
+	 * 
+	 * @param level
+	 * @param messages a String vararg
+	 * @throws IllegalArgumentException if level is null
+	 */
+	public static void logThis(LogLevel level, String... messages) throws IllegalArgumentException {
+		if (level == null) {
+			throw new IllegalArgumentException("Logger level cannot be null");
+		}
+		if (isEnabled(level)) {
+			getConfiguredInstance().log(messages, level, LogMessageType.GENERAL);
+		}
+	}
+
+	/**
+	 * Logs a message built by a Supplier, if level is enabled. The Supplier is only called, on this thread, if the message will be recorded.
+	 * 
+	 * @param level
+	 * @param message
+	 * @throws IllegalArgumentException if level or message is null
+	 */
+	public static void logThis(LogLevel level, Supplier<String> message) throws IllegalArgumentException {
+		if (level == null || message == null) {
+			throw new IllegalArgumentException("Logger level and message Supplier cannot be null");
+		}
+		if (isEnabled(level)) {
+			getConfiguredInstance().log(new String[] { message.get() }, level, LogMessageType.GENERAL);
+		}
+	}
+
+	/**
+	 * Logs a message built by a Supplier at {@link LogLevel#INFO}
+	 * 
+	 * @param message
+	 * @see #logThis(LogLevel, Supplier)
+	 */
+	public static void logThis(Supplier<String> message) throws IllegalArgumentException {
+		logThis(LogLevel.INFO, message);
+	}
+
+	/**
+	 * @return the Logger instance
+	 * @throws NullPointerException if the log is not initialised
+	 */
+	private static Logger getConfiguredInstance() throws NullPointerException {
+		if (instance == null) {
+			throw new NullPointerException(MSG_LOG_NOT_CONFIGURED);
+		}
+		return instance;
+	}
+
+	/**
+	 * Logs a series of messages passed in as a String vararg at {@link LogLevel#INFO}
 	 * 
 	 * @param message a String vararg
 	 */
 	public static void logThis(String... messages) {
+		if (!isEnabled(LogLevel.INFO)) {
+			return;
+		}
 		if (instance != null) {
-			instance.log(messages, LogMessageType.GENERAL);
+			instance.log(messages, LogLevel.INFO, LogMessageType.GENERAL);
 		} else {
 			throw new NullPointerException(MSG_LOG_NOT_CONFIGURED);
 		}
 	}
 
 	/**
-	 * Logs a single message in a String
+	 * Logs a single message in a String at {@link LogLevel#INFO}
 	 *
 	 * @param message
 	 */
 	public static void logThis(String message) {
+		if (!isEnabled(LogLevel.INFO)) {
+			return;
+		}
 		if (instance != null) {
-			instance.log(new String[] { message }, LogMessageType.GENERAL);
+			instance.log(new String[] { message }, LogLevel.INFO, LogMessageType.GENERAL);
 		} else {
 			throw new NullPointerException(MSG_LOG_NOT_CONFIGURED);
 		}
 	}
 
 	/**
-	 * Logs a series of messages in an {@code ArrayList<String>}
+	 * Logs a series of messages in an {@code ArrayList<String>} at {@link LogLevel#INFO}
 	 * 
 	 * @param messages
 	 */
 	public static void logThis(ArrayList<String> messages) {
+		if (!isEnabled(LogLevel.INFO)) {
+			return;
+		}
 		if (instance != null) {
 			String[] msgArr = new String[messages.size()];
 			msgArr = messages.toArray(msgArr);
-			instance.log(msgArr, LogMessageType.GENERAL);
+			instance.log(msgArr, LogLevel.INFO, LogMessageType.GENERAL);
 		} else {
 			throw new NullPointerException(MSG_LOG_NOT_CONFIGURED);
 		}
 	}
 
 	/**
-	 * Logs a series of messages from an Exception's details
+	 * Logs a series of messages from an Exception's details at {@link LogLevel#ERROR}
 	 * 
 	 * @param exception
 	 */
 	public static void logThis(Exception exception) {
+		if (!isEnabled(LogLevel.ERROR)) {
+			return;
+		}
 		if (instance != null) {
 			String[] messages = new String[exception.getStackTrace().length + 2];
 			messages[0] = (exception.getMessage() != null) ? exception.getMessage() : "No Message";
@@ -301,7 +1093,7 @@ public class Logger implements AutoCloseable {
 				messages[index] = s.toString();
 				index++;
 			}
-			instance.log(messages, LogMessageType.EXCEPTION);
+			instance.log(messages, LogLevel.ERROR, LogMessageType.EXCEPTION);
 		} else {
 			throw new NullPointerException(MSG_LOG_NOT_CONFIGURED);
 		}
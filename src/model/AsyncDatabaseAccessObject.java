@@ -0,0 +1,181 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import log.LogLevel;
+import log.Logger;
+import model.DatabaseAccessObject.BulkInsertResult;
+import model.DatabaseAccessObject.PageDirection;
+import model.HumanResourcesModel.Employee;
+
+/**
+ * An asynchronous facade over a {@link DatabaseAccessObject}. Every operation is submitted to a dedicated executor and returns a
+ * {@code CompletableFuture} immediately, so callers such as JavaFX event handlers are never blocked by disk writes or lock waits.<br>
+ * <br>
+ * Futures complete on an executor thread. Callers that update a GUI with the result must marshal it back to their own thread, eg
+ * {@code future.thenAcceptAsync(result -> ..., Platform::runLater)}.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class AsyncDatabaseAccessObject implements AutoCloseable {
+
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+	private final DatabaseAccessObject dao;
+	private final ExecutorService executor;
+
+	/**
+	 * Construct an AsyncDatabaseAccessObject backed by a fixed pool of daemon platform threads, one per pooled connection
+	 *
+	 * @param dao the DatabaseAccessObject to run operations against
+	 * @throws IllegalArgumentException if dao is null
+	 */
+	public AsyncDatabaseAccessObject(DatabaseAccessObject dao) throws IllegalArgumentException {
+		this(dao, ExecutorMode.PLATFORM);
+	}
+
+	/**
+	 * Construct an AsyncDatabaseAccessObject backed by an executor of the given mode. A {@link ExecutorMode#PLATFORM} executor has one thread per
+	 * pooled connection.
+	 *
+	 * @param dao  the DatabaseAccessObject to run operations against
+	 * @param mode the kind of executor to run operations on
+	 * @throws IllegalArgumentException if either parameter is null
+	 */
+	public AsyncDatabaseAccessObject(DatabaseAccessObject dao, ExecutorMode mode) throws IllegalArgumentException {
+		this(dao, (dao == null || mode == null) ? null : mode.newExecutor("dao-async-", dao.getPoolStatistics().getMaxSize()));
+	}
+
+	/**
+	 * Construct an AsyncDatabaseAccessObject backed by the supplied executor. The executor is owned by this object from then on, and is shut down by
+	 * {@link #close()}.
+	 *
+	 * @param dao      the DatabaseAccessObject to run operations against
+	 * @param executor the executor to run operations on
+	 * @throws IllegalArgumentException if either parameter is null
+	 */
+	public AsyncDatabaseAccessObject(DatabaseAccessObject dao, ExecutorService executor) throws IllegalArgumentException {
+		if (dao == null || executor == null) {
+			throw new IllegalArgumentException("AsyncDatabaseAccessObject dao and executor cannot be null");
+		}
+		this.dao = dao;
+		this.executor = executor;
+	}
+
+	//**************************************************************\
+	//																*
+	//		Employee Operations										*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * @see DatabaseAccessObject#getEmployees()
+	 */
+	public CompletableFuture<ArrayList<Employee>> getEmployees() {
+		return submit(dao::getEmployees);
+	}
+
+	/**
+	 * @see DatabaseAccessObject#getEmployeesPage(Employee, int, PageDirection)
+	 */
+	public CompletableFuture<ArrayList<Employee>> getEmployeesPage(Employee key, int pageSize, PageDirection direction) {
+		return submit(() -> dao.getEmployeesPage(key, pageSize, direction));
+	}
+
+	/**
+	 * @see DatabaseAccessObject#getEmployee(int)
+	 */
+	public CompletableFuture<Employee> getEmployee(int employeeID) {
+		return submit(() -> dao.getEmployee(employeeID));
+	}
+
+	/**
+	 * @see DatabaseAccessObject#addEmployee(Employee)
+	 */
+	public CompletableFuture<Integer> addEmployee(Employee e) {
+		return submit(() -> dao.addEmployee(e));
+	}
+
+	/**
+	 * @see DatabaseAccessObject#addEmployees(Collection)
+	 */
+	public CompletableFuture<BulkInsertResult> addEmployees(Collection<Employee> employees) {
+		return submit(() -> dao.addEmployees(employees));
+	}
+
+	/**
+	 * @see DatabaseAccessObject#editEmployee(int, Employee)
+	 */
+	public CompletableFuture<Boolean> editEmployee(int employeeID, Employee editedEmployee) {
+		return submit(() -> dao.editEmployee(employeeID, editedEmployee));
+	}
+
+	/**
+	 * @see DatabaseAccessObject#deleteEmployee(int)
+	 */
+	public CompletableFuture<Boolean> deleteEmployee(int employeeID) {
+		return submit(() -> dao.deleteEmployee(employeeID));
+	}
+
+	//**************************************************************\
+	//																*
+	//		Lifecycle												*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * Run an operation on the executor. Any exception thrown by the operation completes the future exceptionally, and is logged.
+	 *
+	 * @param <T>       the operation's result type
+	 * @param operation
+	 * @return a future completed with the operation's result
+	 */
+	private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+		CompletableFuture<T> future = CompletableFuture.supplyAsync(operation, executor);
+		future.whenComplete((result, operationEx) -> {
+			if (operationEx != null) {
+				Throwable cause = (operationEx.getCause() != null) ? operationEx.getCause() : operationEx;
+				if (cause instanceof Exception) {
+					Logger.logThis((Exception) cause);
+				} else {
+					Logger.logThis(LogLevel.ERROR, "Asynchronous database operation failed", cause.toString());
+				}
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * @return the DatabaseAccessObject operations are run against
+	 */
+	public DatabaseAccessObject getDatabaseAccessObject() {
+		return dao;
+	}
+
+	/**
+	 * Stop accepting operations and wait up to {@value #SHUTDOWN_TIMEOUT_SECONDS} seconds for those already submitted to finish. The underlying
+	 * DatabaseAccessObject is not closed.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				Logger.logThis(LogLevel.WARN, "AsyncDatabaseAccessObject: operations still running after " + SHUTDOWN_TIMEOUT_SECONDS + " seconds; abandoning them");
+				executor.shutdownNow();
+			}
+		} catch (InterruptedException closeEx) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+}
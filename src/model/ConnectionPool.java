@@ -0,0 +1,718 @@
+package model;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import log.LogLevel;
+import log.Logger;
+
+/**
+ * A bounded pool of reusable sqlite3 {@code Connection}s.<br>
+ * Connections handed out by {@link #borrow()} are proxies; calling {@code close()} on them returns the underlying connection to the pool rather than
+ * closing it, so existing try-with-resources blocks keep working unchanged.<br>
+ * <br>
+ * Idle connections are validated before reuse if they have been idle for longer than {@code validationIdleMillis}, and any connection held for longer
+ * than {@code leakThresholdMillis} is reported to the log as a suspected leak.<br>
+ * <br>
+ * Each pooled connection keeps a least-recently-used cache of up to {@code statementCacheSize} {@code PreparedStatement}s keyed by their SQL text,
+ * so a fixed SQL string is only compiled once per connection. Closing a cached statement returns it to the cache.<br>
+ * <br>
+ * If a {@link PragmaProfile} is set, it is applied to each connection before the connection is handed out.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class ConnectionPool implements AutoCloseable {
+
+	public static final int DEFAULT_MAX_SIZE = 4;
+	public static final int DEFAULT_STATEMENT_CACHE_SIZE = 16;
+	private static final long DEFAULT_BORROW_TIMEOUT_MILLIS = 30_000;
+	private static final long DEFAULT_VALIDATION_IDLE_MILLIS = 60_000;
+	private static final long DEFAULT_LEAK_THRESHOLD_MILLIS = 60_000;
+	private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+	private final String url;
+	private final int maxSize;
+	private final Semaphore permits;
+	private final ArrayDeque<PooledConnection> idle;
+	private final Map<PooledConnection, Long> borrowed;
+	private volatile boolean closed;
+
+	// configurations
+	private long borrowTimeoutMillis = DEFAULT_BORROW_TIMEOUT_MILLIS;
+	private long validationIdleMillis = DEFAULT_VALIDATION_IDLE_MILLIS;
+	private long leakThresholdMillis = DEFAULT_LEAK_THRESHOLD_MILLIS;
+	private volatile int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+	private volatile PragmaProfile profile;
+
+	// statistics
+	private final AtomicLong connectionsCreated = new AtomicLong();
+	private final AtomicLong connectionsDiscarded = new AtomicLong();
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong reuseCount = new AtomicLong();
+	private final AtomicLong validationFailures = new AtomicLong();
+	private final AtomicLong leaksDetected = new AtomicLong();
+	private final AtomicLong waitTimeNanos = new AtomicLong();
+	private final AtomicLong statementCacheHits = new AtomicLong();
+	private final AtomicLong statementCacheMisses = new AtomicLong();
+	private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+	/**
+	 * Construct a ConnectionPool
+	 *
+	 * @param url     the jdbc url of the database, eg {@code "jdbc:sqlite:./src/model/shop.db"}
+	 * @param maxSize the maximum number of connections this pool will open at any one time
+	 * @throws IllegalArgumentException if url is null or blank, or maxSize is less than 1
+	 */
+	public ConnectionPool(String url, int maxSize) throws IllegalArgumentException {
+		if (url == null || url.isBlank()) {
+			throw new IllegalArgumentException("ConnectionPool url cannot be null or blank");
+		}
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("ConnectionPool maxSize must be 1 or greater but was " + maxSize);
+		}
+		this.url = url;
+		this.maxSize = maxSize;
+		this.permits = new Semaphore(maxSize, true);
+		this.idle = new ArrayDeque<PooledConnection>(maxSize);
+		this.borrowed = new IdentityHashMap<PooledConnection, Long>(maxSize);
+	}
+
+	//**************************************************************\
+	//																*
+	//		Configure Pool											*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * @param borrowTimeoutMillis how long {@link #borrow()} waits for a free connection before failing
+	 */
+	public void setBorrowTimeoutMillis(long borrowTimeoutMillis) {
+		this.borrowTimeoutMillis = Math.max(0, borrowTimeoutMillis);
+	}
+
+	/**
+	 * @param validationIdleMillis connections idle for longer than this are validated before being handed out. 0 validates on every borrow
+	 */
+	public void setValidationIdleMillis(long validationIdleMillis) {
+		this.validationIdleMillis = Math.max(0, validationIdleMillis);
+	}
+
+	/**
+	 * @param leakThresholdMillis connections borrowed for longer than this are logged as suspected leaks
+	 */
+	public void setLeakThresholdMillis(long leakThresholdMillis) {
+		this.leakThresholdMillis = Math.max(0, leakThresholdMillis);
+	}
+
+	/**
+	 * @param statementCacheSize the maximum number of PreparedStatements cached per connection. 0 disables statement caching. Connections already
+	 *                           in the pool shrink their caches lazily the next time they prepare a statement
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = Math.max(0, statementCacheSize);
+	}
+
+	/**
+	 * Set the PragmaProfile applied to every connection. May be changed at runtime; connections already open have the new profile applied the next
+	 * time they are borrowed.
+	 *
+	 * @param profile the PragmaProfile to apply, or null to leave connections with the sqlite3 defaults
+	 */
+	public void setPragmaProfile(PragmaProfile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * @return the PragmaProfile applied to every connection, or null if none
+	 */
+	public PragmaProfile getPragmaProfile() {
+		return profile;
+	}
+
+	/**
+	 * @return the maximum number of connections this pool will open
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	//**************************************************************\
+	//																*
+	//		Pool Operations											*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * Borrow a connection from the pool, opening a new one if none are idle and the pool is not yet at {@code maxSize}. Closing the returned
+	 * {@code Connection} returns it to the pool.
+	 *
+	 * @return a pooled Connection
+	 * @throws SQLException if the pool is closed, if no connection becomes free within {@code borrowTimeoutMillis}, or if a new connection cannot be
+	 *                      opened
+	 */
+	public Connection borrow() throws SQLException {
+		if (closed) {
+			throw new SQLException("ConnectionPool is closed");
+		}
+		long waitStart = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw new SQLException("ConnectionPool exhausted: no connection free after " + borrowTimeoutMillis + "ms " + getStatistics());
+			}
+		} catch (InterruptedException interruptedEx) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a pooled connection", interruptedEx);
+		}
+		waitTimeNanos.addAndGet(System.nanoTime() - waitStart);
+
+		PooledConnection pooled = null;
+		try {
+			pooled = takeIdle();
+			if (pooled == null) {
+				pooled = new PooledConnection(DriverManager.getConnection(url));
+				connectionsCreated.incrementAndGet();
+			} else {
+				reuseCount.incrementAndGet();
+			}
+			PragmaProfile current = profile;
+			if (current != null && pooled.appliedProfile != current) {
+				current.apply(pooled.connection);
+				pooled.appliedProfile = current;
+			}
+			long now = System.currentTimeMillis();
+			synchronized (this) {
+				detectLeaks(now);
+				borrowed.put(pooled, now);
+			}
+			borrowCount.incrementAndGet();
+			return pooled.newHandle();
+		} catch (SQLException | RuntimeException borrowEx) {
+			if (pooled != null) {
+				discard(pooled);
+			}
+			permits.release();
+			throw borrowEx;
+		}
+	}
+
+	/**
+	 * Take the most recently used idle connection, discarding any that fail validation
+	 *
+	 * @return a valid idle PooledConnection, or null if none are idle
+	 */
+	private PooledConnection takeIdle() {
+		while (true) {
+			PooledConnection pooled;
+			synchronized (this) {
+				pooled = idle.pollFirst();
+			}
+			if (pooled == null) {
+				return null;
+			}
+			if (System.currentTimeMillis() - pooled.lastReturned < validationIdleMillis || pooled.validate()) {
+				return pooled;
+			}
+			validationFailures.incrementAndGet();
+			discard(pooled);
+		}
+	}
+
+	/**
+	 * Return a connection to the pool. Called when a handle from {@link #borrow()} is closed.
+	 *
+	 * @param pooled
+	 */
+	private void giveBack(PooledConnection pooled) {
+		boolean reusable = !closed && pooled.reset();
+		synchronized (this) {
+			borrowed.remove(pooled);
+			if (reusable) {
+				pooled.lastReturned = System.currentTimeMillis();
+				idle.offerFirst(pooled);
+			}
+		}
+		if (!reusable) {
+			discard(pooled);
+		}
+		permits.release();
+	}
+
+	/**
+	 * Logs every connection that has been borrowed for longer than {@code leakThresholdMillis}. Each connection is reported at most once per borrow.
+	 * Caller must hold this pool's monitor.
+	 *
+	 * @param now current time in milliseconds
+	 */
+	private void detectLeaks(long now) {
+		for (Map.Entry<PooledConnection, Long> entry : borrowed.entrySet()) {
+			PooledConnection pooled = entry.getKey();
+			if (!pooled.leakReported && now - entry.getValue() > leakThresholdMillis) {
+				pooled.leakReported = true;
+				leaksDetected.incrementAndGet();
+				Logger.logThis(LogLevel.WARN, "ConnectionPool: suspected connection leak", "held for " + (now - entry.getValue()) + "ms", "borrowed by " + pooled.borrowedBy);
+			}
+		}
+	}
+
+	/**
+	 * Close a connection for good
+	 *
+	 * @param pooled
+	 */
+	private void discard(PooledConnection pooled) {
+		connectionsDiscarded.incrementAndGet();
+		try {
+			pooled.closeStatements();
+			pooled.connection.close();
+		} catch (SQLException discardEx) {
+			Logger.logThis(discardEx);
+		}
+	}
+
+	/**
+	 * Closes all idle connections and stops lending new ones. Connections still borrowed are closed when they are returned.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		ArrayList<PooledConnection> toClose;
+		synchronized (this) {
+			toClose = new ArrayList<PooledConnection>(idle);
+			idle.clear();
+		}
+		for (PooledConnection pooled : toClose) {
+			discard(pooled);
+		}
+	}
+
+	/**
+	 * @return a snapshot of this pool's statistics
+	 */
+	public synchronized PoolStatistics getStatistics() {
+		return new PoolStatistics(maxSize, idle.size(), borrowed.size(), connectionsCreated.get(), connectionsDiscarded.get(), borrowCount.get(),
+				reuseCount.get(), validationFailures.get(), leaksDetected.get(), waitTimeNanos.get(), statementCacheHits.get(), statementCacheMisses.get(),
+				statementCacheEvictions.get());
+	}
+
+	//**************************************************************\
+	//																*
+	//		Pooled Connection										*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * A physical connection owned by the pool, plus the bookkeeping the pool needs to manage it
+	 */
+	private class PooledConnection {
+
+		private final Connection connection;
+		private volatile long lastReturned;
+		private volatile boolean leakReported;
+		private volatile String borrowedBy;
+		private PragmaProfile appliedProfile;
+		private final LinkedHashMap<String, CachedStatement> statementCache;
+
+		private PooledConnection(Connection connection) {
+			this.connection = connection;
+			this.lastReturned = System.currentTimeMillis();
+			this.statementCache = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true);
+		}
+
+		/**
+		 * Get a PreparedStatement for this SQL from the cache, preparing and caching it on a miss. If the cached statement is still open in an
+		 * enclosing block an uncached statement is prepared instead.
+		 *
+		 * @param sql
+		 * @param handle the Connection proxy the statement is reported as belonging to
+		 * @return a PreparedStatement proxy whose {@code close()} returns it to the cache
+		 * @throws SQLException if the statement cannot be prepared
+		 */
+		private PreparedStatement prepareCached(String sql, Connection handle) throws SQLException {
+			int cacheSize = statementCacheSize;
+			CachedStatement cached = statementCache.get(sql);
+			if (cached != null && !cached.inUse) {
+				statementCacheHits.incrementAndGet();
+			} else if (cached != null || cacheSize == 0) {
+				statementCacheMisses.incrementAndGet();
+				return connection.prepareStatement(sql);
+			} else {
+				statementCacheMisses.incrementAndGet();
+				cached = new CachedStatement(sql, connection.prepareStatement(sql));
+				statementCache.put(sql, cached);
+			}
+			evictOverflow(cacheSize);
+			cached.inUse = true;
+			return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class },
+					new StatementHandle(cached, this, handle));
+		}
+
+		/**
+		 * Remove a statement that could not be made ready for its next user from the cache, and close it
+		 *
+		 * @param cached
+		 */
+		private void evict(CachedStatement cached) {
+			if (statementCache.remove(cached.sql, cached)) {
+				statementCacheEvictions.incrementAndGet();
+			}
+			cached.closeQuietly();
+		}
+
+		/**
+		 * Close the least recently used statements not currently in use until the cache fits within cacheSize
+		 *
+		 * @param cacheSize
+		 */
+		private void evictOverflow(int cacheSize) {
+			Iterator<CachedStatement> eldestFirst = statementCache.values().iterator();
+			int size = statementCache.size();
+			while (size > cacheSize && eldestFirst.hasNext()) {
+				CachedStatement eldest = eldestFirst.next();
+				if (!eldest.inUse) {
+					eldestFirst.remove();
+					size--;
+					statementCacheEvictions.incrementAndGet();
+					eldest.closeQuietly();
+				}
+			}
+		}
+
+		/**
+		 * Close every cached statement. Called before the physical connection is closed.
+		 */
+		private void closeStatements() {
+			for (CachedStatement cached : statementCache.values()) {
+				cached.closeQuietly();
+			}
+			statementCache.clear();
+		}
+
+		/**
+		 * @return a new proxy handle on this connection whose {@code close()} returns it to the pool
+		 */
+		private Connection newHandle() {
+			leakReported = false;
+			borrowedBy = Thread.currentThread().getName();
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, new Handle(this));
+		}
+
+		/**
+		 * @return true if the underlying connection is still usable
+		 */
+		private boolean validate() {
+			try {
+				return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+			} catch (SQLException validateEx) {
+				return false;
+			}
+		}
+
+		/**
+		 * Restore default connection state after a borrower has finished with it, rolling back any transaction left open
+		 *
+		 * @return true if this connection can be reused
+		 */
+		private boolean reset() {
+			try {
+				if (connection.isClosed()) {
+					return false;
+				}
+				if (!connection.getAutoCommit()) {
+					connection.rollback();
+					connection.setAutoCommit(true);
+				}
+				connection.clearWarnings();
+				return true;
+			} catch (SQLException resetEx) {
+				Logger.logThis(resetEx);
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * The {@code InvocationHandler} behind each borrowed {@code Connection} proxy. Once closed, a handle rejects further use so a borrower cannot
+	 * reach a connection that has since been lent to someone else.
+	 */
+	private class Handle implements InvocationHandler {
+
+		private PooledConnection pooled;
+
+		private Handle(PooledConnection pooled) {
+			this.pooled = pooled;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("close")) {
+				if (pooled != null) {
+					PooledConnection returning = pooled;
+					pooled = null;
+					giveBack(returning);
+				}
+				return null;
+			}
+			if (name.equals("isClosed")) {
+				return pooled == null || pooled.connection.isClosed();
+			}
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			if (name.equals("toString")) {
+				return "PooledConnection[" + ((pooled == null) ? "returned" : pooled.connection.toString()) + "]";
+			}
+			if (pooled == null) {
+				throw new SQLException("Connection has been returned to the pool");
+			}
+			if (name.equals("prepareStatement") && args.length == 1) {
+				return pooled.prepareCached((String) args[0], (Connection) proxy);
+			}
+			try {
+				return method.invoke(pooled.connection, args);
+			} catch (InvocationTargetException invocationEx) {
+				throw invocationEx.getCause();
+			}
+		}
+	}
+
+	/**
+	 * A PreparedStatement held in a connection's statement cache
+	 */
+	private static class CachedStatement {
+
+		private final String sql;
+		private final PreparedStatement statement;
+		private boolean inUse;
+		/**
+		 * The last ResultSet handed to the current user, which may still be open
+		 */
+		private ResultSet resultSet;
+
+		private CachedStatement(String sql, PreparedStatement statement) {
+			this.sql = sql;
+			this.statement = statement;
+		}
+
+		/**
+		 * Make this statement ready for its next user: close any open ResultSet and clear bound parameters and batches
+		 *
+		 * @return true if the statement can be reused
+		 */
+		private boolean release() {
+			inUse = false;
+			ResultSet handedOut = resultSet;
+			resultSet = null;
+			try {
+				// a statement may legally be closed before its ResultSet
+				if (handedOut != null) {
+					handedOut.close();
+				}
+				try {
+					ResultSet open = statement.getResultSet();
+					if (open != null) {
+						open.close();
+					}
+				} catch (SQLException alreadyRequestedEx) {
+					// sqlite-jdbc refuses once executeQuery() has handed the ResultSet out, which is closed above
+				}
+				statement.clearParameters();
+				statement.clearBatch();
+				return true;
+			} catch (SQLException releaseEx) {
+				return false;
+			}
+		}
+
+		private void closeQuietly() {
+			try {
+				statement.close();
+			} catch (SQLException closeEx) {
+			}
+		}
+	}
+
+	/**
+	 * The {@code InvocationHandler} behind each cached {@code PreparedStatement} proxy. {@code close()} returns the statement to the cache.
+	 */
+	private static class StatementHandle implements InvocationHandler {
+
+		private CachedStatement cached;
+		private final PooledConnection owner;
+		private final Connection connectionHandle;
+
+		private StatementHandle(CachedStatement cached, PooledConnection owner, Connection connectionHandle) {
+			this.cached = cached;
+			this.owner = owner;
+			this.connectionHandle = connectionHandle;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("close")) {
+				if (cached != null) {
+					CachedStatement releasing = cached;
+					cached = null;
+					if (!releasing.release()) {
+						owner.evict(releasing);
+					}
+				}
+				return null;
+			}
+			if (name.equals("isClosed")) {
+				return cached == null || cached.statement.isClosed();
+			}
+			if (name.equals("getConnection")) {
+				return connectionHandle;
+			}
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			if (name.equals("toString")) {
+				return "CachedStatement[" + ((cached == null) ? "returned" : cached.statement.toString()) + "]";
+			}
+			if (cached == null) {
+				throw new SQLException("PreparedStatement has been returned to the statement cache");
+			}
+			try {
+				Object result = method.invoke(cached.statement, args);
+				if (result instanceof ResultSet) {
+					cached.resultSet = (ResultSet) result;
+				}
+				return result;
+			} catch (InvocationTargetException invocationEx) {
+				throw invocationEx.getCause();
+			}
+		}
+	}
+
+	//**************************************************************\
+	//																*
+	//		Statistics												*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * An immutable snapshot of a ConnectionPool's statistics
+	 */
+	public static class PoolStatistics {
+
+		private final int maxSize;
+		private final int idle;
+		private final int active;
+		private final long created;
+		private final long discarded;
+		private final long borrows;
+		private final long reuses;
+		private final long validationFailures;
+		private final long leaksDetected;
+		private final long waitTimeNanos;
+		private final long statementCacheHits;
+		private final long statementCacheMisses;
+		private final long statementCacheEvictions;
+
+		private PoolStatistics(int maxSize, int idle, int active, long created, long discarded, long borrows, long reuses, long validationFailures,
+				long leaksDetected, long waitTimeNanos, long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+			this.maxSize = maxSize;
+			this.idle = idle;
+			this.active = active;
+			this.created = created;
+			this.discarded = discarded;
+			this.borrows = borrows;
+			this.reuses = reuses;
+			this.validationFailures = validationFailures;
+			this.leaksDetected = leaksDetected;
+			this.waitTimeNanos = waitTimeNanos;
+			this.statementCacheHits = statementCacheHits;
+			this.statementCacheMisses = statementCacheMisses;
+			this.statementCacheEvictions = statementCacheEvictions;
+		}
+
+		public int getMaxSize() {
+			return maxSize;
+		}
+
+		public int getIdle() {
+			return idle;
+		}
+
+		public int getActive() {
+			return active;
+		}
+
+		public long getCreated() {
+			return created;
+		}
+
+		public long getDiscarded() {
+			return discarded;
+		}
+
+		public long getBorrows() {
+			return borrows;
+		}
+
+		public long getReuses() {
+			return reuses;
+		}
+
+		public long getValidationFailures() {
+			return validationFailures;
+		}
+
+		public long getLeaksDetected() {
+			return leaksDetected;
+		}
+
+		public long getWaitTimeNanos() {
+			return waitTimeNanos;
+		}
+
+		public long getStatementCacheHits() {
+			return statementCacheHits;
+		}
+
+		public long getStatementCacheMisses() {
+			return statementCacheMisses;
+		}
+
+		public long getStatementCacheEvictions() {
+			return statementCacheEvictions;
+		}
+
+		@Override
+		public String toString() {
+			return "PoolStatistics [maxSize=" + maxSize + " idle=" + idle + " active=" + active + " created=" + created + " discarded=" + discarded
+					+ " borrows=" + borrows + " reuses=" + reuses + " validationFailures=" + validationFailures + " leaksDetected=" + leaksDetected
+					+ " waitTimeMs=" + (waitTimeNanos / 1_000_000) + " statementCacheHits=" + statementCacheHits + " statementCacheMisses="
+					+ statementCacheMisses + " statementCacheEvictions=" + statementCacheEvictions + "]";
+		}
+	}
+}
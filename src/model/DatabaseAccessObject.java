@@ -1,10 +1,10 @@
 package model;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
 import java.time.DateTimeException;
 import java.time.LocalDate;
@@ -13,10 +13,23 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import controller.MainController;
 import log.LogInterface;
+import log.LogLevel;
 import log.Logger;
 import model.HumanResourcesModel.Employee;
 import model.HumanResourcesModel.Person;
@@ -60,9 +73,13 @@ import model.HumanResourcesModel.Person;
  * @GitHub https://github.com/PeterMarley
  *
  */
-public class DatabaseAccessObject {
+public class DatabaseAccessObject implements AutoCloseable {
 
 	private String dbFilepath;
+	/**
+	 * All connections are borrowed from, and returned to, this pool
+	 */
+	private ConnectionPool pool;
 	/**
 	 * Date to text operations
 	 */
@@ -72,8 +89,61 @@ public class DatabaseAccessObject {
 	 * All Human Resources classes
 	 */
 	private final HumanResourcesModel MODEL;
+	/**
+	 * Employees already read from, or written to, the database
+	 */
+	private final EmployeeCache employeeCache;
 
 	private static final int INVALID_KEY_RETURN = -1;
+	/**
+	 * Rows per JDBC batch in bulk operations
+	 */
+	private static final int BULK_BATCH_SIZE = 500;
+	/**
+	 * Rows fetched from the database at a time by streaming queries, unless otherwise specified
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 256;
+
+	private static final String SQL_GET_EMPLOYEES = "Select * FROM person INNER JOIN employee ON employee.personID=person.personID;";
+	private static final String SQL_GET_EMPLOYEE_BY_ID = "SELECT * FROM person INNER JOIN employee ON employee.personID=person.personID "
+			+ "WHERE employee.employeeID=?;";
+	private static final String SQL_GET_EMPLOYEES_PAGE_FIRST = "SELECT * FROM person INNER JOIN employee ON employee.personID=person.personID "
+			+ "ORDER BY person.surname ASC, person.personID ASC LIMIT ?;";
+	private static final String SQL_GET_EMPLOYEES_PAGE_FORWARD = "SELECT * FROM person INNER JOIN employee ON employee.personID=person.personID "
+			+ "WHERE person.surname > ? OR (person.surname = ? AND person.personID > ?) "
+			+ "ORDER BY person.surname ASC, person.personID ASC LIMIT ?;";
+	private static final String SQL_GET_EMPLOYEES_PAGE_BACKWARD = "SELECT * FROM person INNER JOIN employee ON employee.personID=person.personID "
+			+ "WHERE person.surname < ? OR (person.surname = ? AND person.personID < ?) "
+			+ "ORDER BY person.surname DESC, person.personID DESC LIMIT ?;";
+	private static final String SQL_ADD_PERSON = "INSERT INTO person (forename,surname,email,phoneNumber) VALUES (?,?,?,?);";
+	private static final String SQL_ADD_EMPLOYEE = "INSERT INTO employee (personID,hourlyRateInPence,hoursPerWeek,startDate,endDate) VALUES (?,?,?,?,?);";
+	private static final String SQL_LAST_INSERT_ROWID = "SELECT last_insert_rowid();";
+	private static final String SQL_UPDATE_PERSON_BY_EMPLOYEE_ID = "UPDATE person SET forename=?, surname=?, email=?, phoneNumber=? "
+			+ "WHERE personID=(SELECT personID FROM employee WHERE employeeID=?);";
+	private static final String SQL_UPDATE_EMPLOYEE_BY_ID = "UPDATE employee SET hourlyRateInPence=?, hoursPerWeek=?, startDate=?, endDate=? WHERE employeeID=?;";
+	private static final String SQL_DELETE_PERSON_BY_EMPLOYEE_ID = "DELETE FROM person WHERE personID=(SELECT personID FROM employee WHERE employeeID=?);";
+	private static final String SQL_DELETE_EMPLOYEE_BY_ID = "DELETE FROM employee WHERE employeeID=?;";
+	private static final String SQL_DELETE_SHIFTS_BY_EMPLOYEE_ID = "DELETE FROM shifts WHERE employeeID=?;";
+	private static final String SQL_DELETE_SHIFT = "DELETE FROM shifts WHERE employeeID=? AND date=?;";
+	private static final String SQL_ADD_SHIFT = "INSERT INTO shifts (employeeID,date,hours) VALUES (?,?,?);";
+	// CROSS JOIN makes sqlite3 loop over employees and range search idx_shifts_employeeID_date for each, rather than scan every shift ever worked
+	private static final String SQL_GET_SHIFTS_IN_RANGE = "SELECT shifts.employeeID, shifts.date, shifts.hours FROM employee "
+			+ "CROSS JOIN shifts ON shifts.employeeID=employee.employeeID WHERE shifts.date BETWEEN ? AND ?;";
+	private static final String SQL_GET_SHIFTS_IN_RANGE_FOR_EMPLOYEES = "SELECT shifts.employeeID, shifts.date, shifts.hours "
+			+ "FROM json_each(?) AS ids CROSS JOIN shifts ON shifts.employeeID=ids.value WHERE shifts.date BETWEEN ? AND ?;";
+	private static final String[] SQL_CREATE_INDEXES = {
+			"CREATE INDEX IF NOT EXISTS idx_person_surname_personID ON person (surname, personID);",
+			"CREATE INDEX IF NOT EXISTS idx_employee_personID ON employee (personID);",
+			"CREATE INDEX IF NOT EXISTS idx_shifts_employeeID_date ON shifts (employeeID, date);"
+	};
+
+	/**
+	 * The direction to read a page of results in, relative to the key the page starts from
+	 */
+	public enum PageDirection {
+		FORWARD,
+		BACKWARD;
+	}
 
 	/**
 	 * Construct DataBaseAccessObject.
@@ -82,43 +152,79 @@ public class DatabaseAccessObject {
 	 * @param log                      - a LogInterface object. if null, all logging actions are outputted to console.
 	 */
 	public DatabaseAccessObject(String databaseRelativeFilepath) throws SQLException {
+		this(databaseRelativeFilepath, ConnectionPool.DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Construct DataBaseAccessObject with a connection pool of a specified size.
+	 * 
+	 * @param databaseRelativeFilepath - the relative filepath to the sqlite3 database
+	 * @param poolSize                 - the maximum number of connections held open to the database at once
+	 */
+	public DatabaseAccessObject(String databaseRelativeFilepath, int poolSize) throws SQLException {
 		MODEL = new HumanResourcesModel();
+		employeeCache = new EmployeeCache(EmployeeCache.DEFAULT_MAX_ENTRIES);
 		FORMAT_OBJECT = new DateTimeFormatterBuilder()
 				.appendPattern("yyyy-MM-dd")
 				.toFormatter(Locale.ENGLISH);
 		FORMAT_LOG = new DateTimeFormatterBuilder()
 				.appendPattern("dd-MM-yy HH:mm:ss.SS")
 				.toFormatter();
-		testConnection(databaseRelativeFilepath);
+		testConnection(databaseRelativeFilepath, poolSize);
+		createIndexes();
 
 	}
 
 	/**
-	 * Sets the database relative filepath, and tests if a Connection can be established
+	 * Sets the database relative filepath, creates the connection pool, and tests if a Connection can be established. The tested connection is kept
+	 * warm in the pool.
 	 * 
 	 * @param dbFilepath
+	 * @param poolSize
 	 */
-	private void testConnection(String dbFilepath) throws SQLException {
-		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFilepath);) {
+	private void testConnection(String dbFilepath, int poolSize) throws SQLException {
+		ConnectionPool testedPool = new ConnectionPool("jdbc:sqlite:" + dbFilepath, poolSize);
+		testedPool.setPragmaProfile(PragmaProfile.INTERACTIVE);
+		try (Connection connection = testedPool.borrow();) {
 			this.dbFilepath = dbFilepath;
+			this.pool = testedPool;
 			Logger.logThis("DatabaseAccessObject: setDatabaseLocation() successfully tested database connection and returned it " +
 					"to pool! @ " + LocalDateTime.now().format(FORMAT_LOG) + " (DB: " + dbFilepath + ")");
 		} catch (SQLException testConnectionEx) {
+			testedPool.close();
 			Logger.logThis(testConnectionEx);
 			throw testConnectionEx;
 		}
 	}
 
 	/**
-	 * Creates and returns an SQL database connection
+	 * Creates any of the {@code SQL_CREATE_INDEXES} indexes that do not yet exist. An index whose table does not exist yet is skipped.
+	 */
+	private void createIndexes() {
+		try (Connection connection = getConnection();
+				Statement statement = connection.createStatement()) {
+			for (String createIndex : SQL_CREATE_INDEXES) {
+				try {
+					statement.executeUpdate(createIndex);
+				} catch (SQLException createIndexEx) {
+					Logger.logThis(LogLevel.WARN, "DatabaseAccessObject could not create index", createIndex, createIndexEx.getMessage());
+				}
+			}
+		} catch (SQLException createIndexesEx) {
+			Logger.logThis(createIndexesEx);
+		}
+	}
+
+	/**
+	 * Borrows an SQL database connection from the connection pool. Closing the returned connection returns it to the pool.
 	 * 
 	 * @return a Connection object
-	 * @throws SQLException if database access error occurs
+	 * @throws SQLException if database access error occurs, or no pooled connection becomes free in time
 	 */
 	private Connection getConnection() throws SQLException {
 		Connection connection = null;
 		try {
-			connection = DriverManager.getConnection("jdbc:sqlite:" + dbFilepath);
+			connection = pool.borrow();
 		} catch (SQLException getConnectionEx) {
 			Logger.logThis(getConnectionEx);
 			throw getConnectionEx;
@@ -126,53 +232,301 @@ public class DatabaseAccessObject {
 		return connection;
 	}
 
+	/**
+	 * Switch the sqlite3 pragma settings used by all connections, eg to {@code PragmaProfile.BULK_LOAD} for the duration of an import. Connections
+	 * pick up the new profile the next time they are borrowed.
+	 * 
+	 * @param profile
+	 * @throws IllegalArgumentException if profile is null
+	 */
+	public void setPragmaProfile(PragmaProfile profile) throws IllegalArgumentException {
+		if (profile == null) {
+			throw new IllegalArgumentException("DAO: PragmaProfile cannot be null");
+		}
+		pool.setPragmaProfile(profile);
+		Logger.logThis("DatabaseAccessObject switched pragma profile", profile.toString());
+	}
+
+	/**
+	 * @return the sqlite3 pragma settings used by all connections
+	 */
+	public PragmaProfile getPragmaProfile() {
+		return pool.getPragmaProfile();
+	}
+
+	/**
+	 * @return a snapshot of the employee cache's statistics
+	 */
+	public EmployeeCache.CacheStatistics getEmployeeCacheStatistics() {
+		return employeeCache.getStatistics();
+	}
+
+	/**
+	 * Empty the employee cache, eg if the database may have been changed by another process. The next read goes to the database.
+	 */
+	public void invalidateEmployeeCache() {
+		employeeCache.invalidateAll();
+	}
+
+	/**
+	 * @return a snapshot of the connection pool's statistics
+	 */
+	public ConnectionPool.PoolStatistics getPoolStatistics() {
+		return pool.getStatistics();
+	}
+
+	/**
+	 * Closes all pooled database connections. Implementation of AutoCloseable interface .close() method.
+	 */
+	@Override
+	public void close() {
+		Logger.logThis("DatabaseAccessObject closing connection pool", pool.getStatistics().toString());
+		pool.close();
+	}
+
 	///////////////////////////////////////
 	// SELECT							//
 	/////////////////////////////////////
 
 	/**
 	 * Queries the sqlite3 database for all employee data and constructs an {@code ArrayList<Employee>} with all employees. If the database operation
-	 * fails an empty {@code ArrayList<Employee>} is returned
+	 * fails an empty {@code ArrayList<Employee>} is returned.<br>
+	 * If the employee cache holds every employee the database is not queried.
 	 * 
 	 * @return an {@code ArrayList<Employee>}
 	 */
 	public ArrayList<Employee> getEmployees() {
+		ArrayList<Employee> employees = readEmployees();
+		return (employees != null) ? employees : new ArrayList<Employee>();
+	}
 
-		final String GET_EMPLOYEES = "Select * FROM person INNER JOIN employee ON employee.personID=person.personID;";
-		ArrayList<Employee> employees = new ArrayList<Employee>();
+	/**
+	 * {@link #getEmployees()}, but returning null if the database operation fails, so a failure is never mistaken for an empty table
+	 * 
+	 * @return an {@code ArrayList<Employee>}, or null if the database operation fails
+	 */
+	ArrayList<Employee> readEmployees() {
+
+		ArrayList<Employee> employees = employeeCache.getAll();
+		if (employees != null) {
+			return employees;
+		}
+		employees = new ArrayList<Employee>();
+		// taken before the query, so a write while the table is read stops this read replacing the cache
+		long cacheGeneration = employeeCache.generation();
 
 		// try-with-resources Connection
 		try (Connection connection = getConnection();
-				Statement getEmployeesStatement = connection.createStatement();
-				ResultSet resultSet = getEmployeesStatement.executeQuery(GET_EMPLOYEES);) {
+				PreparedStatement getEmployeesStatement = connection.prepareStatement(SQL_GET_EMPLOYEES);
+				ResultSet resultSet = getEmployeesStatement.executeQuery();) {
 
 			// add all result rows as Employees to employees
+			EmployeeRowMapper mapper = new EmployeeRowMapper(MODEL, resultSet);
 			while (resultSet.next()) {
 				try {
-					employees.add(MODEL.new Employee(
-							resultSet.getString("forename"),
-							resultSet.getString("surname"),
-							resultSet.getString("email"),
-							resultSet.getString("phoneNumber"),
-							resultSet.getInt("hourlyRateInPence"),
-							resultSet.getDouble("hoursPerWeek"),
-							LocalDate.parse(resultSet.getString("startDate"), FORMAT_OBJECT),
-							(resultSet.getString("endDate") == null || resultSet.getString("endDate").isBlank()) ? null : LocalDate.parse(resultSet.getString("endDate"), FORMAT_OBJECT)));
+					employees.add(mapper.map());
 				} catch (DateTimeException | IllegalArgumentException employeeReadException) {
 					System.err.println("DAO: date convertion exception " + employeeReadException.getClass());
 					System.err.println(employeeReadException.getMessage());
 				}
 			}
+			employeeCache.putAll(employees, cacheGeneration);
 			Logger.logThis(employees.size() + " Employees retrieved from database");
 
 		} catch (SQLException getEmployeesEx) {
 			System.err.println("DAO: getEmployees() failed");
 			System.err.println(getEmployeesEx.getMessage());
 			Logger.logThis(getEmployeesEx);
+			employees = null;
 		}
 		return employees;
 	}
 
+	/**
+	 * Queries the sqlite3 database for one page of employees, ordered by {@code (surname, personID)}. Pages are found by keyset rather than offset, so
+	 * each page costs the same to read however deep into the table it is.<br>
+	 * <br>
+	 * To read the first page pass a null {@code keyEmployee}. To read the next page pass the last employee of the current page and
+	 * {@code PageDirection.FORWARD}; to read the previous page pass the first employee of the current page and {@code PageDirection.BACKWARD}. Either
+	 * way the returned page is in ascending order. An empty page means there are no more employees in that direction; if the database operation fails
+	 * null is returned instead, so a failure is never mistaken for the end of the table.
+	 * 
+	 * @param keyEmployee the employee the page starts after (or before), which must carry its primary keys, or null for the first page
+	 * @param pageSize    the maximum number of employees to return
+	 * @param direction   whether to read the page after or before {@code keyEmployee}
+	 * @return an {@code ArrayList<Employee>} of at most {@code pageSize} employees, or null if the database operation fails
+	 * @throws IllegalArgumentException if pageSize is less than 1, direction is null, or keyEmployee does not carry its primary keys
+	 */
+	public ArrayList<Employee> getEmployeesPage(Employee keyEmployee, int pageSize, PageDirection direction) throws IllegalArgumentException {
+		if (pageSize < 1 || direction == null) {
+			throw new IllegalArgumentException("DAO: getEmployeesPage() pageSize must be 1 or greater and direction cannot be null");
+		}
+		if (keyEmployee != null && !keyEmployee.isSaved()) {
+			throw new IllegalArgumentException("DAO: getEmployeesPage() keyEmployee must have been read from the database");
+		}
+		String pageSQL = (keyEmployee == null) ? SQL_GET_EMPLOYEES_PAGE_FIRST
+				: (direction == PageDirection.FORWARD) ? SQL_GET_EMPLOYEES_PAGE_FORWARD : SQL_GET_EMPLOYEES_PAGE_BACKWARD;
+		ArrayList<Employee> employees = new ArrayList<Employee>(pageSize);
+
+		try (Connection connection = getConnection();
+				PreparedStatement getPageStatement = connection.prepareStatement(pageSQL);) {
+			if (keyEmployee == null) {
+				getPageStatement.setInt(1, pageSize);
+			} else {
+				getPageStatement.setString(1, keyEmployee.getSurname());
+				getPageStatement.setString(2, keyEmployee.getSurname());
+				getPageStatement.setInt(3, keyEmployee.getPersonID());
+				getPageStatement.setInt(4, pageSize);
+			}
+			try (ResultSet resultSet = getPageStatement.executeQuery()) {
+				EmployeeRowMapper mapper = new EmployeeRowMapper(MODEL, resultSet);
+				while (resultSet.next()) {
+					try {
+						Employee employee = mapper.map();
+						employeeCache.put(employee);
+						employees.add(employee);
+					} catch (DateTimeException | IllegalArgumentException employeeReadException) {
+						System.err.println("DAO: date convertion exception " + employeeReadException.getClass());
+						System.err.println(employeeReadException.getMessage());
+					}
+				}
+			}
+			if (keyEmployee != null && direction == PageDirection.BACKWARD) {
+				Collections.reverse(employees);
+			}
+		} catch (SQLException getEmployeesPageEx) {
+			System.err.println("DAO: getEmployeesPage() failed");
+			System.err.println(getEmployeesPageEx.getMessage());
+			Logger.logThis(getEmployeesPageEx);
+			employees = null;
+		}
+		return employees;
+	}
+
+	/**
+	 * Get a single employee by primary key, from the employee cache if present, otherwise from the database
+	 * 
+	 * @param employeeID the {@code employee.employeeID} primary key
+	 * @return the Employee, or null if there is no such employee or the database operation fails
+	 */
+	public Employee getEmployee(int employeeID) {
+		Employee employee = employeeCache.get(employeeID);
+		if (employee != null) {
+			return employee;
+		}
+		try (Connection connection = getConnection();
+				PreparedStatement getEmployeeStatement = connection.prepareStatement(SQL_GET_EMPLOYEE_BY_ID);) {
+			getEmployeeStatement.setInt(1, employeeID);
+			try (ResultSet resultSet = getEmployeeStatement.executeQuery()) {
+				if (resultSet.next()) {
+					employee = new EmployeeRowMapper(MODEL, resultSet).map();
+					employeeCache.put(employee);
+				}
+			}
+		} catch (SQLException | DateTimeException | IllegalArgumentException getEmployeeEx) {
+			System.err.println("DAO: getEmployee() failed");
+			System.err.println(getEmployeeEx.getMessage());
+			Logger.logThis(getEmployeeEx);
+		}
+		return employee;
+	}
+
+	/**
+	 * Queries the sqlite3 database for all employee data, returning a {@code Stream<Employee>} that reads rows lazily from the open {@code ResultSet}
+	 * as it is consumed, {@code DEFAULT_FETCH_SIZE} rows at a time. Rows that do not contain valid Employee data are skipped.<br>
+	 * <br>
+	 * The stream holds a pooled connection until it is closed, so it must be used in a try-with-resources block.
+	 * 
+	 * @return a lazily populated {@code Stream<Employee>}
+	 * @throws SQLException if the query cannot be executed
+	 */
+	public Stream<Employee> streamEmployees() throws SQLException {
+		return streamEmployees(DEFAULT_FETCH_SIZE);
+	}
+
+	/**
+	 * Queries the sqlite3 database for all employee data, returning a {@code Stream<Employee>} that reads rows lazily from the open {@code ResultSet}
+	 * as it is consumed. Rows that do not contain valid Employee data are skipped.<br>
+	 * <br>
+	 * The stream holds a pooled connection until it is closed, so it must be used in a try-with-resources block. A database error while the stream is
+	 * being consumed is rethrown as an {@code IllegalStateException}. The connection is returned as soon as the last row is read, so a fully consumed
+	 * stream no longer holds it.
+	 * 
+	 * @param fetchSize the number of rows to fetch from the database at a time
+	 * @return a lazily populated {@code Stream<Employee>}
+	 * @throws SQLException if the query cannot be executed
+	 */
+	public Stream<Employee> streamEmployees(int fetchSize) throws SQLException {
+		Connection connection = getConnection();
+		PreparedStatement statement = null;
+		ResultSet resultSet = null;
+		EmployeeRowMapper mapper;
+		try {
+			statement = connection.prepareStatement(SQL_GET_EMPLOYEES);
+			statement.setFetchSize(fetchSize);
+			resultSet = statement.executeQuery();
+			mapper = new EmployeeRowMapper(MODEL, resultSet);
+		} catch (SQLException streamEmployeesEx) {
+			closeQuietly(resultSet, statement, connection);
+			Logger.logThis(streamEmployeesEx);
+			throw streamEmployeesEx;
+		}
+		final ResultSet rows = resultSet;
+		final PreparedStatement rowsStatement = statement;
+		// run when the rows run out, fail, or the stream is closed, whichever comes first
+		final AtomicBoolean released = new AtomicBoolean(false);
+		final Runnable release = () -> {
+			if (released.compareAndSet(false, true)) {
+				closeQuietly(rows, rowsStatement, connection);
+			}
+		};
+		Spliterator<Employee> spliterator = new Spliterators.AbstractSpliterator<Employee>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(Consumer<? super Employee> action) {
+				if (released.get()) {
+					return false;
+				}
+				try {
+					while (rows.next()) {
+						try {
+							action.accept(mapper.map());
+							return true;
+						} catch (DateTimeException | IllegalArgumentException employeeReadException) {
+							System.err.println("DAO: date convertion exception " + employeeReadException.getClass());
+							System.err.println(employeeReadException.getMessage());
+						}
+					}
+					release.run();
+					return false;
+				} catch (SQLException streamEmployeesEx) {
+					release.run();
+					Logger.logThis(streamEmployeesEx);
+					throw new IllegalStateException("DAO: streamEmployees() failed", streamEmployeesEx);
+				}
+			}
+		};
+		return StreamSupport.stream(spliterator, false).onClose(release);
+	}
+
+	/**
+	 * Quietly close SQL objects in reverse order of creation. Null safe.
+	 * 
+	 * @param resultSet
+	 * @param statement
+	 * @param connection
+	 */
+	private void closeQuietly(ResultSet resultSet, Statement statement, Connection connection) {
+		for (AutoCloseable closeable : new AutoCloseable[] { resultSet, statement, connection }) {
+			if (closeable != null) {
+				try {
+					closeable.close();
+				} catch (Exception closeEx) {
+					Logger.logThis(closeEx);
+				}
+			}
+		}
+	}
+
 	///////////////////////////////////////
 	// INSERT							//
 	/////////////////////////////////////
@@ -180,87 +534,361 @@ public class DatabaseAccessObject {
 	/**
 	 * Adds an {@code Employee} to database in tables {@code person} and {@code employee}, linking the employee to the person via the
 	 * {@code person.personID} value
-	 * primary key
+	 * primary key.<br>
+	 * Both rows are inserted in a single transaction on a single connection, so a failed {@code employee} insert never leaves an orphaned
+	 * {@code person} row behind. On success the new primary keys are set on {@code e}.
 	 * 
 	 * @param e a Employee
+	 * @return the new person row's primary key (named personID), or -1 if operation unsuccessful
 	 */
-	public void addEmployee(Employee e) {
-		// add person and get it's primary key
-		int foreignKey = addPerson(e);
-		String addEmployeeSQL = "INSERT INTO employee (personID,hourlyRateInPence,hoursPerWeek,startDate,endDate) VALUES (?,?,?,?,?);";
+	public int addEmployee(Employee e) {
+		int personID = INVALID_KEY_RETURN;
 
-		// if person added successfully
-		if (foreignKey != INVALID_KEY_RETURN) {
-
-			// try-with-resources Connection
-			try (Connection connection = getConnection();
-					PreparedStatement addEmployeeStatement = connection.prepareStatement(addEmployeeSQL);) {
+		// try-with-resources Connection
+		try (Connection connection = getConnection()) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement addEmployeeStatement = connection.prepareStatement(SQL_ADD_EMPLOYEE);
+					PreparedStatement lastRowIdStatement = connection.prepareStatement(SQL_LAST_INSERT_ROWID);) {
+				// add person and get it's primary key
+				int foreignKey = addPerson(connection, e);
 
 				// build statement
-				addEmployeeStatement.setInt(1, foreignKey);
-				addEmployeeStatement.setInt(2, e.getHourlyRate());
-				addEmployeeStatement.setDouble(3, e.getHoursPerWeek());
-				addEmployeeStatement.setString(4, e.getStartDateAsLocalDate().format(FORMAT_OBJECT));
-				addEmployeeStatement.setString(5, (e.getEndDateAsLocalDate() == null) ? "" : e.getEndDateAsLocalDate().format(FORMAT_OBJECT));
+				bindEmployee(addEmployeeStatement, foreignKey, e);
 
 				// add employee to database
 				addEmployeeStatement.executeUpdate();
-				Logger.logThis(new String[] { "Employee pushed to database: " + e.toString(), "personID: " + foreignKey });
+				int employeeID;
+				try (ResultSet rs = lastRowIdStatement.executeQuery();) {
+					employeeID = rs.getInt(1);
+				}
+				connection.commit();
+				personID = foreignKey;
+				e.setDatabaseIDs(personID, employeeID);
+				employeeCache.put(e);
+				Logger.logThis("Employee pushed to database", "personID: " + personID, "employeeID: " + employeeID);
+				Logger.logThis(LogLevel.DEBUG, () -> "Employee pushed to database: " + e.toString());
 
-			} catch (SQLException addEmployeeException) {
-				System.err.println("DAO: addEmployee() failed");
-				System.err.println(addEmployeeException.getMessage());
-				Logger.logThis(addEmployeeException);
+			} catch (SQLException | RuntimeException addEmployeeException) {
+				connection.rollback();
+				throw addEmployeeException;
+			} finally {
+				connection.setAutoCommit(true);
 			}
+		} catch (SQLException | RuntimeException addEmployeeException) {
+			System.err.println("DAO: addEmployee() failed");
+			System.err.println(addEmployeeException.getMessage());
+			Logger.logThis(addEmployeeException);
 		}
+		return personID;
 	}
 
 	/**
-	 * Adds a {@code Person} to database in {@code person} table, and return that row's {@code personID} primary key as an int, or -1 in the case of an
-	 * unsuccessful operation.
+	 * Adds a {@code Person} to database in {@code person} table on the supplied connection, and return that row's {@code personID} primary key as an
+	 * int. The key is read with {@code last_insert_rowid()} on the same connection, so the caller may insert dependent rows in the same transaction.
 	 * 
-	 * @param person a Person object
-	 * @return the new person row's primary key (named personID), or -1 if operation unsuccessful
-	 * @throws SQLException from getConnection() if method fails
+	 * @param connection the Connection (and so transaction) to insert the person with
+	 * @param person     a Person object
+	 * @return the new person row's primary key (named personID)
+	 * @throws SQLException if the insert fails
 	 */
-	private int addPerson(Person person) {
+	private int addPerson(Connection connection, Person person) throws SQLException {
 
 		int personID;
-		final String ADD_PERSON = "INSERT INTO person (forename,surname,email,phoneNumber) VALUES (?,?,?,?);";
 
-		// try-with-resources Connection & statement
-		try (Connection connection = getConnection();
-				PreparedStatement addPersonStatement = connection.prepareStatement(ADD_PERSON);) {
+		// try-with-resources statements
+		try (PreparedStatement addPersonStatement = connection.prepareStatement(SQL_ADD_PERSON);
+				PreparedStatement lastRowIdStatement = connection.prepareStatement(SQL_LAST_INSERT_ROWID);) {
 
 			// build PreparedStatement
-			addPersonStatement.setString(1, person.getForename());
-			addPersonStatement.setString(2, person.getSurname());
-			addPersonStatement.setString(3, person.getEmail());
-			addPersonStatement.setString(4, person.getPhoneNumber());
+			bindPerson(addPersonStatement, person);
 
 			// execute PreparedStatement
 			addPersonStatement.executeUpdate();
 
 			// try-with-resources ResultSet
-			try (ResultSet rs = addPersonStatement.getGeneratedKeys();) {
+			try (ResultSet rs = lastRowIdStatement.executeQuery();) {
 				personID = rs.getInt(1);
 			}
-			Logger.logThis("Person pushed to database: " + person.toString(), "personID: " + personID);
-
-		} catch (SQLException addPersonEx) {
-			personID = INVALID_KEY_RETURN;
-			Logger.logThis(addPersonEx);
 		}
 		return personID;
 	}
 
 	/**
-	 * Queries database for person/employee {@code originalEmployee}, and edits it to reflect the {@code editiedEmployee}
+	 * Adds many {@code Employee}s to the database in a single transaction. Rows are inserted into {@code person} and then {@code employee} in JDBC
+	 * batches of {@code BULK_BATCH_SIZE}, with each {@code employee} row linked to the {@code personID} generated for its {@code person} row.<br>
+	 * <br>
+	 * A row that fails does not abort the others: if a batch fails it is rolled back to a savepoint and retried row by row, so only the offending rows
+	 * are skipped and reported in the returned {@code BulkInsertResult}. Once the transaction commits, the new primary keys are set on each inserted
+	 * employee and it is cached. An Employee passed more than once carries the keys of the last row inserted for it.
+	 * 
+	 * @param employees a Collection of Employees to add
+	 * @return a BulkInsertResult containing the generated personIDs of the inserted rows, and any per-row failures
+	 * @throws IllegalArgumentException if employees is null
+	 */
+	public BulkInsertResult addEmployees(Collection<Employee> employees) throws IllegalArgumentException {
+		if (employees == null) {
+			throw new IllegalArgumentException("DAO: addEmployees() employees cannot be null");
+		}
+		BulkInsertResult result = new BulkInsertResult(employees.size());
+		ArrayList<Employee> chunk = new ArrayList<Employee>(BULK_BATCH_SIZE);
+		ArrayList<Integer> chunkIndices = new ArrayList<Integer>(BULK_BATCH_SIZE);
+
+		try (Connection connection = getConnection()) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement addPersonStatement = connection.prepareStatement(SQL_ADD_PERSON);
+					PreparedStatement addEmployeeStatement = connection.prepareStatement(SQL_ADD_EMPLOYEE);
+					PreparedStatement lastRowIdStatement = connection.prepareStatement(SQL_LAST_INSERT_ROWID);) {
+				int index = 0;
+				for (Employee e : employees) {
+					if (e == null) {
+						result.addFailure(index, null, "Employee was null");
+					} else {
+						chunk.add(e);
+						chunkIndices.add(index);
+					}
+					index++;
+					if (chunk.size() == BULK_BATCH_SIZE) {
+						insertEmployeeChunk(connection, addPersonStatement, addEmployeeStatement, lastRowIdStatement, chunk, chunkIndices, result);
+						chunk.clear();
+						chunkIndices.clear();
+					}
+				}
+				if (chunk.size() > 0) {
+					insertEmployeeChunk(connection, addPersonStatement, addEmployeeStatement, lastRowIdStatement, chunk, chunkIndices, result);
+				}
+				connection.commit();
+			} catch (SQLException addEmployeesEx) {
+				connection.rollback();
+				result.rollback(addEmployeesEx.getMessage());
+				throw addEmployeesEx;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+			ArrayList<Employee> inserted = result.getInsertedEmployees();
+			for (int i = 0; i < inserted.size(); i++) {
+				inserted.get(i).setDatabaseIDs(result.getPersonIDs().get(i), result.getEmployeeIDs().get(i));
+				employeeCache.put(inserted.get(i));
+			}
+			Logger.logThis("Employees bulk pushed to database", "inserted: " + result.getInsertedCount(), "failed: " + result.getFailures().size());
+		} catch (SQLException addEmployeesEx) {
+			System.err.println("DAO: addEmployees() failed");
+			System.err.println(addEmployeesEx.getMessage());
+			Logger.logThis(addEmployeesEx);
+		}
+		return result;
+	}
+
+	/**
+	 * Insert a chunk of employees as two JDBC batches. If either batch fails the chunk is rolled back to a savepoint and retried row by row.<br>
+	 * <br>
+	 * The keys of a batch are not read back row by row. sqlite gives each new {@code INTEGER PRIMARY KEY} row the largest rowid in its table plus one,
+	 * and this relies on there being one writer inside the transaction: the transaction holds the database's write lock from its first insert until it
+	 * commits, and nothing else (such as a trigger) inserts into {@code person} or {@code employee} while a batch runs. Each batch's keys are then
+	 * consecutive and end at {@code last_insert_rowid()}.
+	 * 
+	 * @throws SQLException if a savepoint cannot be set or rolled back to
+	 */
+	private void insertEmployeeChunk(Connection connection, PreparedStatement addPersonStatement, PreparedStatement addEmployeeStatement,
+			PreparedStatement lastRowIdStatement, ArrayList<Employee> chunk, ArrayList<Integer> chunkIndices, BulkInsertResult result) throws SQLException {
+		Savepoint chunkSavepoint = connection.setSavepoint();
+		try {
+			for (Employee e : chunk) {
+				bindPerson(addPersonStatement, e);
+				addPersonStatement.addBatch();
+			}
+			addPersonStatement.executeBatch();
+
+			// one writer inside the transaction, so the chunk's keys are consecutive and end at last_insert_rowid()
+			int firstPersonID = lastInsertRowID(lastRowIdStatement) - chunk.size() + 1;
+
+			for (int i = 0; i < chunk.size(); i++) {
+				bindEmployee(addEmployeeStatement, firstPersonID + i, chunk.get(i));
+				addEmployeeStatement.addBatch();
+			}
+			addEmployeeStatement.executeBatch();
+			int firstEmployeeID = lastInsertRowID(lastRowIdStatement) - chunk.size() + 1;
+			connection.releaseSavepoint(chunkSavepoint);
+			for (int i = 0; i < chunk.size(); i++) {
+				result.addInserted(chunkIndices.get(i), chunk.get(i), firstPersonID + i, firstEmployeeID + i);
+			}
+		} catch (SQLException | RuntimeException chunkEx) {
+			addPersonStatement.clearBatch();
+			addEmployeeStatement.clearBatch();
+			connection.rollback(chunkSavepoint);
+			for (int i = 0; i < chunk.size(); i++) {
+				insertEmployeeRow(connection, addPersonStatement, addEmployeeStatement, lastRowIdStatement, chunk.get(i), chunkIndices.get(i), result);
+			}
+		}
+	}
+
+	/**
+	 * Insert a single employee inside its own savepoint, recording a failure in {@code result} rather than throwing if the row cannot be inserted
+	 * 
+	 * @throws SQLException if a savepoint cannot be set or rolled back to
+	 */
+	private void insertEmployeeRow(Connection connection, PreparedStatement addPersonStatement, PreparedStatement addEmployeeStatement,
+			PreparedStatement lastRowIdStatement, Employee e, int index, BulkInsertResult result) throws SQLException {
+		Savepoint rowSavepoint = connection.setSavepoint();
+		try {
+			bindPerson(addPersonStatement, e);
+			addPersonStatement.executeUpdate();
+			int personID = lastInsertRowID(lastRowIdStatement);
+			bindEmployee(addEmployeeStatement, personID, e);
+			addEmployeeStatement.executeUpdate();
+			int employeeID = lastInsertRowID(lastRowIdStatement);
+			connection.releaseSavepoint(rowSavepoint);
+			result.addInserted(index, e, personID, employeeID);
+		} catch (SQLException | RuntimeException rowEx) {
+			connection.rollback(rowSavepoint);
+			result.addFailure(index, e, rowEx.getMessage());
+		}
+	}
+
+	/**
+	 * @param lastRowIdStatement an {@code SQL_LAST_INSERT_ROWID} statement
+	 * @return the rowid of the last row inserted on the statement's connection
+	 * @throws SQLException
+	 */
+	private static int lastInsertRowID(PreparedStatement lastRowIdStatement) throws SQLException {
+		try (ResultSet rs = lastRowIdStatement.executeQuery()) {
+			return rs.getInt(1);
+		}
+	}
+
+	/**
+	 * Set the parameters of an {@code SQL_ADD_PERSON} statement
+	 * 
+	 * @param statement
+	 * @param person
+	 * @throws SQLException
+	 */
+	private void bindPerson(PreparedStatement statement, Person person) throws SQLException {
+		statement.setString(1, person.getForename());
+		statement.setString(2, person.getSurname());
+		statement.setString(3, person.getEmail());
+		statement.setString(4, person.getPhoneNumber());
+	}
+
+	/**
+	 * Set the parameters of an {@code SQL_ADD_EMPLOYEE} statement
+	 * 
+	 * @param statement
+	 * @param personID  the foreign key of this employee's person row
+	 * @param e
+	 * @throws SQLException
+	 */
+	private void bindEmployee(PreparedStatement statement, int personID, Employee e) throws SQLException {
+		statement.setInt(1, personID);
+		statement.setInt(2, e.getHourlyRate());
+		statement.setDouble(3, e.getHoursPerWeek());
+		statement.setString(4, e.getStartDateAsLocalDate().format(FORMAT_OBJECT));
+		statement.setString(5, (e.getEndDateAsLocalDate() == null) ? "" : e.getEndDateAsLocalDate().format(FORMAT_OBJECT));
+	}
+
+	///////////////////////////////////////
+	// UPDATE & DELETE					//
+	/////////////////////////////////////
+
+	/**
+	 * Updates the {@code person} and {@code employee} rows of the employee with primary key {@code employeeID} to reflect {@code editedEmployee}. Both
+	 * rows are addressed by primary key, and updated in a single transaction.
+	 * 
+	 * @param employeeID     the {@code employee.employeeID} primary key of the employee to edit
+	 * @param editedEmployee the new data for this employee
+	 * @return true if the employee was found and updated
+	 */
+	public boolean editEmployee(int employeeID, Employee editedEmployee) {
+		boolean edited = false;
+		try (Connection connection = getConnection()) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement stmtUpdatePerson = connection.prepareStatement(SQL_UPDATE_PERSON_BY_EMPLOYEE_ID);
+					PreparedStatement stmtUpdateEmployee = connection.prepareStatement(SQL_UPDATE_EMPLOYEE_BY_ID);) {
+				stmtUpdatePerson.setString(1, editedEmployee.getForename());
+				stmtUpdatePerson.setString(2, editedEmployee.getSurname());
+				stmtUpdatePerson.setString(3, editedEmployee.getEmail());
+				stmtUpdatePerson.setString(4, editedEmployee.getPhoneNumber());
+				stmtUpdatePerson.setInt(5, employeeID);
+				stmtUpdateEmployee.setInt(1, editedEmployee.getHourlyRate());
+				stmtUpdateEmployee.setDouble(2, editedEmployee.getHoursPerWeek());
+				stmtUpdateEmployee.setString(3, editedEmployee.getStartDateAsString());
+				stmtUpdateEmployee.setString(4, editedEmployee.getEndDateAsString());
+				stmtUpdateEmployee.setInt(5, employeeID);
+				edited = stmtUpdatePerson.executeUpdate() == 1 && stmtUpdateEmployee.executeUpdate() == 1;
+				if (edited) {
+					connection.commit();
+					employeeCache.update(employeeID, editedEmployee);
+					Logger.logThis("Employee updated in database", "employeeID: " + employeeID);
+					Logger.logThis(LogLevel.DEBUG, () -> "Edited Employee: " + editedEmployee.toString());
+				} else {
+					connection.rollback();
+					Logger.logThis("Employee not updated in database; no employee with employeeID: " + employeeID);
+				}
+			} catch (SQLException | RuntimeException editEmployeeEx) {
+				connection.rollback();
+				throw editEmployeeEx;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException | IllegalArgumentException editEmployeeEx) {
+			editEmployeeEx.printStackTrace();
+			Logger.logThis(editEmployeeEx);
+		}
+		return edited;
+	}
+
+	/**
+	 * Deletes the employee with primary key {@code employeeID} from the employee table, its shifts from the shifts table, and its corresponding person
+	 * from the person table, in a single transaction. All rows are addressed by primary key.
+	 * 
+	 * @param employeeID the {@code employee.employeeID} primary key of the employee to delete
+	 * @return true if the employee was found and deleted
+	 */
+	public boolean deleteEmployee(int employeeID) {
+		boolean deleted = false;
+		try (Connection connection = getConnection()) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement stmtDeleteShifts = connection.prepareStatement(SQL_DELETE_SHIFTS_BY_EMPLOYEE_ID);
+					PreparedStatement stmtDeletePerson = connection.prepareStatement(SQL_DELETE_PERSON_BY_EMPLOYEE_ID);
+					PreparedStatement stmtDeleteEmployee = connection.prepareStatement(SQL_DELETE_EMPLOYEE_BY_ID);) {
+				stmtDeleteShifts.setInt(1, employeeID);
+				stmtDeletePerson.setInt(1, employeeID);
+				stmtDeleteEmployee.setInt(1, employeeID);
+				// person before employee, as its row is found through the employee row
+				stmtDeleteShifts.executeUpdate();
+				stmtDeletePerson.executeUpdate();
+				deleted = stmtDeleteEmployee.executeUpdate() == 1;
+				connection.commit();
+				employeeCache.remove(employeeID);
+				Logger.logThis((deleted) ? "Employee deleted from database" : "Employee not deleted from database; not found", "employeeID: " + employeeID);
+			} catch (SQLException | RuntimeException deleteEmployeeEx) {
+				connection.rollback();
+				throw deleteEmployeeEx;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException deleteEmployeeEx) {
+			deleteEmployeeEx.printStackTrace();
+			Logger.logThis(deleteEmployeeEx);
+		}
+		return deleted;
+	}
+
+	/**
+	 * Queries database for person/employee {@code originalEmployee}, and edits it to reflect the {@code editiedEmployee}. If {@code originalEmployee}
+	 * carries its database primary keys the row is edited by key via {@link #editEmployee(int, Employee)}.
 	 * 
 	 * @param originalEmployee
 	 * @param editedEmployee
+	 * @deprecated finds the row by scanning {@code person} on natural keys; use {@link #editEmployee(int, Employee)}
 	 */
+	@Deprecated
 	public void editEmployee(Employee originalEmployee, Employee editedEmployee) {
+		if (originalEmployee.isSaved()) {
+			editEmployee(originalEmployee.getEmployeeID(), editedEmployee);
+			return;
+		}
+		employeeCache.removeMatching(originalEmployee);
+		employeeCache.markIncomplete();
 		String getPersonSQL = "SELECT personID FROM person WHERE forename=? AND surname=? AND email=? AND phoneNumber=?;";
 		String getEmployeeSQL = "SELECT * FROM employee INNER JOIN person ON person.personID = employee.personID WHERE employee.personID=?;";
 		String updatePersonSQL = "UPDATE person SET forename=?, surname=?, email=?, phoneNumber=? WHERE personID=?";
@@ -298,11 +926,9 @@ public class DatabaseAccessObject {
 								stmtUpdateEmployee.setString(4, editedEmployee.getEndDateAsString());
 								stmtUpdateEmployee.setInt(5, personID);
 								stmtUpdateEmployee.executeUpdate();
-								Logger.logThis(new String[] {
-										"Employee updated in database",
-										"Original Employee: " + originalEmployee.toString(),
-										"Edited Employee: " + editedEmployee.toString()
-								});
+								Logger.logThis("Employee updated in database", "personID: " + personID);
+								Logger.logThis(LogLevel.DEBUG, () -> "Original Employee: " + originalEmployee.toString() + " Edited Employee: "
+										+ editedEmployee.toString());
 							}
 						}
 					}
@@ -318,11 +944,20 @@ public class DatabaseAccessObject {
 	}
 
 	/**
-	 * Deletes an Employee from employee table (and it's corresponding Person in person table)
+	 * Deletes an Employee from employee table (and it's corresponding Person in person table). If {@code employeeToDelete} carries its database
+	 * primary keys the rows are deleted by key via {@link #deleteEmployee(int)}.
 	 * 
 	 * @param employeeToDelete
+	 * @deprecated finds the row by scanning {@code person} on natural keys; use {@link #deleteEmployee(int)}
 	 */
+	@Deprecated
 	public void deleteEmployee(Employee employeeToDelete) {
+		if (employeeToDelete.isSaved()) {
+			deleteEmployee(employeeToDelete.getEmployeeID());
+			return;
+		}
+		employeeCache.removeMatching(employeeToDelete);
+		employeeCache.markIncomplete();
 		String getPersonSQL = "SELECT personID FROM person WHERE forename=? AND surname=? AND email=? AND phoneNumber=?;";
 		String getPersonSQLConfirmResultNumber = "SELECT COUNT(*) FROM person WHERE forename=? AND surname=? AND email=? AND phoneNumber=?;";
 		String deletePersonSQL = "DELETE FROM person WHERE personID=?;";
@@ -357,10 +992,8 @@ public class DatabaseAccessObject {
 									stmtDeleteEmployee.setInt(1, personID);
 									stmtDeletePerson.executeUpdate();
 									stmtDeleteEmployee.executeUpdate();
-									Logger.logThis(new String[] {
-											"Employee deleted from database",
-											"Employee: " + employeeToDelete.toString()
-									});
+									Logger.logThis("Employee deleted from database", "personID: " + personID);
+									Logger.logThis(LogLevel.DEBUG, () -> "Employee: " + employeeToDelete.toString());
 								}
 							}
 						}
@@ -373,15 +1006,349 @@ public class DatabaseAccessObject {
 		}
 	}
 
-	//	private Employee buildEmployeeFromResult(ResultSet rs) throws IllegalArgumentException, SQLException {
-	//		return MODEL.new Employee(
-	//				rs.getString("forename"),
-	//				rs.getString("surname"),
-	//				rs.getString("email"),
-	//				rs.getString("phoneNumber"),
-	//				rs.getInt("hourlyRateInPence"),
-	//				rs.getDouble("hoursPerWeek"),
-	//				LocalDate.parse(rs.getString("startDate"), FORMAT_OBJECT),
-	//				LocalDate.parse(rs.getString("endDate"), FORMAT_OBJECT));
-	//	}
-}
\ No newline at end of file
+	/**
+	 * Saves one employee's shifts to the shifts table. A shift already saved on the same date is replaced.
+	 * 
+	 * @param employeeID the {@code employee.employeeID} primary key of the employee
+	 * @param shifts     the hours worked on each date
+	 * @return the number of shifts saved, or 0 if the database operation fails
+	 * @throws IllegalArgumentException if shifts is null, or contains a null date or invalid hours
+	 * @see #saveShifts(Map)
+	 */
+	public int saveShifts(int employeeID, Hashtable<LocalDate, Integer> shifts) throws IllegalArgumentException {
+		if (shifts == null) {
+			throw new IllegalArgumentException("shifts cannot be null");
+		}
+		return saveShifts(Collections.singletonMap(employeeID, new ShiftCalendar(shifts)));
+	}
+
+	/**
+	 * Saves every employee's shifts to the shifts table. A shift already saved on the same date is replaced.
+	 * 
+	 * @param employees employees carrying their database primary keys
+	 * @return the number of shifts saved, or 0 if the database operation fails
+	 * @throws IllegalArgumentException if employees is null, or any employee is null or has not been saved to the database
+	 * @see #saveShifts(Map)
+	 */
+	public int saveShifts(Collection<Employee> employees) throws IllegalArgumentException {
+		if (employees == null) {
+			throw new IllegalArgumentException("employees cannot be null");
+		}
+		LinkedHashMap<Integer, ShiftCalendar> shiftsByEmployeeID = new LinkedHashMap<Integer, ShiftCalendar>();
+		for (Employee e : employees) {
+			if (e == null || !e.isSaved()) {
+				throw new IllegalArgumentException("Cannot save shifts of an employee that has not been saved to the database: " + e);
+			}
+			shiftsByEmployeeID.put(e.getEmployeeID(), e.getShifts());
+		}
+		return saveShifts(shiftsByEmployeeID);
+	}
+
+	/**
+	 * Saves shifts to the shifts table in a single transaction, replacing any shift already saved for the same employee on the same date. Rows are
+	 * written in JDBC batches of {@code BULK_BATCH_SIZE}. If any shift fails to save, none are saved.
+	 * 
+	 * @param shiftsByEmployeeID the hours worked on each date, keyed by {@code employee.employeeID}
+	 * @return the number of shifts saved, or 0 if the database operation fails
+	 * @throws IllegalArgumentException if shiftsByEmployeeID or any of its values is null
+	 */
+	public int saveShifts(Map<Integer, ShiftCalendar> shiftsByEmployeeID) throws IllegalArgumentException {
+		if (shiftsByEmployeeID == null) {
+			throw new IllegalArgumentException("shiftsByEmployeeID and its shifts cannot be null");
+		}
+		// checked one by one, as containsValue(null) throws for maps that cannot hold null, eg ConcurrentHashMap
+		for (ShiftCalendar shifts : shiftsByEmployeeID.values()) {
+			if (shifts == null) {
+				throw new IllegalArgumentException("shiftsByEmployeeID and its shifts cannot be null");
+			}
+		}
+		int saved = 0;
+		try (Connection connection = getConnection()) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement stmtDeleteShift = connection.prepareStatement(SQL_DELETE_SHIFT);
+					PreparedStatement stmtAddShift = connection.prepareStatement(SQL_ADD_SHIFT);) {
+				int batched = 0;
+				for (Map.Entry<Integer, ShiftCalendar> employeeShifts : shiftsByEmployeeID.entrySet()) {
+					int employeeID = employeeShifts.getKey();
+					ShiftCalendar shifts = employeeShifts.getValue();
+					for (long epochDay : shifts.epochDays()) {
+						String date = LocalDate.ofEpochDay(epochDay).format(FORMAT_OBJECT);
+						stmtDeleteShift.setInt(1, employeeID);
+						stmtDeleteShift.setString(2, date);
+						stmtDeleteShift.addBatch();
+						stmtAddShift.setInt(1, employeeID);
+						stmtAddShift.setString(2, date);
+						stmtAddShift.setInt(3, shifts.get(epochDay));
+						stmtAddShift.addBatch();
+						if (++batched == BULK_BATCH_SIZE) {
+							saved += executeShiftBatches(stmtDeleteShift, stmtAddShift);
+							batched = 0;
+						}
+					}
+				}
+				if (batched > 0) {
+					saved += executeShiftBatches(stmtDeleteShift, stmtAddShift);
+				}
+				connection.commit();
+			} catch (SQLException | RuntimeException saveShiftsEx) {
+				connection.rollback();
+				saved = 0;
+				throw saveShiftsEx;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+			Logger.logThis("Shifts saved to database", "employees: " + shiftsByEmployeeID.size(), "shifts: " + saved);
+		} catch (SQLException saveShiftsEx) {
+			System.err.println("DAO: saveShifts() failed");
+			System.err.println(saveShiftsEx.getMessage());
+			Logger.logThis(saveShiftsEx);
+		}
+		return saved;
+	}
+
+	/**
+	 * Execute the pending delete batch, then the pending insert batch, so each replaced shift is removed before its replacement is added
+	 * 
+	 * @return the number of shifts inserted
+	 */
+	private int executeShiftBatches(PreparedStatement stmtDeleteShift, PreparedStatement stmtAddShift) throws SQLException {
+		stmtDeleteShift.executeBatch();
+		return stmtAddShift.executeBatch().length;
+	}
+
+	/**
+	 * Loads one employee's shifts between two dates (inclusive)
+	 * 
+	 * @param employeeID the {@code employee.employeeID} primary key of the employee
+	 * @param from       the first date to load
+	 * @param to         the last date to load
+	 * @return the hours worked on each date. Empty if there are no shifts or the database operation fails
+	 * @throws IllegalArgumentException if from or to is null, or from is after to
+	 */
+	public ShiftCalendar getShifts(int employeeID, LocalDate from, LocalDate to) throws IllegalArgumentException {
+		HashMap<Integer, ShiftCalendar> shiftsByEmployeeID = getShifts(Collections.singletonList(employeeID), from, to);
+		ShiftCalendar shifts = (shiftsByEmployeeID != null) ? shiftsByEmployeeID.get(employeeID) : null;
+		return (shifts != null) ? shifts : new ShiftCalendar();
+	}
+
+	/**
+	 * Loads shifts between two dates (inclusive) for many employees in a single query. The employeeIDs are passed to the database as a single JSON
+	 * array parameter, so any number of employees are loaded in one round trip with one prepared statement.
+	 * 
+	 * @param employeeIDs the {@code employee.employeeID} primary keys of the employees, or null for every employee
+	 * @param from        the first date to load
+	 * @param to          the last date to load
+	 * @return the hours worked on each date, keyed by {@code employee.employeeID}. Employees with no shifts in the range are absent. Null if the
+	 *         database operation fails, so a failure is never mistaken for a range with no shifts
+	 * @throws IllegalArgumentException if from or to is null, or from is after to
+	 */
+	public HashMap<Integer, ShiftCalendar> getShifts(Collection<Integer> employeeIDs, LocalDate from, LocalDate to)
+			throws IllegalArgumentException {
+		if (from == null || to == null || from.isAfter(to)) {
+			throw new IllegalArgumentException("Shift date range invalid [from=" + from + " to=" + to + "]");
+		}
+		HashMap<Integer, ShiftCalendar> shiftsByEmployeeID = new HashMap<Integer, ShiftCalendar>();
+		try (Connection connection = getConnection();
+				PreparedStatement getShiftsStatement = connection.prepareStatement(
+						(employeeIDs == null) ? SQL_GET_SHIFTS_IN_RANGE : SQL_GET_SHIFTS_IN_RANGE_FOR_EMPLOYEES);) {
+			int parameter = 1;
+			if (employeeIDs != null) {
+				getShiftsStatement.setString(parameter++, toJsonArray(employeeIDs));
+			}
+			getShiftsStatement.setString(parameter++, from.format(FORMAT_OBJECT));
+			getShiftsStatement.setString(parameter, to.format(FORMAT_OBJECT));
+			getShiftsStatement.setFetchSize(DEFAULT_FETCH_SIZE);
+			try (ResultSet resultSet = getShiftsStatement.executeQuery()) {
+				while (resultSet.next()) {
+					int employeeID = resultSet.getInt(1);
+					ShiftCalendar shifts = shiftsByEmployeeID.get(employeeID);
+					if (shifts == null) {
+						shifts = new ShiftCalendar();
+						shiftsByEmployeeID.put(employeeID, shifts);
+					}
+					try {
+						shifts.put(EmployeeRowMapper.parseDate(resultSet.getString(2)), resultSet.getInt(3));
+					} catch (DateTimeException | IllegalArgumentException shiftReadException) {
+						System.err.println("DAO: shift date convertion exception " + shiftReadException.getClass());
+						System.err.println(shiftReadException.getMessage());
+					}
+				}
+			}
+		} catch (SQLException getShiftsEx) {
+			System.err.println("DAO: getShifts() failed");
+			System.err.println(getShiftsEx.getMessage());
+			Logger.logThis(getShiftsEx);
+			shiftsByEmployeeID = null;
+		}
+		return shiftsByEmployeeID;
+	}
+
+	/**
+	 * Loads the shifts between two dates (inclusive) of every employee given, in a single query, and adds them to each employee's shifts
+	 * 
+	 * @param employees employees carrying their database primary keys
+	 * @param from      the first date to load
+	 * @param to        the last date to load
+	 * @return true if the shifts were loaded, false if the database operation fails, in which case no employee's shifts are changed
+	 * @throws IllegalArgumentException if employees is null, any employee is null or has not been saved to the database, from or to is null, or from
+	 *                                  is after to
+	 * @see #getShifts(Collection, LocalDate, LocalDate)
+	 */
+	public boolean loadShifts(Collection<Employee> employees, LocalDate from, LocalDate to) throws IllegalArgumentException {
+		if (employees == null) {
+			throw new IllegalArgumentException("employees cannot be null");
+		}
+		HashMap<Integer, Employee> employeesByID = new HashMap<Integer, Employee>();
+		for (Employee e : employees) {
+			if (e == null || !e.isSaved()) {
+				throw new IllegalArgumentException("Cannot load shifts of an employee that has not been saved to the database: " + e);
+			}
+			employeesByID.put(e.getEmployeeID(), e);
+		}
+		if (employeesByID.isEmpty()) {
+			return true;
+		}
+		HashMap<Integer, ShiftCalendar> shiftsByEmployeeID = getShifts(employeesByID.keySet(), from, to);
+		if (shiftsByEmployeeID == null) {
+			return false;
+		}
+		for (Map.Entry<Integer, ShiftCalendar> employeeShifts : shiftsByEmployeeID.entrySet()) {
+			employeesByID.get(employeeShifts.getKey()).addMultipleShifts(employeeShifts.getValue());
+		}
+		return true;
+	}
+
+	/**
+	 * @param ids
+	 * @return the ids as a JSON array, eg {@code [1,2,3]}
+	 */
+	private static String toJsonArray(Collection<Integer> ids) {
+		StringBuilder json = new StringBuilder(ids.size() * 6 + 2).append('[');
+		for (Integer id : ids) {
+			if (json.length() > 1) {
+				json.append(',');
+			}
+			json.append(id.intValue());
+		}
+		return json.append(']').toString();
+	}
+
+	/**
+	 * The outcome of a bulk insert. Indices refer to the position of each employee in the Collection passed to the bulk operation.
+	 */
+	public static class BulkInsertResult {
+
+		private final ArrayList<Integer> insertedIndices;
+		private final ArrayList<Employee> insertedEmployees;
+		private final ArrayList<Integer> personIDs;
+		private final ArrayList<Integer> employeeIDs;
+		private final ArrayList<BulkInsertFailure> failures;
+
+		private BulkInsertResult(int expectedRows) {
+			this.insertedIndices = new ArrayList<Integer>(expectedRows);
+			this.insertedEmployees = new ArrayList<Employee>(expectedRows);
+			this.personIDs = new ArrayList<Integer>(expectedRows);
+			this.employeeIDs = new ArrayList<Integer>(expectedRows);
+			this.failures = new ArrayList<BulkInsertFailure>();
+		}
+
+		private void addInserted(int index, Employee employee, int personID, int employeeID) {
+			insertedIndices.add(index);
+			insertedEmployees.add(employee);
+			personIDs.add(personID);
+			employeeIDs.add(employeeID);
+		}
+
+		private void addFailure(int index, Employee employee, String reason) {
+			failures.add(new BulkInsertFailure(index, employee, reason));
+		}
+
+		/**
+		 * The whole transaction was rolled back, so nothing reported as inserted actually was
+		 */
+		private void rollback(String reason) {
+			for (int index : insertedIndices) {
+				failures.add(new BulkInsertFailure(index, null, "Transaction rolled back: " + reason));
+			}
+			insertedIndices.clear();
+			insertedEmployees.clear();
+			personIDs.clear();
+			employeeIDs.clear();
+		}
+
+		/**
+		 * @return the number of employees inserted
+		 */
+		public int getInsertedCount() {
+			return insertedIndices.size();
+		}
+
+		/**
+		 * @return the index of each inserted employee, in insertion order
+		 */
+		public ArrayList<Integer> getInsertedIndices() {
+			return insertedIndices;
+		}
+
+		/**
+		 * @return the generated personID of each inserted employee, parallel to {@link #getInsertedIndices()}
+		 */
+		public ArrayList<Integer> getPersonIDs() {
+			return personIDs;
+		}
+
+		/**
+		 * @return the generated employeeID of each inserted employee, parallel to {@link #getInsertedIndices()}
+		 */
+		public ArrayList<Integer> getEmployeeIDs() {
+			return employeeIDs;
+		}
+
+		/**
+		 * @return the inserted employees, parallel to {@link #getInsertedIndices()}
+		 */
+		ArrayList<Employee> getInsertedEmployees() {
+			return insertedEmployees;
+		}
+
+		/**
+		 * @return the employees that could not be inserted
+		 */
+		public ArrayList<BulkInsertFailure> getFailures() {
+			return failures;
+		}
+	}
+
+	/**
+	 * A single row that could not be inserted by a bulk operation
+	 */
+	public static class BulkInsertFailure {
+
+		private final int index;
+		private final Employee employee;
+		private final String reason;
+
+		private BulkInsertFailure(int index, Employee employee, String reason) {
+			this.index = index;
+			this.employee = employee;
+			this.reason = reason;
+		}
+
+		public int getIndex() {
+			return index;
+		}
+
+		public Employee getEmployee() {
+			return employee;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+
+		@Override
+		public String toString() {
+			return "BulkInsertFailure [index=" + index + " reason=\"" + reason + "\"]";
+		}
+	}
+}
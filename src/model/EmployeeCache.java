@@ -0,0 +1,262 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import model.HumanResourcesModel.Employee;
+
+/**
+ * A bounded, least-recently-used, in-process cache of {@code Employee}s keyed by their {@code employeeID} primary key, used by
+ * {@link DatabaseAccessObject} to avoid re-querying the database on every read.<br>
+ * <br>
+ * The cache stores and returns clones, so callers can never modify a cached Employee. It also remembers whether it holds <i>every</i> employee in the
+ * database (after a full table read that fit within {@code maxEntries}), in which case full table reads can be served without touching the
+ * database. Any eviction, or any write the cache cannot apply precisely, clears that flag.<br>
+ * <br>
+ * Every write to the cache advances its generation. A full table read takes the generation before it queries the database, and its result is
+ * dropped if the cache was written to in the meantime, so a read that began before a write can never overwrite that write.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class EmployeeCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+	private final int maxEntries;
+	private final LinkedHashMap<Integer, Employee> entries;
+	private boolean complete;
+	private long generation;
+
+	// statistics
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Construct an EmployeeCache
+	 *
+	 * @param maxEntries the maximum number of employees held at once
+	 * @throws IllegalArgumentException if maxEntries is less than 1
+	 */
+	EmployeeCache(int maxEntries) throws IllegalArgumentException {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("EmployeeCache maxEntries must be 1 or greater but was " + maxEntries);
+		}
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<Integer, Employee>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Employee> eldest) {
+				if (size() > EmployeeCache.this.maxEntries) {
+					evictions++;
+					complete = false;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * @param employeeID
+	 * @return a clone of the cached employee, or null on a miss
+	 */
+	synchronized Employee get(int employeeID) {
+		Employee cached = entries.get(employeeID);
+		if (cached == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return cached.clone();
+	}
+
+	/**
+	 * @return clones of every employee in the database ordered by personID, or null if the cache does not hold every employee
+	 */
+	synchronized ArrayList<Employee> getAll() {
+		if (!complete) {
+			misses++;
+			return null;
+		}
+		hits++;
+		ArrayList<Employee> all = new ArrayList<Employee>(entries.size());
+		for (Employee cached : entries.values()) {
+			all.add(cached.clone());
+		}
+		all.sort(Comparator.comparingInt(Employee::getPersonID));
+		return all;
+	}
+
+	/**
+	 * Cache an employee read from or written to the database. Employees that do not carry their primary keys are ignored.
+	 *
+	 * @param employee
+	 */
+	synchronized void put(Employee employee) {
+		if (employee != null && employee.isSaved()) {
+			generation++;
+			entries.put(employee.getEmployeeID(), employee.clone());
+		}
+	}
+
+	/**
+	 * @return the cache's current generation, to be passed to {@link #putAll(ArrayList, long)} by a full table read about to query the database
+	 */
+	synchronized long generation() {
+		return generation;
+	}
+
+	/**
+	 * Replace the cache contents with the result of a full table read. If they all fit, the cache is marked as holding every employee. If the cache
+	 * has been written to since {@code readGeneration}, the result may predate those writes and is dropped.
+	 *
+	 * @param allEmployees   every employee in the database
+	 * @param readGeneration the cache's {@link #generation()} before the database was queried
+	 * @return true if the cache contents were replaced, false if the result was dropped
+	 */
+	synchronized boolean putAll(ArrayList<Employee> allEmployees, long readGeneration) {
+		if (readGeneration != generation) {
+			return false;
+		}
+		entries.clear();
+		for (Employee employee : allEmployees) {
+			put(employee);
+		}
+		complete = allEmployees.size() <= maxEntries;
+		return true;
+	}
+
+	/**
+	 * Apply an edit to a cached employee, keeping its primary keys. If the employee is not cached nothing changes.
+	 *
+	 * @param employeeID
+	 * @param editedEmployee
+	 */
+	synchronized void update(int employeeID, Employee editedEmployee) {
+		Employee cached = entries.get(employeeID);
+		generation++;
+		if (cached != null) {
+			Employee updated = editedEmployee.clone();
+			updated.setDatabaseIDs(cached.getPersonID(), employeeID);
+			entries.put(employeeID, updated);
+		}
+	}
+
+	/**
+	 * Remove one employee from the cache
+	 *
+	 * @param employeeID
+	 */
+	synchronized void remove(int employeeID) {
+		generation++;
+		entries.remove(employeeID);
+	}
+
+	/**
+	 * Mark the cache as no longer holding every employee, eg after a write the cache cannot apply precisely. Cached employees remain valid.
+	 */
+	synchronized void markIncomplete() {
+		generation++;
+		complete = false;
+	}
+
+	/**
+	 * Empty the cache
+	 */
+	synchronized void invalidateAll() {
+		generation++;
+		entries.clear();
+		complete = false;
+	}
+
+	/**
+	 * Remove every cached employee matching a natural key, for writes that do not know the primary key
+	 *
+	 * @param employee
+	 */
+	synchronized void removeMatching(Employee employee) {
+		generation++;
+		Iterator<Employee> cached = entries.values().iterator();
+		while (cached.hasNext()) {
+			if (cached.next().equals(employee)) {
+				cached.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return a snapshot of this cache's statistics
+	 */
+	synchronized CacheStatistics getStatistics() {
+		return new CacheStatistics(maxEntries, entries.size(), complete, hits, misses, evictions);
+	}
+
+	/**
+	 * An immutable snapshot of an EmployeeCache's statistics
+	 */
+	public static class CacheStatistics {
+
+		private final int maxEntries;
+		private final int size;
+		private final boolean complete;
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+
+		private CacheStatistics(int maxEntries, int size, boolean complete, long hits, long misses, long evictions) {
+			this.maxEntries = maxEntries;
+			this.size = size;
+			this.complete = complete;
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+		}
+
+		public int getMaxEntries() {
+			return maxEntries;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public boolean isComplete() {
+			return complete;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		public long getEvictions() {
+			return evictions;
+		}
+
+		/**
+		 * @return hits as a fraction of all lookups, or 0 if there have been no lookups
+		 */
+		public double getHitRate() {
+			long lookups = hits + misses;
+			return (lookups == 0) ? 0 : (double) hits / lookups;
+		}
+
+		@Override
+		public String toString() {
+			return "CacheStatistics [maxEntries=" + maxEntries + " size=" + size + " complete=" + complete + " hits=" + hits + " misses=" + misses
+					+ " evictions=" + evictions + " hitRate=" + String.format("%.3f", getHitRate()) + "]";
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import model.HumanResourcesModel.Employee;
+
+/**
+ * Maps rows of a {@code person}/{@code employee} join to {@code Employee} objects.<br>
+ * Column indices are resolved once, when the first row is mapped, and each column is then read exactly once per row by index. They are not resolved
+ * on construction, as the sqlite driver closes a ResultSet with no rows, so a query returning nothing would fail to find its columns. Dates are parsed with
+ * {@link #parseDate(String)}, a fixed width {@code yyyy-MM-dd} parser that avoids the overhead of a {@code DateTimeFormatter}.<br>
+ * <br>
+ * A mapper is bound to the ResultSet it was constructed with, and should be constructed once per query.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class EmployeeRowMapper {
+
+	private static final int DATE_LENGTH = 10;
+
+	private final HumanResourcesModel model;
+	private final ResultSet resultSet;
+
+	// column indices, resolved when the first row is mapped
+	private boolean columnsResolved;
+	private int forename;
+	private int surname;
+	private int email;
+	private int phoneNumber;
+	private int hourlyRateInPence;
+	private int hoursPerWeek;
+	private int startDate;
+	private int endDate;
+	private int personID;
+	private int employeeID;
+
+	/**
+	 * Construct an EmployeeRowMapper for a ResultSet
+	 *
+	 * @param model     the HumanResourcesModel to construct Employees with
+	 * @param resultSet a ResultSet over a {@code person}/{@code employee} join
+	 */
+	EmployeeRowMapper(HumanResourcesModel model, ResultSet resultSet) {
+		this.model = model;
+		this.resultSet = resultSet;
+	}
+
+	/**
+	 * Build an Employee from the current row of the ResultSet
+	 *
+	 * @return the Employee, carrying its primary keys
+	 * @throws IllegalArgumentException if the row does not contain valid Employee data
+	 * @throws DateTimeException        if a date cannot be parsed
+	 * @throws SQLException             if a column is missing from the ResultSet or cannot be read
+	 */
+	Employee map() throws IllegalArgumentException, DateTimeException, SQLException {
+		if (!columnsResolved) {
+			resolveColumns();
+		}
+		Employee employee = model.new Employee(
+				resultSet.getString(forename),
+				resultSet.getString(surname),
+				resultSet.getString(email),
+				resultSet.getString(phoneNumber),
+				resultSet.getInt(hourlyRateInPence),
+				resultSet.getDouble(hoursPerWeek),
+				parseDate(resultSet.getString(startDate)),
+				parseDate(resultSet.getString(endDate)));
+		employee.setDatabaseIDs(resultSet.getInt(personID), resultSet.getInt(employeeID));
+		return employee;
+	}
+
+	/**
+	 * Resolve the index of every column the mapper reads
+	 *
+	 * @throws SQLException if any column is missing from the ResultSet
+	 */
+	private void resolveColumns() throws SQLException {
+		forename = resultSet.findColumn("forename");
+		surname = resultSet.findColumn("surname");
+		email = resultSet.findColumn("email");
+		phoneNumber = resultSet.findColumn("phoneNumber");
+		hourlyRateInPence = resultSet.findColumn("hourlyRateInPence");
+		hoursPerWeek = resultSet.findColumn("hoursPerWeek");
+		startDate = resultSet.findColumn("startDate");
+		endDate = resultSet.findColumn("endDate");
+		personID = resultSet.findColumn("personID");
+		employeeID = resultSet.findColumn("employeeID");
+		columnsResolved = true;
+	}
+
+	/**
+	 * Parse a date stored as a {@code yyyy-MM-dd} String
+	 *
+	 * @param date
+	 * @return the LocalDate, or null if date is null or blank
+	 * @throws DateTimeException if date is not in {@code yyyy-MM-dd} format, or is not a valid date
+	 */
+	static LocalDate parseDate(String date) throws DateTimeException {
+		if (date == null || date.isBlank()) {
+			return null;
+		}
+		if (date.length() != DATE_LENGTH || date.charAt(4) != '-' || date.charAt(7) != '-') {
+			throw new DateTimeException("Date \"" + date + "\" is not in yyyy-MM-dd format");
+		}
+		return LocalDate.of(digits(date, 0, 4), digits(date, 5, 7), digits(date, 8, 10));
+	}
+
+	/**
+	 * Parse the decimal digits in {@code text} from {@code start} (inclusive) to {@code end} (exclusive)
+	 *
+	 * @throws DateTimeException if any character in the range is not a digit
+	 */
+	private static int digits(String text, int start, int end) throws DateTimeException {
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = text.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new DateTimeException("Date \"" + text + "\" is not in yyyy-MM-dd format");
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+}
@@ -0,0 +1,224 @@
+package model;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.ArrayList;
+import java.util.Locale;
+
+import log.Logger;
+import model.HumanResourcesModel.Employee;
+
+/**
+ * Compares reading every row of the {@code person}/{@code employee} join, on scratch copies of the shop database holding 10k and 1M employees:
+ * <ul>
+ * <li>scan: stepping through the rows without reading them, the cost every mapping shares</li>
+ * <li>by name: each column looked up by name and dates parsed with a {@code DateTimeFormatter}, as {@code DatabaseAccessObject} mapped rows before
+ * {@link EmployeeRowMapper}</li>
+ * <li>by index: {@link EmployeeRowMapper}</li>
+ * </ul>
+ * and both again reading only the columns and dates, without constructing Employees, to separate what the mapper changed from the cost of
+ * validating every Employee.
+ * Each is warmed up before it is measured, and the best of the measured rounds is reported. Lives in the model package as EmployeeRowMapper is
+ * package-private. Run from the project root.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class EmployeeRowMapperBenchmark {
+
+	private static final String SHOP_DB = "./src/model/shop.db";
+	private static final int[] EMPLOYEES = { 10_000, 1_000_000 };
+	private static final int INSERT_CHUNK = 50_000;
+	private static final LocalDate FIRST_START_DATE = LocalDate.of(2000, 1, 1);
+	private static final String SQL_GET_EMPLOYEES = "Select * FROM person INNER JOIN employee ON employee.personID=person.personID;";
+	private static final DateTimeFormatter FORMAT_OBJECT = new DateTimeFormatterBuilder()
+			.appendPattern("yyyy-MM-dd")
+			.toFormatter(Locale.ENGLISH);
+	private static final HumanResourcesModel MODEL = new HumanResourcesModel();
+
+	/**
+	 * One way of reading every row of a ResultSet
+	 */
+	private interface RowReader {
+		long read(ResultSet resultSet) throws SQLException;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Logger.initialise();
+		System.out.printf("%d cores%n", Runtime.getRuntime().availableProcessors());
+		try {
+			for (int employees : EMPLOYEES) {
+				Path scratchDatabase = Files.createTempFile("ShopSystemBenchmark", ".db");
+				Files.copy(Paths.get(SHOP_DB), scratchDatabase, StandardCopyOption.REPLACE_EXISTING);
+				try {
+					populate(scratchDatabase, employees);
+					// fewer rounds over a million rows, where each round already takes seconds
+					int warmupRounds = (employees > 100_000) ? 2 : 20;
+					int measuredRounds = (employees > 100_000) ? 3 : 20;
+					try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + scratchDatabase)) {
+						measure(connection, employees, "scan", warmupRounds, measuredRounds, EmployeeRowMapperBenchmark::scan);
+						measure(connection, employees, "by name", warmupRounds, measuredRounds, EmployeeRowMapperBenchmark::readByName);
+						measure(connection, employees, "by index", warmupRounds, measuredRounds, EmployeeRowMapperBenchmark::readByIndex);
+						measure(connection, employees, "by name, columns only", warmupRounds, measuredRounds, EmployeeRowMapperBenchmark::readColumnsByName);
+						measure(connection, employees, "by index, columns only", warmupRounds, measuredRounds,
+								EmployeeRowMapperBenchmark::readColumnsByIndex);
+					}
+				} finally {
+					Files.deleteIfExists(scratchDatabase);
+					Files.deleteIfExists(Paths.get(scratchDatabase + "-wal"));
+					Files.deleteIfExists(Paths.get(scratchDatabase + "-shm"));
+				}
+			}
+		} finally {
+			Logger.closeLogger();
+		}
+	}
+
+	/**
+	 * Replace the shop's employees with {@code employees} of our own, added in chunks, half of them with an end date
+	 */
+	private static void populate(Path database, int employees) throws SQLException {
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database); Statement statement = connection.createStatement()) {
+			statement.execute("DELETE FROM shifts;");
+			statement.execute("DELETE FROM employee;");
+			statement.execute("DELETE FROM person;");
+		}
+		try (DatabaseAccessObject dao = new DatabaseAccessObject(database.toString())) {
+			dao.setPragmaProfile(PragmaProfile.BULK_LOAD);
+			for (int first = 0; first < employees; first += INSERT_CHUNK) {
+				ArrayList<Employee> chunk = new ArrayList<Employee>(INSERT_CHUNK);
+				for (int i = first; i < Math.min(first + INSERT_CHUNK, employees); i++) {
+					LocalDate startDate = FIRST_START_DATE.plusDays(i % 7_000);
+					chunk.add(MODEL.new Employee("Forename", "Surname", "mapper@benchmark.test", "+44123", 800 + i % 2_000, 10 + i % 30, startDate,
+							(i % 2 == 0) ? null : startDate.plusDays(1 + i % 900)));
+				}
+				dao.addEmployees(chunk);
+			}
+			dao.setPragmaProfile(PragmaProfile.INTERACTIVE);
+		}
+	}
+
+	private static void measure(Connection connection, int employees, String name, int warmupRounds, int measuredRounds, RowReader reader)
+			throws SQLException {
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < warmupRounds + measuredRounds; round++) {
+			long start = System.nanoTime();
+			long rows;
+			try (PreparedStatement statement = connection.prepareStatement(SQL_GET_EMPLOYEES); ResultSet resultSet = statement.executeQuery()) {
+				rows = reader.read(resultSet);
+			}
+			long elapsed = System.nanoTime() - start;
+			if (rows != employees) {
+				throw new IllegalStateException(name + " read " + rows + " rows but the table holds " + employees);
+			}
+			if (round >= warmupRounds) {
+				best = Math.min(best, elapsed);
+			}
+		}
+		System.out.printf("%9d rows  %-22s best %9.1fms  %7.1fns/row%n", employees, name, best / 1e6, (double) best / employees);
+	}
+
+	private static long scan(ResultSet resultSet) throws SQLException {
+		long rows = 0;
+		while (resultSet.next()) {
+			rows++;
+		}
+		return rows;
+	}
+
+	/**
+	 * The mapping {@code DatabaseAccessObject} used before EmployeeRowMapper
+	 */
+	private static long readByName(ResultSet rs) throws SQLException {
+		long rows = 0;
+		while (rs.next()) {
+			String endDate = rs.getString("endDate");
+			Employee employee = MODEL.new Employee(
+					rs.getString("forename"),
+					rs.getString("surname"),
+					rs.getString("email"),
+					rs.getString("phoneNumber"),
+					rs.getInt("hourlyRateInPence"),
+					rs.getDouble("hoursPerWeek"),
+					LocalDate.parse(rs.getString("startDate"), FORMAT_OBJECT),
+					(endDate == null || endDate.isBlank()) ? null : LocalDate.parse(endDate, FORMAT_OBJECT));
+			employee.setDatabaseIDs(rs.getInt("personID"), rs.getInt("employeeID"));
+			rows++;
+		}
+		return rows;
+	}
+
+	/**
+	 * The columns and dates {@link #readByName(ResultSet)} reads, without constructing Employees
+	 */
+	private static long readColumnsByName(ResultSet rs) throws SQLException {
+		long rows = 0;
+		long checksum = 0;
+		while (rs.next()) {
+			String endDate = rs.getString("endDate");
+			checksum += rs.getString("forename").length() + rs.getString("surname").length() + rs.getString("email").length()
+					+ rs.getString("phoneNumber").length() + rs.getInt("hourlyRateInPence") + (long) rs.getDouble("hoursPerWeek")
+					+ LocalDate.parse(rs.getString("startDate"), FORMAT_OBJECT).getDayOfYear()
+					+ ((endDate == null || endDate.isBlank()) ? 0 : LocalDate.parse(endDate, FORMAT_OBJECT).getDayOfYear())
+					+ rs.getInt("personID") + rs.getInt("employeeID");
+			rows++;
+		}
+		return (checksum == 0) ? 0 : rows;
+	}
+
+	/**
+	 * The columns and dates {@link EmployeeRowMapper} reads, resolving each index once and parsing dates with its fixed width parser, without
+	 * constructing Employees
+	 */
+	private static long readColumnsByIndex(ResultSet rs) throws SQLException {
+		long rows = 0;
+		long checksum = 0;
+		int forename = 0, surname = 0, email = 0, phoneNumber = 0, hourlyRateInPence = 0, hoursPerWeek = 0, startDate = 0, endDate = 0, personID = 0,
+				employeeID = 0;
+		while (rs.next()) {
+			if (rows == 0) {
+				forename = rs.findColumn("forename");
+				surname = rs.findColumn("surname");
+				email = rs.findColumn("email");
+				phoneNumber = rs.findColumn("phoneNumber");
+				hourlyRateInPence = rs.findColumn("hourlyRateInPence");
+				hoursPerWeek = rs.findColumn("hoursPerWeek");
+				startDate = rs.findColumn("startDate");
+				endDate = rs.findColumn("endDate");
+				personID = rs.findColumn("personID");
+				employeeID = rs.findColumn("employeeID");
+			}
+			LocalDate end = EmployeeRowMapper.parseDate(rs.getString(endDate));
+			checksum += rs.getString(forename).length() + rs.getString(surname).length() + rs.getString(email).length()
+					+ rs.getString(phoneNumber).length() + rs.getInt(hourlyRateInPence) + (long) rs.getDouble(hoursPerWeek)
+					+ EmployeeRowMapper.parseDate(rs.getString(startDate)).getDayOfYear() + ((end == null) ? 0 : end.getDayOfYear())
+					+ rs.getInt(personID) + rs.getInt(employeeID);
+			rows++;
+		}
+		return (checksum == 0) ? 0 : rows;
+	}
+
+	private static long readByIndex(ResultSet resultSet) throws SQLException {
+		EmployeeRowMapper mapper = new EmployeeRowMapper(MODEL, resultSet);
+		long rows = 0;
+		while (resultSet.next()) {
+			mapper.map();
+			rows++;
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,112 @@
+package model;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The kinds of executor that blocking database and I/O work can be run on, selected at startup.<br>
+ * <br>
+ * {@link #PLATFORM} is a fixed pool of daemon platform threads. {@link #VIRTUAL} starts a new virtual thread for every task, so many concurrent
+ * blocking operations do not each tie up an OS thread while they wait, eg on a pooled connection or a busy database. Virtual threads need a Java 21
+ * or later runtime; this project compiles against Java 11, so the virtual thread executor is created reflectively, and {@link #VIRTUAL} falls back
+ * to {@link #PLATFORM} on older runtimes.<br>
+ * <br>
+ * The sqlite3 driver is native code, and a virtual thread inside a native call or a {@code synchronized} block holds on to its carrier thread. The
+ * benefit of {@link #VIRTUAL} is therefore in the waiting around database calls, not in the calls themselves.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public enum ExecutorMode {
+	PLATFORM,
+	VIRTUAL;
+
+	private static final String VIRTUAL_EXECUTOR_FACTORY = "newVirtualThreadPerTaskExecutor";
+
+	/**
+	 * Create a new executor of this mode. If this mode is {@link #VIRTUAL} but virtual threads are not supported by the running JVM, a
+	 * {@link #PLATFORM} executor is returned instead.
+	 *
+	 * @param namePrefix      prefix for the names of platform threads, followed by a sequence number
+	 * @param platformThreads the number of threads in a {@link #PLATFORM} executor
+	 * @return the executor
+	 * @throws IllegalArgumentException if platformThreads is less than 1
+	 */
+	public ExecutorService newExecutor(String namePrefix, int platformThreads) throws IllegalArgumentException {
+		if (platformThreads < 1) {
+			throw new IllegalArgumentException("ExecutorMode platformThreads must be 1 or greater but was " + platformThreads);
+		}
+		if (this == VIRTUAL) {
+			ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+			if (virtualExecutor != null) {
+				return virtualExecutor;
+			}
+		}
+		return Executors.newFixedThreadPool(platformThreads, daemonThreadFactory(namePrefix));
+	}
+
+	/**
+	 * @return true if this mode is fully supported by the running JVM, ie it is {@link #PLATFORM} or virtual threads are available
+	 */
+	public boolean isSupported() {
+		if (this == PLATFORM) {
+			return true;
+		}
+		ExecutorService probe = newVirtualThreadPerTaskExecutor();
+		if (probe == null) {
+			return false;
+		}
+		probe.shutdown();
+		return true;
+	}
+
+	/**
+	 * Parse an ExecutorMode by name, ignoring case
+	 *
+	 * @param name
+	 * @return the ExecutorMode
+	 * @throws IllegalArgumentException if name is null or is not the name of an ExecutorMode
+	 */
+	public static ExecutorMode parse(String name) throws IllegalArgumentException {
+		if (name == null) {
+			throw new IllegalArgumentException("ExecutorMode name cannot be null");
+		}
+		for (ExecutorMode mode : values()) {
+			if (mode.name().equalsIgnoreCase(name.trim())) {
+				return mode;
+			}
+		}
+		throw new IllegalArgumentException("\"" + name + "\" is not an ExecutorMode");
+	}
+
+	/**
+	 * @return a virtual thread per task executor, or null if the running JVM does not support virtual threads
+	 */
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			Method factory = Executors.class.getMethod(VIRTUAL_EXECUTOR_FACTORY);
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException virtualThreadsUnavailableEx) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param namePrefix prefix for thread names, followed by a sequence number
+	 * @return a ThreadFactory creating daemon threads, so outstanding work never prevents the JVM exiting
+	 */
+	static ThreadFactory daemonThreadFactory(String namePrefix) {
+		AtomicInteger sequence = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, namePrefix + sequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
@@ -30,6 +30,11 @@ import model.StockItemModel.AbstractStockItem;
  */
 public class HumanResourcesModel {
 
+	/**
+	 * The database primary key of any object not yet read from or written to the database
+	 */
+	public static final int UNSAVED_ID = -1;
+
 	private static final DateTimeFormatter formatter = new DateTimeFormatterBuilder()
 			.appendPattern("yyyy-MM-dd")
 			.toFormatter();
@@ -223,7 +228,9 @@ public class HumanResourcesModel {
 		private double hoursPerWeek;
 		private LocalDate startDate;
 		private LocalDate endDate;
-		private Hashtable<LocalDate, Integer> shifts;
+		private final ShiftCalendar shifts;
+		private int personID = UNSAVED_ID;
+		private int employeeID = UNSAVED_ID;
 
 		//private static final int MINIMUM_WAGE = 800;
 
@@ -246,7 +253,7 @@ public class HumanResourcesModel {
 			this.setHoursPerWeek(weeklyHours);
 			this.setStartDate(start);
 			this.setEndDate(end);
-			this.shifts = new Hashtable<LocalDate, Integer>();
+			this.shifts = new ShiftCalendar();
 		}
 
 		///////////////////////////
@@ -349,6 +356,40 @@ public class HumanResourcesModel {
 			this.endDate = HumanResourcesModelValidator.endDate(this.startDate, endDate);
 		}
 
+		/**
+		 * @return the primary key of this employee's row in the {@code person} table, or {@code UNSAVED_ID} if it has not been read from or written
+		 *         to the database
+		 */
+		public int getPersonID() {
+			return personID;
+		}
+
+		/**
+		 * @return the primary key of this employee's row in the {@code employee} table, or {@code UNSAVED_ID} if it has not been read from or written
+		 *         to the database
+		 */
+		public int getEmployeeID() {
+			return employeeID;
+		}
+
+		/**
+		 * Set the database primary keys of this employee. Visibility is package-protected as only the DatabaseAccessObject should assign keys.
+		 * 
+		 * @param personID
+		 * @param employeeID
+		 */
+		void setDatabaseIDs(int personID, int employeeID) {
+			this.personID = personID;
+			this.employeeID = employeeID;
+		}
+
+		/**
+		 * @return true if this employee has been read from or written to the database, and so carries its primary keys
+		 */
+		public boolean isSaved() {
+			return employeeID != UNSAVED_ID;
+		}
+
 		///////////////////////////
 		// SHIFT OPERATIONS		//
 		/////////////////////////
@@ -356,15 +397,15 @@ public class HumanResourcesModel {
 		/**
 		 * @return the shifts
 		 */
-		public Hashtable<LocalDate, Integer> getShifts() {
+		public ShiftCalendar getShifts() {
 			return shifts;
 		}
 
 		/**
-		 * Add multiple shifts to {@code this.shifts} Hashtable
+		 * Add multiple shifts to {@code this.shifts}
 		 * 
 		 * @param shiftsToAdd
-		 * @throws IllegalArgumentException if shiftsToAdd is null or empty
+		 * @throws IllegalArgumentException if shiftsToAdd is null or empty, or any shift is invalid
 		 */
 		public void addMultipleShifts(Hashtable<LocalDate, Integer> shiftsToAdd) throws IllegalArgumentException {
 			if (shiftsToAdd != null && shiftsToAdd.size() > 0) {
@@ -380,15 +421,32 @@ public class HumanResourcesModel {
 			}
 		}
 
+		/**
+		 * Add multiple shifts to {@code this.shifts}
+		 * 
+		 * @param shiftsToAdd
+		 * @throws IllegalArgumentException if shiftsToAdd is null or empty
+		 */
+		public void addMultipleShifts(ShiftCalendar shiftsToAdd) throws IllegalArgumentException {
+			if (shiftsToAdd != null && !shiftsToAdd.isEmpty()) {
+				this.shifts.putAll(shiftsToAdd);
+			} else if (shiftsToAdd == null) {
+				throw new IllegalArgumentException(Messages.EMPLOYEE_SET_SHIFTS_NULL.get());
+			} else {
+				throw new IllegalArgumentException(Messages.EMPLOYEE_SET_SHIFTS_EMPTY.get());
+			}
+		}
+
 		/**
 		 * Add a single shift to {@code this.shifts}
 		 * 
 		 * @param date
 		 * @param hours
-		 * @throws IllegalArgumentException if date or hours is null, or if hours is less than 1
+		 * @throws IllegalArgumentException if date or hours is null, or if hours is less than 1 or more than
+		 *                                  {@code Numbers.EMPLOYEE_MAX_SHIFT_HOURS}
 		 */
 		public void addSingleShift(LocalDate date, Integer hours) throws IllegalArgumentException {
-			if (date != null && hours != null && hours > 0) {
+			if (date != null && hours != null && hours > 0 && hours <= Numbers.EMPLOYEE_MAX_SHIFT_HOURS.get()) {
 				this.shifts.put(date, hours);
 			} else {
 				throw new IllegalArgumentException(Messages.EMPLOYEE_ADD_SHIFT_SINGLE_FAILED.get() + " [Date=" + ((date == null) ? "null" : date) +
@@ -404,7 +462,20 @@ public class HumanResourcesModel {
 		 * @return an Integer - the length of the shift (or null if no shift found)
 		 */
 		public Integer getShiftLengthOn(LocalDate shiftDate) {
-			return this.shifts.get(shiftDate);
+			int hours = this.shifts.get(shiftDate);
+			return (hours == 0) ? null : hours;
+		}
+
+		/**
+		 * Sum the hours of every shift between two dates
+		 * 
+		 * @param from the first date, inclusive
+		 * @param to   the last date, inclusive
+		 * @return the total hours worked
+		 * @throws IllegalArgumentException if from or to is null, or from is after to
+		 */
+		public long getHoursWorked(LocalDate from, LocalDate to) throws IllegalArgumentException {
+			return this.shifts.sumHours(from, to);
 		}
 
 		///////////////////////////
@@ -458,6 +529,7 @@ public class HumanResourcesModel {
 					this.getHoursPerWeek(),
 					this.getStartDateAsLocalDate(),
 					this.getEndDateAsLocalDate());
+			cloned.setDatabaseIDs(this.personID, this.employeeID);
 			return cloned;
 
 		}
@@ -100,7 +100,8 @@ public class ModelEnums {
 		INT_MIN_WAGE(800),
 		INT_MIN_WEEKLY_HOURS(0),
 		PERSON_NAME_MIN_LENGTH(2),
-		EMPLOYEE_MAX_WEEKLY_HOURS(112); // allows 8-hours of sleep a night AND THATS ALL DAYUM
+		EMPLOYEE_MAX_WEEKLY_HOURS(112), // allows 8-hours of sleep a night AND THATS ALL DAYUM
+		EMPLOYEE_MAX_SHIFT_HOURS(24);
 
 		private int number;
 
@@ -0,0 +1,239 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import log.Logger;
+import model.HumanResourcesModel.Employee;
+
+/**
+ * Calculates the gross pay of every employee over a date range, as {@code hourlyRateInPence} multiplied by the hours of every shift worked in the
+ * range. All arithmetic is in whole pence; a result too large for a {@code long} fails rather than overflowing.<br>
+ * <br>
+ * Employees are split into slices of at most {@value #DEFAULT_SLICE_SIZE} and calculated in parallel on a {@code ForkJoinPool}. Each result is passed
+ * to a {@link PayrollSink} as soon as it is calculated, so results arrive in no particular order, and the sink is called from several threads at
+ * once.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class PayrollEngine {
+
+	public static final int DEFAULT_SLICE_SIZE = 256;
+
+	private final ForkJoinPool pool;
+	private final int sliceSize;
+
+	/**
+	 * Receives each employee's gross pay as it is calculated. Must be thread safe, as it is called from several threads at once.
+	 */
+	@FunctionalInterface
+	public interface PayrollSink {
+		void accept(GrossPay pay);
+	}
+
+	/**
+	 * Construct a PayrollEngine that runs on the common ForkJoinPool
+	 */
+	public PayrollEngine() {
+		this(ForkJoinPool.commonPool(), DEFAULT_SLICE_SIZE);
+	}
+
+	/**
+	 * Fully parameterised constructor for a PayrollEngine
+	 *
+	 * @param pool      the ForkJoinPool to calculate on
+	 * @param sliceSize the most employees calculated by a single task
+	 * @throws IllegalArgumentException if pool is null or sliceSize is less than 1
+	 */
+	public PayrollEngine(ForkJoinPool pool, int sliceSize) throws IllegalArgumentException {
+		if (pool == null) {
+			throw new IllegalArgumentException("PayrollEngine pool cannot be null");
+		}
+		if (sliceSize < 1) {
+			throw new IllegalArgumentException("PayrollEngine sliceSize must be 1 or greater but was " + sliceSize);
+		}
+		this.pool = pool;
+		this.sliceSize = sliceSize;
+	}
+
+	/**
+	 * Calculate the gross pay of every employee in the database from their persisted shifts. Employees and shifts are each read in a single query. If
+	 * either read fails nobody is paid, rather than everyone being paid as if they worked no shifts.
+	 *
+	 * @param dao  the database to read employees and shifts from
+	 * @param from the first date of the pay period, inclusive
+	 * @param to   the last date of the pay period, inclusive
+	 * @param sink receives each employee's gross pay
+	 * @throws IllegalArgumentException if any parameter is null, or from is after to
+	 * @throws IllegalStateException    if the employees or shifts could not be read from the database
+	 * @throws ArithmeticException      if any employee's gross pay overflows a long
+	 */
+	public void run(DatabaseAccessObject dao, LocalDate from, LocalDate to, PayrollSink sink)
+			throws IllegalArgumentException, IllegalStateException, ArithmeticException {
+		if (dao == null) {
+			throw new IllegalArgumentException("PayrollEngine dao cannot be null");
+		}
+		ArrayList<Employee> employees = dao.readEmployees();
+		HashMap<Integer, ShiftCalendar> shiftsByEmployeeID = (employees == null) ? null : dao.getShifts(null, from, to);
+		if (shiftsByEmployeeID == null) {
+			throw new IllegalStateException("PayrollEngine could not read employees and shifts from the database; no payroll was calculated");
+		}
+		run(employees, shiftsByEmployeeID, from, to, sink);
+	}
+
+	/**
+	 * Calculate the gross pay of every employee over a pay period
+	 *
+	 * @param employees          the employees to pay, carrying their database primary keys
+	 * @param shiftsByEmployeeID every employee's shifts, keyed by {@code employee.employeeID}. An employee with no entry has worked no shifts
+	 * @param from               the first date of the pay period, inclusive
+	 * @param to                 the last date of the pay period, inclusive
+	 * @param sink               receives each employee's gross pay
+	 * @throws IllegalArgumentException if any parameter or employee is null, or from is after to
+	 * @throws ArithmeticException      if any employee's gross pay overflows a long
+	 */
+	public void run(List<Employee> employees, Map<Integer, ShiftCalendar> shiftsByEmployeeID, LocalDate from, LocalDate to, PayrollSink sink)
+			throws IllegalArgumentException, ArithmeticException {
+		if (employees == null || shiftsByEmployeeID == null || sink == null) {
+			throw new IllegalArgumentException("PayrollEngine employees, shifts and sink cannot be null");
+		}
+		if (from == null || to == null || from.isAfter(to)) {
+			throw new IllegalArgumentException("PayrollEngine pay period invalid [from=" + from + " to=" + to + "]");
+		}
+		long start = System.nanoTime();
+		pool.invoke(new PayrollTask(employees, 0, employees.size(), shiftsByEmployeeID, from, to, sink));
+		Logger.logThis("Payroll calculated", "employees: " + employees.size(), "period: " + from + " to " + to,
+				"millis: " + (System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * Calculate the gross pay of every employee over a pay period, collecting the results
+	 *
+	 * @return every employee's gross pay, ordered by employeeID
+	 * @see #run(List, Map, LocalDate, LocalDate, PayrollSink)
+	 */
+	public ArrayList<GrossPay> calculate(List<Employee> employees, Map<Integer, ShiftCalendar> shiftsByEmployeeID, LocalDate from, LocalDate to)
+			throws IllegalArgumentException, ArithmeticException {
+		ConcurrentLinkedQueue<GrossPay> collected = new ConcurrentLinkedQueue<GrossPay>();
+		run(employees, shiftsByEmployeeID, from, to, collected::add);
+		ArrayList<GrossPay> payroll = new ArrayList<GrossPay>(collected);
+		Collections.sort(payroll, Comparator.comparingInt(GrossPay::getEmployeeID));
+		return payroll;
+	}
+
+	/**
+	 * Calculate the gross pay of one employee over a pay period
+	 *
+	 * @param employee
+	 * @param shifts   the employee's shifts, or null if they have worked none
+	 * @param from     the first date of the pay period, inclusive
+	 * @param to       the last date of the pay period, inclusive
+	 * @return the employee's gross pay
+	 * @throws ArithmeticException if the gross pay overflows a long
+	 */
+	static GrossPay grossPay(Employee employee, ShiftCalendar shifts, LocalDate from, LocalDate to) throws ArithmeticException {
+		long hours = (shifts == null) ? 0 : shifts.sumHours(from, to);
+		int hourlyRateInPence = employee.getHourlyRate();
+		return new GrossPay(employee, hours, hourlyRateInPence, Math.multiplyExact(hours, (long) hourlyRateInPence));
+	}
+
+	/**
+	 * Calculates a slice of the employee list, splitting in half until the slice is no larger than {@code sliceSize}
+	 */
+	private class PayrollTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Employee> employees;
+		private final int start;
+		private final int end;
+		private final Map<Integer, ShiftCalendar> shiftsByEmployeeID;
+		private final LocalDate from;
+		private final LocalDate to;
+		private final PayrollSink sink;
+
+		private PayrollTask(List<Employee> employees, int start, int end, Map<Integer, ShiftCalendar> shiftsByEmployeeID, LocalDate from, LocalDate to,
+				PayrollSink sink) {
+			this.employees = employees;
+			this.start = start;
+			this.end = end;
+			this.shiftsByEmployeeID = shiftsByEmployeeID;
+			this.from = from;
+			this.to = to;
+			this.sink = sink;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= sliceSize) {
+				for (int i = start; i < end; i++) {
+					Employee employee = employees.get(i);
+					if (employee == null) {
+						throw new IllegalArgumentException("PayrollEngine employees cannot contain null");
+					}
+					sink.accept(grossPay(employee, shiftsByEmployeeID.get(employee.getEmployeeID()), from, to));
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new PayrollTask(employees, start, middle, shiftsByEmployeeID, from, to, sink),
+						new PayrollTask(employees, middle, end, shiftsByEmployeeID, from, to, sink));
+			}
+		}
+	}
+
+	/**
+	 * One employee's gross pay over a pay period
+	 */
+	public static class GrossPay {
+
+		private final Employee employee;
+		private final long hours;
+		private final int hourlyRateInPence;
+		private final long grossPayInPence;
+
+		private GrossPay(Employee employee, long hours, int hourlyRateInPence, long grossPayInPence) {
+			this.employee = employee;
+			this.hours = hours;
+			this.hourlyRateInPence = hourlyRateInPence;
+			this.grossPayInPence = grossPayInPence;
+		}
+
+		public Employee getEmployee() {
+			return employee;
+		}
+
+		public int getEmployeeID() {
+			return employee.getEmployeeID();
+		}
+
+		public long getHours() {
+			return hours;
+		}
+
+		public int getHourlyRateInPence() {
+			return hourlyRateInPence;
+		}
+
+		public long getGrossPayInPence() {
+			return grossPayInPence;
+		}
+
+		@Override
+		public String toString() {
+			return "GrossPay [employeeID=" + getEmployeeID() + " hours=" + hours +  " hourlyRateInPence=" + hourlyRateInPence + " grossPayInPence="
+					+ grossPayInPence + "]";
+		}
+	}
+}
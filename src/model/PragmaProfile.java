@@ -0,0 +1,153 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A set of sqlite3 {@code PRAGMA} settings applied to every connection when it is opened by, or handed out from, a {@link ConnectionPool}.<br>
+ * Three presets are provided; {@link #INTERACTIVE} for normal till and back office use, {@link #BULK_LOAD} for imports and other large write jobs, and
+ * {@link #READ_MOSTLY} for reporting. All presets use WAL journaling so readers never block writers, and can be switched between at runtime without
+ * needing exclusive access to the database.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class PragmaProfile {
+
+	/**
+	 * sqlite3 {@code journal_mode} values
+	 */
+	public enum JournalMode {
+		DELETE,
+		TRUNCATE,
+		PERSIST,
+		MEMORY,
+		WAL;
+	}
+
+	/**
+	 * sqlite3 {@code synchronous} levels
+	 */
+	public enum Synchronous {
+		OFF,
+		NORMAL,
+		FULL,
+		EXTRA;
+	}
+
+	/**
+	 * sqlite3 {@code temp_store} locations
+	 */
+	public enum TempStore {
+		DEFAULT,
+		FILE,
+		MEMORY;
+	}
+
+	/**
+	 * Low latency writes and safe commits for interactive use. A WAL commit with {@code synchronous=NORMAL} is durable against application crashes
+	 * and only loses the most recent transactions on power loss.
+	 */
+	public static final PragmaProfile INTERACTIVE = new PragmaProfile("interactive", JournalMode.WAL, Synchronous.NORMAL, -8_000, 64L << 20, TempStore.MEMORY, 5_000);
+	/**
+	 * Maximum write throughput for bulk jobs. {@code synchronous=OFF} trades durability on power loss for speed, so switch back to
+	 * {@link #INTERACTIVE} when the job is done.
+	 */
+	public static final PragmaProfile BULK_LOAD = new PragmaProfile("bulk-load", JournalMode.WAL, Synchronous.OFF, -64_000, 256L << 20, TempStore.MEMORY, 30_000);
+	/**
+	 * A large page cache and memory map for reporting over large tables
+	 */
+	public static final PragmaProfile READ_MOSTLY = new PragmaProfile("read-mostly", JournalMode.WAL, Synchronous.NORMAL, -32_000, 256L << 20, TempStore.MEMORY, 5_000);
+
+	private final String name;
+	private final JournalMode journalMode;
+	private final Synchronous synchronous;
+	private final int cacheSize;
+	private final long mmapSizeBytes;
+	private final TempStore tempStore;
+	private final int busyTimeoutMillis;
+
+	/**
+	 * Fully parameterised constructor for a PragmaProfile
+	 *
+	 * @param name              a name for this profile, used in logging
+	 * @param journalMode
+	 * @param synchronous
+	 * @param cacheSize         as per sqlite3 {@code cache_size}; positive values are pages, negative values are kibibytes
+	 * @param mmapSizeBytes     maximum bytes of the database file to memory map. 0 disables memory mapping
+	 * @param tempStore
+	 * @param busyTimeoutMillis how long a connection waits on a locked database before failing
+	 * @throws IllegalArgumentException if any parameter is null, mmapSizeBytes is negative or busyTimeoutMillis is negative
+	 */
+	public PragmaProfile(String name, JournalMode journalMode, Synchronous synchronous, int cacheSize, long mmapSizeBytes, TempStore tempStore,
+			int busyTimeoutMillis) throws IllegalArgumentException {
+		if (name == null || journalMode == null || synchronous == null || tempStore == null) {
+			throw new IllegalArgumentException("PragmaProfile parameters cannot be null");
+		}
+		if (mmapSizeBytes < 0 || busyTimeoutMillis < 0) {
+			throw new IllegalArgumentException("PragmaProfile mmapSizeBytes and busyTimeoutMillis cannot be negative");
+		}
+		this.name = name;
+		this.journalMode = journalMode;
+		this.synchronous = synchronous;
+		this.cacheSize = cacheSize;
+		this.mmapSizeBytes = mmapSizeBytes;
+		this.tempStore = tempStore;
+		this.busyTimeoutMillis = busyTimeoutMillis;
+	}
+
+	/**
+	 * Apply this profile's pragmas to a connection
+	 *
+	 * @param connection
+	 * @throws SQLException if any pragma cannot be applied
+	 */
+	public void apply(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("PRAGMA busy_timeout=" + busyTimeoutMillis + ";");
+			statement.execute("PRAGMA journal_mode=" + journalMode + ";");
+			statement.execute("PRAGMA synchronous=" + synchronous + ";");
+			statement.execute("PRAGMA cache_size=" + cacheSize + ";");
+			statement.execute("PRAGMA mmap_size=" + mmapSizeBytes + ";");
+			statement.execute("PRAGMA temp_store=" + tempStore + ";");
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public JournalMode getJournalMode() {
+		return journalMode;
+	}
+
+	public Synchronous getSynchronous() {
+		return synchronous;
+	}
+
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	public long getMmapSizeBytes() {
+		return mmapSizeBytes;
+	}
+
+	public TempStore getTempStore() {
+		return tempStore;
+	}
+
+	public int getBusyTimeoutMillis() {
+		return busyTimeoutMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "PragmaProfile [name=" + name + " journalMode=" + journalMode + " synchronous=" + synchronous + " cacheSize=" + cacheSize
+				+ " mmapSizeBytes=" + mmapSizeBytes + " tempStore=" + tempStore + " busyTimeoutMillis=" + busyTimeoutMillis + "]";
+	}
+}
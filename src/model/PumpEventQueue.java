@@ -0,0 +1,122 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free queue of pump telemetry events for many producers and a single consumer. Events are held in parallel primitive arrays, so
+ * offering an event allocates nothing.<br>
+ * <br>
+ * Each slot carries a sequence number. A producer claims the tail with a compare-and-set, writes the event's fields, then publishes the slot by
+ * advancing its sequence; the consumer reads a slot only once its sequence shows it is published, and frees it by advancing the sequence a lap. A
+ * full queue rejects the event rather than waiting, so producers never block.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+class PumpEventQueue {
+
+	private final int capacity;
+	private final int mask;
+	private final AtomicLongArray sequences;
+	private final int[] tanks;
+	private final long[] epochMillis;
+	private final int[] millilitres;
+	private final AtomicLong tail = new AtomicLong();
+	/**
+	 * Only read and written by the single consumer
+	 */
+	private long head;
+
+	/**
+	 * Receives each event drained from the queue
+	 */
+	@FunctionalInterface
+	interface PumpEventHandler {
+		void accept(int tank, long epochMillis, int millilitres);
+	}
+
+	/**
+	 * @param capacity the most events held at once, rounded up to a power of 2 of at least 2
+	 * @throws IllegalArgumentException if capacity is less than 1 or greater than 2^30
+	 */
+	PumpEventQueue(int capacity) throws IllegalArgumentException {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("PumpEventQueue capacity must be between 1 and " + (1 << 30) + " but was " + capacity);
+		}
+		// with a single slot, a published slot would look free to the next producer
+		int rounded = 2;
+		while (rounded < capacity) {
+			rounded <<= 1;
+		}
+		this.capacity = rounded;
+		this.mask = this.capacity - 1;
+		this.sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			sequences.set(i, i);
+		}
+		this.tanks = new int[this.capacity];
+		this.epochMillis = new long[this.capacity];
+		this.millilitres = new int[this.capacity];
+	}
+
+	/**
+	 * Add an event to the queue, without blocking. Safe to call from any number of threads at once.
+	 *
+	 * @return true if the event was queued, false if the queue was full
+	 */
+	boolean offer(int tank, long epochMillis, int millilitres) {
+		long position = tail.get();
+		int slot;
+		while (true) {
+			slot = (int) (position & mask);
+			long difference = sequences.get(slot) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					break;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				// the slot still holds an event from the previous lap
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+		this.tanks[slot] = tank;
+		this.epochMillis[slot] = epochMillis;
+		this.millilitres[slot] = millilitres;
+		sequences.lazySet(slot, position + 1);
+		return true;
+	}
+
+	/**
+	 * Pass up to {@code maxEvents} published events to handler, in the order their slots were claimed. Must only be called by the single consumer.
+	 *
+	 * @return the number of events drained
+	 */
+	int drain(PumpEventHandler handler, int maxEvents) {
+		int drained = 0;
+		while (drained < maxEvents) {
+			int slot = (int) (head & mask);
+			if (sequences.get(slot) != head + 1) {
+				break;
+			}
+			int tank = this.tanks[slot];
+			long time = this.epochMillis[slot];
+			int volume = this.millilitres[slot];
+			sequences.lazySet(slot, head + capacity);
+			head++;
+			drained++;
+			handler.accept(tank, time, volume);
+		}
+		return drained;
+	}
+
+	int capacity() {
+		return capacity;
+	}
+}
@@ -0,0 +1,268 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import log.LogLevel;
+import log.Logger;
+import model.StockItemModel.StockLiquidFuel;
+
+/**
+ * Ingests dispensed-volume telemetry from forecourt pumps, and applies it to the {@link StockLiquidFuel} tanks the pumps draw from.<br>
+ * <br>
+ * Pumps {@link #offer(int, long, int)} events from any number of threads. Each event is written to a bounded lock-free queue and the pump carries on;
+ * if the queue is full the event is dropped and counted, rather than the pump waiting. A single ingest thread drains the queue in batches of up to
+ * {@code batchSize} events, records each event in its tank's sell history (with millilitres as the quantity), and reduces each tank's
+ * {@code volumeInMillilitres} once per batch by the batch's total. Tank levels are read live with {@link #getTankLevel(int)}.<br>
+ * <br>
+ * The ingest thread is the only writer of a registered tank's volume and sell history, which must not be changed elsewhere while the ingest is open.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class PumpTelemetryIngest implements AutoCloseable {
+
+	public static final int DEFAULT_CAPACITY = 65_536;
+	public static final int DEFAULT_BATCH_SIZE = 1_024;
+	/**
+	 * How long the ingest thread waits before polling an empty queue again
+	 */
+	private static final long IDLE_PARK_NANOS = 100_000;
+
+	private final PumpEventQueue queue;
+	private final int batchSize;
+	private final Thread ingestThread;
+	private volatile boolean open = true;
+	/**
+	 * Registered tanks, indexed by tank number. Replaced, never modified, when a tank is added
+	 */
+	private volatile StockLiquidFuel[] tanks = new StockLiquidFuel[0];
+
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private volatile long applied;
+	private volatile long batches;
+
+	// only used by the ingest thread
+	private StockLiquidFuel[] batchTanks = tanks;
+	private long[] batchTotals = new long[0];
+	private final PumpEventQueue.PumpEventHandler applyEvent = this::applyEvent;
+
+	/**
+	 * Construct a PumpTelemetryIngest with the default queue capacity and batch size, and start its ingest thread
+	 */
+	public PumpTelemetryIngest() {
+		this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Fully parameterised constructor for a PumpTelemetryIngest. Starts the ingest thread.
+	 *
+	 * @param capacity  the most events queued at once, rounded up to a power of 2 of at least 2
+	 * @param batchSize the most events applied to the tanks at once
+	 * @throws IllegalArgumentException if capacity is less than 1 or greater than 2^30, or batchSize is less than 1
+	 */
+	public PumpTelemetryIngest(int capacity, int batchSize) throws IllegalArgumentException {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("PumpTelemetryIngest batchSize must be 1 or greater but was " + batchSize);
+		}
+		this.queue = new PumpEventQueue(capacity);
+		this.batchSize = batchSize;
+		this.ingestThread = ExecutorMode.daemonThreadFactory("pump-telemetry-").newThread(this::ingest);
+		this.ingestThread.start();
+	}
+
+	/**
+	 * Register a tank that pumps dispense from
+	 *
+	 * @param tank
+	 * @return the tank number pumps report events against
+	 * @throws IllegalArgumentException if tank is null
+	 */
+	public synchronized int addTank(StockLiquidFuel tank) throws IllegalArgumentException {
+		if (tank == null) {
+			throw new IllegalArgumentException("PumpTelemetryIngest tank cannot be null");
+		}
+		StockLiquidFuel[] added = Arrays.copyOf(tanks, tanks.length + 1);
+		added[tanks.length] = tank;
+		tanks = added;
+		return tanks.length - 1;
+	}
+
+	/**
+	 * @param tank the tank number
+	 * @return the tank
+	 * @throws IllegalArgumentException if there is no such tank
+	 */
+	public StockLiquidFuel getTank(int tank) throws IllegalArgumentException {
+		StockLiquidFuel[] registered = tanks;
+		if (tank < 0 || tank >= registered.length) {
+			throw new IllegalArgumentException("PumpTelemetryIngest has no tank " + tank);
+		}
+		return registered[tank];
+	}
+
+	/**
+	 * @param tank the tank number
+	 * @return the tank's live volume in millilitres, reflecting every event applied so far
+	 * @throws IllegalArgumentException if there is no such tank
+	 */
+	public int getTankLevel(int tank) throws IllegalArgumentException {
+		return getTank(tank).getVolumeInMillilitres();
+	}
+
+	/**
+	 * Report volume dispensed from a tank now, without blocking
+	 *
+	 * @see #offer(int, long, int)
+	 */
+	public boolean offer(int tank, int millilitres) throws IllegalArgumentException {
+		return offer(tank, System.currentTimeMillis(), millilitres);
+	}
+
+	/**
+	 * Report volume dispensed from a tank, without blocking. Safe to call from any number of pump threads at once.
+	 *
+	 * @param tank        the tank number
+	 * @param epochMillis the time the volume was dispensed, as UTC epoch milliseconds
+	 * @param millilitres the volume dispensed since the pump's last event, 1 or greater
+	 * @return true if the event was queued, false if it was dropped because the queue was full or the ingest is closed
+	 * @throws IllegalArgumentException if there is no such tank, or millilitres is less than 1
+	 */
+	public boolean offer(int tank, long epochMillis, int millilitres) throws IllegalArgumentException {
+		if (tank < 0 || tank >= tanks.length) {
+			throw new IllegalArgumentException("PumpTelemetryIngest has no tank " + tank);
+		}
+		if (millilitres < 1) {
+			throw new IllegalArgumentException("PumpTelemetryIngest millilitres must be 1 or greater but was " + millilitres);
+		}
+		if (open && queue.offer(tank, epochMillis, millilitres)) {
+			accepted.increment();
+			return true;
+		}
+		dropped.increment();
+		return false;
+	}
+
+	/**
+	 * @return the number of events queued
+	 */
+	public long getAccepted() {
+		return accepted.sum();
+	}
+
+	/**
+	 * @return the number of events dropped because the queue was full or the ingest was closed
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * @return the number of events applied to their tanks
+	 */
+	public long getApplied() {
+		return applied;
+	}
+
+	/**
+	 * @return the number of batches applied
+	 */
+	public long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * @return the most events queued at once
+	 */
+	public int getCapacity() {
+		return queue.capacity();
+	}
+
+	/**
+	 * Stop accepting events, apply every event already queued, and stop the ingest thread. An event offered by a pump at the same moment as closing may
+	 * be neither applied nor counted as dropped.
+	 */
+	@Override
+	public void close() {
+		open = false;
+		try {
+			ingestThread.join();
+		} catch (InterruptedException closeEx) {
+			Thread.currentThread().interrupt();
+		}
+		Logger.logThis("PumpTelemetryIngest closed", "accepted: " + getAccepted(), "dropped: " + getDropped(), "applied: " + applied,
+				"batches: " + batches);
+	}
+
+	/**
+	 * The ingest thread: apply batches until closed, then apply whatever remains queued. A batch that fails is logged rather than ending the thread;
+	 * the event it failed on is lost, and the volume of the events before it is applied with the next batch.
+	 */
+	private void ingest() {
+		while (true) {
+			boolean closing = !open;
+			int drained;
+			try {
+				drained = applyBatch();
+			} catch (RuntimeException applyBatchEx) {
+				Logger.logThis(LogLevel.ERROR, "PumpTelemetryIngest failed to apply a batch", applyBatchEx.toString());
+				continue;
+			}
+			if (drained == 0) {
+				if (closing) {
+					return;
+				}
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * Drain up to {@code batchSize} events, recording each in its tank's sell history, then reduce each tank's volume by its total for the batch. The
+	 * tanks may grow while the batch is drained, if a tank is added and a pump reports against it straight away.
+	 *
+	 * @return the number of events applied
+	 */
+	private int applyBatch() {
+		batchTanks = tanks;
+		if (batchTotals.length < batchTanks.length) {
+			batchTotals = Arrays.copyOf(batchTotals, batchTanks.length);
+		}
+		int drained = queue.drain(applyEvent, batchSize);
+		if (drained == 0) {
+			return 0;
+		}
+		for (int tank = 0; tank < batchTanks.length; tank++) {
+			long dispensed = batchTotals[tank];
+			if (dispensed > 0) {
+				StockLiquidFuel fuel = batchTanks[tank];
+				long remaining = fuel.getVolumeInMillilitres() - dispensed;
+				if (remaining < 0) {
+					Logger.logThis(LogLevel.WARN, "PumpTelemetryIngest tank dispensed more than it held", "tank: " + tank, "name: " + fuel.getName(),
+							"overdrawn millilitres: " + -remaining);
+					remaining = 0;
+				}
+				fuel.setVolumeInMillilitres((int) remaining);
+				batchTotals[tank] = 0;
+			}
+		}
+		applied += drained;
+		batches++;
+		return drained;
+	}
+
+	private void applyEvent(int tank, long epochMillis, int millilitres) {
+		if (tank >= batchTanks.length) {
+			// added since the batch began
+			batchTanks = tanks;
+			batchTotals = Arrays.copyOf(batchTotals, batchTanks.length);
+		}
+		batchTotals[tank] += millilitres;
+		batchTanks[tank].getSellHistory().record(epochMillis, millilitres);
+	}
+}
@@ -0,0 +1,452 @@
+package model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.Map;
+
+/**
+ * The sales of one stock item over time, stored as an append-only columnar time series.<br>
+ * <br>
+ * Each sale is an epoch-millisecond timestamp and a quantity, held in parallel {@code long[]} and {@code int[]} blocks of up to {@value #BLOCK_SIZE}
+ * sales, ordered by time. Several sales at the same instant are all kept. Sales normally arrive in time order and are appended to the last block; a
+ * late sale is inserted into the block covering its time. Each block keeps its total quantity, so range totals only read the sales in the blocks at
+ * either end of the range.<br>
+ * <br>
+ * {@code LocalDateTime}s are converted to and from epoch milliseconds as UTC, so times keep their wall clock value and are never shifted by daylight
+ * saving. Old sales can be compacted to one entry per time bucket with {@link #compactBefore(LocalDateTime, Duration)}, bounding the memory used by
+ * history no longer needed at full resolution.<br>
+ * <br>
+ * All methods are synchronized, so a SellHistory can be written by several tills at once.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class SellHistory {
+
+	static final int BLOCK_SIZE = 1024;
+
+	private final ArrayList<Block> blocks = new ArrayList<Block>();
+	private int size;
+	private long totalQuantity;
+
+	/**
+	 * Receives each sale in a SellHistory, in time order
+	 */
+	@FunctionalInterface
+	public interface SaleConsumer {
+		void accept(long epochMillis, int quantity);
+	}
+
+	/**
+	 * Construct an empty SellHistory
+	 */
+	public SellHistory() {
+	}
+
+	/**
+	 * Construct a SellHistory containing every sale in a Map of sale time to quantity
+	 *
+	 * @param sales
+	 * @throws IllegalArgumentException if sales is null, or contains a null time or invalid quantity
+	 */
+	public SellHistory(Map<LocalDateTime, Integer> sales) throws IllegalArgumentException {
+		if (sales == null) {
+			throw new IllegalArgumentException("SellHistory sales cannot be null");
+		}
+		for (Map.Entry<LocalDateTime, Integer> sale : sales.entrySet()) {
+			if (sale.getValue() == null) {
+				throw new IllegalArgumentException("SellHistory quantity cannot be null [time=" + sale.getKey() + "]");
+			}
+			record(sale.getKey(), sale.getValue());
+		}
+	}
+
+	//**************************************************************\
+	//																*
+	//		Recording												*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * Record a sale
+	 *
+	 * @param time
+	 * @param quantity the number of units sold, 1 or greater
+	 * @throws IllegalArgumentException if time is null or quantity is less than 1
+	 */
+	public void record(LocalDateTime time, int quantity) throws IllegalArgumentException {
+		if (time == null) {
+			throw new IllegalArgumentException("SellHistory time cannot be null");
+		}
+		record(toEpochMillis(time), quantity);
+	}
+
+	/**
+	 * Record a sale
+	 *
+	 * @param epochMillis the time of the sale, as UTC epoch milliseconds
+	 * @param quantity    the number of units sold, 1 or greater
+	 * @throws IllegalArgumentException if quantity is less than 1
+	 */
+	public synchronized void record(long epochMillis, int quantity) throws IllegalArgumentException {
+		if (quantity < 1) {
+			throw new IllegalArgumentException("SellHistory quantity must be 1 or greater but was " + quantity);
+		}
+		Block last = (blocks.isEmpty()) ? null : blocks.get(blocks.size() - 1);
+		if (last != null && epochMillis >= last.lastMillis()) {
+			if (last.size == BLOCK_SIZE) {
+				last = new Block();
+				blocks.add(last);
+			}
+			last.append(epochMillis, quantity);
+		} else if (last == null) {
+			last = new Block();
+			blocks.add(last);
+			last.append(epochMillis, quantity);
+		} else {
+			insertLate(epochMillis, quantity);
+		}
+		size++;
+		totalQuantity += quantity;
+	}
+
+	/**
+	 * Insert a sale earlier than the latest recorded sale into the block covering its time, splitting that block if it is full
+	 */
+	private void insertLate(long epochMillis, int quantity) {
+		int blockIndex = Math.max(0, lastBlockStartingAtOrBefore(epochMillis));
+		Block block = blocks.get(blockIndex);
+		if (block.size == BLOCK_SIZE) {
+			Block upperHalf = block.split();
+			blocks.add(blockIndex + 1, upperHalf);
+			if (epochMillis >= upperHalf.epochMillis[0]) {
+				block = upperHalf;
+			}
+		}
+		block.insert(epochMillis, quantity);
+	}
+
+	//**************************************************************\
+	//																*
+	//		Queries													*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * @return the number of sales recorded
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if no sales are recorded
+	 */
+	public synchronized boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the total quantity of every sale recorded
+	 */
+	public synchronized long getTotalQuantity() {
+		return totalQuantity;
+	}
+
+	/**
+	 * @param from the start of the range, inclusive
+	 * @param to   the end of the range, exclusive
+	 * @return the total quantity sold in the range
+	 * @throws IllegalArgumentException if from or to is null, or from is after to
+	 */
+	public long totalQuantity(LocalDateTime from, LocalDateTime to) throws IllegalArgumentException {
+		checkRange(from, to);
+		return totalQuantity(toEpochMillis(from), toEpochMillis(to));
+	}
+
+	/**
+	 * @param fromMillis the start of the range in UTC epoch milliseconds, inclusive
+	 * @param toMillis   the end of the range in UTC epoch milliseconds, exclusive
+	 * @return the total quantity sold in the range
+	 */
+	public synchronized long totalQuantity(long fromMillis, long toMillis) {
+		long total = 0;
+		for (int b = firstBlockFrom(fromMillis); b < blocks.size(); b++) {
+			Block block = blocks.get(b);
+			if (block.epochMillis[0] >= toMillis) {
+				break;
+			}
+			if (block.epochMillis[0] >= fromMillis && block.lastMillis() < toMillis) {
+				total += block.totalQuantity;
+			} else {
+				for (int i = block.indexOf(fromMillis); i < block.size && block.epochMillis[i] < toMillis; i++) {
+					total += block.quantities[i];
+				}
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * @param from the start of the range, inclusive
+	 * @param to   the end of the range, exclusive
+	 * @return the number of sales in the range
+	 * @throws IllegalArgumentException if from or to is null, or from is after to
+	 */
+	public int countSales(LocalDateTime from, LocalDateTime to) throws IllegalArgumentException {
+		checkRange(from, to);
+		int[] count = { 0 };
+		forEach(toEpochMillis(from), toEpochMillis(to), (epochMillis, quantity) -> count[0]++);
+		return count[0];
+	}
+
+	/**
+	 * Pass every sale in a range to action, in time order
+	 *
+	 * @param fromMillis the start of the range in UTC epoch milliseconds, inclusive
+	 * @param toMillis   the end of the range in UTC epoch milliseconds, exclusive
+	 * @param action
+	 */
+	public synchronized void forEach(long fromMillis, long toMillis, SaleConsumer action) {
+		for (int b = firstBlockFrom(fromMillis); b < blocks.size(); b++) {
+			Block block = blocks.get(b);
+			if (block.epochMillis[0] >= toMillis) {
+				break;
+			}
+			for (int i = block.indexOf(fromMillis); i < block.size && block.epochMillis[i] < toMillis; i++) {
+				action.accept(block.epochMillis[i], block.quantities[i]);
+			}
+		}
+	}
+
+	/**
+	 * Pass every sale to action, in time order
+	 *
+	 * @param action
+	 */
+	public void forEach(SaleConsumer action) {
+		forEach(Long.MIN_VALUE, Long.MAX_VALUE, action);
+	}
+
+	/**
+	 * Total the quantity sold in each of a run of consecutive, equal length time buckets
+	 *
+	 * @param from       the start of the first bucket
+	 * @param bucket     the length of each bucket, at least one millisecond
+	 * @param numBuckets the number of buckets
+	 * @return the quantity sold in each bucket
+	 * @throws IllegalArgumentException if from or bucket is null, bucket is shorter than a millisecond, or numBuckets is negative
+	 */
+	public long[] aggregate(LocalDateTime from, Duration bucket, int numBuckets) throws IllegalArgumentException {
+		if (from == null || bucket == null || bucket.toMillis() < 1 || numBuckets < 0) {
+			throw new IllegalArgumentException("SellHistory aggregation invalid [from=" + from + " bucket=" + bucket + " numBuckets=" + numBuckets + "]");
+		}
+		long bucketMillis = bucket.toMillis();
+		long fromMillis = toEpochMillis(from);
+		long toMillis = fromMillis + Math.multiplyExact(bucketMillis, (long) numBuckets);
+		long[] totals = new long[numBuckets];
+		forEach(fromMillis, toMillis, (epochMillis, quantity) -> totals[(int) ((epochMillis - fromMillis) / bucketMillis)] += quantity);
+		return totals;
+	}
+
+	/**
+	 * @return every sale as a Map of sale time to total quantity sold at that time
+	 */
+	public Hashtable<LocalDateTime, Integer> toHashtable() {
+		Hashtable<LocalDateTime, Integer> sales = new Hashtable<LocalDateTime, Integer>();
+		forEach((epochMillis, quantity) -> sales.merge(toLocalDateTime(epochMillis), quantity, Integer::sum));
+		return sales;
+	}
+
+	//**************************************************************\
+	//																*
+	//		Compaction												*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * Merge every sale before a cutoff into one entry per time bucket, timestamped at the start of its bucket. Totals over whole buckets are unchanged;
+	 * only the time of each sale within its bucket is lost. Buckets are aligned to the UTC epoch, so eg daily buckets start at midnight. A bucket whose
+	 * total would overflow an {@code int} is kept as several entries at the same time.
+	 *
+	 * @param cutoff     sales before this time are compacted
+	 * @param resolution the length of each bucket, at least one millisecond
+	 * @return the number of entries removed
+	 * @throws IllegalArgumentException if cutoff or resolution is null, or resolution is shorter than a millisecond
+	 */
+	public synchronized int compactBefore(LocalDateTime cutoff, Duration resolution) throws IllegalArgumentException {
+		if (cutoff == null || resolution == null || resolution.toMillis() < 1) {
+			throw new IllegalArgumentException("SellHistory compaction invalid [cutoff=" + cutoff + " resolution=" + resolution + "]");
+		}
+		long cutoffMillis = toEpochMillis(cutoff);
+		long resolutionMillis = resolution.toMillis();
+		ArrayList<Block> compacted = new ArrayList<Block>();
+		Block current = null;
+		int retained = 0;
+		for (Block block : blocks) {
+			for (int i = 0; i < block.size; i++) {
+				long epochMillis = block.epochMillis[i];
+				if (epochMillis < cutoffMillis) {
+					epochMillis = Math.floorDiv(epochMillis, resolutionMillis) * resolutionMillis;
+				}
+				if (current != null && current.size > 0 && epochMillis < cutoffMillis && current.lastMillis() == epochMillis) {
+					long merged = (long) current.quantities[current.size - 1] + block.quantities[i];
+					if (merged <= Integer.MAX_VALUE) {
+						current.quantities[current.size - 1] = (int) merged;
+						current.totalQuantity += block.quantities[i];
+						continue;
+					}
+				}
+				if (current == null || current.size == BLOCK_SIZE) {
+					current = new Block();
+					compacted.add(current);
+				}
+				current.append(epochMillis, block.quantities[i]);
+				retained++;
+			}
+		}
+		int removed = size - retained;
+		blocks.clear();
+		blocks.addAll(compacted);
+		size = retained;
+		return removed;
+	}
+
+	//**************************************************************\
+	//																*
+	//		Utilities												*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * Sales at the same instant can span a block boundary, so a range starting at fromMillis can begin at the end of the block before the one
+	 * starting at fromMillis.
+	 *
+	 * @return the index of the first block that can hold a sale at or after fromMillis: the last block whose first sale is before fromMillis, or 0
+	 *         if there is none
+	 */
+	private int firstBlockFrom(long fromMillis) {
+		return (fromMillis == Long.MIN_VALUE) ? 0 : Math.max(0, lastBlockStartingAtOrBefore(fromMillis - 1));
+	}
+
+	/**
+	 * @return the index of the last block whose first sale is at or before epochMillis, or -1 if there is none
+	 */
+	private int lastBlockStartingAtOrBefore(long epochMillis) {
+		int low = 0;
+		int high = blocks.size() - 1;
+		int found = -1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (blocks.get(middle).epochMillis[0] <= epochMillis) {
+				found = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return found;
+	}
+
+	private static void checkRange(LocalDateTime from, LocalDateTime to) throws IllegalArgumentException {
+		if (from == null || to == null || from.isAfter(to)) {
+			throw new IllegalArgumentException("SellHistory time range invalid [from=" + from + " to=" + to + "]");
+		}
+	}
+
+	/**
+	 * @return time as UTC epoch milliseconds
+	 */
+	public static long toEpochMillis(LocalDateTime time) {
+		return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+
+	/**
+	 * @return UTC epoch milliseconds as a LocalDateTime
+	 */
+	public static LocalDateTime toLocalDateTime(long epochMillis) {
+		return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L), (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "SellHistory [sales=" + size + " blocks=" + blocks.size() + " totalQuantity=" + totalQuantity + "]";
+	}
+
+	/**
+	 * Up to {@code BLOCK_SIZE} sales in time order, in parallel arrays
+	 */
+	private static class Block {
+
+		private final long[] epochMillis = new long[BLOCK_SIZE];
+		private final int[] quantities = new int[BLOCK_SIZE];
+		private int size;
+		private long totalQuantity;
+
+		private long lastMillis() {
+			return epochMillis[size - 1];
+		}
+
+		private void append(long millis, int quantity) {
+			epochMillis[size] = millis;
+			quantities[size] = quantity;
+			size++;
+			totalQuantity += quantity;
+		}
+
+		/**
+		 * Insert a sale after any sales at the same time, keeping the block in time order. The block must not be full.
+		 */
+		private void insert(long millis, int quantity) {
+			int index = indexOf(millis + 1);
+			if (millis == Long.MAX_VALUE) {
+				index = size;
+			}
+			System.arraycopy(epochMillis, index, epochMillis, index + 1, size - index);
+			System.arraycopy(quantities, index, quantities, index + 1, size - index);
+			epochMillis[index] = millis;
+			quantities[index] = quantity;
+			size++;
+			totalQuantity += quantity;
+		}
+
+		/**
+		 * Move the later half of this full block into a new block
+		 *
+		 * @return the new block
+		 */
+		private Block split() {
+			Block upperHalf = new Block();
+			int half = size / 2;
+			for (int i = half; i < size; i++) {
+				upperHalf.append(epochMillis[i], quantities[i]);
+				totalQuantity -= quantities[i];
+			}
+			size = half;
+			return upperHalf;
+		}
+
+		/**
+		 * @return the index of the first sale at or after millis, or size if there is none
+		 */
+		private int indexOf(long millis) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (epochMillis[middle] < millis) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+	}
+}
@@ -0,0 +1,409 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Hashtable;
+import java.util.Map;
+
+import model.ModelEnums.Numbers;
+
+/**
+ * A compact calendar of the hours worked by one employee on each day, indexed by epoch day.<br>
+ * <br>
+ * Days are grouped into chunks of {@value #CHUNK_DAYS} consecutive days, each a {@code byte[]} holding the hours worked on each day of the chunk
+ * (0 meaning no shift). Chunks are only allocated once a shift falls within them, so a calendar costs roughly one byte per day between an employee's
+ * first and last shift, instead of the boxed {@code LocalDate} key, boxed {@code Integer} value and hash entry of a {@code Hashtable}. Each chunk
+ * also keeps its total hours and shift count, so range sums only visit the days at either end of the range.<br>
+ * <br>
+ * A ShiftCalendar is not thread safe.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class ShiftCalendar {
+
+	private static final int CHUNK_SHIFT = 7;
+	static final int CHUNK_DAYS = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_DAYS - 1;
+	private static final byte[][] NO_CHUNKS = new byte[0][];
+
+	/**
+	 * The chunk index of {@code chunks[0]}
+	 */
+	private long firstChunk;
+	private byte[][] chunks = NO_CHUNKS;
+	private int[] chunkHours = new int[0];
+	private short[] chunkShifts = new short[0];
+	private int shiftCount;
+
+	/**
+	 * Receives each shift in a ShiftCalendar, in date order
+	 */
+	@FunctionalInterface
+	public interface ShiftConsumer {
+		void accept(long epochDay, int hours);
+	}
+
+	/**
+	 * Construct an empty ShiftCalendar
+	 */
+	public ShiftCalendar() {
+	}
+
+	/**
+	 * Construct a ShiftCalendar containing every shift in a Map of date to hours worked
+	 *
+	 * @param shifts
+	 * @throws IllegalArgumentException if shifts is null, or contains a null date or invalid hours
+	 */
+	public ShiftCalendar(Map<LocalDate, Integer> shifts) throws IllegalArgumentException {
+		putAll(shifts);
+	}
+
+	//**************************************************************\
+	//																*
+	//		Modification											*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * Record the hours worked on a date, replacing any shift already recorded on it
+	 *
+	 * @param date
+	 * @param hours between 1 and {@code Numbers.EMPLOYEE_MAX_SHIFT_HOURS} inclusive
+	 * @throws IllegalArgumentException if date is null or hours is out of range
+	 */
+	public void put(LocalDate date, int hours) throws IllegalArgumentException {
+		if (date == null) {
+			throw new IllegalArgumentException("ShiftCalendar date cannot be null");
+		}
+		put(date.toEpochDay(), hours);
+	}
+
+	/**
+	 * Record the hours worked on an epoch day, replacing any shift already recorded on it
+	 *
+	 * @param epochDay as per {@link LocalDate#toEpochDay()}
+	 * @param hours    between 1 and {@code Numbers.EMPLOYEE_MAX_SHIFT_HOURS} inclusive
+	 * @throws IllegalArgumentException if hours is out of range
+	 */
+	public void put(long epochDay, int hours) throws IllegalArgumentException {
+		if (hours < 1 || hours > Numbers.EMPLOYEE_MAX_SHIFT_HOURS.get()) {
+			throw new IllegalArgumentException("ShiftCalendar hours must be between 1 and " + Numbers.EMPLOYEE_MAX_SHIFT_HOURS.get() + " but was " + hours);
+		}
+		int slot = slotFor(epochDay >> CHUNK_SHIFT);
+		if (chunks[slot] == null) {
+			chunks[slot] = new byte[CHUNK_DAYS];
+		}
+		int day = (int) (epochDay & CHUNK_MASK);
+		int previous = chunks[slot][day];
+		chunks[slot][day] = (byte) hours;
+		chunkHours[slot] += hours - previous;
+		if (previous == 0) {
+			chunkShifts[slot]++;
+			shiftCount++;
+		}
+	}
+
+	/**
+	 * Record every shift in a Map of date to hours worked
+	 *
+	 * @param shifts
+	 * @throws IllegalArgumentException if shifts is null, or contains a null date or invalid hours. Shifts before the invalid one may have been
+	 *                                  recorded
+	 */
+	public void putAll(Map<LocalDate, Integer> shifts) throws IllegalArgumentException {
+		if (shifts == null) {
+			throw new IllegalArgumentException("ShiftCalendar shifts cannot be null");
+		}
+		for (Map.Entry<LocalDate, Integer> shift : shifts.entrySet()) {
+			if (shift.getValue() == null) {
+				throw new IllegalArgumentException("ShiftCalendar hours cannot be null [Date=" + shift.getKey() + "]");
+			}
+			put(shift.getKey(), shift.getValue());
+		}
+	}
+
+	/**
+	 * Record every shift in another ShiftCalendar
+	 *
+	 * @param shifts
+	 * @throws IllegalArgumentException if shifts is null
+	 */
+	public void putAll(ShiftCalendar shifts) throws IllegalArgumentException {
+		if (shifts == null) {
+			throw new IllegalArgumentException("ShiftCalendar shifts cannot be null");
+		}
+		shifts.forEach(this::put);
+	}
+
+	/**
+	 * Remove the shift on a date, if any
+	 *
+	 * @param date
+	 * @return the hours of the removed shift, or 0 if there was no shift
+	 */
+	public int remove(LocalDate date) {
+		int slot = (date == null) ? -1 : existingSlot(date.toEpochDay() >> CHUNK_SHIFT);
+		if (slot < 0) {
+			return 0;
+		}
+		int day = (int) (date.toEpochDay() & CHUNK_MASK);
+		int previous = chunks[slot][day];
+		if (previous != 0) {
+			chunks[slot][day] = 0;
+			chunkHours[slot] -= previous;
+			chunkShifts[slot]--;
+			shiftCount--;
+		}
+		return previous;
+	}
+
+	/**
+	 * Remove every shift
+	 */
+	public void clear() {
+		firstChunk = 0;
+		chunks = NO_CHUNKS;
+		chunkHours = new int[0];
+		chunkShifts = new short[0];
+		shiftCount = 0;
+	}
+
+	//**************************************************************\
+	//																*
+	//		Queries													*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * @param date
+	 * @return the hours worked on date, or 0 if there was no shift
+	 */
+	public int get(LocalDate date) {
+		return (date == null) ? 0 : get(date.toEpochDay());
+	}
+
+	/**
+	 * @param epochDay as per {@link LocalDate#toEpochDay()}
+	 * @return the hours worked on epochDay, or 0 if there was no shift
+	 */
+	public int get(long epochDay) {
+		int slot = existingSlot(epochDay >> CHUNK_SHIFT);
+		return (slot < 0) ? 0 : chunks[slot][(int) (epochDay & CHUNK_MASK)];
+	}
+
+	/**
+	 * @param from the first date, inclusive
+	 * @param to   the last date, inclusive
+	 * @return the total hours worked between from and to
+	 * @throws IllegalArgumentException if from or to is null, or from is after to
+	 */
+	public long sumHours(LocalDate from, LocalDate to) throws IllegalArgumentException {
+		return sumRange(from, to, true);
+	}
+
+	/**
+	 * @param from the first date, inclusive
+	 * @param to   the last date, inclusive
+	 * @return the number of shifts worked between from and to
+	 * @throws IllegalArgumentException if from or to is null, or from is after to
+	 */
+	public int countShifts(LocalDate from, LocalDate to) throws IllegalArgumentException {
+		return (int) sumRange(from, to, false);
+	}
+
+	/**
+	 * Sum hours, or count shifts, between two dates. Whole chunks inside the range use their running totals; only chunks at either end of the range
+	 * are read day by day.
+	 */
+	private long sumRange(LocalDate from, LocalDate to, boolean sumHours) throws IllegalArgumentException {
+		if (from == null || to == null || from.isAfter(to)) {
+			throw new IllegalArgumentException("ShiftCalendar date range invalid [from=" + from + " to=" + to + "]");
+		}
+		if (chunks.length == 0) {
+			return 0;
+		}
+		long firstDay = Math.max(from.toEpochDay(), firstChunk << CHUNK_SHIFT);
+		long lastDay = Math.min(to.toEpochDay(), ((firstChunk + chunks.length) << CHUNK_SHIFT) - 1);
+		if (firstDay > lastDay) {
+			return 0;
+		}
+		long total = 0;
+		for (long chunk = firstDay >> CHUNK_SHIFT; chunk <= lastDay >> CHUNK_SHIFT; chunk++) {
+			int slot = (int) (chunk - firstChunk);
+			byte[] days = chunks[slot];
+			if (days == null) {
+				continue;
+			}
+			long chunkStart = chunk << CHUNK_SHIFT;
+			int startDay = (int) (Math.max(firstDay, chunkStart) - chunkStart);
+			int endDay = (int) (Math.min(lastDay, chunkStart + CHUNK_MASK) - chunkStart);
+			if (startDay == 0 && endDay == CHUNK_MASK) {
+				total += (sumHours) ? chunkHours[slot] : chunkShifts[slot];
+			} else {
+				for (int day = startDay; day <= endDay; day++) {
+					total += (sumHours) ? days[day] : (days[day] != 0) ? 1 : 0;
+				}
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * @return the number of shifts in this calendar
+	 */
+	public int size() {
+		return shiftCount;
+	}
+
+	/**
+	 * @return true if this calendar has no shifts
+	 */
+	public boolean isEmpty() {
+		return shiftCount == 0;
+	}
+
+	/**
+	 * Pass every shift to action, in date order
+	 *
+	 * @param action
+	 */
+	public void forEach(ShiftConsumer action) {
+		for (int slot = 0; slot < chunks.length; slot++) {
+			if (chunkShifts[slot] == 0) {
+				continue;
+			}
+			long chunkStart = (firstChunk + slot) << CHUNK_SHIFT;
+			byte[] days = chunks[slot];
+			for (int day = 0; day < CHUNK_DAYS; day++) {
+				if (days[day] != 0) {
+					action.accept(chunkStart + day, days[day]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the epoch day of every shift in this calendar, in date order
+	 */
+	public long[] epochDays() {
+		long[] epochDays = new long[shiftCount];
+		int[] next = { 0 };
+		forEach((epochDay, hours) -> epochDays[next[0]++] = epochDay);
+		return epochDays;
+	}
+
+	/**
+	 * @return a copy of this calendar
+	 */
+	public ShiftCalendar copy() {
+		ShiftCalendar copy = new ShiftCalendar();
+		copy.firstChunk = firstChunk;
+		copy.chunks = new byte[chunks.length][];
+		for (int slot = 0; slot < chunks.length; slot++) {
+			copy.chunks[slot] = (chunks[slot] == null) ? null : chunks[slot].clone();
+		}
+		copy.chunkHours = chunkHours.clone();
+		copy.chunkShifts = chunkShifts.clone();
+		copy.shiftCount = shiftCount;
+		return copy;
+	}
+
+	/**
+	 * @return every shift in this calendar as a {@code Hashtable} of date to hours worked
+	 */
+	public Hashtable<LocalDate, Integer> toHashtable() {
+		Hashtable<LocalDate, Integer> shifts = new Hashtable<LocalDate, Integer>(Math.max(11, shiftCount * 4 / 3 + 1));
+		forEach((epochDay, hours) -> shifts.put(LocalDate.ofEpochDay(epochDay), hours));
+		return shifts;
+	}
+
+	//**************************************************************\
+	//																*
+	//		Chunk Management										*
+	//																*
+	//**************************************************************/
+
+	/**
+	 * @param chunk a chunk index
+	 * @return the slot in {@code chunks} holding chunk, or -1 if chunk is outside the allocated range
+	 */
+	private int existingSlot(long chunk) {
+		long slot = chunk - firstChunk;
+		return (slot < 0 || slot >= chunks.length || chunks[(int) slot] == null) ? -1 : (int) slot;
+	}
+
+	/**
+	 * @param chunk a chunk index
+	 * @return the slot in {@code chunks} for chunk, growing the slot arrays to cover it if necessary
+	 */
+	private int slotFor(long chunk) {
+		if (chunks.length == 0) {
+			firstChunk = chunk;
+			resize(0, 1);
+		} else if (chunk < firstChunk) {
+			long grow = firstChunk - chunk;
+			checkSpan(chunks.length + grow);
+			resize((int) grow, chunks.length + (int) grow);
+			firstChunk = chunk;
+		} else if (chunk >= firstChunk + chunks.length) {
+			long length = chunk - firstChunk + 1;
+			checkSpan(length);
+			resize(0, (int) length);
+		}
+		return (int) (chunk - firstChunk);
+	}
+
+	private static void checkSpan(long chunkCount) throws IllegalArgumentException {
+		if (chunkCount > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("ShiftCalendar cannot span " + chunkCount + " chunks of " + CHUNK_DAYS + " days");
+		}
+	}
+
+	/**
+	 * Copy the slot arrays into arrays of newLength, moving existing slots up by offset
+	 */
+	private void resize(int offset, int newLength) {
+		byte[][] newChunks = new byte[newLength][];
+		int[] newChunkHours = new int[newLength];
+		short[] newChunkShifts = new short[newLength];
+		System.arraycopy(chunks, 0, newChunks, offset, chunks.length);
+		System.arraycopy(chunkHours, 0, newChunkHours, offset, chunkHours.length);
+		System.arraycopy(chunkShifts, 0, newChunkShifts, offset, chunkShifts.length);
+		chunks = newChunks;
+		chunkHours = newChunkHours;
+		chunkShifts = newChunkShifts;
+	}
+
+	@Override
+	public int hashCode() {
+		int[] hash = { shiftCount };
+		forEach((epochDay, hours) -> hash[0] = 31 * hash[0] + Long.hashCode(epochDay) * 31 + hours);
+		return hash[0];
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ShiftCalendar)) {
+			return false;
+		}
+		ShiftCalendar other = (ShiftCalendar) obj;
+		if (shiftCount != other.shiftCount) {
+			return false;
+		}
+		boolean[] equal = { true };
+		forEach((epochDay, hours) -> equal[0] &= other.get(epochDay) == hours);
+		return equal[0];
+	}
+
+	@Override
+	public String toString() {
+		return "ShiftCalendar [shifts=" + shiftCount + " chunks=" + chunks.length + " chunkDays=" + CHUNK_DAYS + "]";
+	}
+}
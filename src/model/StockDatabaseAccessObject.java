@@ -0,0 +1,604 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+import log.LogLevel;
+import log.Logger;
+import model.ModelEnums.Categories;
+import model.ModelEnums.CategoryFloorItem;
+import model.ModelEnums.CategoryLiquidFuel;
+import model.ModelEnums.CategorySolidFuel;
+import model.ModelEnums.StorageTemp;
+import model.StockItemModel.AbstractStockItem;
+import model.StockItemModel.StockFloorItem;
+import model.StockItemModel.StockLiquidFuel;
+import model.StockItemModel.StockSolidFuel;
+
+/**
+ * This StockDatabaseAccessObject persists the stock catalogue to the ShopSystem sqlite3 database, alongside the {@link DatabaseAccessObject}. Every
+ * kind of stock item is held in a single table, so the whole catalogue is loaded in one query. Columns that do not apply to an item's type are null.
+ * The high-water mark of each ID sequence reserved by a {@link StockIDAllocator} is held in the {@code id_allocator} table. Both tables are created
+ * on construction if they do not exist.<br>
+ * While open, a StockDatabaseAccessObject installs an allocator reserving from its stock ID sequence with
+ * {@link StockItemModel#setIDAllocator(StockIDAllocator)}, so new stock items are never given the uniqueID of an item already stored, even after a
+ * restart. Closing it restores the allocator it replaced, so StockDatabaseAccessObjects sharing a JVM should be closed in the reverse order they
+ * were opened.<br>
+ * Enums are stored by name, and {@code ageRestricted} as 0 or 1.
+ *
+ * <pre>
+ * CREATE TABLE stock (
+ * 	uniqueID TEXT,
+ * 	type TEXT NOT NULL,
+ * 	name TEXT NOT NULL,
+ * 	ageRestricted INTEGER NOT NULL,
+ * 	priceInPence INTEGER NOT NULL,
+ * 	storageTemp TEXT NOT NULL,
+ * 	category TEXT NOT NULL,
+ * 	volumeInMillilitres INTEGER,
+ * 	weightInGrams INTEGER,
+ * 	unitsInStock INTEGER,
+ * 	PRIMARY KEY (uniqueID)
+ * );
+ * CREATE TABLE id_allocator (
+ * 	name TEXT,
+ * 	highWaterMark INTEGER NOT NULL,
+ * 	PRIMARY KEY (name)
+ * );
+ * </pre>
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class StockDatabaseAccessObject implements AutoCloseable {
+
+	/**
+	 * All connections are borrowed from, and returned to, this pool
+	 */
+	private final ConnectionPool pool;
+	/**
+	 * All Stock classes
+	 */
+	private final StockItemModel MODEL;
+	/**
+	 * The allocator installed while this object is open, and the allocator it replaced
+	 */
+	private final StockIDAllocator idAllocator;
+	private final StockIDAllocator replacedIDAllocator;
+
+	/**
+	 * Rows per JDBC batch in bulk operations
+	 */
+	private static final int BULK_BATCH_SIZE = 500;
+	/**
+	 * Rows fetched from the database at a time when loading the catalogue
+	 */
+	private static final int LOAD_FETCH_SIZE = 1_000;
+
+	private static final String SQL_CREATE_STOCK_TABLE = "CREATE TABLE IF NOT EXISTS stock (uniqueID TEXT, type TEXT NOT NULL, name TEXT NOT NULL, "
+			+ "ageRestricted INTEGER NOT NULL, priceInPence INTEGER NOT NULL, storageTemp TEXT NOT NULL, category TEXT NOT NULL, "
+			+ "volumeInMillilitres INTEGER, weightInGrams INTEGER, unitsInStock INTEGER, PRIMARY KEY (uniqueID));";
+	private static final String SQL_CREATE_ID_ALLOCATOR_TABLE = "CREATE TABLE IF NOT EXISTS id_allocator (name TEXT, highWaterMark INTEGER NOT NULL, "
+			+ "PRIMARY KEY (name));";
+	// the stock sequence starts above every uniqueID already stored, so a catalogue saved before the sequence existed is never reissued
+	private static final String SQL_INIT_STOCK_ID_SEQUENCE = "INSERT OR IGNORE INTO id_allocator (name, highWaterMark) "
+			+ "SELECT ?, IFNULL(MAX(CAST(uniqueID AS INTEGER)), 0) FROM stock;";
+	private static final String SQL_RAISE_HIGH_WATER_MARK = "UPDATE id_allocator SET highWaterMark=highWaterMark+? WHERE name=?;";
+	private static final String SQL_GET_HIGH_WATER_MARK = "SELECT highWaterMark FROM id_allocator WHERE name=?;";
+	private static final String STOCK_ID_SEQUENCE = "stock";
+	private static final String SQL_GET_STOCK = "SELECT uniqueID, type, name, ageRestricted, priceInPence, storageTemp, category, volumeInMillilitres, "
+			+ "weightInGrams, unitsInStock FROM stock;";
+	private static final String SQL_GET_STOCK_ITEM = "SELECT uniqueID, type, name, ageRestricted, priceInPence, storageTemp, category, "
+			+ "volumeInMillilitres, weightInGrams, unitsInStock FROM stock WHERE uniqueID=?;";
+	private static final String SQL_UPSERT_STOCK = "INSERT INTO stock (uniqueID,type,name,ageRestricted,priceInPence,storageTemp,category,"
+			+ "volumeInMillilitres,weightInGrams,unitsInStock) VALUES (?,?,?,?,?,?,?,?,?,?) ON CONFLICT (uniqueID) DO UPDATE SET type=excluded.type, "
+			+ "name=excluded.name, ageRestricted=excluded.ageRestricted, priceInPence=excluded.priceInPence, storageTemp=excluded.storageTemp, "
+			+ "category=excluded.category, volumeInMillilitres=excluded.volumeInMillilitres, weightInGrams=excluded.weightInGrams, "
+			+ "unitsInStock=excluded.unitsInStock;";
+	private static final String SQL_UPDATE_STOCK_LEVEL = "UPDATE stock SET volumeInMillilitres=?, unitsInStock=? WHERE uniqueID=?;";
+	// only the level column of the item's type is non-null, and NULL plus a change stays NULL, so floor items never match
+	private static final String SQL_ADJUST_STOCK_LEVEL = "UPDATE stock SET volumeInMillilitres=volumeInMillilitres+?, unitsInStock=unitsInStock+? "
+			+ "WHERE uniqueID=? AND IFNULL(volumeInMillilitres, unitsInStock)+? BETWEEN 0 AND " + Integer.MAX_VALUE + ";";
+	private static final String SQL_DELETE_STOCK_ITEM = "DELETE FROM stock WHERE uniqueID=?;";
+
+	/**
+	 * Construct a StockDatabaseAccessObject
+	 *
+	 * @param databaseRelativeFilepath the relative filepath to the sqlite3 database
+	 * @throws SQLException if the database cannot be connected to, or the stock tables cannot be created
+	 */
+	public StockDatabaseAccessObject(String databaseRelativeFilepath) throws SQLException {
+		this(databaseRelativeFilepath, ConnectionPool.DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Construct a StockDatabaseAccessObject with a connection pool of a specified size
+	 *
+	 * @param databaseRelativeFilepath the relative filepath to the sqlite3 database
+	 * @param poolSize                 the maximum number of connections held open to the database at once
+	 * @throws SQLException if the database cannot be connected to, or the stock tables cannot be created
+	 */
+	public StockDatabaseAccessObject(String databaseRelativeFilepath, int poolSize) throws SQLException {
+		MODEL = new StockItemModel();
+		pool = new ConnectionPool("jdbc:sqlite:" + databaseRelativeFilepath, poolSize);
+		pool.setPragmaProfile(PragmaProfile.INTERACTIVE);
+		try (Connection connection = pool.borrow();
+				Statement statement = connection.createStatement()) {
+			statement.executeUpdate(SQL_CREATE_STOCK_TABLE);
+			statement.executeUpdate(SQL_CREATE_ID_ALLOCATOR_TABLE);
+			Logger.logThis("StockDatabaseAccessObject connected and ensured stock tables exist (DB: " + databaseRelativeFilepath + ")");
+		} catch (SQLException createTableEx) {
+			pool.close();
+			Logger.logThis(createTableEx);
+			throw createTableEx;
+		}
+		replacedIDAllocator = StockItemModel.getIDAllocator();
+		idAllocator = newIDAllocator();
+		StockItemModel.setIDAllocator(idAllocator);
+	}
+
+	/**
+	 * Switch the sqlite3 pragma settings used by all connections, eg to {@code PragmaProfile.BULK_LOAD} for the duration of a catalogue import
+	 *
+	 * @param profile
+	 * @throws IllegalArgumentException if profile is null
+	 */
+	public void setPragmaProfile(PragmaProfile profile) throws IllegalArgumentException {
+		if (profile == null) {
+			throw new IllegalArgumentException("StockDAO: PragmaProfile cannot be null");
+		}
+		pool.setPragmaProfile(profile);
+		Logger.logThis("StockDatabaseAccessObject switched pragma profile", profile.toString());
+	}
+
+	/**
+	 * Create an allocator of stock uniqueIDs whose blocks of IDs are reserved in this database, so IDs never repeat across restarts. One is installed
+	 * with {@link StockItemModel#setIDAllocator(StockIDAllocator)} when this object is constructed. The allocator can only reserve blocks while this
+	 * object is open.
+	 *
+	 * @return the allocator
+	 */
+	public StockIDAllocator newIDAllocator() {
+		return new StockIDAllocator(this::reserveStockIDBlock, StockIDAllocator.DEFAULT_BLOCK_SIZE, StockIDAllocator.DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Reserve the next block of stock uniqueIDs by raising the stock sequence's high-water mark, in a single transaction. Another process sharing the
+	 * database reserves its blocks from the same high-water mark.
+	 *
+	 * @param blockSize the number of IDs to reserve
+	 * @return the first ID of the block
+	 * @throws IllegalStateException if the database operation fails
+	 */
+	long reserveStockIDBlock(int blockSize) throws IllegalStateException {
+		try (Connection connection = pool.borrow()) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement initStatement = connection.prepareStatement(SQL_INIT_STOCK_ID_SEQUENCE);
+					PreparedStatement raiseStatement = connection.prepareStatement(SQL_RAISE_HIGH_WATER_MARK);
+					PreparedStatement getStatement = connection.prepareStatement(SQL_GET_HIGH_WATER_MARK);) {
+				initStatement.setString(1, STOCK_ID_SEQUENCE);
+				initStatement.executeUpdate();
+				raiseStatement.setInt(1, blockSize);
+				raiseStatement.setString(2, STOCK_ID_SEQUENCE);
+				raiseStatement.executeUpdate();
+				getStatement.setString(1, STOCK_ID_SEQUENCE);
+				long highWaterMark;
+				try (ResultSet resultSet = getStatement.executeQuery()) {
+					highWaterMark = resultSet.getLong(1);
+				}
+				connection.commit();
+				Logger.logThis("Stock ID block reserved", "first: " + (highWaterMark - blockSize + 1), "last: " + highWaterMark);
+				return highWaterMark - blockSize + 1;
+			} catch (SQLException | RuntimeException reserveEx) {
+				connection.rollback();
+				throw reserveEx;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException reserveEx) {
+			Logger.logThis(reserveEx);
+			throw new IllegalStateException("StockDAO: could not reserve a block of stock IDs", reserveEx);
+		}
+	}
+
+	/**
+	 * Closes all pooled database connections, and restores the stock ID allocator this object replaced if its own is still installed, as its own can
+	 * no longer reserve IDs. Implementation of AutoCloseable interface .close() method.
+	 */
+	@Override
+	public void close() {
+		Logger.logThis("StockDatabaseAccessObject closing connection pool", pool.getStatistics().toString());
+		StockItemModel.replaceIDAllocator(idAllocator, replacedIDAllocator);
+		pool.close();
+	}
+
+	///////////////////////////////////////
+	// SELECT							//
+	/////////////////////////////////////
+
+	/**
+	 * Loads the whole stock catalogue in a single query. Rows that do not contain a valid stock item are skipped. If the database operation fails an
+	 * empty {@code ArrayList} is returned.
+	 *
+	 * @return every stock item in the database
+	 */
+	public ArrayList<AbstractStockItem> getStock() {
+		ArrayList<AbstractStockItem> stock = new ArrayList<AbstractStockItem>();
+		long start = System.nanoTime();
+		try (Connection connection = pool.borrow();
+				PreparedStatement getStockStatement = connection.prepareStatement(SQL_GET_STOCK);) {
+			getStockStatement.setFetchSize(LOAD_FETCH_SIZE);
+			try (ResultSet resultSet = getStockStatement.executeQuery()) {
+				while (resultSet.next()) {
+					try {
+						stock.add(mapStockItem(resultSet));
+					} catch (IllegalArgumentException stockReadException) {
+						System.err.println("StockDAO: stock row convertion exception " + stockReadException.getClass());
+						System.err.println(stockReadException.getMessage());
+					}
+				}
+			}
+			Logger.logThis(stock.size() + " stock items retrieved from database", "millis: " + (System.nanoTime() - start) / 1_000_000);
+		} catch (SQLException getStockEx) {
+			System.err.println("StockDAO: getStock() failed");
+			System.err.println(getStockEx.getMessage());
+			Logger.logThis(getStockEx);
+			stock.clear();
+		}
+		return stock;
+	}
+
+	/**
+	 * Get a single stock item by its uniqueID
+	 *
+	 * @param uniqueID
+	 * @return the stock item, or null if there is no such item or the database operation fails
+	 */
+	public AbstractStockItem getStockItem(String uniqueID) {
+		AbstractStockItem item = null;
+		try (Connection connection = pool.borrow();
+				PreparedStatement getStockItemStatement = connection.prepareStatement(SQL_GET_STOCK_ITEM);) {
+			getStockItemStatement.setString(1, uniqueID);
+			try (ResultSet resultSet = getStockItemStatement.executeQuery()) {
+				if (resultSet.next()) {
+					item = mapStockItem(resultSet);
+				}
+			}
+		} catch (SQLException | IllegalArgumentException getStockItemEx) {
+			System.err.println("StockDAO: getStockItem() failed");
+			System.err.println(getStockItemEx.getMessage());
+			Logger.logThis(getStockItemEx);
+		}
+		return item;
+	}
+
+	/**
+	 * Construct a stock item from the current row of a {@code SQL_GET_STOCK} result set. Columns are read by index, as this runs once per row of the
+	 * catalogue.
+	 *
+	 * @throws IllegalArgumentException if the row does not contain a valid stock item
+	 */
+	private AbstractStockItem mapStockItem(ResultSet resultSet) throws SQLException, IllegalArgumentException {
+		String uniqueID = resultSet.getString(1);
+		String name = resultSet.getString(3);
+		boolean ageRestricted = resultSet.getInt(4) != 0;
+		int priceInPence = resultSet.getInt(5);
+		StorageTemp storageTemp = StorageTemp.valueOf(resultSet.getString(6));
+		String category = resultSet.getString(7);
+		AbstractStockItem item;
+		switch (Categories.valueOf(resultSet.getString(2))) {
+		case FLOOR_ITEM:
+			item = MODEL.new StockFloorItem(uniqueID, name, ageRestricted, priceInPence, storageTemp, CategoryFloorItem.valueOf(category));
+			break;
+		case LIQUID_FUEL:
+			item = MODEL.new StockLiquidFuel(uniqueID, name, ageRestricted, priceInPence, storageTemp, CategoryLiquidFuel.valueOf(category),
+					resultSet.getInt(8));
+			break;
+		case SOLID_FUEL:
+			StockSolidFuel solidFuel = MODEL.new StockSolidFuel(uniqueID, name, ageRestricted, priceInPence, storageTemp,
+					CategorySolidFuel.valueOf(category), resultSet.getInt(9));
+			solidFuel.setUnitsInStock(resultSet.getInt(10));
+			item = solidFuel;
+			break;
+		default:
+			throw new IllegalArgumentException("StockDAO: unknown stock type " + resultSet.getString(2));
+		}
+		return item;
+	}
+
+	///////////////////////////////////////
+	// INSERT & UPDATE					//
+	/////////////////////////////////////
+
+	/**
+	 * Check every stock item in a collection is non null. Items are checked one by one rather than with {@code contains(null)}, which throws for
+	 * collections that reject null queries, such as {@code List.of()} and {@code TreeSet}.
+	 *
+	 * @param items
+	 * @throws IllegalArgumentException if items is null or contains null
+	 */
+	private static void checkItems(Collection<? extends AbstractStockItem> items) throws IllegalArgumentException {
+		if (items == null) {
+			throw new IllegalArgumentException("StockDAO: items and its stock items cannot be null");
+		}
+		for (AbstractStockItem item : items) {
+			if (item == null) {
+				throw new IllegalArgumentException("StockDAO: items and its stock items cannot be null");
+			}
+		}
+	}
+
+	/**
+	 * Imports stock items to the database in a single transaction, in JDBC batches of {@code BULK_BATCH_SIZE}. An item already in the database with
+	 * the same uniqueID is overwritten. If any item fails to import, none are imported.
+	 *
+	 * @param items the stock items to import
+	 * @return the number of items imported, or 0 if the database operation fails
+	 * @throws IllegalArgumentException if items is null or contains null
+	 */
+	public int importStock(Collection<? extends AbstractStockItem> items) throws IllegalArgumentException {
+		checkItems(items);
+		int imported = 0;
+		long start = System.nanoTime();
+		try (Connection connection = pool.borrow()) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement upsertStatement = connection.prepareStatement(SQL_UPSERT_STOCK)) {
+				int batched = 0;
+				for (AbstractStockItem item : items) {
+					bindStockItem(upsertStatement, item);
+					upsertStatement.addBatch();
+					if (++batched == BULK_BATCH_SIZE) {
+						imported += upsertStatement.executeBatch().length;
+						batched = 0;
+					}
+				}
+				if (batched > 0) {
+					imported += upsertStatement.executeBatch().length;
+				}
+				connection.commit();
+			} catch (SQLException | RuntimeException importStockEx) {
+				connection.rollback();
+				imported = 0;
+				throw importStockEx;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+			Logger.logThis("Stock imported to database", "items: " + imported, "millis: " + (System.nanoTime() - start) / 1_000_000);
+		} catch (SQLException importStockEx) {
+			System.err.println("StockDAO: importStock() failed");
+			System.err.println(importStockEx.getMessage());
+			Logger.logThis(importStockEx);
+		}
+		return imported;
+	}
+
+	/**
+	 * Writes only the stock levels ({@code volumeInMillilitres} of liquid fuel, {@code unitsInStock} of solid fuel) of stock items already in the
+	 * database, in a single transaction, in JDBC batches of {@code BULK_BATCH_SIZE}. Floor items have no stock level and are skipped. If any level
+	 * fails to save, none are saved.<br>
+	 * The levels are overwritten with the items' levels, so this is only safe with a single writer: two tills that each load, sell and save would
+	 * lose one another's sales. Record sales with {@link #adjustStockLevels(Map)} instead.
+	 *
+	 * @param items the stock items whose levels have changed
+	 * @return the number of stock items updated, or 0 if the database operation fails
+	 * @throws IllegalArgumentException if items is null or contains null
+	 */
+	public int saveStockLevels(Collection<? extends AbstractStockItem> items) throws IllegalArgumentException {
+		checkItems(items);
+		int updated = 0;
+		try (Connection connection = pool.borrow()) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement updateLevelStatement = connection.prepareStatement(SQL_UPDATE_STOCK_LEVEL)) {
+				int batched = 0;
+				for (AbstractStockItem item : items) {
+					if (item instanceof StockFloorItem) {
+						continue;
+					}
+					bindStockLevels(updateLevelStatement, item);
+					updateLevelStatement.addBatch();
+					if (++batched == BULK_BATCH_SIZE) {
+						updated += countUpdated(updateLevelStatement.executeBatch());
+						batched = 0;
+					}
+				}
+				if (batched > 0) {
+					updated += countUpdated(updateLevelStatement.executeBatch());
+				}
+				connection.commit();
+			} catch (SQLException | RuntimeException saveStockLevelsEx) {
+				connection.rollback();
+				updated = 0;
+				throw saveStockLevelsEx;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+			Logger.logThis("Stock levels saved to database", "items: " + updated);
+		} catch (SQLException saveStockLevelsEx) {
+			System.err.println("StockDAO: saveStockLevels() failed");
+			System.err.println(saveStockLevelsEx.getMessage());
+			Logger.logThis(saveStockLevelsEx);
+		}
+		return updated;
+	}
+
+	/**
+	 * Adds a change to the stock levels ({@code volumeInMillilitres} of liquid fuel, {@code unitsInStock} of solid fuel) of stock items already in the
+	 * database, in a single transaction, in JDBC batches of {@code BULK_BATCH_SIZE}. Each level is changed relative to its value in the database, so
+	 * tills or processes adjusting the same item at once never overwrite one another's changes. The items held in memory are not changed.<br>
+	 * If any item is not in the database, is a floor item, or would be left with a negative level (or one too large for an int), no levels are
+	 * changed.
+	 *
+	 * @param changesByUniqueID the change to each item's level, keyed by uniqueID; negative for a sale, positive for a delivery
+	 * @return the number of stock items updated, or 0 if any change is rejected or the database operation fails
+	 * @throws IllegalArgumentException if changesByUniqueID is null, or contains a null uniqueID or change
+	 */
+	public int adjustStockLevels(Map<String, Integer> changesByUniqueID) throws IllegalArgumentException {
+		if (changesByUniqueID == null) {
+			throw new IllegalArgumentException("StockDAO: changesByUniqueID and its uniqueIDs and changes cannot be null");
+		}
+		// checked one by one, as containsKey(null) and containsValue(null) throw for maps that cannot hold null
+		for (Map.Entry<String, Integer> change : changesByUniqueID.entrySet()) {
+			if (change.getKey() == null || change.getValue() == null) {
+				throw new IllegalArgumentException("StockDAO: changesByUniqueID and its uniqueIDs and changes cannot be null");
+			}
+		}
+		int updated = 0;
+		try (Connection connection = pool.borrow()) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement adjustLevelStatement = connection.prepareStatement(SQL_ADJUST_STOCK_LEVEL)) {
+				int batched = 0;
+				int rejected = 0;
+				for (Map.Entry<String, Integer> change : changesByUniqueID.entrySet()) {
+					adjustLevelStatement.setInt(1, change.getValue());
+					adjustLevelStatement.setInt(2, change.getValue());
+					adjustLevelStatement.setString(3, change.getKey());
+					adjustLevelStatement.setInt(4, change.getValue());
+					adjustLevelStatement.addBatch();
+					if (++batched == BULK_BATCH_SIZE) {
+						int batchUpdated = countUpdated(adjustLevelStatement.executeBatch());
+						rejected += batched - batchUpdated;
+						updated += batchUpdated;
+						batched = 0;
+					}
+				}
+				if (batched > 0) {
+					int batchUpdated = countUpdated(adjustLevelStatement.executeBatch());
+					rejected += batched - batchUpdated;
+					updated += batchUpdated;
+				}
+				if (rejected > 0) {
+					connection.rollback();
+					Logger.logThis(LogLevel.WARN, "Stock levels not adjusted", "rejected: " + rejected + " of " + changesByUniqueID.size());
+					updated = 0;
+				} else {
+					connection.commit();
+					Logger.logThis("Stock levels adjusted in database", "items: " + updated);
+				}
+			} catch (SQLException | RuntimeException adjustStockLevelsEx) {
+				connection.rollback();
+				updated = 0;
+				throw adjustStockLevelsEx;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException adjustStockLevelsEx) {
+			System.err.println("StockDAO: adjustStockLevels() failed");
+			System.err.println(adjustStockLevelsEx.getMessage());
+			Logger.logThis(adjustStockLevelsEx);
+		}
+		return updated;
+	}
+
+	/**
+	 * Deletes a stock item from the database
+	 *
+	 * @param uniqueID
+	 * @return true if the item was found and deleted
+	 */
+	public boolean deleteStockItem(String uniqueID) {
+		boolean deleted = false;
+		try (Connection connection = pool.borrow();
+				PreparedStatement deleteStatement = connection.prepareStatement(SQL_DELETE_STOCK_ITEM);) {
+			deleteStatement.setString(1, uniqueID);
+			deleted = deleteStatement.executeUpdate() > 0;
+			Logger.logThis("Stock item deleted from database", "uniqueID: " + uniqueID, "found: " + deleted);
+		} catch (SQLException deleteStockItemEx) {
+			System.err.println("StockDAO: deleteStockItem() failed");
+			System.err.println(deleteStockItemEx.getMessage());
+			Logger.logThis(deleteStockItemEx);
+		}
+		return deleted;
+	}
+
+	/**
+	 * Set the parameters of an {@code SQL_UPSERT_STOCK} statement
+	 *
+	 * @param statement
+	 * @param item
+	 * @throws SQLException
+	 */
+	private void bindStockItem(PreparedStatement statement, AbstractStockItem item) throws SQLException {
+		String category;
+		Integer weightInGrams = null;
+		if (item instanceof StockFloorItem) {
+			statement.setString(2, Categories.FLOOR_ITEM.name());
+			category = ((StockFloorItem) item).getCategory().name();
+		} else if (item instanceof StockLiquidFuel) {
+			statement.setString(2, Categories.LIQUID_FUEL.name());
+			category = ((StockLiquidFuel) item).getCategory().name();
+		} else if (item instanceof StockSolidFuel) {
+			statement.setString(2, Categories.SOLID_FUEL.name());
+			category = ((StockSolidFuel) item).getCategory().name();
+			weightInGrams = ((StockSolidFuel) item).getWeightInGrams();
+		} else {
+			throw new IllegalArgumentException("StockDAO: unknown stock type " + item.getClass().getName());
+		}
+		statement.setString(1, item.getUniqueID());
+		statement.setString(3, item.getName());
+		statement.setInt(4, item.isAgeRestricted() ? 1 : 0);
+		statement.setInt(5, item.getPriceInPence());
+		statement.setString(6, item.getStorageTemp().name());
+		statement.setString(7, category);
+		setNullableInt(statement, 8, volumeInMillilitres(item));
+		setNullableInt(statement, 9, weightInGrams);
+		setNullableInt(statement, 10, unitsInStock(item));
+	}
+
+	/**
+	 * Set the parameters of an {@code SQL_UPDATE_STOCK_LEVEL} statement
+	 *
+	 * @param statement
+	 * @param item
+	 * @throws SQLException
+	 */
+	private void bindStockLevels(PreparedStatement statement, AbstractStockItem item) throws SQLException {
+		setNullableInt(statement, 1, volumeInMillilitres(item));
+		setNullableInt(statement, 2, unitsInStock(item));
+		statement.setString(3, item.getUniqueID());
+	}
+
+	/**
+	 * @return the volumeInMillilitres of a liquid fuel, or null for any other stock item
+	 */
+	private static Integer volumeInMillilitres(AbstractStockItem item) {
+		return (item instanceof StockLiquidFuel) ? ((StockLiquidFuel) item).getVolumeInMillilitres() : null;
+	}
+
+	/**
+	 * @return the unitsInStock of a solid fuel, or null for any other stock item
+	 */
+	private static Integer unitsInStock(AbstractStockItem item) {
+		return (item instanceof StockSolidFuel) ? ((StockSolidFuel) item).getUnitsInStock() : null;
+	}
+
+	private static void setNullableInt(PreparedStatement statement, int index, Integer value) throws SQLException {
+		if (value == null) {
+			statement.setNull(index, Types.INTEGER);
+		} else {
+			statement.setInt(index, value);
+		}
+	}
+
+	/**
+	 * @return the total number of rows updated by a batch
+	 */
+	private static int countUpdated(int[] updateCounts) {
+		int updated = 0;
+		for (int updateCount : updateCounts) {
+			if (updateCount > 0) {
+				updated += updateCount;
+			}
+		}
+		return updated;
+	}
+}
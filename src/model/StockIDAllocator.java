@@ -0,0 +1,159 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates the numeric part of stock item uniqueIDs. IDs are never repeated, including across restarts when the allocator is backed by persisted
+ * storage, eg {@link StockDatabaseAccessObject#newIDAllocator()}.<br>
+ * <br>
+ * IDs are reserved from a {@link BlockReserver} a block of {@code blockSize} at a time, by raising a persisted high-water mark. Threads then take
+ * {@code chunkSize} IDs at a time from the current block with a single atomic add, and hand out the IDs of their own chunk with no shared writes at
+ * all, so concurrent allocation does not contend. Only the thread that exhausts a block takes a lock, to reserve the next one. IDs are unique but
+ * are not handed out in order across threads, and the unallocated IDs of a block or chunk are skipped after a restart.
+ *
+ * @author Peter Marley
+ * @StudentNumber 13404067
+ * @Email pmarley03@qub.ac.uk
+ * @GitHub https://github.com/PeterMarley
+ *
+ */
+public class StockIDAllocator {
+
+	/**
+	 * The largest ID that fits a 15 digit uniqueID
+	 */
+	public static final long MAX_ID = 999_999_999_999_999L;
+	public static final int DEFAULT_BLOCK_SIZE = 4_096;
+	public static final int DEFAULT_CHUNK_SIZE = 64;
+
+	private static final String ZEROES = "000000000000000";
+
+	private final BlockReserver reserver;
+	private final int blockSize;
+	private final int chunkSize;
+	private final AtomicLong blocksReserved = new AtomicLong();
+	/**
+	 * The block chunks are currently taken from. Replaced, never modified, when exhausted
+	 */
+	private volatile Block block = new Block(1, 1);
+	/**
+	 * The next ID and end (exclusive) of each thread's chunk
+	 */
+	private final ThreadLocal<long[]> chunk = ThreadLocal.withInitial(() -> new long[2]);
+
+	/**
+	 * Reserves a block of IDs, eg by raising a persisted high-water mark
+	 */
+	@FunctionalInterface
+	public interface BlockReserver {
+		/**
+		 * Reserve the next {@code blockSize} IDs. No ID of the block may be reserved again, including after a restart.
+		 *
+		 * @param blockSize
+		 * @return the first ID of the block, 1 or greater
+		 * @throws IllegalStateException if the block cannot be reserved
+		 */
+		long reserve(int blockSize) throws IllegalStateException;
+	}
+
+	/**
+	 * Construct a StockIDAllocator with IDs reserved in memory, counting from 1. IDs are unique for the life of the JVM only.
+	 */
+	public StockIDAllocator() {
+		this(inMemoryReserver(), DEFAULT_BLOCK_SIZE, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Fully parameterised constructor for a StockIDAllocator. No block is reserved until the first ID is allocated.
+	 *
+	 * @param reserver  reserves each block of IDs
+	 * @param blockSize the number of IDs reserved from {@code reserver} at a time
+	 * @param chunkSize the number of IDs each thread takes from the current block at a time
+	 * @throws IllegalArgumentException if reserver is null, blockSize or chunkSize is less than 1, or chunkSize is greater than blockSize
+	 */
+	public StockIDAllocator(BlockReserver reserver, int blockSize, int chunkSize) throws IllegalArgumentException {
+		if (reserver == null) {
+			throw new IllegalArgumentException("StockIDAllocator reserver cannot be null");
+		}
+		if (blockSize < 1 || chunkSize < 1 || chunkSize > blockSize) {
+			throw new IllegalArgumentException("StockIDAllocator sizes invalid [blockSize=" + blockSize + " chunkSize=" + chunkSize + "]");
+		}
+		this.reserver = reserver;
+		this.blockSize = blockSize;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return a new ID, never returned before
+	 * @throws IllegalStateException if a block of IDs cannot be reserved, or every ID up to {@code MAX_ID} has been allocated
+	 */
+	public long nextID() throws IllegalStateException {
+		long[] local = chunk.get();
+		if (local[0] < local[1]) {
+			return local[0]++;
+		}
+		while (true) {
+			Block current = block;
+			long start = current.next.getAndAdd(chunkSize);
+			if (start < current.end) {
+				local[0] = start + 1;
+				local[1] = Math.min(start + chunkSize, current.end);
+				return start;
+			}
+			reserveBlock(current);
+		}
+	}
+
+	/**
+	 * @return a new 15 digit uniqueID, eg "000000000000042", never returned before
+	 * @throws IllegalStateException if a block of IDs cannot be reserved, or every ID up to {@code MAX_ID} has been allocated
+	 */
+	public String nextUniqueID() throws IllegalStateException {
+		String digits = Long.toString(nextID());
+		return ZEROES.substring(digits.length()) + digits;
+	}
+
+	/**
+	 * @return the number of blocks reserved from the BlockReserver
+	 */
+	public long getBlocksReserved() {
+		return blocksReserved.get();
+	}
+
+	/**
+	 * @return a BlockReserver counting from 1 in memory
+	 */
+	private static BlockReserver inMemoryReserver() {
+		AtomicLong highWaterMark = new AtomicLong();
+		return blockSize -> highWaterMark.getAndAdd(blockSize) + 1;
+	}
+
+	/**
+	 * Replace an exhausted block with a newly reserved one, unless another thread already has
+	 */
+	private synchronized void reserveBlock(Block exhausted) throws IllegalStateException {
+		if (block != exhausted) {
+			return;
+		}
+		long start = reserver.reserve(blockSize);
+		if (start < 1 || start > MAX_ID - blockSize + 1) {
+			throw new IllegalStateException("StockIDAllocator cannot allocate IDs from " + start + ", IDs must be between 1 and " + MAX_ID);
+		}
+		block = new Block(start, start + blockSize);
+		blocksReserved.incrementAndGet();
+	}
+
+	/**
+	 * A reserved range of IDs, {@code [next, end)}
+	 */
+	private static class Block {
+
+		private final AtomicLong next;
+		private final long end;
+
+		private Block(long start, long end) {
+			this.next = new AtomicLong(start);
+			this.end = end;
+		}
+	}
+}
@@ -2,6 +2,7 @@ package model;
 
 import java.time.LocalDateTime;
 import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import model.ModelEnums.CategoryFloorItem;
 import model.ModelEnums.CategoryLiquidFuel;
@@ -11,7 +12,46 @@ import model.ModelEnums.StorageTemp;
 
 public class StockItemModel {
 
-	private static int uniqueIDSeed = 0;
+	/**
+	 * Allocates the uniqueID of every new stock item
+	 */
+	private static volatile StockIDAllocator idAllocator = new StockIDAllocator();
+
+	/**
+	 * Set the allocator of new stock item uniqueIDs. The default allocator only guarantees IDs are unique for the life of the JVM, so opening a
+	 * {@link StockDatabaseAccessObject} installs an allocator persisted in its database, whose IDs never repeat across restarts.
+	 * 
+	 * @param allocator
+	 * @throws IllegalArgumentException if allocator is null
+	 */
+	public static synchronized void setIDAllocator(StockIDAllocator allocator) throws IllegalArgumentException {
+		if (allocator == null) {
+			throw new IllegalArgumentException("StockItemModel idAllocator cannot be null");
+		}
+		idAllocator = allocator;
+	}
+
+	/**
+	 * Replace the allocator of new stock item uniqueIDs, only if {@code expected} is still installed
+	 * 
+	 * @param expected
+	 * @param replacement
+	 * @return true if the allocator was replaced
+	 */
+	static synchronized boolean replaceIDAllocator(StockIDAllocator expected, StockIDAllocator replacement) {
+		if (idAllocator != expected) {
+			return false;
+		}
+		idAllocator = replacement;
+		return true;
+	}
+
+	/**
+	 * @return the allocator of new stock item uniqueIDs
+	 */
+	public static StockIDAllocator getIDAllocator() {
+		return idAllocator;
+	}
 
 	/**
 	 * The abstract superclass for all Stock objects
@@ -23,7 +63,7 @@ public class StockItemModel {
 		private String name;
 		private String uniqueID;
 		private boolean ageRestricted;
-		private Hashtable<LocalDateTime, Integer> sellHistory;
+		private SellHistory sellHistory;
 		private int priceInPence;
 		//private Supplier supplier;
 		private StorageTemp storageTemp;
@@ -37,19 +77,30 @@ public class StockItemModel {
 		 * @param storageTemp
 		 */
 		public AbstractStockItem(String name, boolean ageRestricted, int priceInPence, StorageTemp storageTemp) {
-			this.setName(name);
-			this.setAgeRestricted(ageRestricted);
-			this.setPriceInPence(priceInPence);
-			this.setStorageTemp(storageTemp);
-			this.sellHistory = new Hashtable<LocalDateTime, Integer>();
-			this.setUniqueID();
+			this(null, name, ageRestricted, priceInPence, storageTemp);
 		}
 
 		/**
-		 * @return the uniqueIDSeed. Visibility is package-protected as this method is intended for use in unit testing only
+		 * Fully parameterised constructor for this StockItem object, with a uniqueID previously allocated to it. Visibility is package-protected as this
+		 * constructor is intended for use by the stock database access object only.
+		 * 
+		 * @param uniqueID the uniqueID, or null to allocate a new one
+		 * @param name
+		 * @param ageRestricted
+		 * @param priceInPence
+		 * @param storageTemp
 		 */
-		int getUniqueIDSeed() {
-			return uniqueIDSeed;
+		AbstractStockItem(String uniqueID, String name, boolean ageRestricted, int priceInPence, StorageTemp storageTemp) {
+			this.setName(name);
+			this.setAgeRestricted(ageRestricted);
+			this.setPriceInPence(priceInPence);
+			this.setStorageTemp(storageTemp);
+			this.sellHistory = new SellHistory();
+			if (uniqueID == null) {
+				this.setUniqueID();
+			} else {
+				this.setUniqueID(uniqueID);
+			}
 		}
 
 		/**
@@ -119,12 +170,24 @@ public class StockItemModel {
 		}
 
 		/**
-		 * Generates a unique 15 character identifier for this item base on the prefix incremented {@code uniqueIDSeed} field, and sets the {@code uniqueID}
-		 * field to this
-		 * value. Eg, "123456789123456". This identifier is intended to be immutable and unchanging. A confidently unique permanent identifier.
+		 * Allocates a unique 15 character identifier for this item from the {@code idAllocator}, and sets the {@code uniqueID} field to this value. Eg,
+		 * "123456789123456". This identifier is intended to be immutable and unchanging. A confidently unique permanent identifier.
 		 */
 		private void setUniqueID() {
-			this.uniqueID = String.format("%015d", ++uniqueIDSeed);
+			this.uniqueID = idAllocator.nextUniqueID();
+		}
+
+		/**
+		 * Sets the {@code uniqueID} field to an identifier previously allocated to this item
+		 *
+		 * @param uniqueID a 15 digit identifier
+		 * @throws IllegalArgumentException if uniqueID is not 15 digits
+		 */
+		private void setUniqueID(String uniqueID) throws IllegalArgumentException {
+			if (uniqueID == null || uniqueID.length() != 15 || !uniqueID.chars().allMatch(Character::isDigit)) {
+				throw new IllegalArgumentException("StockItem uniqueID must be 15 digits but was " + uniqueID);
+			}
+			this.uniqueID = uniqueID;
 		}
 
 		/**
@@ -144,15 +207,26 @@ public class StockItemModel {
 		/**
 		 * @return the sellHistory
 		 */
-		public Hashtable<LocalDateTime, Integer> getSellHistory() {
+		public SellHistory getSellHistory() {
 			return sellHistory;
 		}
 
+		/**
+		 * Record a sale of this StockItem
+		 * 
+		 * @param time
+		 * @param quantity the number of units sold, 1 or greater
+		 * @throws IllegalArgumentException if time is null or quantity is less than 1
+		 */
+		public void recordSale(LocalDateTime time, int quantity) throws IllegalArgumentException {
+			sellHistory.record(time, quantity);
+		}
+
 		/**
 		 * @param sellHistory the sellHistory to set
 		 * @throws IllegalArgumentException if sellHistory parameter is null or empty (specifically is of size 0)
 		 */
-		public void setSellHistory(Hashtable<LocalDateTime, Integer> sellHistory) throws IllegalArgumentException {
+		public void setSellHistory(SellHistory sellHistory) throws IllegalArgumentException {
 			if (sellHistory != null && sellHistory.size() > 0) {
 				this.sellHistory = sellHistory;
 			} else if (sellHistory == null) {
@@ -162,6 +236,20 @@ public class StockItemModel {
 			}
 		}
 
+		/**
+		 * @param sellHistory the sellHistory to set, as a Map of sale time to quantity
+		 * @throws IllegalArgumentException if sellHistory parameter is null or empty (specifically is of size 0), or contains an invalid sale
+		 */
+		public void setSellHistory(Hashtable<LocalDateTime, Integer> sellHistory) throws IllegalArgumentException {
+			if (sellHistory != null && sellHistory.size() > 0) {
+				this.sellHistory = new SellHistory(sellHistory);
+			} else if (sellHistory == null) {
+				throw new IllegalArgumentException(Messages.STOCK_SET_SELLHISTORY_NULL.get());
+			} else {
+				throw new IllegalArgumentException(Messages.STOCK_SET_SELLHISTORY_EMPTY.get());
+			}
+		}
+
 		/**
 		 * @return the priceInPence
 		 */
@@ -220,7 +308,14 @@ public class StockItemModel {
 		 * @param category
 		 */
 		public StockFloorItem(String name, boolean ageRestricted, int priceInPence, StorageTemp storageTemp, CategoryFloorItem category) {
-			super(name, ageRestricted, priceInPence, storageTemp);
+			this(null, name, ageRestricted, priceInPence, storageTemp, category);
+		}
+
+		/**
+		 * Fully parameterised constructor for a FloorItem object with a previously allocated uniqueID, or null to allocate a new one
+		 */
+		StockFloorItem(String uniqueID, String name, boolean ageRestricted, int priceInPence, StorageTemp storageTemp, CategoryFloorItem category) {
+			super(uniqueID, name, ageRestricted, priceInPence, storageTemp);
 			this.setCategory(category);
 		}
 
@@ -254,10 +349,21 @@ public class StockItemModel {
 	public class StockLiquidFuel extends AbstractStockItem {
 
 		private CategoryLiquidFuel category;
-		private int volumeInMillilitres;
+		/**
+		 * Volatile so live tank levels written by the pump telemetry ingest thread are seen by every reader
+		 */
+		private volatile int volumeInMillilitres;
 
 		public StockLiquidFuel(String name, boolean ageRestricted, int priceInPence, StorageTemp storageTemp, CategoryLiquidFuel category, int volumeInMillilitres) {
-			super(name, ageRestricted, priceInPence, storageTemp);
+			this(null, name, ageRestricted, priceInPence, storageTemp, category, volumeInMillilitres);
+		}
+
+		/**
+		 * Fully parameterised constructor for a LiquidFuelItem object with a previously allocated uniqueID, or null to allocate a new one
+		 */
+		StockLiquidFuel(String uniqueID, String name, boolean ageRestricted, int priceInPence, StorageTemp storageTemp, CategoryLiquidFuel category,
+				int volumeInMillilitres) {
+			super(uniqueID, name, ageRestricted, priceInPence, storageTemp);
 			this.setCategory(category);
 			this.setVolumeInMillilitres(volumeInMillilitres);
 		}
@@ -314,7 +420,10 @@ public class StockItemModel {
 	public class StockSolidFuel extends AbstractStockItem {
 
 		private CategorySolidFuel category;
-		private int unitsInStock;
+		/**
+		 * Updated only by compare-and-set, so concurrent tills never oversell or lose an update
+		 */
+		private final AtomicInteger unitsInStock = new AtomicInteger();
 		private int weightInGrams;
 
 		/**
@@ -328,7 +437,15 @@ public class StockItemModel {
 		 * @param weightInGrams
 		 */
 		public StockSolidFuel(String name, boolean ageRestricted, int priceInPence, StorageTemp storageTemp, CategorySolidFuel category, int weightInGrams) {
-			super(name, ageRestricted, priceInPence, storageTemp);
+			this(null, name, ageRestricted, priceInPence, storageTemp, category, weightInGrams);
+		}
+
+		/**
+		 * Fully parameterised constructor for a SolidFuelItem object with a previously allocated uniqueID, or null to allocate a new one
+		 */
+		StockSolidFuel(String uniqueID, String name, boolean ageRestricted, int priceInPence, StorageTemp storageTemp, CategorySolidFuel category,
+				int weightInGrams) {
+			super(uniqueID, name, ageRestricted, priceInPence, storageTemp);
 			this.setCategory(category);
 			this.setUnitsInStock(0);
 			this.setWeightInGrams(weightInGrams);
@@ -357,7 +474,7 @@ public class StockItemModel {
 		 * @return the unitsInStock
 		 */
 		public int getUnitsInStock() {
-			return unitsInStock;
+			return unitsInStock.get();
 		}
 
 		/**
@@ -366,40 +483,80 @@ public class StockItemModel {
 		 */
 		public void setUnitsInStock(int unitsInStock) throws IllegalArgumentException {
 			if (unitsInStock >= 0) {
-				this.unitsInStock = unitsInStock;
+				this.unitsInStock.set(unitsInStock);
 			} else {
 				throw new IllegalArgumentException("SolidFuelItem unitsInStock cannot be less than 0 but was " + unitsInStock);
 			}
 		}
 
 		/**
-		 * Adds a specified number of units to {@code unitsInStock}
+		 * Atomically adds a specified number of units to {@code unitsInStock}
 		 * 
 		 * @param unitsToAdd
-		 * @throws IllegalArgumentException if unitsToAdd is 0 or less
+		 * @throws IllegalArgumentException if unitsToAdd is 0 or less, or if the {@code unitsInStock} would exceed {@code Integer.MAX_VALUE}
 		 */
 		public void addUnitsInStock(int unitsToAdd) throws IllegalArgumentException {
-			if (unitsToAdd > 0) {
-				this.setUnitsInStock(this.getUnitsInStock() + unitsToAdd);
-			} else {
+			if (unitsToAdd <= 0) {
 				throw new IllegalArgumentException("SolidFuelItem unitsToAdd must be greater than 0 but was " + unitsToAdd);
 			}
+			int current;
+			do {
+				current = unitsInStock.get();
+				if (current > Integer.MAX_VALUE - unitsToAdd) {
+					throw new IllegalArgumentException("SolidFuelItem unitsInStock cannot exceed " + Integer.MAX_VALUE + " but was " + current
+							+ " with " + unitsToAdd + " to add");
+				}
+			} while (!unitsInStock.compareAndSet(current, current + unitsToAdd));
 		}
 
 		/**
-		 * Removes a specified number of units from {@code unitsInStock}
+		 * Atomically removes a specified number of units from {@code unitsInStock}
 		 * 
 		 * @param unitsToRemove
 		 * @throws IllegalArgumentException if units to remove is 0 or less, or if the {@code unitsInStock} would be reduced to less than 0
+		 * @see #tryRemoveUnitsInStock(int)
 		 */
 		public void removeUnitsInStock(int unitsToRemove) throws IllegalArgumentException {
-			if (unitsToRemove > 0 && this.getUnitsInStock() - unitsToRemove >= 0) {
-				this.setUnitsInStock(this.getUnitsInStock() - unitsToRemove);
-			} else if (unitsToRemove <= 0) {
+			if (unitsToRemove <= 0) {
 				throw new IllegalArgumentException("SolidFuelItem unitsToRemove must be greater than 0 but was " + unitsToRemove);
-			} else {
-				throw new IllegalArgumentException("SolidFuelItem unitsInStock cannot be reduced below 0 but was attempted to be reduced to " + (this.getUnitsInStock() - unitsToRemove));
 			}
+			int remaining = removeIfAvailable(unitsToRemove);
+			if (remaining < 0) {
+				throw new IllegalArgumentException("SolidFuelItem unitsInStock cannot be reduced below 0 but was attempted to be reduced to " + remaining);
+			}
+		}
+
+		/**
+		 * Atomically removes a specified number of units from {@code unitsInStock} if that many are in stock, eg when a till sells the last bags. If
+		 * several tills try to sell the last bag at once, exactly one succeeds.
+		 * 
+		 * @param unitsToRemove
+		 * @return true if the units were removed, false if fewer than {@code unitsToRemove} were in stock, in which case none are removed
+		 * @throws IllegalArgumentException if unitsToRemove is 0 or less
+		 */
+		public boolean tryRemoveUnitsInStock(int unitsToRemove) throws IllegalArgumentException {
+			if (unitsToRemove <= 0) {
+				throw new IllegalArgumentException("SolidFuelItem unitsToRemove must be greater than 0 but was " + unitsToRemove);
+			}
+			return removeIfAvailable(unitsToRemove) >= 0;
+		}
+
+		/**
+		 * Compare-and-set loop removing unitsToRemove, unless that would take {@code unitsInStock} below 0
+		 * 
+		 * @return the units remaining after removal, or if too few were in stock the negative units that would have remained
+		 */
+		private int removeIfAvailable(int unitsToRemove) {
+			int current;
+			int remaining;
+			do {
+				current = unitsInStock.get();
+				remaining = current - unitsToRemove;
+				if (remaining < 0) {
+					return remaining;
+				}
+			} while (!unitsInStock.compareAndSet(current, remaining));
+			return remaining;
 		}
 
 		/**
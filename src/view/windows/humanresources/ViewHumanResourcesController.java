@@ -5,14 +5,15 @@ import java.io.IOException;
 import controller.MainController;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.SelectionMode;
 import javafx.scene.control.TableColumn;
-import javafx.scene.control.TableColumn.SortType;
 import javafx.scene.control.TableView.TableViewSelectionModel;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -60,11 +61,19 @@ public class ViewHumanResourcesController {
 	@FXML
 	private TableColumn<Person, String> personEndDate;
 
+	// Employee Table paging
+	private static final int EMPLOYEE_PAGE_SIZE = 100;
+	private final ObservableList<Employee> employeeRows = FXCollections.observableArrayList();
+	private boolean employeeRowsExhausted;
+	private boolean employeePageLoading;
+	private int employeeRowsGeneration;
+
 	@FXML
 	public void initialize() {
 		TableViewSelectionModel<Employee> s = tableEmployee.getSelectionModel();
 		s.setSelectionMode(SelectionMode.SINGLE);
 		tableEmployee.setSelectionModel(s);
+		tableEmployee.skinProperty().addListener((observable, oldSkin, newSkin) -> loadEmployeePagesOnScroll());
 		fillTableViewEmployees(null);
 	}
 
@@ -75,7 +84,11 @@ public class ViewHumanResourcesController {
 	//**************************************************************/
 	
 	/**
-	 * Draw employee data from database and display in TableView
+	 * Draw the first page of employee data from database and display in TableView. Further pages are drawn as the user scrolls to the bottom of the
+	 * TableView.<br>
+	 * <br>
+	 * Pages are read in {@code (surname, personID)} order, each following the last employee displayed, so the columns cannot be sorted: a page
+	 * appended to a table sorted any other way would land among the rows already displayed rather than below them.
 	 * 
 	 * @param e
 	 */
@@ -91,18 +104,60 @@ public class ViewHumanResourcesController {
 		employeeStartDate.setCellValueFactory(new PropertyValueFactory<>("StartDateAsString"));
 		employeeEndDate.setCellValueFactory(new PropertyValueFactory<>("EndDateAsString"));
 
-		employeeSurname.setSortType(SortType.ASCENDING);
+		for (TableColumn<Employee, ?> column : tableEmployee.getColumns()) {
+			column.setSortable(false);
+		}
 
-		tableEmployee.getSortOrder().setAll(employeeSurname);
-		SortedList<Employee> employeesModelSorted = new SortedList<>(FXCollections.observableArrayList(MainController.getEmployeesFromDatabase()));
-		employeesModelSorted.comparatorProperty().bind(tableEmployee.comparatorProperty());
-		//		for (Employee em : employeesModelSorted) {
-		//			System.out.println(em.toString());
-		//		}
-		tableEmployee.setItems(employeesModelSorted);
+		employeeRows.clear();
+		employeeRowsExhausted = false;
+		employeePageLoading = false;
+		employeeRowsGeneration++;
+		loadNextEmployeePage();
+		tableEmployee.setItems(employeeRows);
 		tableEmployee.refresh();
 	}
 
+	/**
+	 * Draw the next page of employee data from database, following the last employee already displayed, and append it to the TableView when it
+	 * arrives. Only one page is requested at a time, and a page requested before the TableView was last refreshed is discarded. If the page cannot
+	 * be read an alert is displayed, and the page is requested again the next time the user scrolls to the bottom or refreshes.
+	 */
+	private void loadNextEmployeePage() {
+		if (!employeeRowsExhausted && !employeePageLoading) {
+			employeePageLoading = true;
+			int generation = employeeRowsGeneration;
+			Employee lastEmployee = (employeeRows.isEmpty()) ? null : employeeRows.get(employeeRows.size() - 1);
+			MainController.getEmployeesPageFromDatabase(lastEmployee, EMPLOYEE_PAGE_SIZE, page -> {
+				if (generation == employeeRowsGeneration) {
+					employeePageLoading = false;
+					if (page == null) {
+						alertEmployeePageFailed("Employees could not be read from the database. Scroll to the bottom or refresh to try again.");
+					} else {
+						employeeRowsExhausted = page.size() < EMPLOYEE_PAGE_SIZE;
+						employeeRows.addAll(page);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Listen to the TableView's vertical ScrollBar, and draw the next page of employees whenever it reaches the bottom. The ScrollBar only exists once
+	 * the TableView has a skin.
+	 */
+	private void loadEmployeePagesOnScroll() {
+		for (Node node : tableEmployee.lookupAll(".scroll-bar")) {
+			if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+				ScrollBar verticalBar = (ScrollBar) node;
+				verticalBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+					if (newValue.doubleValue() >= verticalBar.getMax()) {
+						loadNextEmployeePage();
+					}
+				});
+			}
+		}
+	}
+
 	/**
 	 * Open the Add Employee window
 	 */
@@ -156,6 +211,12 @@ public class ViewHumanResourcesController {
 		alert.setContentText(alertText);
 		alert.show();
 	}
+
+	private void alertEmployeePageFailed(String alertText) {
+		Alert alert = new Alert(AlertType.ERROR);
+		alert.setContentText(alertText);
+		alert.show();
+	}
 	
 	//**************************************************************\
 	//																*